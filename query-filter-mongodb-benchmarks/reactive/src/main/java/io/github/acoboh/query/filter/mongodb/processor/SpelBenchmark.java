@@ -0,0 +1,94 @@
+package io.github.acoboh.query.filter.mongodb.processor;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import io.github.acoboh.query.filter.mongodb.domain.PostBlogSpelFilterDef;
+import io.github.acoboh.query.filter.mongodb.exceptions.definition.QueryFilterDefinitionException;
+import io.github.acoboh.query.filter.mongodb.model.PostBlogDocument;
+import io.github.acoboh.query.filter.mongodb.spel.SpelResolverInterface;
+
+/**
+ * SpEL evaluation of filter fields with default SpEL expressions.
+ * <p>
+ * The context of SpEL has <code>spelFields</code> values, like the context
+ * filled by the previous parts of a filter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SpelBenchmark {
+
+	private static final String EXPRESSION = "#likes * 100";
+
+	@Param({ "1", "8", "32" })
+	private int spelFields;
+
+	private GenericApplicationContext context;
+
+	private SpelResolverInterface spelResolver;
+
+	private MultiValueMap<String, Object> contextValues;
+
+	private QueryFilter<PostBlogDocument> queryFilter;
+
+	@Setup
+	public void setup() throws QueryFilterDefinitionException {
+		context = BenchmarkContext.create();
+		spelResolver = context.getBean(SpelResolverInterface.class);
+
+		contextValues = new LinkedMultiValueMap<>();
+		contextValues.add("likes", 5);
+		for (int i = 1; i < spelFields; i++) {
+			contextValues.add("field" + i, i);
+		}
+
+		var processor = new QFProcessor<>(PostBlogSpelFilterDef.class, PostBlogDocument.class, context);
+		queryFilter = processor.newQueryFilter("likes=eq:5", QFParamType.RHS_COLON);
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	/**
+	 * Evaluation of an expression through the resolver
+	 *
+	 * @return evaluated value
+	 */
+	@Benchmark
+	public Object evaluate() {
+		return spelResolver.evaluate(EXPRESSION, contextValues, false).block();
+	}
+
+	/**
+	 * Criteria of a filter with one SpEL field
+	 *
+	 * @return criteria
+	 */
+	@Benchmark
+	public Criteria toCriteria() {
+		return queryFilter.toCriteria().block();
+	}
+
+}
@@ -0,0 +1,76 @@
+package io.github.acoboh.query.filter.mongodb.processor;
+
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+
+import io.github.acoboh.query.filter.mongodb.spel.SpelResolverBeanConfig;
+
+/**
+ * Minimal application context of the benchmarks.
+ * <p>
+ * It only contains the SpEL resolver and a {@link MongoTemplate}. The template
+ * is never used to execute queries, so no MongoDB server is needed.
+ */
+final class BenchmarkContext {
+
+	private BenchmarkContext() {
+	}
+
+	/**
+	 * Create and refresh a new context. The caller must close it
+	 *
+	 * @return new context
+	 */
+	static AnnotationConfigApplicationContext create() {
+		var context = new AnnotationConfigApplicationContext();
+		context.register(SpelResolverBeanConfig.class);
+		context.registerBean(MongoClient.class, () -> MongoClients.create());
+		context.registerBean(MongoTemplate.class,
+				() -> new MongoTemplate(context.getBean(MongoClient.class), "benchmarks"));
+		context.refresh();
+		return context;
+	}
+
+	/**
+	 * Create a filter input with the number of filters and the length of the
+	 * lists of values. Filters are the fields of
+	 * {@link io.github.acoboh.query.filter.mongodb.domain.PostBlogDocumentFilterDef}
+	 * in turn, so fields are repeated when there are more than six filters
+	 *
+	 * @param fields number of filters
+	 * @param inList length of the lists of values
+	 * @return filter input
+	 */
+	static String input(int fields, int inList) {
+		StringBuilder builder = new StringBuilder("sort=-title");
+
+		for (int i = 0; i < fields; i++) {
+			builder.append('&');
+			switch (i % 6) {
+			case 0 -> builder.append("tags=in:").append(values("tag", inList));
+			case 1 -> builder.append("title=eq:title").append(i);
+			case 2 -> builder.append("content=like:content").append(i);
+			case 3 -> builder.append("type=ne:VIDEO");
+			case 4 -> builder.append("commentsStars=gte:").append(i);
+			default -> builder.append("id=nin:").append(values("id", inList));
+			}
+		}
+
+		return builder.toString();
+	}
+
+	private static String values(String prefix, int size) {
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < size; i++) {
+			if (i > 0) {
+				builder.append(',');
+			}
+			builder.append(prefix).append(i);
+		}
+		return builder.toString();
+	}
+
+}
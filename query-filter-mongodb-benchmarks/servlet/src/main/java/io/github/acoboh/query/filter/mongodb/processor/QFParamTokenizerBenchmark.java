@@ -0,0 +1,102 @@
+package io.github.acoboh.query.filter.mongodb.processor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compare the single pass tokenizer with the regular expressions of
+ * {@link QFParamType} on inputs from 1 KB to 100 KB.
+ * <p>
+ * Inputs contain many short filters with <code>&amp;</code> separators and one
+ * long list of values, the two shapes that stress the regular expressions.
+ * With the default thread stack size, the regular expressions fail with a
+ * {@link StackOverflowError} on lists of values of about 10 KB.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QFParamTokenizerBenchmark {
+
+	@Param({ "1024", "10240", "102400" })
+	private int size;
+
+	@Param({ "RHS_COLON", "LHS_BRACKETS" })
+	private QFParamType type;
+
+	private String input;
+
+	private Pattern pattern;
+
+	@Setup
+	public void setup() {
+		pattern = type.getPattern();
+
+		StringBuilder builder = new StringBuilder(size + 64);
+		builder.append("sort=+timestamp");
+
+		int i = 0;
+		while (builder.length() < size / 2) {
+			builder.append('&').append(filter("name", "eq", "value" + i++));
+		}
+
+		builder.append('&').append(filter("id", "in", ""));
+		while (builder.length() < size) {
+			builder.append(i++).append(',');
+		}
+
+		input = builder.toString();
+	}
+
+	private String filter(String field, String op, String value) {
+		return type == QFParamType.RHS_COLON ? field + "=" + op + ":" + value : field + "[" + op + "]=" + value;
+	}
+
+	/**
+	 * Single pass tokenizer
+	 *
+	 * @return parts
+	 */
+	@Benchmark
+	public List<QFParamPart> tokenizer() {
+		return QFParamTokenizer.tokenize(input, type);
+	}
+
+	/**
+	 * Previous regular expression tokenizer
+	 *
+	 * @return parts
+	 */
+	@Benchmark
+	public List<QFParamPart> regex() {
+		List<QFParamPart> ret = new ArrayList<>();
+
+		var matcher = pattern.matcher(input);
+		while (matcher.find()) {
+			if (matcher.group(1) != null) {
+				ret.add(QFParamPart.ofSort(matcher.group(2)));
+			} else {
+				ret.add(QFParamPart.ofValue(matcher.group(4), matcher.group(5), matcher.group(6)));
+			}
+		}
+
+		return ret;
+	}
+
+}
@@ -0,0 +1,129 @@
+package io.github.acoboh.query.filter.mongodb.processor;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import io.github.acoboh.query.filter.mongodb.annotations.QFParam;
+import io.github.acoboh.query.filter.mongodb.converters.QFCustomConverter;
+import io.github.acoboh.query.filter.mongodb.domain.PostBlogDocumentFilterDef;
+import io.github.acoboh.query.filter.mongodb.exceptions.definition.QueryFilterDefinitionException;
+import io.github.acoboh.query.filter.mongodb.model.PostBlogDocument;
+
+/**
+ * Hot path of a filter request: the parse of the input on the
+ * {@link QueryFilter} constructor, the conversion of the request parameter and
+ * the generation of the criteria.
+ * <p>
+ * The input has <code>fields</code> filters over
+ * {@link PostBlogDocumentFilterDef} and its lists of values have
+ * <code>inList</code> elements. The same input is parsed on every call, so the
+ * parse benchmarks measure the cached plans of the processor.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QueryFilterBenchmark {
+
+	@Param({ "1", "8", "32" })
+	private int fields;
+
+	@Param({ "10", "1000" })
+	private int inList;
+
+	private GenericApplicationContext context;
+
+	private QFProcessor<PostBlogDocumentFilterDef, PostBlogDocument> processor;
+
+	private QFCustomConverter converter;
+
+	private TypeDescriptor targetType;
+
+	private String input;
+
+	private QueryFilter<PostBlogDocument> queryFilter;
+
+	@Setup
+	public void setup() throws NoSuchMethodException, QueryFilterDefinitionException {
+		context = BenchmarkContext.create();
+		processor = new QFProcessor<>(PostBlogDocumentFilterDef.class, PostBlogDocument.class, context);
+		converter = new QFCustomConverter(List.of(processor));
+
+		var method = QueryFilterBenchmark.class.getDeclaredMethod("endpoint", QueryFilter.class);
+		targetType = new TypeDescriptor(new MethodParameter(method, 0));
+
+		input = BenchmarkContext.input(fields, inList);
+		queryFilter = processor.newQueryFilter(input, QFParamType.RHS_COLON);
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+
+	// Signature of a controller method with the filter parameter
+	@SuppressWarnings("unused")
+	private void endpoint(@QFParam(PostBlogDocumentFilterDef.class) QueryFilter<PostBlogDocument> filter) {
+	}
+
+	/**
+	 * Parse of the input on the constructor
+	 *
+	 * @return new query filter
+	 */
+	@Benchmark
+	public QueryFilter<PostBlogDocument> parse() {
+		return processor.newQueryFilter(input, QFParamType.RHS_COLON);
+	}
+
+	/**
+	 * Conversion of the request parameter, as done on controllers
+	 *
+	 * @return new query filter
+	 */
+	@Benchmark
+	public Object convert() {
+		return converter.convert(input, TypeDescriptor.valueOf(String.class), targetType);
+	}
+
+	/**
+	 * Criteria of a parsed filter
+	 *
+	 * @return criteria
+	 */
+	@Benchmark
+	public Criteria toCriteria() {
+		return queryFilter.toCriteria();
+	}
+
+	/**
+	 * Query with sorts of a parsed filter
+	 *
+	 * @return query
+	 */
+	@Benchmark
+	public Query toCriteriaQuery() {
+		return queryFilter.toCriteriaQuery();
+	}
+
+}
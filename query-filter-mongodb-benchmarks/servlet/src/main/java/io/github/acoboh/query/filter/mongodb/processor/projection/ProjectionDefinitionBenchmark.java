@@ -0,0 +1,37 @@
+package io.github.acoboh.query.filter.mongodb.processor.projection;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.acoboh.query.filter.mongodb.dto.PostBlogSimplifiedDTO;
+import io.github.acoboh.query.filter.mongodb.exceptions.definition.QFTypeException;
+
+/**
+ * Construction of the projection of the DTO of
+ * {@link io.github.acoboh.query.filter.mongodb.domain.PostBlogDocumentFilterDef}
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProjectionDefinitionBenchmark {
+
+	/**
+	 * New projection definition
+	 *
+	 * @return projection
+	 */
+	@Benchmark
+	public ProjectionDefinition construct() throws QFTypeException {
+		return new ProjectionDefinition(PostBlogSimplifiedDTO.class);
+	}
+
+}
@@ -0,0 +1,123 @@
+package io.github.acoboh.query.filter.mongodb.utils;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.acoboh.query.filter.mongodb.annotations.QFDate;
+
+/**
+ * Compare the {@link DateParser} of the date fields with
+ * <code>LocalDateTime.parse</code> and <code>OffsetDateTime.parse</code>.
+ * <p>
+ * Each call parses the next value of a set of different dates, on the default
+ * format, as ISO-8601 with offset and as epoch milliseconds.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DateParserBenchmark {
+
+	private static final int SIZE = 1024;
+
+	private final String[] defaultValues = new String[SIZE];
+	private final String[] isoValues = new String[SIZE];
+	private final String[] epochValues = new String[SIZE];
+
+	private DateTimeFormatter formatter;
+
+	private DateParser localParser;
+	private DateParser instantParser;
+
+	private int index;
+
+	@Setup
+	public void setup() {
+		formatter = DateUtils.getFormatter(null);
+		localParser = DateParser.of(null, LocalDateTime.class);
+		instantParser = DateParser.of(null, Instant.class);
+
+		var defaultFormatter = DateTimeFormatter.ofPattern(QFDate.DEFAULT_DATE_FORMAT);
+		var start = LocalDateTime.of(2024, 1, 1, 0, 0);
+		for (int i = 0; i < SIZE; i++) {
+			var dt = start.plusMinutes(i * 7919L);
+			defaultValues[i] = defaultFormatter.format(dt);
+			isoValues[i] = DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(dt.plusNanos(i * 1_000_000L)
+					.atOffset(ZoneOffset.ofHours(i % 3)));
+			epochValues[i] = String.valueOf(dt.toInstant(ZoneOffset.UTC).toEpochMilli());
+		}
+	}
+
+	private int next() {
+		index = (index + 1) & (SIZE - 1);
+		return index;
+	}
+
+	/**
+	 * Parse of the default format with the formatter
+	 *
+	 * @return parsed date
+	 */
+	@Benchmark
+	public Object localDateTimeParse() {
+		return LocalDateTime.parse(defaultValues[next()], formatter);
+	}
+
+	/**
+	 * Parse of the default format with the date parser
+	 *
+	 * @return parsed date
+	 */
+	@Benchmark
+	public Object dateParser() {
+		return localParser.parse(defaultValues[next()]);
+	}
+
+	/**
+	 * Parse of epoch milliseconds with the date parser
+	 *
+	 * @return parsed date
+	 */
+	@Benchmark
+	public Object dateParserEpochMillis() {
+		return localParser.parse(epochValues[next()]);
+	}
+
+	/**
+	 * Parse of ISO-8601 instants with the formatter
+	 *
+	 * @return parsed instant
+	 */
+	@Benchmark
+	public Object offsetDateTimeParse() {
+		return OffsetDateTime.parse(isoValues[next()]).toInstant();
+	}
+
+	/**
+	 * Parse of ISO-8601 instants with the date parser
+	 *
+	 * @return parsed instant
+	 */
+	@Benchmark
+	public Object dateParserIso() {
+		return instantParser.parse(isoValues[next()]);
+	}
+
+}
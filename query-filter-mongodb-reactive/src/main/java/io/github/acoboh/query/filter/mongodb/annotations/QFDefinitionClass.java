@@ -9,6 +9,8 @@ import java.lang.annotation.Target;
 
 import org.springframework.data.domain.Sort.Direction;
 
+import io.github.acoboh.query.filter.mongodb.processor.QFCountStrategy;
+
 /**
  * Annotation used to define the matching class of the query filter param
  *
@@ -55,6 +57,37 @@ public @interface QFDefinitionClass {
 	 */
 	QFDefaultSort[] defaultSort() default {};
 
+	/**
+	 * Strategy to get the total elements of the paged queries
+	 *
+	 * @return count strategy
+	 */
+	QFCountStrategy countStrategy() default QFCountStrategy.EXACT;
+
+	/**
+	 * Max number of documents counted with the
+	 * {@link QFCountStrategy#CAPPED} strategy
+	 *
+	 * @return count limit
+	 */
+	int countLimit() default 1000;
+
+	/**
+	 * Execution options of the queries. Options not set use the defaults of the
+	 * <code>query-filter.query-options</code> properties
+	 *
+	 * @return query options
+	 */
+	QFQueryOptions queryOptions() default @QFQueryOptions;
+
+	/**
+	 * Index hints of the queries by filtered fields and sort. The first rule that
+	 * matches the filter is used
+	 *
+	 * @return index hint rules
+	 */
+	QFHint[] hints() default {};
+
 	/**
 	 * Allows the user to select a default sort parts.
 	 * <p>
@@ -81,4 +114,85 @@ public @interface QFDefinitionClass {
 		Direction direction() default Direction.ASC;
 
 	}
+
+	/**
+	 * Execution options of the queries
+	 */
+	@interface QFQueryOptions {
+
+		/**
+		 * Max execution time of the queries in milliseconds. Zero if there is no limit
+		 *
+		 * @return max execution time, or -1 to use the default
+		 */
+		long maxTimeMS() default -1;
+
+		/**
+		 * Number of documents of each cursor batch. Zero to use the server default
+		 *
+		 * @return cursor batch size, or -1 to use the default
+		 */
+		int batchSize() default -1;
+
+		/**
+		 * If the queries can write temporary files on disk, <code>true</code> or
+		 * <code>false</code>
+		 *
+		 * @return allow disk use, or empty to use the default
+		 */
+		String allowDiskUse() default "";
+
+		/**
+		 * Collation of the queries, as a locale like <code>en_US</code> or a
+		 * collation document like <code>{ locale: 'en', strength: 2 }</code>
+		 *
+		 * @return collation, or empty to use the default
+		 */
+		String collation() default "";
+
+		/**
+		 * Comment of the queries, shown on the profiler and the logs of the server
+		 *
+		 * @return comment, or empty to use the default
+		 */
+		String comment() default "";
+
+		/**
+		 * Read preference of the queries, like <code>secondaryPreferred</code>
+		 *
+		 * @return read preference, or empty to use the default
+		 */
+		String readPreference() default "";
+
+	}
+
+	/**
+	 * Index hint of the queries that filter by a set of fields with a sort
+	 */
+	@interface QFHint {
+
+		/**
+		 * Names of the filtered fields. The rule only matches if the filter uses all
+		 * these fields and no others
+		 *
+		 * @return filtered fields
+		 */
+		String[] fields() default {};
+
+		/**
+		 * Names of the sorted fields, in order. The rule only matches if the filter is
+		 * sorted by these fields
+		 *
+		 * @return sorted fields
+		 */
+		String[] sort() default {};
+
+		/**
+		 * Name of the index used by the matching queries
+		 *
+		 * @return index name
+		 */
+		String index();
+
+	}
 }
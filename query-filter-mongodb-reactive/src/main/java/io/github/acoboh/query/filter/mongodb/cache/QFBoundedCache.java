@@ -0,0 +1,167 @@
+package io.github.acoboh.query.filter.mongodb.cache;
+
+import java.io.Serial;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.springframework.util.Assert;
+
+/**
+ * Bounded cache with least recently used eviction. It is used by the library to
+ * keep the structures that are expensive to build and are shared between
+ * requests.
+ * <p>
+ * Values are computed outside the lock, so two threads may compute the same
+ * missing value at the same time. Only the first one is stored. If the loader
+ * throws an exception, nothing is stored.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class QFBoundedCache<K, V> {
+
+	private final int maxSize;
+
+	private final Map<K, V> map;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	/**
+	 * Create a new cache
+	 *
+	 * @param maxSize max number of entries of the cache
+	 */
+	public QFBoundedCache(int maxSize) {
+		Assert.isTrue(maxSize > 0, "maxSize must be greater than zero");
+		this.maxSize = maxSize;
+		this.map = new LinkedHashMap<>(Math.min(maxSize, 256), 0.75f, true) {
+
+			@Serial
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+				if (size() > QFBoundedCache.this.maxSize) {
+					evictions.increment();
+					return true;
+				}
+				return false;
+			}
+
+		};
+	}
+
+	/**
+	 * Get a value of the cache
+	 *
+	 * @param key key to search
+	 * @return value found or null if missing
+	 */
+	public V get(K key) {
+		return get(key, value -> true);
+	}
+
+	/**
+	 * Get a value of the cache that is still valid. Invalid values, like expired
+	 * values, are counted as misses
+	 *
+	 * @param key   key to search
+	 * @param valid predicate of the valid values
+	 * @return valid value found or null if missing or invalid
+	 */
+	public V get(K key, Predicate<? super V> valid) {
+		V value;
+		synchronized (map) {
+			value = map.get(key);
+		}
+
+		if (value != null && valid.test(value)) {
+			hits.increment();
+			return value;
+		}
+
+		misses.increment();
+		return null;
+	}
+
+	/**
+	 * Get a value of the cache or compute it if missing
+	 *
+	 * @param key    key to search
+	 * @param loader function to compute the missing value
+	 * @return value cached or computed
+	 */
+	public V computeIfAbsent(K key, Function<? super K, ? extends V> loader) {
+		V value = get(key);
+		if (value != null) {
+			return value;
+		}
+
+		value = loader.apply(key);
+		if (value == null) {
+			return null;
+		}
+
+		synchronized (map) {
+			V previous = map.putIfAbsent(key, value);
+			return previous != null ? previous : value;
+		}
+	}
+
+	/**
+	 * Put a new value on the cache
+	 *
+	 * @param key   key
+	 * @param value value
+	 */
+	public void put(K key, V value) {
+		Assert.notNull(value, "value cannot be null");
+		synchronized (map) {
+			map.put(key, value);
+		}
+	}
+
+	/**
+	 * Remove all the entries of the cache
+	 */
+	public void clear() {
+		synchronized (map) {
+			map.clear();
+		}
+	}
+
+	/**
+	 * Get the actual number of entries
+	 *
+	 * @return number of entries
+	 */
+	public int size() {
+		synchronized (map) {
+			return map.size();
+		}
+	}
+
+	/**
+	 * Get the max number of entries
+	 *
+	 * @return max number of entries
+	 */
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * Get a snapshot of the cache statistics
+	 *
+	 * @return cache statistics
+	 */
+	public QFCacheStats getStats() {
+		return new QFCacheStats(hits.sum(), misses.sum(), evictions.sum(), size(), maxSize);
+	}
+
+}
@@ -4,7 +4,9 @@ import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.context.annotation.Import;
 
 import io.github.acoboh.query.filter.mongodb.advisor.QFExceptionAdvisor;
+import io.github.acoboh.query.filter.mongodb.explain.QFExplainSampler;
 import io.github.acoboh.query.filter.mongodb.hints.HintsRegistrarDef;
+import io.github.acoboh.query.filter.mongodb.index.QFIndexAdvisor;
 import io.github.acoboh.query.filter.mongodb.properties.QueryFilterProperties;
 import io.github.acoboh.query.filter.mongodb.spel.SpelConfig;
 
@@ -14,7 +16,7 @@ import io.github.acoboh.query.filter.mongodb.spel.SpelConfig;
 @AutoConfiguration
 @Import({ QueryFilterProperties.class, QFExceptionAdvisor.class, SpelConfig.class, QFBeanFactoryPostProcessor.class,
 		QFWebFluxConfigurer.class, QueryFilterProperties.class, HintsRegistrarDef.class,
-		ApplicationContextAwareSupport.class })
+		ApplicationContextAwareSupport.class, QFExplainSampler.class, QFIndexAdvisor.class })
 public class QueryFilterAutoconfigure {
 
 }
@@ -0,0 +1,72 @@
+package io.github.acoboh.query.filter.mongodb.exceptions;
+
+import java.io.Serial;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Exception thrown when the value of a regex operation is too long, or it is
+ * not a valid or safe regular expression
+ *
+ * @author Adrián Cobo
+ * 
+ */
+public class QFRegexException extends QueryFilterException {
+
+	@Serial
+	private static final long serialVersionUID = 1L;
+	private static final String MESSAGE = "The pattern '{}' of field '{}' is not valid or it is too complex";
+
+	private final String field;
+	private final String pattern;
+	private final transient Object[] arguments;
+
+	/**
+	 * Default constructor
+	 *
+	 * @param field   field
+	 * @param pattern rejected pattern
+	 */
+	public QFRegexException(String field, String pattern) {
+		super(MESSAGE, pattern, field);
+		this.field = field;
+		this.pattern = pattern;
+		this.arguments = new Object[] { pattern, field };
+	}
+
+	/**
+	 * Get field
+	 *
+	 * @return field
+	 */
+	public String getField() {
+		return field;
+	}
+
+	/**
+	 * Get the rejected pattern
+	 *
+	 * @return pattern
+	 */
+	public String getPattern() {
+		return pattern;
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public HttpStatus getHttpStatus() {
+		return HttpStatus.BAD_REQUEST;
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public Object[] getArguments() {
+		return arguments;
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public String getMessageCode() {
+		return "qf.exceptions.regex";
+	}
+}
@@ -0,0 +1,311 @@
+package io.github.acoboh.query.filter.mongodb.explain;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nullable;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.ExplainVerbosity;
+
+import io.github.acoboh.query.filter.mongodb.properties.ExplainProperties;
+import io.github.acoboh.query.filter.mongodb.properties.QueryFilterProperties;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Sampler of the queries executed by the query filters. A fraction of the
+ * queries is explained with <code>executionStats</code> verbosity on a
+ * subscription detached from the request, and the winning plan, keys examined and documents examined
+ * are recorded by filter shape.
+ * <p>
+ * The first time a shape examines more documents by returned document than the
+ * configured ratio, it is logged as a warning and a
+ * {@linkplain QFSlowFilterEvent} is published.
+ * <p>
+ * With adaptive hints enabled, the index of the plan with the fewest keys and
+ * documents examined by returned document is pinned as the hint of each shape.
+ * The explains do not use the hints, so the pinned index changes if the planner
+ * finds a better one.
+ * <p>
+ * Samples are discarded if there are too many explains pending, so the sampler
+ * never slows down the requests.
+ *
+ * @author Adrián Cobo
+ *
+ */
+@Component
+@ConditionalOnProperty(name = "query-filter.explain.enabled", havingValue = "true")
+public class QFExplainSampler {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(QFExplainSampler.class);
+
+	private final ExplainProperties properties;
+
+	private final ObjectProvider<ReactiveMongoTemplate> mongoTemplate;
+
+	private final ApplicationEventPublisher publisher;
+
+	private final AtomicInteger pending = new AtomicInteger();
+
+	private final Map<ShapeKey, ShapeStats> stats = new ConcurrentHashMap<>();
+
+	private final LongAdder discarded = new LongAdder();
+
+	/**
+	 * Default constructor
+	 *
+	 * @param properties    query filter properties
+	 * @param mongoTemplate mongo template used to run the explains
+	 * @param publisher     publisher of the slow filter events
+	 */
+	public QFExplainSampler(QueryFilterProperties properties, ObjectProvider<ReactiveMongoTemplate> mongoTemplate,
+			ApplicationEventPublisher publisher) {
+		this.properties = properties.getExplain();
+		this.mongoTemplate = mongoTemplate;
+		this.publisher = publisher;
+	}
+
+	/**
+	 * Get if the actual query must be sampled
+	 *
+	 * @return true if the query must be explained
+	 */
+	public boolean isSampled() {
+		double rate = properties.getSampleRate();
+		return rate > 0 && ThreadLocalRandom.current().nextDouble() < rate;
+	}
+
+	/**
+	 * Explain a query on background. The query documents are copied before
+	 * returning, so the query can be modified later
+	 *
+	 * @param filterClass filter class
+	 * @param shape       fields, operations and sort of the filter
+	 * @param entityClass entity class
+	 * @param query       query to explain
+	 */
+	public void sample(Class<?> filterClass, String shape, Class<?> entityClass, Query query) {
+		Document filter = query.getQueryObject();
+		Document sort = query.getSortObject();
+		long skip = query.getSkip();
+		int limit = query.getLimit();
+
+		if (pending.incrementAndGet() > properties.getMaxPending()) {
+			pending.decrementAndGet();
+			discarded.increment();
+			LOGGER.trace("Explain of filter shape {} of {} discarded", shape, filterClass);
+			return;
+		}
+
+		explain(entityClass, filter, sort, skip, limit).subscribeOn(Schedulers.boundedElastic())
+				.doFinally(signal -> pending.decrementAndGet())
+				.subscribe(explain -> record(filterClass, shape, ExplainSample.of(explain)),
+						e -> LOGGER.warn("Error explaining filter shape {} of {}", shape, filterClass, e));
+	}
+
+	private Mono<Document> explain(Class<?> entityClass, Document filter, Document sort, long skip, int limit) {
+		return Mono.defer(() -> {
+			ReactiveMongoTemplate template = mongoTemplate.getObject();
+			var converter = template.getConverter();
+			var entity = converter.getMappingContext().getPersistentEntity(entityClass);
+			var queryMapper = new QueryMapper(converter);
+
+			Document mappedFilter = queryMapper.getMappedObject(filter, entity);
+			Document mappedSort = queryMapper.getMappedSort(sort, entity);
+
+			return template.execute(entityClass, collection -> Flux.from(collection.find(mappedFilter)
+					.sort(mappedSort).skip((int) skip).limit(limit)
+					.explain(Document.class, ExplainVerbosity.EXECUTION_STATS))).next();
+		});
+	}
+
+	/**
+	 * Record the explain of a filter shape
+	 *
+	 * @param filterClass filter class
+	 * @param shape       fields, operations and sort of the filter
+	 * @param sample      values of the explain
+	 */
+	void record(Class<?> filterClass, String shape, ExplainSample sample) {
+		var key = new ShapeKey(filterClass, shape);
+		var shapeStats = stats.get(key);
+		if (shapeStats == null) {
+			if (stats.size() >= properties.getMaxShapes()) {
+				discarded.increment();
+				return;
+			}
+			shapeStats = stats.computeIfAbsent(key, k -> new ShapeStats());
+		}
+
+		boolean slow = sample.docsExamined() >= properties.getMinDocsExamined()
+				&& sample.docsExamined() > properties.getDocsExaminedRatio() * Math.max(sample.returned(), 1);
+
+		shapeStats.add(sample);
+		LOGGER.debug("Explain of filter shape {} of {}: {}", shape, filterClass, sample);
+
+		if (properties.isAdaptiveHints() && shapeStats.addPlan(sample, properties.getHintMinSamples())) {
+			LOGGER.info("Index hint of filter shape {} of {} changed to {}", shape, filterClass.getSimpleName(),
+					shapeStats.hint);
+		}
+
+		if (slow && shapeStats.markSlow()) {
+			LOGGER.warn(
+					"Slow filter shape {} of {}. Winning plan {}, keys examined {}, documents examined {}, returned {}",
+					shape, filterClass.getSimpleName(), sample.winningPlan(), sample.keysExamined(),
+					sample.docsExamined(), sample.returned());
+			publisher.publishEvent(new QFSlowFilterEvent(this, shapeStats.snapshot(key)));
+		}
+	}
+
+	/**
+	 * Get the statistics of all the sampled filter shapes, the slowest first
+	 *
+	 * @return statistics of the sampled shapes
+	 */
+	public List<QFExplainStats> getStats() {
+		return stats.entrySet().stream().map(e -> e.getValue().snapshot(e.getKey()))
+				.sorted(Comparator.comparingDouble(QFExplainStats::docsExaminedRatio).reversed()).toList();
+	}
+
+	/**
+	 * Get if the indexes of the best sampled plans are pinned as hints
+	 *
+	 * @return true if the adaptive hints are enabled
+	 */
+	public boolean isAdaptiveHints() {
+		return properties.isAdaptiveHints();
+	}
+
+	/**
+	 * Get the index pinned as hint of a filter shape
+	 *
+	 * @param filterClass filter class
+	 * @param shape       fields, operations and sort of the filter
+	 * @return index name or null if the shape has no pinned index
+	 */
+	@Nullable
+	public String getHint(Class<?> filterClass, String shape) {
+		var shapeStats = stats.get(new ShapeKey(filterClass, shape));
+		return shapeStats != null ? shapeStats.hint : null;
+	}
+
+	/**
+	 * Get the number of samples discarded because of the limits of pending
+	 * explains or sampled shapes
+	 *
+	 * @return number of discarded samples
+	 */
+	public long getDiscardedSamples() {
+		return discarded.sum();
+	}
+
+	private record ShapeKey(Class<?> filterClass, String shape) {
+	}
+
+	private static class ShapeStats {
+
+		// Key of the plans that do not scan a single index
+		private static final String NO_INDEX = "";
+
+		private long samples;
+		private String winningPlan;
+		private long keysExamined;
+		private long docsExamined;
+		private long returned;
+		private boolean slow;
+
+		private final Map<String, PlanCost> plans = new HashMap<>();
+		private long planSamples;
+		private volatile String hint;
+
+		synchronized void add(ExplainSample sample) {
+			samples++;
+			winningPlan = sample.winningPlan();
+			keysExamined += sample.keysExamined();
+			docsExamined += sample.docsExamined();
+			returned += sample.returned();
+		}
+
+		/**
+		 * Add the cost of the plan of a sample and pin the index of the cheapest plan
+		 *
+		 * @return true if the pinned index changes
+		 */
+		synchronized boolean addPlan(ExplainSample sample, int minSamples) {
+			double cost = (double) (sample.keysExamined() + sample.docsExamined()) / Math.max(sample.returned(), 1);
+			String index = sample.indexName() != null ? sample.indexName() : NO_INDEX;
+			plans.computeIfAbsent(index, k -> new PlanCost()).add(cost);
+
+			if (++planSamples < minSamples) {
+				return false;
+			}
+
+			String best = null;
+			double bestCost = Double.MAX_VALUE;
+			for (var entry : plans.entrySet()) {
+				double mean = entry.getValue().mean();
+				if (mean < bestCost) {
+					best = entry.getKey();
+					bestCost = mean;
+				}
+			}
+
+			String newHint = NO_INDEX.equals(best) ? null : best;
+			if (Objects.equals(newHint, hint)) {
+				return false;
+			}
+			hint = newHint;
+			return true;
+		}
+
+		synchronized boolean markSlow() {
+			if (slow) {
+				return false;
+			}
+			slow = true;
+			return true;
+		}
+
+		synchronized QFExplainStats snapshot(ShapeKey key) {
+			return new QFExplainStats(key.filterClass(), key.shape(), samples, winningPlan, keysExamined,
+					docsExamined, returned, slow);
+		}
+
+	}
+
+	private static class PlanCost {
+
+		private long samples;
+		private double total;
+
+		void add(double cost) {
+			samples++;
+			total += cost;
+		}
+
+		double mean() {
+			return total / samples;
+		}
+
+	}
+
+}
@@ -0,0 +1,178 @@
+package io.github.acoboh.query.filter.mongodb.index;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.SpringProperties;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Index of the {@link io.github.acoboh.query.filter.mongodb.annotations.QFDefinitionClass}
+ * types and their projections, written at compile time by the
+ * {@link QFDefinitionIndexProcessor}.
+ * <p>
+ * The definition classes of the packages covered by the index are found on the
+ * index instead of scanning the classpath. The packages and classpath roots
+ * without indexed definitions are still scanned, so the modules compiled
+ * without the processor keep working. Set the
+ * <code>query-filter.index.ignore</code> Spring property to <code>true</code>
+ * to ignore the index and scan the classpath
+ */
+public final class QFDefinitionIndex {
+
+	/**
+	 * Location of the index files
+	 */
+	public static final String LOCATION = "META-INF/query-filter.index";
+
+	/**
+	 * Spring property to ignore the index
+	 */
+	public static final String IGNORE_PROPERTY = "query-filter.index.ignore";
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(QFDefinitionIndex.class);
+
+	// Projection class names of each definition class name
+	private final Map<String, List<String>> definitions;
+
+	// Classpath roots with an index file
+	private final Set<String> roots;
+
+	private QFDefinitionIndex(Map<String, List<String>> definitions, Set<String> roots) {
+		this.definitions = definitions;
+		this.roots = roots;
+	}
+
+	/**
+	 * Load all the index files of a class loader
+	 *
+	 * @param classLoader class loader, or null for the default one
+	 * @return index, or null if there is no index or it is ignored
+	 */
+	@Nullable
+	public static QFDefinitionIndex load(@Nullable ClassLoader classLoader) {
+		if (SpringProperties.getFlag(IGNORE_PROPERTY)) {
+			LOGGER.debug("Index of definition classes ignored");
+			return null;
+		}
+
+		ClassLoader loader = classLoader != null ? classLoader : ClassUtils.getDefaultClassLoader();
+		try {
+			Enumeration<URL> urls = loader != null ? loader.getResources(LOCATION)
+					: ClassLoader.getSystemResources(LOCATION);
+			if (!urls.hasMoreElements()) {
+				return null;
+			}
+
+			Map<String, List<String>> definitions = new TreeMap<>();
+			Set<String> roots = new LinkedHashSet<>();
+			while (urls.hasMoreElements()) {
+				URL url = urls.nextElement();
+				LOGGER.debug("Loading index of definition classes {}", url);
+				roots.add(rootOf(url));
+
+				Properties properties = new Properties();
+				try (InputStream is = url.openStream()) {
+					properties.load(is);
+				}
+				for (String name : properties.stringPropertyNames()) {
+					String[] projections = StringUtils.commaDelimitedListToStringArray(properties.getProperty(name));
+					definitions.put(name, List.of(StringUtils.trimArrayElements(projections)));
+				}
+			}
+
+			return new QFDefinitionIndex(Collections.unmodifiableMap(definitions), Collections.unmodifiableSet(roots));
+		} catch (IOException e) {
+			throw new IllegalStateException("Unable to load the index of definition classes from " + LOCATION, e);
+		}
+	}
+
+	/**
+	 * Get the names of all the definition classes
+	 *
+	 * @return definition class names
+	 */
+	public Set<String> getDefinitions() {
+		return definitions.keySet();
+	}
+
+	/**
+	 * Get the names of the definition classes of some packages, including their
+	 * sub-packages
+	 *
+	 * @param packages packages
+	 * @return definition class names
+	 */
+	public Set<String> getDefinitions(Collection<String> packages) {
+		Set<String> ret = new LinkedHashSet<>();
+		for (String pack : packages) {
+			String prefix = pack.endsWith(".") ? pack : pack + ".";
+			definitions.keySet().stream().filter(name -> name.startsWith(prefix)).forEach(ret::add);
+		}
+		return ret;
+	}
+
+	/**
+	 * Check if the index has any definition class of a package, including its
+	 * sub-packages
+	 *
+	 * @param pack package
+	 * @return true if the package is covered by the index
+	 */
+	public boolean covers(String pack) {
+		return !getDefinitions(List.of(pack)).isEmpty();
+	}
+
+	/**
+	 * Check if a classpath root has an index file
+	 *
+	 * @param root classpath root, as a directory or jar file URL
+	 * @return true if the classpath root is indexed
+	 */
+	public boolean isIndexed(URL root) {
+		String name = root.toExternalForm();
+		return roots.contains(name) || roots.contains(name + "/");
+	}
+
+	/**
+	 * Get the names of the projection classes of a definition class
+	 *
+	 * @param definition definition class name
+	 * @return projection class names
+	 */
+	public List<String> getProjections(String definition) {
+		return definitions.getOrDefault(definition, List.of());
+	}
+
+	// Directory or jar file URL of the classpath root of an index file
+	private static String rootOf(URL url) {
+		String name = url.toExternalForm();
+		name = name.substring(0, name.length() - LOCATION.length());
+		if (name.startsWith("jar:") && name.endsWith("!/")) {
+			name = name.substring("jar:".length(), name.length() - "!/".length());
+		}
+		return name;
+	}
+
+	@Override
+	public String toString() {
+		return "QFDefinitionIndex " + Arrays.toString(definitions.keySet().toArray());
+	}
+
+}
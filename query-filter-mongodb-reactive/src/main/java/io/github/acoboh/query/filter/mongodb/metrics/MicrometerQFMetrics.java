@@ -0,0 +1,91 @@
+package io.github.acoboh.query.filter.mongodb.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.context.ApplicationContext;
+
+import io.github.acoboh.query.filter.mongodb.spel.SpelResolverInterface;
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Micrometer metrics. Meters are registered on the first use of each operation
+ */
+final class MicrometerQFMetrics implements QFMetrics {
+
+	private static final String OPERATION_TAG = "operation";
+
+	private final MeterRegistry registry;
+	private final Clock clock;
+	private final Tags tags;
+
+	private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+	private final Map<String, Timer> partTimers = new ConcurrentHashMap<>();
+
+	private volatile TimedSpelResolver timedSpelResolver;
+
+	private MicrometerQFMetrics(MeterRegistry registry, Class<?> filterClass, Class<?> entityClass) {
+		this.registry = registry;
+		this.clock = registry.config().clock();
+		this.tags = Tags.of("filter", filterClass.getSimpleName(), "entity", entityClass.getSimpleName());
+	}
+
+	static QFMetrics of(ApplicationContext appContext, Class<?> filterClass, Class<?> entityClass) {
+		MeterRegistry registry = appContext.getBeanProvider(MeterRegistry.class).getIfUnique();
+		if (registry == null) {
+			return DISABLED;
+		}
+		return new MicrometerQFMetrics(registry, filterClass, entityClass);
+	}
+
+	@Override
+	public boolean isEnabled() {
+		return true;
+	}
+
+	@Override
+	public long start() {
+		return clock.monotonicTime();
+	}
+
+	@Override
+	public void record(String operation, long start) {
+		timer(timers, TIMER, operation).record(clock.monotonicTime() - start, TimeUnit.NANOSECONDS);
+	}
+
+	@Override
+	public void recordPart(String operation, long start) {
+		timer(partTimers, PART_TIMER, operation).record(clock.monotonicTime() - start, TimeUnit.NANOSECONDS);
+	}
+
+	@Override
+	public void error(String operation, Throwable error) {
+		Counter.builder(ERRORS).tags(tags).tag(OPERATION_TAG, operation)
+				.tag("exception", error.getClass().getSimpleName()).register(registry).increment();
+	}
+
+	@Override
+	public SpelResolverInterface timed(SpelResolverInterface spelResolver) {
+		var ret = timedSpelResolver;
+		if (ret == null || ret.getDelegate() != spelResolver) {
+			ret = new TimedSpelResolver(spelResolver, this);
+			timedSpelResolver = ret;
+		}
+		return ret;
+	}
+
+	private Timer timer(Map<String, Timer> cache, String name, String operation) {
+		var ret = cache.get(operation);
+		if (ret == null) {
+			ret = cache.computeIfAbsent(operation,
+					op -> Timer.builder(name).tags(tags).tag(OPERATION_TAG, op).register(registry));
+		}
+		return ret;
+	}
+
+}
@@ -0,0 +1,44 @@
+package io.github.acoboh.query.filter.mongodb.metrics;
+
+import org.springframework.util.MultiValueMap;
+
+import io.github.acoboh.query.filter.mongodb.spel.SpelCacheKeyExtractor;
+import io.github.acoboh.query.filter.mongodb.spel.SpelExpressionCache;
+import io.github.acoboh.query.filter.mongodb.spel.SpelResolverInterface;
+import reactor.core.publisher.Mono;
+
+/**
+ * SpEL resolver that records the time of the evaluations of other resolver
+ */
+class TimedSpelResolver implements SpelResolverInterface {
+
+	private final SpelResolverInterface delegate;
+
+	private final QFMetrics metrics;
+
+	TimedSpelResolver(SpelResolverInterface delegate, QFMetrics metrics) {
+		this.delegate = delegate;
+		this.metrics = metrics;
+	}
+
+	SpelResolverInterface getDelegate() {
+		return delegate;
+	}
+
+	@Override
+	public Mono<Object> evaluate(String securityExpression, MultiValueMap<String, Object> contextValues,
+			boolean nullOnError) {
+		return metrics.timed(QFMetrics.SPEL, delegate.evaluate(securityExpression, contextValues, nullOnError));
+	}
+
+	@Override
+	public SpelExpressionCache getExpressionCache() {
+		return delegate.getExpressionCache();
+	}
+
+	@Override
+	public SpelCacheKeyExtractor getCacheKeyExtractor() {
+		return delegate.getCacheKeyExtractor();
+	}
+
+}
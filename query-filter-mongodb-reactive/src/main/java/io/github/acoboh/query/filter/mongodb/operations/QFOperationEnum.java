@@ -1,15 +1,22 @@
 package io.github.acoboh.query.filter.mongodb.operations;
 
+import javax.annotation.Nullable;
+
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.regex.Pattern;
 
+import org.bson.Document;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.util.MultiValueMap;
 
 import io.github.acoboh.query.filter.mongodb.exceptions.QFOperationNotFoundException;
+import io.github.acoboh.query.filter.mongodb.exceptions.QFRegexException;
 import io.github.acoboh.query.filter.mongodb.operations.resolutors.QFOperationResolutor;
+import io.github.acoboh.query.filter.mongodb.processor.definitions.QFDefinitionElement;
 import io.github.acoboh.query.filter.mongodb.processor.match.QFElementMatch;
 import reactor.core.publisher.Mono;
 
@@ -22,34 +29,37 @@ import reactor.core.publisher.Mono;
 public enum QFOperationEnum implements QFOperationResolutor {
 
 	/**
-	 * Equal operation
+	 * Equal operation. Strings of case-insensitive elements are matched with a
+	 * literal regular expression, unless the collation ignores the case
 	 */
 	EQUAL("eq") {
 
 		@Override
-		public Mono<Criteria> generateCriteria(QFElementMatch match, int index,
+		public Mono<Document> generateDocument(QFElementMatch match, int index,
 				MultiValueMap<String, Object> mlContext) {
-
-			// Get the index element of the flux
 			return match.getParsedValues().elementAt(index).map(list -> {
 				Object val = list.get(0);
 				mlContext.add(match.getDefinition().getFilterName(), val);
-				return Criteria.where(match.getDefinition().getPathMappingName(index)).is(val);
+				return new Document(match.getDefinition().getPathMappingName(index),
+						equalityValue(match, index, val));
 			});
 		}
 
 	},
 	/**
-	 * Not equal operation
+	 * Not equal operation. Strings of case-insensitive elements are matched with
+	 * a literal regular expression, unless the collation ignores the case
 	 */
 	NOT_EQUAL("ne") {
 		@Override
-		public Mono<Criteria> generateCriteria(QFElementMatch match, int index,
+		public Mono<Document> generateDocument(QFElementMatch match, int index,
 				MultiValueMap<String, Object> mlContext) {
 			return match.getParsedValues().elementAt(index).map(list -> {
 				Object val = list.get(0);
 				mlContext.add(match.getDefinition().getFilterName(), val);
-				return Criteria.where(match.getDefinition().getPathMappingName(index)).ne(val);
+				var value = equalityValue(match, index, val);
+				return new Document(match.getDefinition().getPathMappingName(index),
+						new Document(value instanceof Pattern ? "$not" : "$ne", value));
 			});
 		}
 
@@ -59,12 +69,12 @@ public enum QFOperationEnum implements QFOperationResolutor {
 	 */
 	GREATER_THAN("gt") {
 		@Override
-		public Mono<Criteria> generateCriteria(QFElementMatch match, int index,
+		public Mono<Document> generateDocument(QFElementMatch match, int index,
 				MultiValueMap<String, Object> mlContext) {
 			return match.getParsedValues().elementAt(index).map(list -> {
 				Object val = list.get(0);
 				mlContext.add(match.getDefinition().getFilterName(), val);
-				return Criteria.where(match.getDefinition().getPathMappingName(index)).gt(val);
+				return new Document(match.getDefinition().getPathMappingName(index), new Document("$gt", val));
 			});
 		}
 
@@ -74,12 +84,12 @@ public enum QFOperationEnum implements QFOperationResolutor {
 	 */
 	GREATER_EQUAL_THAN("gte") {
 		@Override
-		public Mono<Criteria> generateCriteria(QFElementMatch match, int index,
+		public Mono<Document> generateDocument(QFElementMatch match, int index,
 				MultiValueMap<String, Object> mlContext) {
 			return match.getParsedValues().elementAt(index).map(list -> {
 				Object val = list.get(0);
 				mlContext.add(match.getDefinition().getFilterName(), val);
-				return Criteria.where(match.getDefinition().getPathMappingName(index)).gte(val);
+				return new Document(match.getDefinition().getPathMappingName(index), new Document("$gte", val));
 			});
 		}
 
@@ -89,12 +99,12 @@ public enum QFOperationEnum implements QFOperationResolutor {
 	 */
 	LESS_THAN("lt") {
 		@Override
-		public Mono<Criteria> generateCriteria(QFElementMatch match, int index,
+		public Mono<Document> generateDocument(QFElementMatch match, int index,
 				MultiValueMap<String, Object> mlContext) {
 			return match.getParsedValues().elementAt(index).map(list -> {
 				Object val = list.get(0);
 				mlContext.add(match.getDefinition().getFilterName(), val);
-				return Criteria.where(match.getDefinition().getPathMappingName(index)).lt(val);
+				return new Document(match.getDefinition().getPathMappingName(index), new Document("$lt", val));
 			});
 		}
 
@@ -104,89 +114,133 @@ public enum QFOperationEnum implements QFOperationResolutor {
 	 */
 	LESS_EQUAL_THAN("lte") {
 		@Override
-		public Mono<Criteria> generateCriteria(QFElementMatch match, int index,
+		public Mono<Document> generateDocument(QFElementMatch match, int index,
 				MultiValueMap<String, Object> mlContext) {
 			return match.getParsedValues().elementAt(index).map(list -> {
 				Object val = list.get(0);
 				mlContext.add(match.getDefinition().getFilterName(), val);
-				return Criteria.where(match.getDefinition().getPathMappingName(index)).lte(val);
+				return new Document(match.getDefinition().getPathMappingName(index), new Document("$lte", val));
 			});
 		}
 
 	},
 	/**
-	 * Like operation for strings
+	 * Between operation. Matches the values greater or equal than the first value
+	 * and less or equal than the second one
+	 */
+	BETWEEN("between") {
+		@Override
+		public Mono<Document> generateDocument(QFElementMatch match, int index,
+				MultiValueMap<String, Object> mlContext) {
+			return match.getParsedValues().elementAt(index).map(list -> {
+				mlContext.addAll(match.getDefinition().getFilterName(), list);
+				return new Document(match.getDefinition().getPathMappingName(index),
+						new Document("$gte", list.get(0)).append("$lte", list.get(1)));
+			});
+		}
+
+	},
+	/**
+	 * Like operation for strings. Multiple values match any of them
 	 */
 	LIKE("like") {
+
 		@Override
-		public Mono<Criteria> generateCriteria(QFElementMatch match, int index,
+		public Mono<Document> generateDocument(QFElementMatch match, int index,
 				MultiValueMap<String, Object> mlContext) {
 			return match.getParsedValues().elementAt(index).map(list -> {
-				Object val = list.get(0);
-				mlContext.add(match.getDefinition().getFilterName(), val);
-				return Criteria.where(match.getDefinition().getPathMappingName(index)).regex(val.toString(),
-						match.getDefinition().regexOptions(index));
+				mlContext.addAll(match.getDefinition().getFilterName(), list);
+				return new Document(match.getDefinition().getPathMappingName(index),
+						regexValue(getPatterns(match.getDefinition(), index, list)));
 			});
 		}
 
+		@Override
+		public List<Pattern> getPatterns(QFDefinitionElement definition, int index, List<?> values) {
+			return QFRegex.patterns(definition, index, values, "", "");
+		}
+
 	},
 	/**
-	 * Starts with operation for strings
+	 * Starts with operation for strings. Multiple values match any of them.
+	 * <p>
+	 * If the English collation of the definition class ignores the case of the
+	 * element, a single prefix is converted into a range that can be scanned on
+	 * an index with the same collation. The regular expression is kept to filter
+	 * the documents of the range
 	 */
 	STARTS_WITH("starts") {
 
 		@Override
-		public Mono<Criteria> generateCriteria(QFElementMatch match, int index,
+		public Mono<Document> generateDocument(QFElementMatch match, int index,
 				MultiValueMap<String, Object> mlContext) {
 			return match.getParsedValues().elementAt(index).map(list -> {
-				Object val = list.get(0);
-				mlContext.add(match.getDefinition().getFilterName(), val);
-				return Criteria.where(match.getDefinition().getPathMappingName(index)).regex("^" + val.toString(),
-						match.getDefinition().regexOptions(index));
+				mlContext.addAll(match.getDefinition().getFilterName(), list);
+				var path = match.getDefinition().getPathMappingName(index);
+				var patterns = getPatterns(match.getDefinition(), index, list);
+				var range = prefixRange(match, index, list, patterns);
+				if (range != null) {
+					return new Document(path, range);
+				}
+				return new Document(path, regexValue(patterns));
 			});
 		}
 
+		@Override
+		public List<Pattern> getPatterns(QFDefinitionElement definition, int index, List<?> values) {
+			return QFRegex.patterns(definition, index, values, "^", "");
+		}
+
 	},
 	/**
-	 * Ends with operation for strings
+	 * Ends with operation for strings. Multiple values match any of them
 	 */
 	ENDS_WITH("ends") {
+
 		@Override
-		public Mono<Criteria> generateCriteria(QFElementMatch match, int index,
+		public Mono<Document> generateDocument(QFElementMatch match, int index,
 				MultiValueMap<String, Object> mlContext) {
 			return match.getParsedValues().elementAt(index).map(list -> {
-				Object val = list.get(0);
-				mlContext.add(match.getDefinition().getFilterName(), val);
-				return Criteria.where(match.getDefinition().getPathMappingName(index)).regex(val.toString() + "$",
-						match.getDefinition().regexOptions(index));
+				mlContext.addAll(match.getDefinition().getFilterName(), list);
+				return new Document(match.getDefinition().getPathMappingName(index),
+						regexValue(getPatterns(match.getDefinition(), index, list)));
 			});
 		}
 
+		@Override
+		public List<Pattern> getPatterns(QFDefinitionElement definition, int index, List<?> values) {
+			return QFRegex.patterns(definition, index, values, "", "$");
+		}
+
 	},
 	/**
-	 * IN operation
+	 * IN operation. Strings of case-insensitive elements are matched with literal
+	 * regular expressions, unless the collation ignores the case
 	 */
 	IN("in") {
 		@Override
-		public Mono<Criteria> generateCriteria(QFElementMatch match, int index,
+		public Mono<Document> generateDocument(QFElementMatch match, int index,
 				MultiValueMap<String, Object> mlContext) {
 			return match.getParsedValues().elementAt(index).map(list -> {
 				mlContext.addAll(match.getDefinition().getFilterName(), list);
-				return Criteria.where(match.getDefinition().getPathMappingName(index)).in(list);
+				return new Document(match.getDefinition().getPathMappingName(index),
+						new Document("$in", equalityValues(match, index, list)));
 			});
 		}
 
 	},
 	/**
-	 * Not in operation
+	 * Not in operation. Strings of case-insensitive elements are matched with
+	 * literal regular expressions, unless the collation ignores the case
 	 */
 	NOT_IN("nin") {
 		@Override
-		public Mono<Criteria> generateCriteria(QFElementMatch match, int index,
+		public Mono<Document> generateDocument(QFElementMatch match, int index,
 				MultiValueMap<String, Object> mlContext) {
 			return match.getParsedValues().elementAt(index).map(list -> {
 				mlContext.addAll(match.getDefinition().getFilterName(), list);
-				return Criteria.where(match.getDefinition().getPathMappingName(index)).nin(list);
+				return new Document(match.getDefinition().getPathMappingName(index),
+						new Document("$nin", equalityValues(match, index, list)));
 			});
 		}
 
@@ -196,17 +250,12 @@ public enum QFOperationEnum implements QFOperationResolutor {
 	 */
 	ISNULL("null") {
 		@Override
-		public Mono<Criteria> generateCriteria(QFElementMatch match, int index,
+		public Mono<Document> generateDocument(QFElementMatch match, int index,
 				MultiValueMap<String, Object> mlContext) {
-
-			return match.getParsedValues().elementAt(index).map(e -> {
-				var val = e.get(0);
-				var part = Criteria.where(match.getDefinition().getPathMappingName(index));
-				if (Boolean.TRUE.equals(val)) {
-					return part.is(null);
-				} else {
-					return part.ne(null);
-				}
+			return match.getParsedValues().elementAt(index).map(list -> {
+				var val = list.get(0);
+				var path = match.getDefinition().getPathMappingName(index);
+				return new Document(path, Boolean.TRUE.equals(val) ? null : new Document("$ne", null));
 			});
 		}
 
@@ -268,7 +317,7 @@ public enum QFOperationEnum implements QFOperationResolutor {
 		for (QFOperationEnum op : values()) {
 
 			switch (op) {
-			case GREATER_THAN, GREATER_EQUAL_THAN, LESS_THAN, LESS_EQUAL_THAN:
+			case GREATER_THAN, GREATER_EQUAL_THAN, LESS_THAN, LESS_EQUAL_THAN, BETWEEN:
 				if (Comparable.class.isAssignableFrom(clazz) || clazz.isPrimitive()) {
 					ret.add(op);
 				}
@@ -288,6 +337,89 @@ public enum QFOperationEnum implements QFOperationResolutor {
 
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The criteria is built from the document of {@link #generateDocument}, so
+	 * both of them always generate the same query
+	 */
+	@Override
+	public Mono<Criteria> generateCriteria(QFElementMatch match, int index, MultiValueMap<String, Object> mlContext) {
+		var path = match.getDefinition().getPathMappingName(index);
+		return generateDocument(match, index, mlContext).map(document -> Criteria.where(path).is(document.get(path)));
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public abstract Mono<Document> generateDocument(QFElementMatch match, int index,
+			MultiValueMap<String, Object> mlContext);
+
+	/**
+	 * Get the compiled regular expressions of the values of the regex operations
+	 *
+	 * @param definition definition of the element
+	 * @param index      index of the element
+	 * @param values     values of the element
+	 * @return patterns of the values, or empty list if the operation does not use
+	 *         regular expressions
+	 * @throws QFRegexException if any value is not a valid or safe regular
+	 *                          expression
+	 */
+	public List<Pattern> getPatterns(QFDefinitionElement definition, int index, List<?> values)
+			throws QFRegexException {
+		return List.of();
+	}
+
+	private static Object equalityValue(QFElementMatch match, int index, Object value) {
+		var definition = match.getDefinition();
+		if (value instanceof String string && definition.isCaseInsensitive(index)
+				&& !definition.isCollationMatching(index)) {
+			return QFRegex.literal(definition, index, string);
+		}
+		return value;
+	}
+
+	private static List<Object> equalityValues(QFElementMatch match, int index, List<Object> values) {
+		return values.stream().map(value -> equalityValue(match, index, value)).toList();
+	}
+
+	private static Object regexValue(List<Pattern> patterns) {
+		if (patterns.size() == 1) {
+			return patterns.get(0);
+		}
+		return new Document("$in", patterns);
+	}
+
+	/**
+	 * Create the range of the strings that start with a prefix, with the regular
+	 * expression of the prefix to filter the documents of the range. The range is
+	 * only created for a single prefix ending with a latin letter or a digit, on
+	 * elements with prefix ranges
+	 *
+	 * @return range or null if the prefix can not be converted into a range
+	 */
+	@Nullable
+	private static Document prefixRange(QFElementMatch match, int index, List<Object> values,
+			List<Pattern> patterns) {
+		var definition = match.getDefinition();
+		if (!definition.isPrefixRange(index) || values.size() != 1) {
+			return null;
+		}
+
+		String prefix = values.get(0).toString();
+		if (prefix.isEmpty() || (definition.isRawRegex(index) && QFRegex.hasMetacharacters(prefix))) {
+			return null;
+		}
+
+		char last = prefix.charAt(prefix.length() - 1);
+		if ((last >= 'a' && last < 'z') || (last >= 'A' && last < 'Z') || (last >= '0' && last < '9')) {
+			String upperBound = prefix.substring(0, prefix.length() - 1) + (char) (last + 1);
+			return new Document("$gte", prefix).append("$lt", upperBound)
+					.append("$regex", patterns.get(0).pattern()).append("$options", definition.regexOptions(index));
+		}
+		return null;
+	}
+
 	/** {@inheritDoc} */
 	@Override
 	public String getOperation() {
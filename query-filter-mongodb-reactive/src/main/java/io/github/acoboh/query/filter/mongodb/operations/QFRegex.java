@@ -0,0 +1,254 @@
+package io.github.acoboh.query.filter.mongodb.operations;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.springframework.data.mongodb.util.RegexFlags;
+
+import io.github.acoboh.query.filter.mongodb.cache.QFBoundedCache;
+import io.github.acoboh.query.filter.mongodb.cache.QFCacheStats;
+import io.github.acoboh.query.filter.mongodb.exceptions.QFRegexException;
+import io.github.acoboh.query.filter.mongodb.processor.definitions.QFDefinitionElement;
+
+/**
+ * Regular expressions of the regex operations.
+ * <p>
+ * Values are matched literally, escaping the regex characters, unless the
+ * element enables raw regular expressions. Raw regular expressions are
+ * rejected if they can backtrack catastrophically, like nested quantifiers or
+ * back-references.
+ * <p>
+ * The compiled patterns are shared by all the processors on a bounded cache
+ */
+public final class QFRegex {
+
+	/**
+	 * Max number of compiled patterns of the cache
+	 */
+	public static final int CACHE_MAX_SIZE = 1024;
+
+	private static final String METACHARACTERS = "\\^$.|?*+()[]{}";
+
+	private static final QFBoundedCache<Key, Pattern> CACHE = new QFBoundedCache<>(CACHE_MAX_SIZE);
+
+	private QFRegex() {
+	}
+
+	/**
+	 * Get the patterns of the values of a regex operation
+	 *
+	 * @param definition definition of the element
+	 * @param index      index of the element
+	 * @param values     values to match
+	 * @param prefix     prefix of the regular expressions, like <code>^</code>
+	 * @param suffix     suffix of the regular expressions, like <code>$</code>
+	 * @return compiled patterns, one for each value
+	 * @throws QFRegexException if any value is too long or it is not a valid raw
+	 *                          regular expression
+	 */
+	static List<Pattern> patterns(QFDefinitionElement definition, int index, List<?> values, String prefix,
+			String suffix) throws QFRegexException {
+
+		boolean raw = definition.isRawRegex(index);
+		int maxLength = definition.regexMaxLength(index);
+		int flags = RegexFlags.toRegexFlags(definition.regexOptions(index));
+
+		List<Pattern> ret = new ArrayList<>(values.size());
+		for (var value : values) {
+			String val = value.toString();
+			if (val.length() > maxLength) {
+				throw new QFRegexException(definition.getFilterName(), val);
+			}
+
+			String regex = prefix + (raw ? val : escape(val)) + suffix;
+			try {
+				ret.add(CACHE.computeIfAbsent(new Key(regex, flags), key -> compile(key, raw)));
+			} catch (IllegalArgumentException e) {
+				throw new QFRegexException(definition.getFilterName(), val);
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * Get the pattern that matches a whole value literally, with the options of
+	 * the element
+	 *
+	 * @param definition definition of the element
+	 * @param index      index of the element
+	 * @param value      value to match
+	 * @return compiled pattern
+	 * @throws QFRegexException if the value is too long
+	 */
+	static Pattern literal(QFDefinitionElement definition, int index, String value) throws QFRegexException {
+		if (value.length() > definition.regexMaxLength(index)) {
+			throw new QFRegexException(definition.getFilterName(), value);
+		}
+		int flags = RegexFlags.toRegexFlags(definition.regexOptions(index));
+		return CACHE.computeIfAbsent(new Key("^" + escape(value) + "$", flags), key -> compile(key, false));
+	}
+
+	private static Pattern compile(Key key, boolean raw) {
+		if (raw) {
+			checkComplexity(key.regex());
+		}
+		try {
+			return Pattern.compile(key.regex(), key.flags());
+		} catch (PatternSyntaxException e) {
+			throw new IllegalArgumentException("Invalid regular expression " + key.regex(), e);
+		}
+	}
+
+	/**
+	 * Escape the regex characters of a value to match it literally
+	 *
+	 * @param value value
+	 * @return escaped value
+	 */
+	public static String escape(String value) {
+		StringBuilder builder = null;
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (METACHARACTERS.indexOf(c) >= 0) {
+				if (builder == null) {
+					builder = new StringBuilder(value.length() + 8).append(value, 0, i);
+				}
+				builder.append('\\');
+			}
+			if (builder != null) {
+				builder.append(c);
+			}
+		}
+		return builder != null ? builder.toString() : value;
+	}
+
+	/**
+	 * Check if a value has regex characters
+	 *
+	 * @param value value
+	 * @return true if any character must be escaped
+	 */
+	static boolean hasMetacharacters(String value) {
+		for (int i = 0; i < value.length(); i++) {
+			if (METACHARACTERS.indexOf(value.charAt(i)) >= 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Reject the regular expressions that can backtrack catastrophically:
+	 * back-references and quantified groups with quantifiers or alternations
+	 * inside, like <code>(a+)+</code> or <code>(a|aa)*</code>
+	 *
+	 * @param regex regular expression
+	 * @throws IllegalArgumentException if the regular expression is too complex
+	 */
+	static void checkComplexity(String regex) {
+
+		// Quantifiers or alternations of each open group
+		Deque<boolean[]> groups = new ArrayDeque<>();
+		boolean[] current = new boolean[1];
+		boolean lastGroupComplex = false;
+		boolean quantifiable = false;
+
+		for (int i = 0; i < regex.length(); i++) {
+			char c = regex.charAt(i);
+			boolean groupClosed = false;
+
+			switch (c) {
+			case '\\':
+				if (i + 1 < regex.length()) {
+					char next = regex.charAt(++i);
+					if ((next >= '1' && next <= '9') || next == 'k') {
+						throw new IllegalArgumentException("Back-references are not allowed on " + regex);
+					}
+				}
+				quantifiable = true;
+				break;
+			case '[':
+				i = skipClass(regex, i);
+				quantifiable = true;
+				break;
+			case '(':
+				groups.push(current);
+				current = new boolean[1];
+				if (i + 1 < regex.length() && regex.charAt(i + 1) == '?') {
+					// Group modifiers are not quantifiers
+					i++;
+				}
+				quantifiable = false;
+				break;
+			case ')':
+				lastGroupComplex = current[0];
+				current = groups.isEmpty() ? new boolean[1] : groups.pop();
+				current[0] |= lastGroupComplex;
+				groupClosed = true;
+				quantifiable = true;
+				break;
+			case '|':
+				current[0] = true;
+				quantifiable = false;
+				break;
+			case '*', '+', '?', '{':
+				if (!quantifiable) {
+					// Lazy or possessive modifier of the previous quantifier, or a literal
+					break;
+				}
+				if (c == '{') {
+					int end = regex.indexOf('}', i);
+					i = end < 0 ? i : end;
+				}
+				if (lastGroupComplex) {
+					throw new IllegalArgumentException("Nested quantifiers are not allowed on " + regex);
+				}
+				current[0] = true;
+				quantifiable = false;
+				break;
+			default:
+				quantifiable = true;
+			}
+
+			if (!groupClosed && c != '*' && c != '+' && c != '?' && c != '{') {
+				lastGroupComplex = false;
+			}
+		}
+	}
+
+	private static int skipClass(String regex, int start) {
+		int i = start + 1;
+		if (i < regex.length() && regex.charAt(i) == '^') {
+			i++;
+		}
+		if (i < regex.length() && regex.charAt(i) == ']') {
+			i++;
+		}
+		for (; i < regex.length(); i++) {
+			char c = regex.charAt(i);
+			if (c == '\\') {
+				i++;
+			} else if (c == ']') {
+				return i;
+			}
+		}
+		return regex.length();
+	}
+
+	/**
+	 * Get a snapshot of the statistics of the compiled pattern cache
+	 *
+	 * @return cache statistics
+	 */
+	public static QFCacheStats getCacheStats() {
+		return CACHE.getStats();
+	}
+
+	private record Key(String regex, int flags) {
+	}
+
+}
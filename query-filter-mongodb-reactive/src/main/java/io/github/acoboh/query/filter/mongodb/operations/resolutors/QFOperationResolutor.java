@@ -1,5 +1,6 @@
 package io.github.acoboh.query.filter.mongodb.operations.resolutors;
 
+import org.bson.Document;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.util.MultiValueMap;
 
@@ -24,6 +25,21 @@ public interface QFOperationResolutor {
 	 */
 	Mono<Criteria> generateCriteria(QFElementMatch match, int index, MultiValueMap<String, Object> mlContext);
 
+	/**
+	 * Create the document of the criteria for any query filter element of
+	 * QFElementMatch type. It is used to bind the values of prepared filter shapes
+	 * without building the criteria
+	 * 
+	 * @param match     element
+	 * @param index     index of the element
+	 * @param mlContext context of SpEL
+	 * @return document of the criteria
+	 */
+	default Mono<Document> generateDocument(QFElementMatch match, int index,
+			MultiValueMap<String, Object> mlContext) {
+		return generateCriteria(match, index, mlContext).map(Criteria::getCriteriaObject);
+	}
+
 	/**
 	 * Get the operation string value
 	 *
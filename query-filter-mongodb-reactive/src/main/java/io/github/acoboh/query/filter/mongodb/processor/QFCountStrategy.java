@@ -0,0 +1,43 @@
+package io.github.acoboh.query.filter.mongodb.processor;
+
+/**
+ * Strategies to get the total elements of the paged queries.
+ * <p>
+ * The count is skipped on any strategy if the total is known from the page
+ * results, like short first pages or last pages.
+ */
+public enum QFCountStrategy {
+
+	/**
+	 * Exact count of the matching documents
+	 */
+	EXACT,
+
+	/**
+	 * Count of the matching documents up to the count limit. Totals over the limit
+	 * are reported as the limit
+	 */
+	CAPPED,
+
+	/**
+	 * Estimated count from the collection metadata if the filter is empty, exact
+	 * count otherwise
+	 */
+	ESTIMATED,
+
+	/**
+	 * No count. One more result than the page size is fetched to know if there is
+	 * a next page, and the total elements of the page is only a lower bound
+	 */
+	SLICE,
+
+	/**
+	 * Page and count of aggregate queries on a single aggregation with a
+	 * <code>$facet</code> stage, so the documents are matched once. The results of
+	 * the page and the count must fit on a single document of 16MB. The sort is
+	 * not a top-k sort, so it needs an index to avoid sorting all the matched
+	 * documents. Find queries use the exact count
+	 */
+	FACET
+
+}
@@ -0,0 +1,148 @@
+package io.github.acoboh.query.filter.mongodb.processor;
+
+import javax.annotation.Nullable;
+
+import java.time.Duration;
+
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.query.Collation;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.mongodb.ReadPreference;
+
+import io.github.acoboh.query.filter.mongodb.annotations.QFDefinitionClass.QFQueryOptions;
+import io.github.acoboh.query.filter.mongodb.properties.QueryOptionsProperties;
+
+/**
+ * Execution options of the queries of a definition class, resolved from the
+ * annotation and the default properties
+ */
+final class QFExecutionOptions {
+
+	private final long maxTimeMs;
+	private final int batchSize;
+	private final Boolean allowDiskUse;
+	private final Collation collation;
+	private final String comment;
+	private final ReadPreference readPreference;
+
+	private QFExecutionOptions(long maxTimeMs, int batchSize, @Nullable Boolean allowDiskUse,
+			@Nullable Collation collation, @Nullable String comment, @Nullable ReadPreference readPreference) {
+		this.maxTimeMs = maxTimeMs;
+		this.batchSize = batchSize;
+		this.allowDiskUse = allowDiskUse;
+		this.collation = collation;
+		this.comment = comment;
+		this.readPreference = readPreference;
+	}
+
+	/**
+	 * Resolve the options of a definition class
+	 *
+	 * @param defaults    default options
+	 * @param options     options of the definition class
+	 * @param filterClass definition class
+	 * @return resolved options
+	 * @throws IllegalArgumentException if any option is not valid
+	 */
+	static QFExecutionOptions of(QueryOptionsProperties defaults, QFQueryOptions options, Class<?> filterClass) {
+		try {
+			long maxTimeMs = options.maxTimeMS() >= 0 ? options.maxTimeMS() : defaults.getMaxTimeMs();
+			int batchSize = options.batchSize() >= 0 ? options.batchSize() : defaults.getBatchSize();
+
+			Boolean allowDiskUse = defaults.getAllowDiskUse();
+			if (!options.allowDiskUse().isEmpty()) {
+				allowDiskUse = parseBoolean(options.allowDiskUse());
+			}
+
+			var collation = parseCollation(orDefault(options.collation(), defaults.getCollation()));
+			var comment = orDefault(options.comment(), defaults.getComment());
+			var readPreference = orDefault(options.readPreference(), defaults.getReadPreference());
+
+			return new QFExecutionOptions(maxTimeMs, batchSize, allowDiskUse, collation,
+					comment.isEmpty() ? null : comment,
+					readPreference.isEmpty() ? null : ReadPreference.valueOf(readPreference));
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Invalid query options of " + filterClass.getName(), e);
+		}
+	}
+
+	private static String orDefault(String value, @Nullable String defaultValue) {
+		if (!value.isBlank()) {
+			return value.trim();
+		}
+		return defaultValue != null ? defaultValue.trim() : "";
+	}
+
+	private static Boolean parseBoolean(String value) {
+		if (!value.equalsIgnoreCase("true") && !value.equalsIgnoreCase("false")) {
+			throw new IllegalArgumentException("Invalid allowDiskUse value " + value);
+		}
+		return Boolean.valueOf(value);
+	}
+
+	@Nullable
+	private static Collation parseCollation(String value) {
+		if (value.isEmpty()) {
+			return null;
+		}
+		return value.startsWith("{") ? Collation.parse(value) : Collation.of(value);
+	}
+
+	/**
+	 * Apply the options to a query
+	 *
+	 * @param query query
+	 * @return the same query
+	 */
+	Query apply(Query query) {
+		if (maxTimeMs > 0) {
+			query.maxTimeMsec(maxTimeMs);
+		}
+		if (batchSize > 0) {
+			query.cursorBatchSize(batchSize);
+		}
+		if (allowDiskUse != null) {
+			query.allowDiskUse(allowDiskUse);
+		}
+		if (collation != null) {
+			query.collation(collation);
+		}
+		if (comment != null) {
+			query.comment(comment);
+		}
+		if (readPreference != null) {
+			query.withReadPreference(readPreference);
+		}
+		return query;
+	}
+
+	/**
+	 * Create the aggregation options
+	 *
+	 * @return builder of aggregation options, to add other options
+	 */
+	AggregationOptions.Builder aggregationOptions() {
+		var builder = AggregationOptions.builder();
+		if (maxTimeMs > 0) {
+			builder.maxTime(Duration.ofMillis(maxTimeMs));
+		}
+		if (batchSize > 0) {
+			builder.cursorBatchSize(batchSize);
+		}
+		if (allowDiskUse != null) {
+			builder.allowDiskUse(allowDiskUse);
+		}
+		if (collation != null) {
+			builder.collation(collation);
+		}
+		if (comment != null) {
+			builder.comment(comment);
+		}
+		if (readPreference != null) {
+			builder.readPreference(readPreference);
+		}
+		return builder;
+	}
+
+}
@@ -0,0 +1,414 @@
+package io.github.acoboh.query.filter.mongodb.processor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import io.github.acoboh.query.filter.mongodb.metrics.QFMetrics;
+import io.github.acoboh.query.filter.mongodb.predicate.PredicateOperation;
+import io.github.acoboh.query.filter.mongodb.processor.definitions.QFDefinitionElement;
+import io.github.acoboh.query.filter.mongodb.processor.match.QFElementMatch;
+import io.github.acoboh.query.filter.mongodb.processor.match.QFTextMatch;
+import io.github.acoboh.query.filter.mongodb.spel.SpelResolverInterface;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Prepared shape of a query filter. The shape is made of the fields and
+ * operations of the evaluated parts, and it is compiled once into a skeleton of
+ * the final criteria with one value slot for each path of each part.
+ * <p>
+ * Filters with the same shape only have to evaluate the values of the parts and
+ * bind them on the slots. The bound criteria is the same one that the parts
+ * generate with {@link QFSpecificationPart#processPart}.
+ * <p>
+ * Shapes are compiled and bound in canonical order, sorted by field name, so
+ * filters with the same parts in a different order share the same shape. The
+ * parts are still evaluated in their own order.
+ */
+class QFFilterShape {
+
+	private static final String AND_OPERATOR = "$and";
+	private static final String OR_OPERATOR = "$or";
+
+	private static final Comparator<Slot> CANONICAL_ORDER = Comparator.comparing(Slot::field);
+
+	private static final QFFilterShape EMPTY = new QFFilterShape(null);
+
+	private final Node root;
+
+	private QFFilterShape(Node root) {
+		this.root = root;
+	}
+
+	/**
+	 * Evaluate the values of the parts. Parts with SpEL expressions are resolved
+	 * and parts with ignored blank values are discarded.
+	 * <p>
+	 * With a concurrency of one, the parts are evaluated one by one, with the
+	 * context of the values of all the previous parts. With a greater
+	 * concurrency, parts with the same order are independent and they are
+	 * evaluated at the same time, without the values of each other. Parts with a
+	 * greater order are always evaluated later.
+	 * <p>
+	 * Each part writes its values on its own context, and the contexts are merged
+	 * into a new read-only context when all the parts of the same group finish.
+	 * Parts with SpEL expressions are resolved on copies, so the parts are never
+	 * modified
+	 *
+	 * @param parts        parts sorted by order of evaluation
+	 * @param spelResolver SpEL resolver
+	 * @param concurrency  max number of parts evaluated at the same time
+	 * @param metrics      metrics of the parts
+	 * @return evaluated parts, values and context of SpEL
+	 */
+	static Mono<BoundParts> evaluate(List<QFSpecificationPart> parts, SpelResolverInterface spelResolver,
+			int concurrency, QFMetrics metrics) {
+
+		var groups = concurrency > 1 ? groupByOrder(parts) : parts.stream().map(List::of).toList();
+
+		Mono<BoundParts> ret = Mono.just(BoundParts.EMPTY);
+		for (var group : groups) {
+			ret = ret.flatMap(previous -> Flux.fromIterable(group)
+					.flatMapSequential(part -> evaluatePart(part, previous.context(), spelResolver, metrics),
+							concurrency)
+					.collectList().map(previous::merge));
+		}
+		return ret;
+	}
+
+	/**
+	 * Split the sorted parts in groups of parts with the same order. Text parts
+	 * have no order and they are added to the current group
+	 */
+	private static List<List<QFSpecificationPart>> groupByOrder(List<QFSpecificationPart> parts) {
+		List<List<QFSpecificationPart>> ret = new ArrayList<>();
+		List<QFSpecificationPart> group = null;
+		Integer order = null;
+		for (var part : parts) {
+			Integer partOrder = part instanceof QFElementMatch match ? match.getDefinition().getOrder() : order;
+			if (group == null || (partOrder != null && !partOrder.equals(order))) {
+				group = new ArrayList<>();
+				ret.add(group);
+			}
+			order = partOrder;
+			group.add(part);
+		}
+		return ret;
+	}
+
+	private static Mono<EvaluatedPart> evaluatePart(QFSpecificationPart part, MultiValueMap<String, Object> context,
+			SpelResolverInterface spelResolver, QFMetrics metrics) {
+
+		// Values of the part, written only by the part
+		MultiValueMap<String, Object> partContext = new LinkedMultiValueMap<>(1);
+
+		if (part instanceof QFElementMatch match) {
+			var resolved = match.resolve(spelResolver, context);
+			var values = resolved.needToEvaluate().filter(Boolean::booleanValue)
+					.flatMap(e -> Flux.range(0, match.getDefinition().getPaths().size())
+							.concatMap(i -> match.getOperation().generateDocument(resolved, i, partContext))
+							.collectList()
+							.map(documents -> new EvaluatedPart(resolved, documents.toArray(), partContext)));
+			return metrics.timedPart(match.getOperation().getValue(), values);
+		} else if (part instanceof QFTextMatch match) {
+			return Mono.fromCallable(() -> new EvaluatedPart(part,
+					new Object[] { match.getOperation().generateCriteriaFilter(match, partContext) }, partContext));
+		}
+
+		return Mono.error(new IllegalStateException("Unsupported specification part " + part.getClass()));
+	}
+
+	/**
+	 * Compile the shape of the parts
+	 *
+	 * @param parts evaluated parts in canonical order
+	 * @return new shape
+	 */
+	static QFFilterShape compile(List<QFSpecificationPart> parts) {
+
+		if (parts.isEmpty()) {
+			return EMPTY;
+		}
+
+		Map<String, List<Node>> nodeMap = new HashMap<>();
+
+		for (int i = 0; i < parts.size(); i++) {
+			var part = parts.get(i);
+
+			Node node;
+			if (part instanceof QFElementMatch match) {
+				node = elementNode(i, match.getDefinition());
+			} else {
+				node = new Leaf(i, 0, null);
+			}
+
+			nodeMap.computeIfAbsent(part.getDefinition().getFilterName(), t -> new ArrayList<>()).add(node);
+		}
+
+		// Same grouping of the final criteria of the query filter
+		Map<String, Node> groups = nodeMap.entrySet().stream().collect(Collectors.toMap(Entry::getKey, e -> {
+			if (e.getValue().size() == 1) {
+				return e.getValue().get(0);
+			} else {
+				return new Operator(AND_OPERATOR, List.copyOf(e.getValue()));
+			}
+		}));
+
+		if (groups.size() == 1) {
+			return new QFFilterShape(groups.values().iterator().next());
+		}
+
+		return new QFFilterShape(new Operator(AND_OPERATOR, List.copyOf(groups.values())));
+	}
+
+	private static Node elementNode(int slot, QFDefinitionElement definition) {
+		int size = definition.getPaths().size();
+		if (size == 1) {
+			return new Leaf(slot, 0, definition.getPathMappingName(0));
+		}
+
+		List<Node> leaves = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			leaves.add(new Leaf(slot, i, definition.getPathMappingName(i)));
+		}
+
+		String operator = definition.getPredicateOperation() == PredicateOperation.OR ? OR_OPERATOR : AND_OPERATOR;
+		return new Operator(operator, List.copyOf(leaves));
+	}
+
+	/**
+	 * Bind the values on the slots of the shape
+	 *
+	 * @param values documents of the evaluated parts
+	 * @return final criteria
+	 */
+	Criteria bind(List<Object[]> values) {
+		if (root == null) {
+			return new Criteria();
+		}
+		return root.toCriteria(values);
+	}
+
+	/**
+	 * Shape key of the evaluated parts. The key is always in canonical order
+	 *
+	 * @param parts evaluated parts
+	 * @return shape key
+	 */
+	static Key keyOf(List<QFSpecificationPart> parts) {
+		List<Slot> slots = new ArrayList<>(parts.size());
+		for (var part : parts) {
+			String field = part.getDefinition().getFilterName();
+			if (part instanceof QFElementMatch match) {
+				slots.add(new Slot(field, match.getOperation().getValue()));
+			} else if (part instanceof QFTextMatch match) {
+				slots.add(new Slot(field, match.getOperation().getValue()));
+			} else {
+				throw new IllegalStateException("Unsupported specification part " + part.getClass());
+			}
+		}
+		slots.sort(CANONICAL_ORDER);
+		return new Key(slots);
+	}
+
+	/**
+	 * Get the canonical order of the parts, sorted by field name and keeping the
+	 * order of the parts of the same field
+	 *
+	 * @param parts parts
+	 * @return indexes of the parts in canonical order
+	 */
+	private static int[] canonicalOrder(List<QFSpecificationPart> parts) {
+		return IntStream.range(0, parts.size()).boxed()
+				.sorted(Comparator.comparing(i -> parts.get(i).getDefinition().getFilterName()))
+				.mapToInt(Integer::intValue).toArray();
+	}
+
+	private static <T> List<T> reorder(List<T> list, int[] order) {
+		List<T> ret = new ArrayList<>(order.length);
+		for (int index : order) {
+			ret.add(list.get(index));
+		}
+		return Collections.unmodifiableList(ret);
+	}
+
+	/**
+	 * Key of cached shapes
+	 *
+	 * @param slots field and operation of each part
+	 */
+	record Key(List<Slot> slots) {
+
+		/**
+		 * Get the description of the shape, like <code>title:eq&amp;likes:gt</code>
+		 *
+		 * @return description of the shape
+		 */
+		@Override
+		public String toString() {
+			if (slots.isEmpty()) {
+				return "*";
+			}
+			return slots.stream().map(Slot::toString).collect(Collectors.joining("&"));
+		}
+
+	}
+
+	/**
+	 * Field and operation of a part
+	 *
+	 * @param field     filter name
+	 * @param operation value of the operation of the part
+	 */
+	record Slot(String field, String operation) {
+
+		@Override
+		public String toString() {
+			return field + ":" + operation;
+		}
+
+	}
+
+	/**
+	 * Evaluated parts and their values
+	 *
+	 * @param parts   evaluated parts
+	 * @param values  documents of each path of the parts
+	 * @param context values of the parts for the SpEL context
+	 */
+	record BoundParts(List<QFSpecificationPart> parts, List<Object[]> values,
+			MultiValueMap<String, Object> context) {
+
+		private static final BoundParts EMPTY = new BoundParts(List.of(), List.of(),
+				CollectionUtils.unmodifiableMultiValueMap(new LinkedMultiValueMap<>()));
+
+		/**
+		 * Get the parts and values in the canonical order of the shapes
+		 *
+		 * @return parts and values in canonical order
+		 */
+		BoundParts canonical() {
+			int[] order = canonicalOrder(parts);
+			return new BoundParts(reorder(parts, order), reorder(values, order), context);
+		}
+
+		/**
+		 * Create new bound parts with the evaluated parts added after the current ones
+		 */
+		private BoundParts merge(List<EvaluatedPart> evaluated) {
+			if (evaluated.isEmpty()) {
+				return this;
+			}
+
+			List<QFSpecificationPart> newParts = new ArrayList<>(parts.size() + evaluated.size());
+			List<Object[]> newValues = new ArrayList<>(values.size() + evaluated.size());
+			MultiValueMap<String, Object> newContext = new LinkedMultiValueMap<>(context.size() + evaluated.size());
+			newParts.addAll(parts);
+			newValues.addAll(values);
+			context.forEach((key, list) -> newContext.put(key, new ArrayList<>(list)));
+
+			for (var part : evaluated) {
+				newParts.add(part.part());
+				newValues.add(part.values());
+				part.context().forEach((key, list) -> newContext.addAll(key, list));
+			}
+
+			return new BoundParts(Collections.unmodifiableList(newParts), Collections.unmodifiableList(newValues),
+					CollectionUtils.unmodifiableMultiValueMap(newContext));
+		}
+
+	}
+
+	/**
+	 * Evaluated part
+	 *
+	 * @param part    part
+	 * @param values  documents of each path of the part
+	 * @param context values of the part for the SpEL context of the next parts
+	 */
+	private record EvaluatedPart(QFSpecificationPart part, Object[] values, MultiValueMap<String, Object> context) {
+	}
+
+	private sealed interface Node permits Leaf, Operator {
+
+		Criteria toCriteria(List<Object[]> values);
+
+		Document toDocument(List<Object[]> values);
+
+	}
+
+	/**
+	 * Slot of a path. The slot holds the document of the path criteria. Text parts
+	 * have no key and their slot holds the criteria
+	 */
+	private record Leaf(int slot, int index, String key) implements Node {
+
+		@Override
+		public Criteria toCriteria(List<Object[]> values) {
+			Object value = values.get(slot)[index];
+			if (key == null) {
+				return (Criteria) value;
+			}
+			return Criteria.where(key).is(((Document) value).get(key));
+		}
+
+		@Override
+		public Document toDocument(List<Object[]> values) {
+			Object value = values.get(slot)[index];
+			if (key == null) {
+				return ((Criteria) value).getCriteriaObject();
+			}
+			return (Document) value;
+		}
+
+	}
+
+	private record Operator(String operator, List<Node> children) implements Node {
+
+		@Override
+		public Criteria toCriteria(List<Object[]> values) {
+			Criteria[] criteria = new Criteria[children.size()];
+			for (int i = 0; i < criteria.length; i++) {
+				var child = children.get(i);
+				if (child instanceof Operator op) {
+					criteria[i] = Criteria.where(op.operator).is(op.toDocuments(values));
+				} else {
+					criteria[i] = child.toCriteria(values);
+				}
+			}
+
+			if (OR_OPERATOR.equals(operator)) {
+				return new Criteria().orOperator(criteria);
+			}
+			return new Criteria().andOperator(criteria);
+		}
+
+		@Override
+		public Document toDocument(List<Object[]> values) {
+			return new Document(operator, toDocuments(values));
+		}
+
+		private List<Document> toDocuments(List<Object[]> values) {
+			List<Document> documents = new ArrayList<>(children.size());
+			for (var child : children) {
+				documents.add(child.toDocument(values));
+			}
+			return documents;
+		}
+
+	}
+
+}
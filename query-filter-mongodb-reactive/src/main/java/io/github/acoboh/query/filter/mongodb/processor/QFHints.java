@@ -0,0 +1,104 @@
+package io.github.acoboh.query.filter.mongodb.processor;
+
+import javax.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import io.github.acoboh.query.filter.mongodb.annotations.QFDefinitionClass.QFHint;
+import io.github.acoboh.query.filter.mongodb.exceptions.definition.QFElementException;
+import io.github.acoboh.query.filter.mongodb.exceptions.definition.QFNotSortableDefinitionException;
+import io.github.acoboh.query.filter.mongodb.exceptions.definition.QueryFilterDefinitionException;
+import io.github.acoboh.query.filter.mongodb.processor.definitions.IDefinitionSortable;
+import io.github.acoboh.query.filter.mongodb.processor.definitions.QFAbstractDefinition;
+
+/**
+ * Index hint rules of a definition class
+ */
+final class QFHints {
+
+	static final QFHints EMPTY = new QFHints(List.of());
+
+	private final List<Rule> rules;
+
+	private QFHints(List<Rule> rules) {
+		this.rules = rules;
+	}
+
+	/**
+	 * Resolve the hint rules of a definition class
+	 *
+	 * @param hints         hint annotations
+	 * @param definitionMap definitions of the class by filter name
+	 * @param filterClass   definition class
+	 * @return hint rules
+	 * @throws QueryFilterDefinitionException if a field of a rule is not defined
+	 *                                        or a sorted field is not sortable
+	 */
+	static QFHints of(QFHint[] hints, Map<String, QFAbstractDefinition> definitionMap, Class<?> filterClass)
+			throws QueryFilterDefinitionException {
+
+		if (hints.length == 0) {
+			return EMPTY;
+		}
+
+		List<Rule> rules = new ArrayList<>(hints.length);
+		for (var hint : hints) {
+			if (hint.index().isBlank()) {
+				throw new IllegalArgumentException("Blank index name on hint of " + filterClass.getName());
+			}
+
+			for (var field : hint.fields()) {
+				if (!definitionMap.containsKey(field)) {
+					throw new QFElementException(field, filterClass);
+				}
+			}
+
+			for (var field : hint.sort()) {
+				var definition = definitionMap.get(field);
+				if (definition == null) {
+					throw new QFElementException(field, filterClass);
+				}
+				if (!(definition instanceof IDefinitionSortable)) {
+					throw new QFNotSortableDefinitionException(field, filterClass);
+				}
+			}
+
+			rules.add(new Rule(Set.copyOf(List.of(hint.fields())), List.of(hint.sort()), hint.index()));
+		}
+
+		return new QFHints(List.copyOf(rules));
+	}
+
+	/**
+	 * Get if there are no rules
+	 *
+	 * @return true if there are no rules
+	 */
+	boolean isEmpty() {
+		return rules.isEmpty();
+	}
+
+	/**
+	 * Find the index of the first rule that matches the filter
+	 *
+	 * @param fields filtered fields
+	 * @param sort   sorted fields, in order
+	 * @return index name or null if no rule matches
+	 */
+	@Nullable
+	String find(Set<String> fields, List<String> sort) {
+		for (var rule : rules) {
+			if (rule.fields().equals(fields) && rule.sort().equals(sort)) {
+				return rule.index();
+			}
+		}
+		return null;
+	}
+
+	private record Rule(Set<String> fields, List<String> sort, String index) {
+	}
+
+}
@@ -0,0 +1,26 @@
+package io.github.acoboh.query.filter.mongodb.processor;
+
+import javax.annotation.Nullable;
+
+import java.util.List;
+
+/**
+ * Page of a keyset paginated query
+ *
+ * @param content   results of the page
+ * @param nextToken opaque token to request the next page, or null if it is the
+ *                  last page
+ * @param <T>       type of the results
+ */
+public record QFKeysetPage<T>(List<T> content, @Nullable String nextToken) {
+
+	/**
+	 * Get if there are more results after this page
+	 *
+	 * @return true if there is a next page
+	 */
+	public boolean hasNext() {
+		return nextToken != null;
+	}
+
+}
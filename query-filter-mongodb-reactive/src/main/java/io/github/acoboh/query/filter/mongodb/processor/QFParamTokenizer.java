@@ -0,0 +1,177 @@
+package io.github.acoboh.query.filter.mongodb.processor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Single pass tokenizer of query filter inputs.
+ * <p>
+ * It returns the same parts that the {@linkplain QFParamType#getPattern()}
+ * regular expressions find, without backtracking. Each character of the input
+ * is visited a bounded number of times, so the cost is linear with the input
+ * length.
+ * <p>
+ * Values end on the first <code>&amp;</code> followed by an ASCII letter or
+ * digit, or on a <code>&amp;</code> at the end of the input. Any other
+ * <code>&amp;</code> is part of the value.
+ */
+final class QFParamTokenizer {
+
+	private static final String SORT_FIELD = "sort";
+
+	private QFParamTokenizer() {
+		// Utility class
+	}
+
+	/**
+	 * Split the input in parts
+	 *
+	 * @param input input to split
+	 * @param type  type of parameters
+	 * @return list of parts in input order
+	 */
+	static List<QFParamPart> tokenize(String input, QFParamType type) {
+		List<QFParamPart> parts = new ArrayList<>();
+
+		boolean brackets = type == QFParamType.LHS_BRACKETS;
+
+		int pos = 0;
+		while (pos < input.length()) {
+			pos = brackets ? nextBrackets(input, pos, parts) : nextColon(input, pos, parts);
+		}
+
+		return parts;
+	}
+
+	private static int nextColon(String input, int pos, List<QFParamPart> parts) {
+
+		if (isSortAt(input, pos)) {
+			return addSort(input, pos, parts);
+		}
+
+		int eq = scanField(input, pos);
+		if (eq == pos) { // Empty field
+			return pos + 1;
+		}
+
+		if (eq == input.length() || input.charAt(eq) != '=') { // Missing value
+			return eq;
+		}
+
+		String field = input.substring(pos, eq);
+
+		int valueStart = eq + 1;
+		String op = null;
+
+		int lettersEnd = scanLetters(input, valueStart);
+		if (lettersEnd > valueStart && lettersEnd < input.length() && input.charAt(lettersEnd) == ':') {
+			op = input.substring(valueStart, lettersEnd);
+			valueStart = lettersEnd + 1;
+		}
+
+		int end = scanValue(input, valueStart);
+		parts.add(QFParamPart.ofValue(field, op, input.substring(valueStart, end)));
+
+		return end;
+	}
+
+	private static int nextBrackets(String input, int pos, List<QFParamPart> parts) {
+
+		if (isSortAt(input, pos)) {
+			return addSort(input, pos, parts);
+		}
+
+		int eq = scanField(input, pos);
+		if (eq == pos) { // Empty field
+			return pos + 1;
+		}
+
+		if (eq == input.length() || input.charAt(eq) != '=') { // Missing value
+			return eq;
+		}
+
+		// The field must end with [operation]
+		int close = eq - 1;
+		if (input.charAt(close) == ']') {
+			int open = close - 1;
+			while (open > pos && isAsciiLetter(input.charAt(open))) {
+				open--;
+			}
+
+			if (open > pos && open < close - 1 && input.charAt(open) == '[') {
+				int end = scanValue(input, eq + 1);
+				parts.add(QFParamPart.ofValue(input.substring(pos, open), input.substring(open + 1, close),
+						input.substring(eq + 1, end)));
+				return end;
+			}
+		}
+
+		// No operation. The sort parameter can still start inside the field
+		int sortPos = eq - SORT_FIELD.length();
+		if (sortPos > pos && isSortAt(input, sortPos)) {
+			return addSort(input, sortPos, parts);
+		}
+
+		return eq;
+	}
+
+	private static boolean isSortAt(String input, int pos) {
+		int valueStart = pos + SORT_FIELD.length() + 1;
+		return valueStart < input.length() && input.startsWith(SORT_FIELD, pos)
+				&& input.charAt(valueStart - 1) == '=' && input.charAt(valueStart) != '&';
+	}
+
+	private static int addSort(String input, int pos, List<QFParamPart> parts) {
+		int valueStart = pos + SORT_FIELD.length() + 1;
+		int end = input.indexOf('&', valueStart);
+		if (end < 0) {
+			end = input.length();
+		}
+		parts.add(QFParamPart.ofSort(input.substring(valueStart, end)));
+		return end;
+	}
+
+	private static int scanField(String input, int pos) {
+		int i = pos;
+		while (i < input.length()) {
+			char c = input.charAt(i);
+			if (c == '&' || c == '=') {
+				break;
+			}
+			i++;
+		}
+		return i;
+	}
+
+	private static int scanLetters(String input, int pos) {
+		int i = pos;
+		while (i < input.length() && isAsciiLetter(input.charAt(i))) {
+			i++;
+		}
+		return i;
+	}
+
+	private static int scanValue(String input, int pos) {
+		int length = input.length();
+		int i = pos;
+		while (i < length) {
+			if (input.charAt(i) != '&') {
+				i++;
+			} else if (i + 1 < length && !isAsciiLetterOrDigit(input.charAt(i + 1))) {
+				i += 2;
+			} else {
+				break;
+			}
+		}
+		return i;
+	}
+
+	private static boolean isAsciiLetter(char c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+	}
+
+	private static boolean isAsciiLetterOrDigit(char c) {
+		return isAsciiLetter(c) || (c >= '0' && c <= '9');
+	}
+
+}
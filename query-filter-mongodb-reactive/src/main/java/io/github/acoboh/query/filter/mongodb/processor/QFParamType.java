@@ -47,7 +47,8 @@ public enum QFParamType {
 	}
 
 	/**
-	 * Get pattern for parsing
+	 * Get pattern for parsing. The filters are split by a single pass tokenizer
+	 * that finds the same parts as the pattern
 	 *
 	 * @return pattern
 	 */
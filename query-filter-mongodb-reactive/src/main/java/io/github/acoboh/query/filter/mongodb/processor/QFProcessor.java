@@ -1,6 +1,7 @@
 package io.github.acoboh.query.filter.mongodb.processor;
 
 import java.lang.reflect.Field;
+import java.time.Clock;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -17,6 +18,8 @@ import org.springframework.data.util.Pair;
 import io.github.acoboh.query.filter.mongodb.annotations.QFDefinitionClass;
 import io.github.acoboh.query.filter.mongodb.annotations.QFProjection;
 import io.github.acoboh.query.filter.mongodb.annotations.QFProjections;
+import io.github.acoboh.query.filter.mongodb.cache.QFBoundedCache;
+import io.github.acoboh.query.filter.mongodb.cache.QFCacheStats;
 import io.github.acoboh.query.filter.mongodb.config.ApplicationContextAwareSupport;
 import io.github.acoboh.query.filter.mongodb.exceptions.QueryFilterException;
 import io.github.acoboh.query.filter.mongodb.exceptions.definition.QFClassException;
@@ -24,11 +27,15 @@ import io.github.acoboh.query.filter.mongodb.exceptions.definition.QFElementExce
 import io.github.acoboh.query.filter.mongodb.exceptions.definition.QFNotSortableDefinitionException;
 import io.github.acoboh.query.filter.mongodb.exceptions.definition.QFTypeException;
 import io.github.acoboh.query.filter.mongodb.exceptions.definition.QueryFilterDefinitionException;
+import io.github.acoboh.query.filter.mongodb.explain.QFExplainSampler;
+import io.github.acoboh.query.filter.mongodb.metrics.QFMetrics;
 import io.github.acoboh.query.filter.mongodb.processor.definitions.IDefinitionSortable;
 import io.github.acoboh.query.filter.mongodb.processor.definitions.QFAbstractDefinition;
 import io.github.acoboh.query.filter.mongodb.processor.definitions.QFDefinitionElement;
 import io.github.acoboh.query.filter.mongodb.processor.match.QFElementMatch;
 import io.github.acoboh.query.filter.mongodb.processor.projection.ProjectionDefinition;
+import io.github.acoboh.query.filter.mongodb.properties.CacheProperties;
+import io.github.acoboh.query.filter.mongodb.properties.QueryFilterProperties;
 
 /**
  * Query filter processor
@@ -51,10 +58,27 @@ public class QFProcessor<F, E> {
 
 	private final List<Pair<IDefinitionSortable, Direction>> defaultSorting;
 
+	private final QFHints hints;
+
 	private final ApplicationContext appContext;
 
 	private final Map<Class<?>, ProjectionDefinition> mapProjections;
 
+	private volatile boolean cachesInitialized;
+	private QFBoundedCache<QFFilterPlan.Key, QFFilterPlan> planCache;
+	private int planMaxInputLength;
+	private QFBoundedCache<QFFilterShape.Key, QFFilterShape> shapeCache;
+
+	private volatile QFMetrics metrics;
+
+	private volatile boolean explainSamplerInitialized;
+
+	private QFExplainSampler explainSampler;
+
+	private volatile QFExecutionOptions executionOptions;
+
+	private volatile int spelConcurrency;
+
 	public QFProcessor(Class<F> filterClass, Class<E> entityClass, ApplicationContextAwareSupport appContext)
 			throws QueryFilterDefinitionException {
 		this(filterClass, entityClass, appContext.getApplicationContext());
@@ -84,9 +108,10 @@ public class QFProcessor<F, E> {
 			throw new QFClassException(queryFilterClass.value(), filterClass, entityClass);
 		}
 
-		this.definitionMap = getDefinition(filterClass, queryFilterClass);
+		this.definitionMap = getDefinition(filterClass, queryFilterClass, getClock());
 		this.defaultMatches = defaultMatches(definitionMap);
 		this.defaultSorting = getDefaultSorting(queryFilterClass, definitionMap, filterClass);
+		this.hints = QFHints.of(queryFilterClass.hints(), definitionMap, filterClass);
 
 		LOGGER.debug("Initialized query filter processor for classes {} to {}", filterClass, entityClass);
 
@@ -112,13 +137,13 @@ public class QFProcessor<F, E> {
 	}
 
 	private static Map<String, QFAbstractDefinition> getDefinition(Class<?> filterClass,
-			QFDefinitionClass queryFilterClass) throws QueryFilterDefinitionException {
+			QFDefinitionClass queryFilterClass, Clock clock) throws QueryFilterDefinitionException {
 
 		Map<String, QFAbstractDefinition> map = new HashMap<>();
 
 		for (Field field : filterClass.getDeclaredFields()) {
 
-			var qfd = QFAbstractDefinition.buildDefinition(field, filterClass, queryFilterClass.value());
+			var qfd = QFAbstractDefinition.buildDefinition(field, filterClass, queryFilterClass.value(), clock);
 			if (qfd == null) {
 				continue;
 			}
@@ -225,7 +250,7 @@ public class QFProcessor<F, E> {
 	 * 
 	 * @return default sorting operations
 	 */
-	protected List<Pair<IDefinitionSortable, Direction>> getDefaultSorting() {
+	public List<Pair<IDefinitionSortable, Direction>> getDefaultSorting() {
 		return defaultSorting;
 	}
 
@@ -247,6 +272,202 @@ public class QFProcessor<F, E> {
 		return mapProjections;
 	}
 
+	/**
+	 * Get the parsed plan of the input. Plans are cached if the cache is enabled
+	 * and the input is not too long
+	 *
+	 * @param input string filter
+	 * @param type  standard type
+	 * @return parsed plan
+	 */
+	QFFilterPlan getFilterPlan(String input, QFParamType type) {
+		if (input.isEmpty()) {
+			return QFFilterPlan.EMPTY;
+		}
+		return getFilterPlan(QFParamTokenizer.tokenize(input, type), input, type);
+	}
+
+	/**
+	 * Get the parsed plan of the tokenized input. Plans are cached if the cache is
+	 * enabled and the input is not too long
+	 *
+	 * @param tokens parts of the input in input order
+	 * @param input  string filter
+	 * @param type   standard type
+	 * @return parsed plan
+	 */
+	QFFilterPlan getFilterPlan(List<QFParamPart> tokens, String input, QFParamType type) {
+		if (tokens.isEmpty()) {
+			return QFFilterPlan.EMPTY;
+		}
+
+		var parts = QFFilterPlan.canonicalize(tokens);
+
+		var cache = getPlanCache();
+		if (cache == null || input.length() > planMaxInputLength) {
+			return QFFilterPlan.build(parts, input, definitionMap);
+		}
+
+		return cache.computeIfAbsent(new QFFilterPlan.Key(type, parts),
+				key -> QFFilterPlan.build(parts, input, definitionMap));
+	}
+
+	private QFBoundedCache<QFFilterPlan.Key, QFFilterPlan> getPlanCache() {
+		initializeCaches();
+		return planCache;
+	}
+
+	private QFBoundedCache<QFFilterShape.Key, QFFilterShape> getShapeCache() {
+		initializeCaches();
+		return shapeCache;
+	}
+
+	private void initializeCaches() {
+		if (!cachesInitialized) {
+			synchronized (this) {
+				if (!cachesInitialized) {
+					CacheProperties properties = getProperties().getCache();
+					if (properties.getPlanMaxSize() > 0) {
+						planCache = new QFBoundedCache<>(properties.getPlanMaxSize());
+					}
+					planMaxInputLength = properties.getPlanMaxInputLength();
+					if (properties.getShapeMaxSize() > 0) {
+						shapeCache = new QFBoundedCache<>(properties.getShapeMaxSize());
+					}
+					cachesInitialized = true;
+
+					LOGGER.debug("Caches of filter {} initialized with max sizes: plans {}, shapes {}", filterClass,
+							properties.getPlanMaxSize(), properties.getShapeMaxSize());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Get the clock of the relative dates, from the context or the system clock
+	 */
+	private Clock getClock() {
+		if (appContext == null) {
+			return Clock.systemUTC();
+		}
+		return appContext.getBeanProvider(Clock.class).getIfAvailable(Clock::systemUTC);
+	}
+
+	private QueryFilterProperties getProperties() {
+		if (appContext == null) {
+			return new QueryFilterProperties();
+		}
+		return appContext.getBeanProvider(QueryFilterProperties.class).getIfAvailable(QueryFilterProperties::new);
+	}
+
+	/**
+	 * Get the prepared shape of the evaluated parts. Shapes are cached if the
+	 * cache is enabled
+	 *
+	 * @param parts evaluated parts in canonical order
+	 * @return prepared shape
+	 */
+	QFFilterShape getFilterShape(List<QFSpecificationPart> parts) {
+		var cache = getShapeCache();
+		if (cache == null) {
+			return QFFilterShape.compile(parts);
+		}
+
+		return cache.computeIfAbsent(QFFilterShape.keyOf(parts), key -> {
+			LOGGER.debug("New filter shape of filter {}: {}", filterClass, key);
+			return QFFilterShape.compile(parts);
+		});
+	}
+
+	/**
+	 * Get the statistics of the prepared filter shape cache. The misses are the
+	 * number of compiled shapes and the size is the number of distinct shapes
+	 * cached
+	 *
+	 * @return statistics of the cache
+	 */
+	public QFCacheStats getShapeCacheStats() {
+		var cache = getShapeCache();
+		return cache != null ? cache.getStats() : QFCacheStats.DISABLED;
+	}
+
+	/**
+	 * Get the statistics of the parsed filter plan cache
+	 *
+	 * @return statistics of the cache
+	 */
+	public QFCacheStats getPlanCacheStats() {
+		var cache = getPlanCache();
+		return cache != null ? cache.getStats() : QFCacheStats.DISABLED;
+	}
+
+	/**
+	 * Get the metrics of the filters of the processor
+	 *
+	 * @return metrics, disabled if there is no meter registry
+	 */
+	public QFMetrics getMetrics() {
+		var ret = metrics;
+		if (ret == null) {
+			ret = QFMetrics.of(appContext, filterClass, entityClass);
+			metrics = ret;
+		}
+		return ret;
+	}
+
+	/**
+	 * Get the sampler of explains, if the sampled explain is enabled
+	 *
+	 * @return sampler of explains or null if disabled
+	 */
+	QFExplainSampler getExplainSampler() {
+		if (!explainSamplerInitialized) {
+			if (appContext != null) {
+				explainSampler = appContext.getBeanProvider(QFExplainSampler.class).getIfAvailable();
+			}
+			explainSamplerInitialized = true;
+		}
+		return explainSampler;
+	}
+
+	/**
+	 * Get the index hint rules of the definition class
+	 *
+	 * @return index hint rules
+	 */
+	QFHints getHints() {
+		return hints;
+	}
+
+	/**
+	 * Get the execution options of the queries
+	 *
+	 * @return execution options
+	 */
+	QFExecutionOptions getExecutionOptions() {
+		var ret = executionOptions;
+		if (ret == null) {
+			ret = QFExecutionOptions.of(getProperties().getQueryOptions(), queryFilterClass.queryOptions(),
+					filterClass);
+			executionOptions = ret;
+		}
+		return ret;
+	}
+
+	/**
+	 * Get the max number of parts with the same order evaluated at the same time
+	 *
+	 * @return max number of parts evaluated at the same time
+	 */
+	int getSpelConcurrency() {
+		int ret = spelConcurrency;
+		if (ret == 0) {
+			ret = getProperties().getSpel().getConcurrency();
+			spelConcurrency = ret;
+		}
+		return ret;
+	}
+
 	public QueryFilter<E> newQueryFilter(String input, QFParamType type) throws QueryFilterException {
 		return new QueryFilter<>(input, type, this);
 	}
@@ -1,16 +1,18 @@
 package io.github.acoboh.query.filter.mongodb.processor;
 
+import javax.annotation.Nullable;
+
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import org.bson.Document;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
@@ -20,23 +22,19 @@ import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
 import org.springframework.data.mongodb.core.aggregation.Aggregation;
 import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
 import org.springframework.data.mongodb.core.aggregation.ProjectionOperation;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.util.Pair;
 import org.springframework.util.Assert;
-import org.springframework.util.LinkedMultiValueMap;
-import org.springframework.util.MultiValueMap;
 
-import io.github.acoboh.query.filter.mongodb.exceptions.QFBlockException;
-import io.github.acoboh.query.filter.mongodb.exceptions.QFDiscriminatorNotFoundException;
 import io.github.acoboh.query.filter.mongodb.exceptions.QFFieldNotFoundException;
-import io.github.acoboh.query.filter.mongodb.exceptions.QFJsonParseException;
+import io.github.acoboh.query.filter.mongodb.exceptions.QFInvalidTokenException;
 import io.github.acoboh.query.filter.mongodb.exceptions.QFMultipleSortException;
 import io.github.acoboh.query.filter.mongodb.exceptions.QFNotSortableException;
 import io.github.acoboh.query.filter.mongodb.exceptions.QFNotValuable;
-import io.github.acoboh.query.filter.mongodb.exceptions.QFOperationNotFoundException;
-import io.github.acoboh.query.filter.mongodb.exceptions.QFParseException;
+import io.github.acoboh.query.filter.mongodb.metrics.QFMetrics;
 import io.github.acoboh.query.filter.mongodb.operations.QFOperationEnum;
 import io.github.acoboh.query.filter.mongodb.operations.QFOperationTextEnum;
 import io.github.acoboh.query.filter.mongodb.processor.definitions.IDefinitionSortable;
@@ -46,6 +44,7 @@ import io.github.acoboh.query.filter.mongodb.processor.definitions.QFDefinitionT
 import io.github.acoboh.query.filter.mongodb.processor.match.QFElementMatch;
 import io.github.acoboh.query.filter.mongodb.processor.match.QFTextMatch;
 import io.github.acoboh.query.filter.mongodb.processor.projection.ProjectionDefinition;
+import io.github.acoboh.query.filter.mongodb.spel.SpelEvaluationScope;
 import io.github.acoboh.query.filter.mongodb.spel.SpelResolverInterface;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -58,9 +57,13 @@ public class QueryFilter<E> {
 	private static final String OPERATION_NOT_NULL_MESSAGE = "operation cannot be null";
 	private static final String VALUES_NOT_NULL_MESSAGE = "values cannot be null";
 
-	private static final Pattern REGEX_PATTERN = Pattern.compile("([+-])([a-zA-Z0-9]+)");
 	private static final String LOG_FINAL_PIPELINE = "Final generated aggregate pipeline: '{}'";
 
+	private static final String KEYSET_FIELD = "_qfKeyset";
+
+	private static final String FACET_DATA = "data";
+	private static final String FACET_TOTAL = "total";
+
 	private final String initialInput;
 
 	private final QFSpecificationsWrap specificationsWarp;
@@ -71,16 +74,22 @@ public class QueryFilter<E> {
 
 	private boolean defaultSortEnabled = true;
 
+	private QFCountStrategy countStrategy;
+	private int countLimit;
+
 	private final Class<E> entityClass;
 	private final Class<?> predicateClass;
 	private final SpelResolverInterface spelResolver;
 	private final List<Pair<IDefinitionSortable, Sort.Direction>> sortDefinitionList = new ArrayList<>();
-	private boolean isConstructor = true;
 
 	private final Map<Class<?>, ProjectionDefinition> mapProjections;
 
 	private final ReactiveMongoTemplate mongoTemplate;
 
+	private final QFProcessor<?, E> processor;
+
+	private final QFMetrics metrics;
+
 	/**
 	 * Create a new QueryFilter instance with the given input, type, and processor.
 	 *
@@ -91,111 +100,46 @@ public class QueryFilter<E> {
 	protected QueryFilter(String input, QFParamType type, QFProcessor<?, E> processor) {
 		Assert.notNull(type, "type cannot be null");
 
-		this.definitionMap = processor.getDefinitionMap();
-		this.mapProjections = processor.getMapProjections();
-
-		this.specificationsWarp = new QFSpecificationsWrap(processor.getDefaultMatches());
-
-		this.defaultSorting = processor.getDefaultSorting();
-		this.entityClass = processor.getEntityClass();
-		this.predicateClass = processor.getFilterClass();
-		this.spelResolver = processor.getApplicationContext().getBean(SpelResolverInterface.class);
-
-		this.initialInput = input != null ? input : "";
-
-		if (input != null && !input.isEmpty()) {
-
-			var matcher = type.getPattern().matcher(input);
-			while (matcher.find()) {
-				if (LOGGER.isTraceEnabled()) {
-					LOGGER.trace("Found match: {}", matcher.group());
-				}
-
-				if (matcher.group(1) != null) {
-					parseSortPart(matcher.group(2));
-				} else if (matcher.group(3) != null) {
-					parseValuePart(matcher.group(4), matcher.group(5), matcher.group(6));
-				} else {
-					throw new QFParseException(matcher.group(), input);
-				}
-
-			}
-
-		}
-
-		isConstructor = false;
-
-		this.mongoTemplate = processor.getApplicationContext().getBean(ReactiveMongoTemplate.class);
-
-	}
-
-	private void parseValuePart(String field, String op, String value)
-			throws QFParseException, QFFieldNotFoundException, QFOperationNotFoundException,
-			QFDiscriminatorNotFoundException, QFBlockException, QFJsonParseException, QFNotValuable {
-
-		QFAbstractDefinition def = definitionMap.get(field);
-		if (def == null) {
-			throw new QFFieldNotFoundException(field);
-		}
-
-		if (def.isConstructorBlocked() && isConstructor) {
-			throw new QFBlockException(field);
-		}
-
-		QFSpecificationPart qfSpecificationPart;
-		if (def instanceof QFDefinitionElement qdef) {
-			var operation = op == null ? QFOperationEnum.EQUAL : QFOperationEnum.fromValue(op);
-			qfSpecificationPart = new QFElementMatch(Arrays.asList(value.split(",")), operation, qdef);
-		} else if (def instanceof QFDefinitionText qdef) {
-			var operation = op == null ? QFOperationTextEnum.EQUAL : QFOperationTextEnum.fromValue(op);
-			qfSpecificationPart = new QFTextMatch(value, operation, qdef);
-		} else {
-			throw new QFNotValuable(field);
-		}
-
-		specificationsWarp.addSpecification(qfSpecificationPart);
-
-	}
-
-	private void parseSortPart(String values)
-			throws QFParseException, QFNotSortableException, QFMultipleSortException, QFFieldNotFoundException {
-
-		Matcher matcher = REGEX_PATTERN.matcher(values);
-		boolean match = false;
-		while (matcher.find()) {
-			match = true;
-
-			String order = matcher.group(1);
-			String fieldName = matcher.group(2);
-
-			QFAbstractDefinition def = definitionMap.get(fieldName);
-			if (def == null) {
-				throw new QFFieldNotFoundException(fieldName);
-			}
-
-			if (!(def instanceof IDefinitionSortable)) {
-				throw new QFNotSortableException(fieldName);
-			}
-
-			if (this.sortDefinitionList.stream().anyMatch(e -> e.getFirst().getFilterName().equals(fieldName))) {
-				throw new QFMultipleSortException(fieldName);
+		this.processor = processor;
+		this.metrics = processor.getMetrics();
+
+		long start = metrics.start();
+		try {
+			this.definitionMap = processor.getDefinitionMap();
+			this.mapProjections = processor.getMapProjections();
+
+			this.specificationsWarp = new QFSpecificationsWrap(
+					processor.getDefaultMatches().stream().map(QFElementMatch::copyForRequest).toList());
+
+			this.defaultSorting = processor.getDefaultSorting();
+			this.countStrategy = processor.getDefinitionClassAnnotation().countStrategy();
+			this.countLimit = processor.getDefinitionClassAnnotation().countLimit();
+			this.entityClass = processor.getEntityClass();
+			this.predicateClass = processor.getFilterClass();
+			this.spelResolver = metrics.timed(processor.getApplicationContext().getBean(SpelResolverInterface.class));
+
+			this.initialInput = input != null ? input : "";
+
+			// Parts are evaluated in input order, not in the canonical order of the plan
+			var tokens = initialInput.isEmpty() ? List.<QFParamPart>of()
+					: QFParamTokenizer.tokenize(initialInput, type);
+			var plan = processor.getFilterPlan(tokens, initialInput, type);
+			for (var part : plan.getParts(tokens)) {
+				specificationsWarp.addSpecification(
+						part instanceof QFElementMatch elementMatch ? elementMatch.copyForRequest() : part);
 			}
 
-			Sort.Direction dir;
-			if (order.equals("+")) {
-				dir = Sort.Direction.ASC;
-			} else {
-				dir = Sort.Direction.DESC;
+			if (!plan.getSorts().isEmpty()) {
+				this.sortDefinitionList.addAll(plan.getSorts());
+				this.defaultSortEnabled = false;
 			}
 
-			Pair<IDefinitionSortable, Sort.Direction> pair = Pair.of((IDefinitionSortable) def, dir);
-			this.sortDefinitionList.add(pair);
-			this.defaultSortEnabled = false;
-
-		}
-
-		if (!match) {
-			throw new QFParseException(values, initialInput);
+			this.mongoTemplate = processor.getApplicationContext().getBean(ReactiveMongoTemplate.class);
+		} catch (RuntimeException e) {
+			metrics.error(QFMetrics.PARSE, e);
+			throw e;
+		} finally {
+			metrics.record(QFMetrics.PARSE, start);
 		}
 
 	}
@@ -360,6 +304,48 @@ public class QueryFilter<E> {
 		return specificationsWarp.getAllParts().stream().anyMatch(e -> e.getDefinition().getFilterName().equals(field));
 	}
 
+	/**
+	 * Get the strategy to get the total elements of the paged queries
+	 *
+	 * @return count strategy
+	 */
+	public QFCountStrategy getCountStrategy() {
+		return countStrategy;
+	}
+
+	/**
+	 * Set the strategy to get the total elements of the paged queries. By default,
+	 * the strategy of the definition class is used
+	 *
+	 * @param countStrategy count strategy
+	 */
+	public void setCountStrategy(QFCountStrategy countStrategy) {
+		Assert.notNull(countStrategy, "countStrategy cannot be null");
+		this.countStrategy = countStrategy;
+	}
+
+	/**
+	 * Get the max number of documents counted with the
+	 * {@link QFCountStrategy#CAPPED} strategy
+	 *
+	 * @return count limit
+	 */
+	public int getCountLimit() {
+		return countLimit;
+	}
+
+	/**
+	 * Set the max number of documents counted with the
+	 * {@link QFCountStrategy#CAPPED} strategy. By default, the limit of the
+	 * definition class is used
+	 *
+	 * @param countLimit count limit
+	 */
+	public void setCountLimit(int countLimit) {
+		Assert.isTrue(countLimit > 0, "countLimit must be greater than zero");
+		this.countLimit = countLimit;
+	}
+
 	/**
 	 * Check if any of the fields is are currently used for filtering
 	 *
@@ -450,6 +436,12 @@ public class QueryFilter<E> {
 
 		if (qfSpec == null) {
 			return Flux.empty();
+		} else if (qfSpec instanceof QFElementMatch qfElement && qfElement.getDefinition().isSpelExpression()) {
+			// Resolved on each evaluation, with the values of the previous parts
+			return evaluateParts().flatMapIterable(QFFilterShape.BoundParts::parts)
+					.filter(part -> part.getDefinition().getFilterName().equals(field)).next()
+					.flatMapMany(part -> ((QFElementMatch) part).getParsedValues())
+					.contextWrite(SpelEvaluationScope::with);
 		} else if (qfSpec instanceof QFElementMatch qfElement) {
 			return qfElement.getParsedValues();
 		} else if (qfSpec instanceof QFTextMatch qfText) {
@@ -483,31 +475,28 @@ public class QueryFilter<E> {
 	 * @return a criteria query
 	 */
 	public Mono<Criteria> toCriteria() {
-		Map<String, List<Criteria>> criteriaMap = new HashMap<>();
-
-		var sortedParts = specificationsWarp.getAllPartsSorted();
-
-		MultiValueMap<String, Object> mlmap = new LinkedMultiValueMap<>(sortedParts.size());
-
-		LOGGER.debug("Processing parts: {}", sortedParts);
+		var criteria = evaluateParts() // Evaluate the parts
+				.map(QFFilterShape.BoundParts::canonical) // Canonical order of the shape
+				.map(bound -> processor.getFilterShape(bound.parts()).bind(bound.values())) // Bind the shape
+				.map(QFCriteriaNormalizer::normalize);
 
-		return Flux.fromIterable(sortedParts).doOnNext(e -> LOGGER.debug("Processing part {}", e)).flatMap(part ->
-		// Process each part
-		part.processPart(criteriaMap, mlmap, spelResolver)).then( // Process the final criteria
-				Mono.fromCallable(() -> parseFinalCriteria(criteriaMap)) // Final criteria processing
-		).doOnSuccess(c -> {
+		return metrics.timed(QFMetrics.CRITERIA, criteria).doOnSuccess(c -> {
 			if (LOGGER.isTraceEnabled()) {
 				LOGGER.trace("Final criteria {}", c.getCriteriaObject().toBsonDocument());
 			}
-		}).doOnTerminate(() -> {
-			if (LOGGER.isDebugEnabled()) {
-				LOGGER.debug("Final criteria map: {}", criteriaMap);
-			}
 		}).doOnError(e -> {
 			if (LOGGER.isErrorEnabled()) {
 				LOGGER.error("Error processing criteria", e);
 			}
-		});
+		}).contextWrite(SpelEvaluationScope::with); // Shared SpEL values of the request
+	}
+
+	private Mono<QFFilterShape.BoundParts> evaluateParts() {
+		var sortedParts = specificationsWarp.getAllPartsSorted();
+
+		LOGGER.debug("Processing parts: {}", sortedParts);
+
+		return QFFilterShape.evaluate(sortedParts, spelResolver, processor.getSpelConcurrency(), metrics);
 	}
 
 	/**
@@ -533,7 +522,7 @@ public class QueryFilter<E> {
 			}
 		}).map(finalCriteria -> {
 
-			Query query = new Query().addCriteria(finalCriteria);
+			Query query = newQuery(finalCriteria);
 
 			if (withSorts) {
 				query = processSort(query);
@@ -557,13 +546,17 @@ public class QueryFilter<E> {
 	 * @return a list of entities
 	 */
 	public Flux<E> executeFindQuery() {
-		return toCriteriaQuery(true).flatMapMany(va -> mongoTemplate.find(va, entityClass));
+		return toCriteriaQuery(true).flatMapMany(va -> {
+			sampleExplain(va);
+			return metrics.timed(QFMetrics.FIND, mongoTemplate.find(va, entityClass));
+		});
 	}
 
 	public Flux<E> executeFindQuery(int limit) {
 		return toCriteriaQuery(true).flatMapMany(va -> {
 			va.limit(limit);
-			return mongoTemplate.find(va, entityClass);
+			sampleExplain(va);
+			return metrics.timed(QFMetrics.FIND, mongoTemplate.find(va, entityClass));
 		});
 	}
 
@@ -587,12 +580,14 @@ public class QueryFilter<E> {
 
 			aggs.add(getProjectionOfClass(returnType));
 
-			var pipeline = Aggregation.newAggregation(aggs);
+			sampleExplain(new Query(query).with(Sort.by(orders)));
+
+			var pipeline = newAggregation(aggs);
 			if (LOGGER.isDebugEnabled()) {
 				LOGGER.debug(LOG_FINAL_PIPELINE, pipeline);
 			}
 
-			return mongoTemplate.aggregate(pipeline, entityClass, returnType);
+			return metrics.timed(QFMetrics.AGGREGATE, mongoTemplate.aggregate(pipeline, entityClass, returnType));
 
 		});
 	}
@@ -611,12 +606,14 @@ public class QueryFilter<E> {
 			aggs.add(getProjectionOfClass(returnType));
 			aggs.add(Aggregation.limit(limit));
 
-			var pipeline = Aggregation.newAggregation(aggs);
+			sampleExplain(new Query(query).with(Sort.by(orders)).limit(limit));
+
+			var pipeline = newAggregation(aggs);
 			if (LOGGER.isDebugEnabled()) {
 				LOGGER.debug(LOG_FINAL_PIPELINE, pipeline);
 			}
 
-			return mongoTemplate.aggregate(pipeline, entityClass, returnType);
+			return metrics.timed(QFMetrics.AGGREGATE, mongoTemplate.aggregate(pipeline, entityClass, returnType));
 
 		});
 	}
@@ -630,6 +627,10 @@ public class QueryFilter<E> {
 	 * @return a page of entities
 	 */
 	public <T> Mono<Page<T>> executeAggregateAndProject(Pageable pageable, Class<T> returnType) {
+		if (countStrategy == QFCountStrategy.FACET && pageable.isPaged()) {
+			return executeFacetAggregate(pageable, returnType);
+		}
+
 		return toCriteria().flatMap(query -> {
 			List<AggregationOperation> aggs = new ArrayList<>(5);
 
@@ -640,23 +641,55 @@ public class QueryFilter<E> {
 				aggs.add(Aggregation.sort(Sort.by(orders)));
 			}
 
+			int limit = QFPages.isSlice(countStrategy, pageable) ? pageable.getPageSize() + 1
+					: pageable.getPageSize();
+
 			aggs.add(getProjectionOfClass(returnType));
 			aggs.add(Aggregation.skip(pageable.getOffset()));
-			aggs.add(Aggregation.limit(pageable.getPageSize()));
+			aggs.add(Aggregation.limit(limit));
 
-			var pipeline = Aggregation.newAggregation(aggs);
+			sampleExplain(new Query(query).with(Sort.by(orders)).skip(pageable.getOffset()).limit(limit));
+
+			var pipeline = newAggregation(aggs);
 			if (LOGGER.isDebugEnabled()) {
 				LOGGER.debug(LOG_FINAL_PIPELINE, pipeline);
 			}
 
-			var results = mongoTemplate.aggregate(pipeline, entityClass, returnType);
+			var results = metrics.timed(QFMetrics.AGGREGATE,
+					mongoTemplate.aggregate(pipeline, entityClass, returnType));
 
-			return results.collectList().zipWith(executeQueryCount(query))
-					.map(tuple -> new PageImpl<>(tuple.getT1(), pageable, tuple.getT2()));
+			return results.collectList().flatMap(list -> getPage(list, pageable, newQuery(query)));
 		});
 
 	}
 
+	/**
+	 * Execute the page and the count on a single aggregation. The sort is before
+	 * the facet stage to use the indexes, but it is not a top-k sort
+	 *
+	 * @see QFPages#facetPipeline
+	 */
+	private <T> Mono<Page<T>> executeFacetAggregate(Pageable pageable, Class<T> returnType) {
+		return toCriteria().flatMap(query -> {
+			var orders = getOrders();
+			var aggs = QFPages.facetPipeline(query, Sort.by(orders), pageable, getProjectionOfClass(returnType),
+					FACET_DATA, FACET_TOTAL);
+
+			sampleExplain(
+					new Query(query).with(Sort.by(orders)).skip(pageable.getOffset()).limit(pageable.getPageSize()));
+
+			var pipeline = newAggregation(aggs);
+			if (LOGGER.isDebugEnabled()) {
+				LOGGER.debug(LOG_FINAL_PIPELINE, pipeline);
+			}
+
+			// The facet stage always returns a single document
+			return metrics.timed(QFMetrics.AGGREGATE, mongoTemplate.aggregate(pipeline, entityClass, Document.class))
+					.single();
+		}).map(result -> QFPages.facet(result, pageable, FACET_DATA, FACET_TOTAL,
+				e -> mongoTemplate.getConverter().read(returnType, e)));
+	}
+
 	/**
 	 * Execute a find query based on the parsed filter parameters with pagination
 	 *
@@ -667,15 +700,97 @@ public class QueryFilter<E> {
 
 		return toCriteriaQuery(true).map(query -> {
 			query.with(pageable);
+			if (QFPages.isSlice(countStrategy, pageable)) {
+				query.limit(pageable.getPageSize() + 1);
+			}
 			return query;
 		}).flatMap(query -> {
-			var list = mongoTemplate.find(query, entityClass);
-			return list.collectList().zipWith(executeQueryCount(query))
-					.map(tuple -> new PageImpl<>(tuple.getT1(), pageable, tuple.getT2()));
+			sampleExplain(query);
+			var list = metrics.timed(QFMetrics.FIND, mongoTemplate.find(query, entityClass));
+			return list.collectList().flatMap(results -> getPage(results, pageable, query));
 		});
 
 	}
 
+	/**
+	 * Execute a find query with keyset pagination. The sort of the filter is
+	 * completed with the <code>_id</code> field, and the page starts after the
+	 * last result of the page of the token
+	 *
+	 * @param size  size of the page
+	 * @param token token of the previous page, or null to get the first page
+	 * @return page of entities with the token of the next page. Emits
+	 *         {@link QFInvalidTokenException} if the token is not valid for the
+	 *         sort of the filter
+	 */
+	public Mono<QFKeysetPage<E>> executeFindQuery(int size, @Nullable String token) {
+		Assert.isTrue(size > 0, "size must be greater than zero");
+
+		var keyset = QFKeyset.of(getOrders());
+		var converter = mongoTemplate.getConverter();
+
+		return keysetCriteria(keyset, token).flatMap(criteria -> {
+			var query = newQuery(criteria).with(keyset.getSort()).limit(size + 1);
+			sampleExplain(query);
+
+			if (LOGGER.isDebugEnabled()) {
+				LOGGER.debug("Final generated: query '{}' sort '{}' limit '{}'",
+						query.getQueryObject().toBsonDocument(), query.getSortObject().toBsonDocument(),
+						query.getLimit());
+			}
+
+			return metrics.timed(QFMetrics.FIND, mongoTemplate.find(query, entityClass)).collectList();
+		}).map(list -> keyset.page(list, size, e -> {
+			var stored = new Document();
+			converter.write(e, stored);
+			return keyset.valuesOf(stored);
+		}, Function.identity()));
+	}
+
+	/**
+	 * Execute a aggregate query with keyset pagination. The sort of the filter is
+	 * completed with the <code>_id</code> field, and the page starts after the
+	 * last result of the page of the token
+	 *
+	 * @param returnType the return type of the projection
+	 * @param size       size of the page
+	 * @param token      token of the previous page, or null to get the first page
+	 * @return page of projections with the token of the next page. Emits
+	 *         {@link QFInvalidTokenException} if the token is not valid for the
+	 *         sort of the filter
+	 */
+	public <T> Mono<QFKeysetPage<T>> executeAggregateAndProject(Class<T> returnType, int size,
+			@Nullable String token) {
+		Assert.isTrue(size > 0, "size must be greater than zero");
+
+		var keyset = QFKeyset.of(getOrders());
+		var converter = mongoTemplate.getConverter();
+
+		return keysetCriteria(keyset, token).flatMap(criteria -> {
+			List<AggregationOperation> aggs = new ArrayList<>(5);
+			aggs.add(Aggregation.match(criteria));
+			aggs.add(Aggregation.sort(keyset.getSort()));
+			aggs.add(Aggregation.limit(size + 1L));
+			// The sort values are kept before the projection, that can drop them
+			aggs.add(context -> new Document("$addFields", new Document(KEYSET_FIELD,
+					keyset.getPaths().stream().map(e -> "$" + e).toList())));
+			aggs.add(getProjectionOfClass(returnType).andInclude(KEYSET_FIELD));
+
+			sampleExplain(new Query(criteria).with(keyset.getSort()).limit(size + 1));
+
+			var pipeline = newAggregation(aggs);
+			if (LOGGER.isDebugEnabled()) {
+				LOGGER.debug(LOG_FINAL_PIPELINE, pipeline);
+			}
+
+			return metrics.timed(QFMetrics.AGGREGATE, mongoTemplate.aggregate(pipeline, entityClass, Document.class))
+					.collectList();
+		}).map(results -> keyset.page(results, size, e -> e.getList(KEYSET_FIELD, Object.class), e -> {
+			e.remove(KEYSET_FIELD);
+			return converter.read(returnType, e);
+		}));
+	}
+
 	/**
 	 * Execute a count query based on the parsed filter parameters
 	 *
@@ -726,36 +841,117 @@ public class QueryFilter<E> {
 		return new Sort.Order(sortDefinition.getSecond(), sortDefinition.getFirst().getFirstPathMappingName());
 	}
 
-	private Criteria parseFinalCriteria(Map<String, List<Criteria>> criteriaMap) {
+	/**
+	 * Explain the query on background if the sampled explain is enabled. Aggregate
+	 * pipelines are explained as the equivalent find of their match and sort
+	 * stages, which are the stages that can use indexes
+	 */
+	private void sampleExplain(Query query) {
+		var sampler = processor.getExplainSampler();
+		if (sampler != null && sampler.isSampled()) {
+			sampler.sample(predicateClass, getShape(), entityClass, query);
+		}
+	}
 
-		if (criteriaMap.isEmpty()) {
-			return new Criteria();
+	private String getShape() {
+		var shape = QFFilterShape.keyOf(specificationsWarp.getAllPartsSorted()).toString();
+		var orders = getOrders();
+		if (orders.isEmpty()) {
+			return shape;
 		}
+		return shape + " sort:" + orders.stream().map(o -> (o.isAscending() ? "+" : "-") + o.getProperty())
+				.collect(Collectors.joining(","));
+	}
+
+	private Mono<Criteria> keysetCriteria(QFKeyset keyset, @Nullable String token) {
+		return toCriteria().map(criteria -> {
+			var range = keyset.toCriteria(token);
+			if (range == null) {
+				return criteria;
+			}
+			return new Criteria().andOperator(criteria, range);
+		});
+	}
 
-		// Size check to reduce and nested operations
-		Map<String, Criteria> simplifiedCriterias = criteriaMap.entrySet().stream()
-				.collect(Collectors.toMap(Map.Entry::getKey, e -> {
-					if (e.getValue().size() == 1) {
-						return e.getValue().get(0);
-					} else {
-						return new Criteria().andOperator(e.getValue());
-					}
-				}));
-
-		if (simplifiedCriterias.size() == 1) {
-			return simplifiedCriterias.values().iterator().next();
+	/**
+	 * Get the index hint of the filter. The rules of the definition class are used
+	 * before the indexes pinned by the sampled explains
+	 */
+	@Nullable
+	private String getHint() {
+		var hints = processor.getHints();
+		if (!hints.isEmpty()) {
+			Set<String> fields = new HashSet<>();
+			for (var part : specificationsWarp.getAllPartsSorted()) {
+				fields.add(part.getDefinition().getFilterName());
+			}
+			var sortList = defaultSortEnabled ? defaultSorting : sortDefinitionList;
+			var hint = hints.find(fields, sortList.stream().map(e -> e.getFirst().getFilterName()).toList());
+			if (hint != null) {
+				return hint;
+			}
+		}
+
+		var sampler = processor.getExplainSampler();
+		if (sampler != null && sampler.isAdaptiveHints()) {
+			return sampler.getHint(predicateClass, getShape());
 		}
+		return null;
+	}
 
-		return new Criteria().andOperator(simplifiedCriterias.values());
+	private Query newQuery(Criteria criteria) {
+		var query = processor.getExecutionOptions().apply(new Query(criteria));
+		var hint = getHint();
+		return hint != null ? query.withHint(hint) : query;
+	}
 
+	/**
+	 * Copy a query to count the documents. The copy does not keep the read
+	 * preference, so the options are applied again
+	 */
+	private Query countQuery(Query query) {
+		return processor.getExecutionOptions().apply(Query.of(query).skip(-1));
+	}
+
+	private Aggregation newAggregation(List<AggregationOperation> aggs) {
+		return Aggregation.newAggregation(aggs).withOptions(aggregationOptions().build());
+	}
+
+	private AggregationOptions.Builder aggregationOptions() {
+		var options = processor.getExecutionOptions().aggregationOptions();
+		var hint = getHint();
+		return hint != null ? options.hint(hint) : options;
 	}
 
 	private Mono<Long> executeQueryCount(Query query) {
-		return mongoTemplate.count(Query.of(query).skip(-1).limit(-1), entityClass);
+		return metrics.timed(QFMetrics.COUNT, mongoTemplate.count(countQuery(query).limit(-1), entityClass));
 	}
 
-	private Mono<Long> executeQueryCount(Criteria criteria) {
-		return mongoTemplate.count(new Query().addCriteria(criteria).skip(-1).limit(-1), entityClass);
+	/**
+	 * Build the page of the results. The count query is only executed if the total
+	 * is not known from the results
+	 */
+	private <T> Mono<Page<T>> getPage(List<T> results, Pageable pageable, Query query) {
+		if (QFPages.isSlice(countStrategy, pageable)) {
+			return Mono.just(QFPages.slice(results, pageable));
+		}
+
+		long total = QFPages.knownTotal(results, pageable);
+		if (total >= 0) {
+			return Mono.just(new PageImpl<>(results, pageable, total));
+		}
+		return executeStrategyCount(query).map(count -> new PageImpl<>(results, pageable, count));
+	}
+
+	private Mono<Long> executeStrategyCount(Query query) {
+		return switch (countStrategy) {
+		case CAPPED -> metrics.timed(QFMetrics.COUNT,
+				mongoTemplate.count(countQuery(query).limit(countLimit), entityClass));
+		case ESTIMATED -> query.getQueryObject().isEmpty()
+				? metrics.timed(QFMetrics.COUNT, mongoTemplate.estimatedCount(entityClass))
+				: executeQueryCount(query);
+		default -> executeQueryCount(query);
+		};
 	}
 
 	/** {@inheritDoc} */
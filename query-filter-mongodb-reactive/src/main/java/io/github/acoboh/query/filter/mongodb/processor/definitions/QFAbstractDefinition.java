@@ -1,6 +1,7 @@
 package io.github.acoboh.query.filter.mongodb.processor.definitions;
 
 import java.lang.reflect.Field;
+import java.time.Clock;
 import java.util.stream.Stream;
 
 import org.slf4j.Logger;
@@ -108,6 +109,22 @@ public class QFAbstractDefinition {
 	 */
 	public static QFAbstractDefinition buildDefinition(Field filterField, Class<?> filterClass, Class<?> entityClass)
 			throws QueryFilterDefinitionException {
+		return buildDefinition(filterField, filterClass, entityClass, Clock.systemUTC());
+	}
+
+	/**
+	 * Create a new base definition based on annotations of the field
+	 * 
+	 * @param filterField filter field
+	 * @param filterClass filter class
+	 * @param entityClass entity class
+	 * @param clock       clock of the relative dates
+	 * @return abstract definition
+	 * @throws QueryFilterDefinitionException if any error happens creating the
+	 *                                        definition
+	 */
+	public static QFAbstractDefinition buildDefinition(Field filterField, Class<?> filterClass, Class<?> entityClass,
+			Clock clock) throws QueryFilterDefinitionException {
 
 		boolean isQFElement = filterField.isAnnotationPresent(QFElement.class)
 				|| filterField.isAnnotationPresent(QFElements.class);
@@ -134,7 +151,7 @@ public class QFAbstractDefinition {
 			QFDate dateAnnotation = filterField.getAnnotation(QFDate.class);
 
 			return new QFDefinitionElement(filterField, filterClass, entityClass, blockParsing, elementsAnnotation,
-					elementAnnotations, dateAnnotation);
+					elementAnnotations, dateAnnotation, clock);
 
 		} else if (isQFSortable) {
 			QFSortable sortableAnnotation = filterField.getAnnotation(QFSortable.class);
@@ -1,30 +1,23 @@
 package io.github.acoboh.query.filter.mongodb.processor.match;
 
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.util.MultiValueMap;
 
-import io.github.acoboh.query.filter.mongodb.exceptions.QFDateParsingException;
-import io.github.acoboh.query.filter.mongodb.exceptions.QFEnumException;
 import io.github.acoboh.query.filter.mongodb.exceptions.QFFieldOperationException;
+import io.github.acoboh.query.filter.mongodb.exceptions.QFParseException;
 import io.github.acoboh.query.filter.mongodb.operations.QFOperationEnum;
 import io.github.acoboh.query.filter.mongodb.processor.QFPath;
-import io.github.acoboh.query.filter.mongodb.processor.QFPath.QFElementDefType;
 import io.github.acoboh.query.filter.mongodb.processor.QFSpecificationPart;
 import io.github.acoboh.query.filter.mongodb.processor.definitions.QFDefinitionElement;
+import io.github.acoboh.query.filter.mongodb.processor.definitions.QFValueConverter;
 import io.github.acoboh.query.filter.mongodb.spel.SpelResolverInterface;
-import io.github.acoboh.query.filter.mongodb.utils.DateUtils;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -33,8 +26,6 @@ import reactor.core.publisher.Mono;
  */
 public class QFElementMatch implements QFSpecificationPart {
 
-	private static final Logger LOGGER = LoggerFactory.getLogger(QFElementMatch.class);
-
 	private final QFDefinitionElement definition;
 
 	private final List<String> originalValues;
@@ -43,11 +34,11 @@ public class QFElementMatch implements QFSpecificationPart {
 
 	private final QFOperationEnum operation;
 
+	private final boolean relativeDates;
+
 	private Mono<List<String>> processedValues;
 	private Flux<List<Object>> parsedValues;
 
-	private final DateTimeFormatter formatter;
-
 	private boolean initialized = false;
 
 	/**
@@ -63,9 +54,8 @@ public class QFElementMatch implements QFSpecificationPart {
 		this.originalValues = values;
 		this.operation = operation;
 
-		formatter = definition.getDateTimeFormatter();
-
 		paths = definition.getPaths();
+		relativeDates = definition.hasRelativeDates(values);
 
 		if (!definition.isSpelExpression()) {
 			initialize(null, null);
@@ -73,13 +63,46 @@ public class QFElementMatch implements QFSpecificationPart {
 
 	}
 
+	/**
+	 * Get an instance that can be used by a new request. Matches without SpEL
+	 * expressions are immutable once parsed, so they are shared between requests.
+	 * Matches with SpEL expressions or relative dates are resolved on each request
+	 * and must be copied
+	 *
+	 * @return instance to be used by a new request
+	 */
+	public QFElementMatch copyForRequest() {
+		if (!definition.isSpelExpression() && !relativeDates) {
+			return this;
+		}
+		return new QFElementMatch(originalValues, operation, definition);
+	}
+
+	/**
+	 * Get the match resolved for a single evaluation. Matches with SpEL
+	 * expressions are copied and resolved with the context, so evaluations of the
+	 * same filter that run at the same time never share their values. Other
+	 * matches are resolved on creation and they are returned as they are
+	 *
+	 * @param spelResolver bean to resolve SpEL expressions
+	 * @param context      context to resolve SpEL expressions
+	 * @return resolved match
+	 */
+	public QFElementMatch resolve(SpelResolverInterface spelResolver, MultiValueMap<String, Object> context) {
+		if (!definition.isSpelExpression()) {
+			return this;
+		}
+		var ret = new QFElementMatch(originalValues, operation, definition);
+		ret.initialize(spelResolver, context);
+		return ret;
+	}
+
 	/**
 	 * Initialize method to resolve matching elements of resolve SpEL expressions
 	 * 
 	 * @param spelResolver bean to resolve SpEL expressions
 	 * @param context      context to resolve SpEL expressions
 	 */
-	@SuppressWarnings({ "unchecked", "rawtypes" })
 	public void initialize(SpelResolverInterface spelResolver, MultiValueMap<String, Object> context) {
 		if (definition.isSpelExpression() && !originalValues.isEmpty()) {
 			if (spelResolver == null) {
@@ -88,8 +111,10 @@ public class QFElementMatch implements QFSpecificationPart {
 			}
 
 			String firstValue = originalValues.get(0);
-			var result = spelResolver.evaluate(firstValue, context, definition.isNullOnError());
-			processedValues = parseResults(result);
+			var result = spelResolver.evaluate(firstValue, context, definition.isNullOnError(),
+					definition.getSpelResultCache());
+			// Evaluated once and shared by all the subscriptions of the request
+			processedValues = parseResults(result).cache();
 			initialized = false;
 		}
 
@@ -98,94 +123,57 @@ public class QFElementMatch implements QFSpecificationPart {
 		}
 
 		if (processedValues == null) {
-			processedValues = Mono.just(new ArrayList<>(originalValues));
-		}
-
-		parsedValues = Flux.fromIterable(paths).flatMap(path -> {
-
-			QFPath lastPath = path.get(path.size() - 1);
-			Class<?> finalClass = lastPath.getFieldClass();
-
-			checkOperation(finalClass);
-
-			return processedValues.map(list -> {
-				boolean isEnum = lastPath.getType() == QFElementDefType.ENUM;
-				List<Object> parsedPathValue = new ArrayList<>();
-				for (var val : list) {
-					if (formatter != null && operation != QFOperationEnum.ISNULL) {
-						parsedPathValue.add(parseTimestamp(val, finalClass));
-					} else if (finalClass.equals(Double.class) || finalClass.equals(double.class)) {
-						parsedPathValue.add(Double.valueOf(val));
-					} else if (finalClass.equals(Integer.class) || finalClass.equals(int.class)) {
-						parsedPathValue.add(Integer.valueOf(val));
-					} else if (finalClass.equals(Boolean.class) || finalClass.equals(boolean.class)
-							|| operation == QFOperationEnum.ISNULL) {
-						parsedPathValue.add(Boolean.valueOf(val));
-					} else if (isEnum) { // Parse enum
-						Class<? extends Enum> enumClass = (Class<? extends Enum>) finalClass;
-						try {
-							parsedPathValue.add(Enum.valueOf(enumClass, val));
-						} catch (IllegalArgumentException e) {
-							Enum[] constants = enumClass.getEnumConstants();
-							String[] allowed = new String[constants.length];
-
-							for (int i = 0; i < constants.length; i++) { // Get allowed values
-								allowed[i] = constants[i].name();
-							}
-
-							throw new QFEnumException(definition.getFilterName(), val, enumClass, allowed);
-						}
-
-					} else if (finalClass.equals(UUID.class)) {
-						parsedPathValue.add(UUID.fromString(val));
-					} else { // Use as string
-						parsedPathValue.add(val);
-					}
-				}
-
-				return parsedPathValue;
-
-			});
+			// Static values are parsed only once and shared by all the subscriptions
+			List<String> values = Collections.unmodifiableList(new ArrayList<>(originalValues));
+			List<List<Object>> parsed = new ArrayList<>(paths.size());
+			for (int i = 0; i < paths.size(); i++) {
+				parsed.add(parsePathValues(i, values));
+			}
 
-		});
+			processedValues = Mono.just(values);
+			parsedValues = Flux.fromIterable(parsed);
+		} else {
+			parsedValues = processedValues
+					.flatMapMany(list -> Flux.range(0, paths.size()).map(index -> parsePathValues(index, list)))
+					.cache();
+		}
 
 		initialized = true;
 
 	}
 
-	private Object parseTimestamp(String value, Class<?> finalClass) {
+	private List<Object> parsePathValues(int index, List<String> values) {
 
-		try {
-			Object parsedValue = DateUtils.parseDate(formatter, value, finalClass, definition.getDateAnnotation());
-			if (parsedValue == null) {
-				throw new IllegalStateException("Unsupported date class " + finalClass);
-			}
+		checkOperation(index);
+		checkValues(values);
 
-			return parsedValue;
+		// Null checks always have boolean values
+		QFValueConverter converter = operation == QFOperationEnum.ISNULL ? Boolean::valueOf
+				: definition.getValueConverter(index);
 
-		} catch (DateTimeParseException e) {
-			throw new QFDateParsingException(definition.getFilterName(), value,
-					definition.getDateAnnotation().timeFormat(), e);
+		List<Object> parsedPathValue = new ArrayList<>(values.size());
+		for (var val : values) {
+			parsedPathValue.add(converter.convert(val));
 		}
 
-	}
+		// Invalid regular expressions are rejected on parsing
+		operation.getPatterns(definition, index, parsedPathValue);
 
-	private void checkOperation(Class<?> clazz) throws QFFieldOperationException {
+		return Collections.unmodifiableList(parsedPathValue);
 
-		switch (operation) {
-		case GREATER_THAN, GREATER_EQUAL_THAN, LESS_THAN, LESS_EQUAL_THAN:
-			if (!Comparable.class.isAssignableFrom(clazz) && !clazz.isPrimitive()) {
-				throw new QFFieldOperationException(operation, definition.getFilterName());
-			}
-			break;
+	}
 
-		case ENDS_WITH, STARTS_WITH, LIKE:
-			if (!String.class.isAssignableFrom(clazz)) {
-				throw new QFFieldOperationException(operation, definition.getFilterName());
-			}
-			break;
-		default:
-			LOGGER.trace("Operation {} allowed on field {} by default", operation, definition.getFilterName());
+	private void checkValues(List<String> values) throws QFParseException {
+		boolean ignored = values.isEmpty() && definition.isBlankIgnore();
+		if (operation == QFOperationEnum.BETWEEN && values.size() != 2 && !ignored) {
+			throw new QFParseException(definition.getFilterName(),
+					operation.getValue() + ":" + String.join(",", values));
+		}
+	}
+
+	private void checkOperation(int index) throws QFFieldOperationException {
+		if (!definition.isOperationAllowed(index, operation)) {
+			throw new QFFieldOperationException(operation, definition.getFilterName());
 		}
 	}
 
@@ -292,6 +280,15 @@ public class QFElementMatch implements QFSpecificationPart {
 		return definition;
 	}
 
+	/**
+	 * Get operation
+	 *
+	 * @return operation
+	 */
+	public QFOperationEnum getOperation() {
+		return operation;
+	}
+
 	/**
 	 * Get if the matching element must be evaluated
 	 *
@@ -314,16 +311,16 @@ public class QFElementMatch implements QFSpecificationPart {
 	public Mono<Void> processPart(Map<String, List<Criteria>> criteriaMap, MultiValueMap<String, Object> mlmap,
 			SpelResolverInterface spelResolver) {
 
-		initialize(spelResolver, mlmap);
+		var resolved = resolve(spelResolver, mlmap);
 
-		return needToEvaluate().flatMap(e -> {
+		return resolved.needToEvaluate().flatMap(e -> {
 			if (!e) {
 				return Mono.empty();
 			}
 
 			// Create flux from 0 to paths.size()
 			return Flux.range(0, paths.size()) // Full flux for all paths
-					.flatMap(i -> operation.generateCriteria(this, i, mlmap)) // Create criteria for each path
+					.flatMap(i -> operation.generateCriteria(resolved, i, mlmap)) // Create criteria for each path
 					.collectList() // Process full list
 					.map(criteriaList -> {
 						var expr = definition.getPredicateOperation().getPredicate(criteriaList);
@@ -0,0 +1,192 @@
+package io.github.acoboh.query.filter.mongodb.properties;
+
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+
+/**
+ * Sampled explain configuration properties
+ */
+@Validated
+public class ExplainProperties {
+
+	private boolean enabled = false;
+
+	@DecimalMin("0.0")
+	@DecimalMax("1.0")
+	private double sampleRate = 0.01;
+
+	@Positive
+	private double docsExaminedRatio = 10;
+
+	@PositiveOrZero
+	private long minDocsExamined = 1000;
+
+	@Positive
+	private int maxPending = 16;
+
+	@Positive
+	private int maxShapes = 1024;
+
+	private boolean adaptiveHints = false;
+
+	@Positive
+	private int hintMinSamples = 10;
+
+	/**
+	 * Get if the sampled explain of the queries is enabled
+	 *
+	 * @return true if enabled, false otherwise
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Enable or disable the sampled explain of the queries
+	 *
+	 * @param enabled new status
+	 */
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	/**
+	 * Get the fraction of the executed queries that are explained, between 0 and
+	 * 1
+	 *
+	 * @return fraction of explained queries
+	 */
+	public double getSampleRate() {
+		return sampleRate;
+	}
+
+	/**
+	 * Set the fraction of the executed queries that are explained
+	 *
+	 * @param sampleRate fraction of explained queries
+	 */
+	public void setSampleRate(double sampleRate) {
+		this.sampleRate = sampleRate;
+	}
+
+	/**
+	 * Get the ratio of documents examined by returned document over which a filter
+	 * shape is reported as slow
+	 *
+	 * @return max ratio of documents examined by returned document
+	 */
+	public double getDocsExaminedRatio() {
+		return docsExaminedRatio;
+	}
+
+	/**
+	 * Set the ratio of documents examined by returned document over which a filter
+	 * shape is reported as slow
+	 *
+	 * @param docsExaminedRatio max ratio of documents examined by returned
+	 *                          document
+	 */
+	public void setDocsExaminedRatio(double docsExaminedRatio) {
+		this.docsExaminedRatio = docsExaminedRatio;
+	}
+
+	/**
+	 * Get the min number of documents examined by a query to report its shape as
+	 * slow. Avoids the reports of small collections
+	 *
+	 * @return min number of documents examined
+	 */
+	public long getMinDocsExamined() {
+		return minDocsExamined;
+	}
+
+	/**
+	 * Set the min number of documents examined by a query to report its shape as
+	 * slow
+	 *
+	 * @param minDocsExamined min number of documents examined
+	 */
+	public void setMinDocsExamined(long minDocsExamined) {
+		this.minDocsExamined = minDocsExamined;
+	}
+
+	/**
+	 * Get the max number of explains waiting to run. New samples are discarded
+	 * while the limit is reached
+	 *
+	 * @return max number of pending explains
+	 */
+	public int getMaxPending() {
+		return maxPending;
+	}
+
+	/**
+	 * Set the max number of explains waiting to run
+	 *
+	 * @param maxPending max number of pending explains
+	 */
+	public void setMaxPending(int maxPending) {
+		this.maxPending = maxPending;
+	}
+
+	/**
+	 * Get the max number of filter shapes with statistics. Samples of new shapes
+	 * are discarded while the limit is reached
+	 *
+	 * @return max number of filter shapes
+	 */
+	public int getMaxShapes() {
+		return maxShapes;
+	}
+
+	/**
+	 * Set the max number of filter shapes with statistics
+	 *
+	 * @param maxShapes max number of filter shapes
+	 */
+	public void setMaxShapes(int maxShapes) {
+		this.maxShapes = maxShapes;
+	}
+
+	/**
+	 * Get if the index of the best sampled plan of each filter shape is pinned as
+	 * the hint of its queries
+	 *
+	 * @return true if the adaptive hints are enabled
+	 */
+	public boolean isAdaptiveHints() {
+		return adaptiveHints;
+	}
+
+	/**
+	 * Enable or disable the adaptive hints
+	 *
+	 * @param adaptiveHints new status
+	 */
+	public void setAdaptiveHints(boolean adaptiveHints) {
+		this.adaptiveHints = adaptiveHints;
+	}
+
+	/**
+	 * Get the min number of explains of a filter shape before pinning a hint
+	 *
+	 * @return min number of explains
+	 */
+	public int getHintMinSamples() {
+		return hintMinSamples;
+	}
+
+	/**
+	 * Set the min number of explains of a filter shape before pinning a hint
+	 *
+	 * @param hintMinSamples min number of explains
+	 */
+	public void setHintMinSamples(int hintMinSamples) {
+		this.hintMinSamples = hintMinSamples;
+	}
+
+}
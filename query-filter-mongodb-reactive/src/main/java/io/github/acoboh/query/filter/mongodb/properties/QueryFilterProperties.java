@@ -17,6 +17,16 @@ public class QueryFilterProperties {
 
 	private AdvisorProperties advisor = new AdvisorProperties();
 
+	private CacheProperties cache = new CacheProperties();
+
+	private ExplainProperties explain = new ExplainProperties();
+
+	private IndexAdvisorProperties indexAdvisor = new IndexAdvisorProperties();
+
+	private QueryOptionsProperties queryOptions = new QueryOptionsProperties();
+
+	private SpelProperties spel = new SpelProperties();
+
 	/**
 	 * Get advisor properties
 	 *
@@ -35,4 +45,94 @@ public class QueryFilterProperties {
 		this.advisor = advisor;
 	}
 
+	/**
+	 * Get cache properties
+	 *
+	 * @return cache properties
+	 */
+	public CacheProperties getCache() {
+		return cache;
+	}
+
+	/**
+	 * Set cache properties
+	 *
+	 * @param cache cache properties
+	 */
+	public void setCache(CacheProperties cache) {
+		this.cache = cache;
+	}
+
+	/**
+	 * Get sampled explain properties
+	 *
+	 * @return sampled explain properties
+	 */
+	public ExplainProperties getExplain() {
+		return explain;
+	}
+
+	/**
+	 * Set sampled explain properties
+	 *
+	 * @param explain sampled explain properties
+	 */
+	public void setExplain(ExplainProperties explain) {
+		this.explain = explain;
+	}
+
+	/**
+	 * Get index advisor properties
+	 *
+	 * @return index advisor properties
+	 */
+	public IndexAdvisorProperties getIndexAdvisor() {
+		return indexAdvisor;
+	}
+
+	/**
+	 * Set index advisor properties
+	 *
+	 * @param indexAdvisor index advisor properties
+	 */
+	public void setIndexAdvisor(IndexAdvisorProperties indexAdvisor) {
+		this.indexAdvisor = indexAdvisor;
+	}
+
+	/**
+	 * Get default query options properties
+	 *
+	 * @return query options properties
+	 */
+	public QueryOptionsProperties getQueryOptions() {
+		return queryOptions;
+	}
+
+	/**
+	 * Set default query options properties
+	 *
+	 * @param queryOptions query options properties
+	 */
+	public void setQueryOptions(QueryOptionsProperties queryOptions) {
+		this.queryOptions = queryOptions;
+	}
+
+	/**
+	 * Get SpEL expressions properties
+	 *
+	 * @return SpEL expressions properties
+	 */
+	public SpelProperties getSpel() {
+		return spel;
+	}
+
+	/**
+	 * Set SpEL expressions properties
+	 *
+	 * @param spel SpEL expressions properties
+	 */
+	public void setSpel(SpelProperties spel) {
+		this.spel = spel;
+	}
+
 }
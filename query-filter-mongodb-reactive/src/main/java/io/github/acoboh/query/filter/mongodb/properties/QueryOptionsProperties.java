@@ -0,0 +1,145 @@
+package io.github.acoboh.query.filter.mongodb.properties;
+
+import javax.annotation.Nullable;
+
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.constraints.PositiveOrZero;
+
+/**
+ * Default execution options of the queries. The options of each definition
+ * class override these defaults
+ */
+@Validated
+public class QueryOptionsProperties {
+
+	@PositiveOrZero
+	private long maxTimeMs = 0;
+
+	@PositiveOrZero
+	private int batchSize = 0;
+
+	private Boolean allowDiskUse;
+
+	private String collation = "";
+
+	private String comment = "";
+
+	private String readPreference = "";
+
+	/**
+	 * Get the max execution time of the queries in milliseconds. Zero if there is
+	 * no limit
+	 *
+	 * @return max execution time in milliseconds
+	 */
+	public long getMaxTimeMs() {
+		return maxTimeMs;
+	}
+
+	/**
+	 * Set the max execution time of the queries in milliseconds
+	 *
+	 * @param maxTimeMs max execution time in milliseconds
+	 */
+	public void setMaxTimeMs(long maxTimeMs) {
+		this.maxTimeMs = maxTimeMs;
+	}
+
+	/**
+	 * Get the number of documents of each cursor batch. Zero to use the server
+	 * default
+	 *
+	 * @return cursor batch size
+	 */
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * Set the number of documents of each cursor batch
+	 *
+	 * @param batchSize cursor batch size
+	 */
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Get if the queries can write temporary files on disk. Null to use the server
+	 * default
+	 *
+	 * @return true if the queries can use the disk
+	 */
+	@Nullable
+	public Boolean getAllowDiskUse() {
+		return allowDiskUse;
+	}
+
+	/**
+	 * Set if the queries can write temporary files on disk
+	 *
+	 * @param allowDiskUse true if the queries can use the disk
+	 */
+	public void setAllowDiskUse(@Nullable Boolean allowDiskUse) {
+		this.allowDiskUse = allowDiskUse;
+	}
+
+	/**
+	 * Get the collation of the queries, as a locale like <code>en_US</code> or a
+	 * collation document. Empty to use the collection collation
+	 *
+	 * @return collation
+	 */
+	public String getCollation() {
+		return collation;
+	}
+
+	/**
+	 * Set the collation of the queries
+	 *
+	 * @param collation collation
+	 */
+	public void setCollation(String collation) {
+		this.collation = collation;
+	}
+
+	/**
+	 * Get the comment of the queries, shown on the profiler and the logs of the
+	 * server
+	 *
+	 * @return comment
+	 */
+	public String getComment() {
+		return comment;
+	}
+
+	/**
+	 * Set the comment of the queries
+	 *
+	 * @param comment comment
+	 */
+	public void setComment(String comment) {
+		this.comment = comment;
+	}
+
+	/**
+	 * Get the read preference of the queries, like <code>secondaryPreferred</code>.
+	 * Empty to use the read preference of the client
+	 *
+	 * @return read preference
+	 */
+	public String getReadPreference() {
+		return readPreference;
+	}
+
+	/**
+	 * Set the read preference of the queries
+	 *
+	 * @param readPreference read preference
+	 */
+	public void setReadPreference(String readPreference) {
+		this.readPreference = readPreference;
+	}
+
+}
@@ -0,0 +1,94 @@
+package io.github.acoboh.query.filter.mongodb.properties;
+
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+
+/**
+ * SpEL expressions configuration properties
+ */
+@Validated
+public class SpelProperties {
+
+	/**
+	 * Default max number of parsed expressions
+	 */
+	public static final int DEFAULT_CACHE_MAX_SIZE = 256;
+
+	/**
+	 * Default max number of parts evaluated at the same time. Parts are evaluated
+	 * one by one
+	 */
+	public static final int DEFAULT_CONCURRENCY = 1;
+
+	@PositiveOrZero
+	private int cacheMaxSize = DEFAULT_CACHE_MAX_SIZE;
+
+	@NotNull
+	private SpelCompilerMode compilerMode = SpelCompilerMode.OFF;
+
+	@Positive
+	private int concurrency = DEFAULT_CONCURRENCY;
+
+	/**
+	 * Get the max number of parsed expressions cached by the resolver. Zero
+	 * disables the cache
+	 *
+	 * @return max number of parsed expressions
+	 */
+	public int getCacheMaxSize() {
+		return cacheMaxSize;
+	}
+
+	/**
+	 * Set the max number of parsed expressions cached by the resolver
+	 *
+	 * @param cacheMaxSize max number of parsed expressions
+	 */
+	public void setCacheMaxSize(int cacheMaxSize) {
+		this.cacheMaxSize = cacheMaxSize;
+	}
+
+	/**
+	 * Get the compiler mode of the cached expressions. <code>OFF</code> by default
+	 *
+	 * @return compiler mode
+	 */
+	public SpelCompilerMode getCompilerMode() {
+		return compilerMode;
+	}
+
+	/**
+	 * Set the compiler mode of the cached expressions
+	 *
+	 * @param compilerMode compiler mode
+	 */
+	public void setCompilerMode(SpelCompilerMode compilerMode) {
+		this.compilerMode = compilerMode;
+	}
+
+	/**
+	 * Get the max number of parts of a filter with the same order evaluated at the
+	 * same time. With more than one, parts with the same order do not see the
+	 * values of each other
+	 *
+	 * @return max number of parts evaluated at the same time
+	 */
+	public int getConcurrency() {
+		return concurrency;
+	}
+
+	/**
+	 * Set the max number of parts of a filter with the same order evaluated at the
+	 * same time
+	 *
+	 * @param concurrency max number of parts evaluated at the same time
+	 */
+	public void setConcurrency(int concurrency) {
+		this.concurrency = concurrency;
+	}
+
+}
@@ -1,21 +1,27 @@
 package io.github.acoboh.query.filter.mongodb.spel;
 
+import java.security.Principal;
+import java.util.Map;
+import java.util.Optional;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.expression.BeanFactoryResolver;
+import org.springframework.expression.BeanResolver;
 import org.springframework.expression.EvaluationException;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
-import org.springframework.expression.spel.support.StandardEvaluationContext;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.core.context.ReactiveSecurityContextHolder;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.stereotype.Component;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.server.ServerWebExchange;
 
+import io.github.acoboh.query.filter.mongodb.properties.QueryFilterProperties;
 import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
 
 /**
  * SPEL Context resolver bean
@@ -29,9 +35,20 @@ class SecuritySpelResolverContext implements SpelResolverInterface {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(SecuritySpelResolverContext.class);
 
+	// Name of the current authentication, or the principal of the exchange. Anonymous authentications have no key
+	private static final SpelCacheKeyExtractor AUTHENTICATION = context -> ReactiveSecurityContextHolder.getContext()
+			.<Principal>mapNotNull(SecurityContext::getAuthentication)
+			.switchIfEmpty(context.<ServerWebExchange>getOrEmpty(ServerWebExchange.class)
+					.map(ServerWebExchange::getPrincipal).orElseGet(Mono::empty))
+			.filter(principal -> !(principal instanceof AnonymousAuthenticationToken)).map(Principal::getName);
+
 	private final SpelExpressionParser parser = new SpelExpressionParser();
 
-	private final ApplicationContext appContext;
+	private final BeanResolver beanResolver;
+
+	private final SpelExpressionCache expressionCache;
+
+	private final SpelCacheKeyExtractor cacheKeyExtractor;
 
 	/**
 	 * Default constructor
@@ -39,69 +56,68 @@ class SecuritySpelResolverContext implements SpelResolverInterface {
 	 * @param context Application context
 	 */
 	public SecuritySpelResolverContext(ApplicationContext context) {
-		this.appContext = context;
+		this.beanResolver = new BeanFactoryResolver(context);
+		this.expressionCache = SpelExpressionCache.of(context.getBeanProvider(QueryFilterProperties.class)
+				.getIfAvailable(QueryFilterProperties::new).getSpel());
+		this.cacheKeyExtractor = context.getBeanProvider(SpelCacheKeyExtractor.class)
+				.getIfAvailable(() -> AUTHENTICATION);
 
 	}
 
 	@Override
 	public Mono<Object> evaluate(String securityExpression, MultiValueMap<String, Object> contextValues,
 			boolean nullOnError) {
-		return Mono.deferContextual(deferContext -> {
-			// Get exchange from context
-			ServerWebExchange found = null;
-			try {
-				found = deferContext.get(ServerWebExchange.class);
-			} catch (Exception e) {
-				LOGGER.trace("No exchange found in context");
-			}
-			final ServerWebExchange exchange = found;
-
-			return ReactiveSecurityContextHolder.getContext().defaultIfEmpty(new SecurityContext() {
-				@Override
-				public Authentication getAuthentication() {
-					return null;
-				}
-
-				@Override
-				public void setAuthentication(Authentication authentication) {
-					// Do nothing
-				}
-			}).flatMap(ctx -> {
-				StandardEvaluationContext evaluationContext = new StandardEvaluationContext();
-				if (ctx.getAuthentication() != null) {
-					evaluationContext.setRootObject(ctx.getAuthentication());
-				}
-
-				// Fill with custom context values
-				SpelUtils.fillContextWithMap(evaluationContext, contextValues);
-
-				// Fill with path variables and query parameters
-				if (exchange != null) {
-					SpelUtils.fillContextWithRequestValues(evaluationContext, exchange);
-				}
-
-				evaluationContext.setBeanResolver(new BeanFactoryResolver(appContext));
-
-				Object ret;
-				try {
-					ret = parser.parseExpression(securityExpression).getValue(evaluationContext);
-				} catch (EvaluationException e) {
-					LOGGER.trace("Error evaluating SpEL expression. Cheking if nullOnError is set '{}'", nullOnError);
-					if (nullOnError) {
-						ret = null;
-					} else {
-						LOGGER.error("Error evaluating SpEL expression", e);
-						throw e;
+		return Mono.deferContextual(deferContext -> SpelEvaluationScope.getRequestValues(deferContext,
+				SecuritySpelResolverContext::requestValues)).flatMap(requestValues -> {
+					var evaluationContext = requestValues.newEvaluationContext(contextValues, beanResolver);
+
+					Object ret;
+					try {
+						ret = expressionCache.getValue(securityExpression, () -> parser, evaluationContext);
+					} catch (EvaluationException e) {
+						LOGGER.trace("Error evaluating SpEL expression. Cheking if nullOnError is set '{}'",
+								nullOnError);
+						if (nullOnError) {
+							ret = null;
+						} else {
+							LOGGER.error("Error evaluating SpEL expression", e);
+							throw e;
+						}
 					}
-				}
 
-				if (ret == null) {
-					return Mono.empty();
-				}
+					if (ret == null) {
+						return Mono.empty();
+					}
+
+					return Mono.just(ret);
+				});
+
+	}
+
+	/**
+	 * Resolve the current authentication and the path variables and query
+	 * parameters of the exchange
+	 */
+	private static Mono<SpelRequestValues> requestValues(ContextView context) {
+		Optional<ServerWebExchange> exchange = context.getOrEmpty(ServerWebExchange.class);
+		if (exchange.isEmpty()) {
+			LOGGER.trace("No exchange found in context");
+		}
+		Map<String, Object> variables = exchange.map(SpelUtils::getRequestVariables).orElse(Map.of());
+
+		return ReactiveSecurityContextHolder.getContext().mapNotNull(SecurityContext::getAuthentication)
+				.map(authentication -> new SpelRequestValues(authentication, variables))
+				.defaultIfEmpty(new SpelRequestValues(null, variables));
+	}
 
-				return Mono.just(ret);
-			});
-		});
+	@Override
+	public SpelExpressionCache getExpressionCache() {
+		return expressionCache;
+	}
 
+	@Override
+	public SpelCacheKeyExtractor getCacheKeyExtractor() {
+		return cacheKeyExtractor;
 	}
+
 }
@@ -0,0 +1,36 @@
+package io.github.acoboh.query.filter.mongodb.spel;
+
+import java.security.Principal;
+
+import org.springframework.web.server.ServerWebExchange;
+
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+/**
+ * Extractor of the key of the requests for the cached SpEL results. Requests
+ * with the same key share the cached results of the expressions.
+ * <p>
+ * Define a bean of this type to replace the default key, the name of the
+ * principal of the request
+ */
+@FunctionalInterface
+public interface SpelCacheKeyExtractor {
+
+	/**
+	 * Name of the principal of the exchange. Results of anonymous requests are not
+	 * cached
+	 */
+	SpelCacheKeyExtractor PRINCIPAL = context -> context.<ServerWebExchange>getOrEmpty(ServerWebExchange.class)
+			.map(ServerWebExchange::getPrincipal).orElseGet(Mono::empty).map(Principal::getName);
+
+	/**
+	 * Get the key of a request
+	 *
+	 * @param context Reactor context of the request
+	 * @return key of the request, or empty to not cache the results of the
+	 *         request
+	 */
+	Mono<String> getKey(ContextView context);
+
+}
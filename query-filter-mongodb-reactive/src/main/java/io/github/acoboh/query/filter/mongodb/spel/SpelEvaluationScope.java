@@ -0,0 +1,62 @@
+package io.github.acoboh.query.filter.mongodb.spel;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+/**
+ * Scope of the SpEL evaluations of a request, stored on the Reactor context.
+ * <p>
+ * The root object and the request variables of the evaluation contexts are
+ * resolved once per scope and shared by all the expressions of the request,
+ * even if they are evaluated at the same time on different threads. Each
+ * evaluation gets its own evaluation context filled with the shared values.
+ */
+public final class SpelEvaluationScope {
+
+	private final AtomicReference<Mono<SpelRequestValues>> requestValues = new AtomicReference<>();
+
+	private SpelEvaluationScope() {
+	}
+
+	/**
+	 * Add a new scope to a Reactor context
+	 *
+	 * @param context Reactor context
+	 * @return context with the new scope
+	 */
+	public static Context with(Context context) {
+		return context.put(SpelEvaluationScope.class, new SpelEvaluationScope());
+	}
+
+	/**
+	 * Get the request values of the scope of a Reactor context. Without scope, the
+	 * values are resolved on each subscription
+	 *
+	 * @param context  Reactor context
+	 * @param resolver resolver of the request values
+	 * @return request values
+	 */
+	static Mono<SpelRequestValues> getRequestValues(ContextView context,
+			Function<ContextView, Mono<SpelRequestValues>> resolver) {
+		Optional<SpelEvaluationScope> scope = context.getOrEmpty(SpelEvaluationScope.class);
+		if (scope.isEmpty()) {
+			return resolver.apply(context);
+		}
+
+		var ret = scope.get().requestValues.get();
+		if (ret == null) {
+			var resolved = resolver.apply(context).cache();
+			ret = scope.get().requestValues.compareAndExchange(null, resolved);
+			if (ret == null) {
+				ret = resolved;
+			}
+		}
+		return ret;
+	}
+
+}
@@ -0,0 +1,39 @@
+package io.github.acoboh.query.filter.mongodb.spel;
+
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import org.springframework.expression.BeanResolver;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.util.MultiValueMap;
+
+/**
+ * Values of the evaluation contexts of a request
+ *
+ * @param rootObject root object, like the current authentication
+ * @param variables  path variables and query parameters of the request
+ */
+record SpelRequestValues(@Nullable Object rootObject, Map<String, Object> variables) {
+
+	/**
+	 * Create a new evaluation context with the request values
+	 *
+	 * @param contextValues values of the previous fields of the filter
+	 * @param beanResolver  bean resolver
+	 * @return new evaluation context
+	 */
+	StandardEvaluationContext newEvaluationContext(MultiValueMap<String, Object> contextValues,
+			BeanResolver beanResolver) {
+		StandardEvaluationContext ret = new StandardEvaluationContext();
+		if (rootObject != null) {
+			ret.setRootObject(rootObject);
+		}
+
+		SpelUtils.fillContextWithMap(ret, contextValues);
+		ret.setVariables(variables);
+		ret.setBeanResolver(beanResolver);
+		return ret;
+	}
+
+}
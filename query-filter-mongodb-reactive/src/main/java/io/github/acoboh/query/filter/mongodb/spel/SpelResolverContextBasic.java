@@ -1,18 +1,23 @@
 package io.github.acoboh.query.filter.mongodb.spel;
 
+import java.util.Map;
+import java.util.Optional;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingClass;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.expression.BeanFactoryResolver;
+import org.springframework.expression.BeanResolver;
 import org.springframework.expression.EvaluationException;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
-import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.stereotype.Component;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.server.ServerWebExchange;
 
+import io.github.acoboh.query.filter.mongodb.properties.QueryFilterProperties;
 import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
 
 /**
  * SPEL Context resolver bean
@@ -28,58 +33,66 @@ class SpelResolverContextBasic implements SpelResolverInterface {
 
 	private final SpelExpressionParser parser = new SpelExpressionParser();
 
-	private final ApplicationContext appContext;
+	private final BeanResolver beanResolver;
+
+	private final SpelExpressionCache expressionCache;
+
+	private final SpelCacheKeyExtractor cacheKeyExtractor;
 
 	/**
 	 * Default constructor
 	 *
 	 */
 	public SpelResolverContextBasic(ApplicationContext appContext) {
-		this.appContext = appContext;
+		this.beanResolver = new BeanFactoryResolver(appContext);
+		this.expressionCache = SpelExpressionCache.of(appContext.getBeanProvider(QueryFilterProperties.class)
+				.getIfAvailable(QueryFilterProperties::new).getSpel());
+		this.cacheKeyExtractor = appContext.getBeanProvider(SpelCacheKeyExtractor.class)
+				.getIfAvailable(() -> SpelCacheKeyExtractor.PRINCIPAL);
 	}
 
 	@Override
 	public Mono<Object> evaluate(String securityExpression, MultiValueMap<String, Object> contextValues,
 			boolean nullOnError) {
-		return Mono.deferContextual(deferContext -> {
-
-			ServerWebExchange found = null;
-			try {
-				found = deferContext.get(ServerWebExchange.class);
-			} catch (Exception e) {
-				LOGGER.trace("No exchange found in context");
-			}
-			final ServerWebExchange exchange = found;
-
-			return Mono.fromCallable(() -> {
-				StandardEvaluationContext evaluationContext = new StandardEvaluationContext();
-
-				SpelUtils.fillContextWithMap(evaluationContext, contextValues);
-
-				if (exchange != null) {
-					SpelUtils.fillContextWithRequestValues(evaluationContext, exchange);
-				}
-
-				evaluationContext.setBeanResolver(new BeanFactoryResolver(appContext));
-				Object ret;
-				try {
-					ret = parser.parseExpression(securityExpression).getValue(evaluationContext);
-				} catch (EvaluationException e) {
-					LOGGER.error("Error evaluating SpEL expression", e);
-					if (nullOnError) {
-						ret = null;
-					} else {
-						throw e;
+		return Mono.deferContextual(deferContext -> SpelEvaluationScope.getRequestValues(deferContext,
+				SpelResolverContextBasic::requestValues)).flatMap(requestValues -> Mono.fromCallable(() -> {
+					var evaluationContext = requestValues.newEvaluationContext(contextValues, beanResolver);
+
+					Object ret;
+					try {
+						ret = expressionCache.getValue(securityExpression, () -> parser, evaluationContext);
+					} catch (EvaluationException e) {
+						LOGGER.error("Error evaluating SpEL expression", e);
+						if (nullOnError) {
+							ret = null;
+						} else {
+							throw e;
+						}
 					}
-				}
 
-				if (ret == null) {
-					return Mono.empty();
-				}
+					return ret; // Null values complete empty
+				}));
+
+	}
 
-				return Mono.just(ret);
-			});
+	private static Mono<SpelRequestValues> requestValues(ContextView context) {
+		return Mono.fromSupplier(() -> {
+			Optional<ServerWebExchange> exchange = context.getOrEmpty(ServerWebExchange.class);
+			if (exchange.isEmpty()) {
+				LOGGER.trace("No exchange found in context");
+			}
+			return new SpelRequestValues(null, exchange.map(SpelUtils::getRequestVariables).orElse(Map.of()));
 		});
+	}
+
+	@Override
+	public SpelExpressionCache getExpressionCache() {
+		return expressionCache;
+	}
 
+	@Override
+	public SpelCacheKeyExtractor getCacheKeyExtractor() {
+		return cacheKeyExtractor;
 	}
+
 }
@@ -1,6 +1,12 @@
 package io.github.acoboh.query.filter.mongodb.spel;
 
+import java.util.Map;
+import java.util.Optional;
+
+import javax.annotation.Nullable;
+
 import org.springframework.util.MultiValueMap;
+import org.springframework.web.server.ServerWebExchange;
 
 import reactor.core.publisher.Mono;
 
@@ -8,4 +14,53 @@ public interface SpelResolverInterface {
 
 	Mono<Object> evaluate(String securityExpression, MultiValueMap<String, Object> contextValues, boolean nullOnError);
 
+	/**
+	 * Evaluate any expression, with the cache of the results of the element
+	 *
+	 * @param securityExpression expression to evaluate
+	 * @param contextValues      actual context values
+	 * @param nullOnError        true to complete empty if the evaluation fails
+	 * @param resultCache        cache of the results, or null to evaluate always
+	 * @return object evaluated
+	 */
+	default Mono<Object> evaluate(String securityExpression, MultiValueMap<String, Object> contextValues,
+			boolean nullOnError, @Nullable SpelResultCache resultCache) {
+
+		if (resultCache == null) {
+			return evaluate(securityExpression, contextValues, nullOnError);
+		}
+
+		// Requests without key are not cached
+		return Mono.deferContextual(context -> getCacheKeyExtractor().getKey(context).map(Optional::of)
+				.defaultIfEmpty(Optional.empty()).flatMap(key -> {
+					if (key.isEmpty()) {
+						return evaluate(securityExpression, contextValues, nullOnError);
+					}
+
+					return resultCache.getValue(key.get(), securityExpression,
+							() -> context.<ServerWebExchange>getOrEmpty(ServerWebExchange.class)
+									.map(SpelUtils::getRequestVariables).orElse(Map.of()),
+							contextValues, () -> evaluate(securityExpression, contextValues, nullOnError));
+				}));
+	}
+
+	/**
+	 * Get the cache of the parsed expressions
+	 *
+	 * @return cache of the parsed expressions, or null if the resolver does not
+	 *         cache them
+	 */
+	default SpelExpressionCache getExpressionCache() {
+		return null;
+	}
+
+	/**
+	 * Get the key extractor of the cached results
+	 *
+	 * @return key extractor of the cached results
+	 */
+	default SpelCacheKeyExtractor getCacheKeyExtractor() {
+		return SpelCacheKeyExtractor.PRINCIPAL;
+	}
+
 }
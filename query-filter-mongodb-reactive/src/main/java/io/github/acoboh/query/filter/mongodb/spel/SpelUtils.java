@@ -1,5 +1,7 @@
 package io.github.acoboh.query.filter.mongodb.spel;
 
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.stream.Collectors;
 
@@ -15,9 +17,21 @@ public class SpelUtils {
 	}
 
 	public static void fillContextWithRequestValues(EvaluationContext context, ServerWebExchange exchange) {
+		getRequestVariables(exchange).forEach(context::setVariable);
+	}
+
+	/**
+	 * Get the path variables and query parameters of a request as SpEL variables
+	 *
+	 * @param exchange exchange of the request
+	 * @return variables <code>_pathVariables</code> and <code>_parameters</code>
+	 */
+	public static Map<String, Object> getRequestVariables(ServerWebExchange exchange) {
+		Map<String, Object> ret = new HashMap<>(4);
+
 		Object pathObject = exchange.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
 		if (pathObject instanceof Map<?, ?> map) {
-			context.setVariable("_pathVariables", map);
+			ret.put("_pathVariables", map);
 		}
 
 		var mlMap = exchange.getRequest().getQueryParams();
@@ -31,7 +45,8 @@ public class SpelUtils {
 			throw new IllegalStateException("Query parameter value is empty");
 		}));
 
-		context.setVariable("_parameters", queryMap);
+		ret.put("_parameters", queryMap);
+		return Collections.unmodifiableMap(ret);
 	}
 
 	public static void fillContextWithMap(EvaluationContext context, MultiValueMap<String, Object> contextValues) {
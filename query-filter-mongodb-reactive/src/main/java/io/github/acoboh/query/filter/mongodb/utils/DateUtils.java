@@ -2,8 +2,10 @@ package io.github.acoboh.query.filter.mongodb.utils;
 
 import java.sql.Date;
 import java.sql.Timestamp;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
 import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
@@ -56,8 +58,7 @@ public class DateUtils {
 
 		}
 
-		formatter.withZone(zone);
-		return formatter;
+		return formatter.withZone(zone);
 	}
 
 	/**
@@ -86,6 +87,10 @@ public class DateUtils {
 		} else if (java.util.Date.class.isAssignableFrom(finalClass)) {
 			LocalDateTime dt = LocalDateTime.parse(value, formatter);
 			return java.util.Date.from(dt.toInstant(ZoneOffset.of(dateAnnotation.zoneOffset())));
+		} else if (Instant.class.isAssignableFrom(finalClass)) {
+			LocalDateTime dt = LocalDateTime.parse(value, formatter);
+			String zone = dateAnnotation != null ? dateAnnotation.zoneOffset() : QFDate.DEFAULT_ZONEOFFSET;
+			return dt.atZone(ZoneId.of(zone)).toInstant();
 		}
 
 		return null;
@@ -102,6 +107,7 @@ public class DateUtils {
 		return clazz.isAssignableFrom(Timestamp.class) || clazz.isAssignableFrom(LocalDateTime.class)
 				|| clazz.isAssignableFrom(LocalDate.class) || clazz.isAssignableFrom(ZonedDateTime.class)
 				|| clazz.isAssignableFrom(Date.class) || clazz.isAssignableFrom(Date.class)
-				|| clazz.isAssignableFrom(java.util.Date.class);
+				|| clazz.isAssignableFrom(java.util.Date.class) || clazz.isAssignableFrom(Instant.class)
+				|| clazz.isAssignableFrom(OffsetDateTime.class);
 	}
 }
@@ -0,0 +1,154 @@
+package io.github.acoboh.query.filter.mongodb.utils;
+
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Arrays;
+
+/**
+ * Compiled relative date expression, like <code>now-7d/d</code>.
+ * <p>
+ * Expressions start with <code>now</code>, followed by additions like
+ * <code>+1h</code>, subtractions like <code>-7d</code> and roundings down to
+ * the start of a unit like <code>/d</code>, applied from left to right. The
+ * units are <code>y</code> (years), <code>M</code> (months), <code>w</code>
+ * (weeks, starting on Monday), <code>d</code> (days), <code>h</code> or
+ * <code>H</code> (hours), <code>m</code> (minutes) and <code>s</code>
+ * (seconds). A space is read as <code>+</code>, because it is the decoded plus
+ * sign of query strings.
+ */
+final class RelativeDate {
+
+	/**
+	 * Prefix of the relative date expressions
+	 */
+	static final String NOW = "now";
+
+	/**
+	 * Max length of an expression
+	 */
+	static final int MAX_LENGTH = 64;
+
+	private static final int MAX_DIGITS = 6;
+
+	private static final char ROUND = '/';
+
+	private final char[] operators;
+	private final int[] amounts;
+	private final ChronoUnit[] units;
+
+	private RelativeDate(char[] operators, int[] amounts, ChronoUnit[] units) {
+		this.operators = operators;
+		this.amounts = amounts;
+		this.units = units;
+	}
+
+	/**
+	 * Get if a value is a relative date expression
+	 *
+	 * @param value value
+	 * @return true if the value starts with <code>now</code>
+	 */
+	static boolean isRelative(String value) {
+		return value.startsWith(NOW);
+	}
+
+	/**
+	 * Compile an expression
+	 *
+	 * @param expression expression
+	 * @return compiled expression
+	 * @throws DateTimeParseException if the expression is not valid
+	 */
+	static RelativeDate compile(String expression) {
+
+		if (!isRelative(expression) || expression.length() > MAX_LENGTH) {
+			throw new DateTimeParseException("Invalid relative date", expression, 0);
+		}
+
+		int length = expression.length();
+		char[] operators = new char[length];
+		int[] amounts = new int[length];
+		ChronoUnit[] units = new ChronoUnit[length];
+		int count = 0;
+
+		int i = NOW.length();
+		while (i < length) {
+			char operator = expression.charAt(i) == ' ' ? '+' : expression.charAt(i);
+			if (operator != '+' && operator != '-' && operator != ROUND) {
+				throw new DateTimeParseException("Invalid relative date operator", expression, i);
+			}
+			i++;
+
+			int amount = 0;
+			int start = i;
+			while (operator != ROUND && i < length && i - start < MAX_DIGITS && isDigit(expression.charAt(i))) {
+				amount = amount * 10 + expression.charAt(i++) - '0';
+			}
+			if (operator != ROUND && i == start) {
+				throw new DateTimeParseException("Missing relative date amount", expression, i);
+			}
+
+			ChronoUnit unit = i < length ? unit(expression.charAt(i)) : null;
+			if (unit == null) {
+				throw new DateTimeParseException("Invalid relative date unit", expression, i);
+			}
+			i++;
+
+			operators[count] = operator;
+			amounts[count] = operator == '-' ? -amount : amount;
+			units[count] = unit;
+			count++;
+		}
+
+		return new RelativeDate(Arrays.copyOf(operators, count), Arrays.copyOf(amounts, count),
+				Arrays.copyOf(units, count));
+	}
+
+	/**
+	 * Resolve the expression
+	 *
+	 * @param clock clock of the current instant
+	 * @param zone  zone of the days, weeks, months and years
+	 * @return resolved instant
+	 */
+	Instant resolve(Clock clock, ZoneId zone) {
+		ZonedDateTime ret = ZonedDateTime.ofInstant(clock.instant(), zone);
+		for (int i = 0; i < operators.length; i++) {
+			ret = operators[i] == ROUND ? round(ret, units[i]) : ret.plus(amounts[i], units[i]);
+		}
+		return ret.toInstant();
+	}
+
+	private static ZonedDateTime round(ZonedDateTime value, ChronoUnit unit) {
+		return switch (unit) {
+		case YEARS -> value.withDayOfYear(1).truncatedTo(ChronoUnit.DAYS);
+		case MONTHS -> value.withDayOfMonth(1).truncatedTo(ChronoUnit.DAYS);
+		case WEEKS -> value.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).truncatedTo(ChronoUnit.DAYS);
+		default -> value.truncatedTo(unit);
+		};
+	}
+
+	private static ChronoUnit unit(char c) {
+		return switch (c) {
+		case 'y' -> ChronoUnit.YEARS;
+		case 'M' -> ChronoUnit.MONTHS;
+		case 'w' -> ChronoUnit.WEEKS;
+		case 'd' -> ChronoUnit.DAYS;
+		case 'h', 'H' -> ChronoUnit.HOURS;
+		case 'm' -> ChronoUnit.MINUTES;
+		case 's' -> ChronoUnit.SECONDS;
+		default -> null;
+		};
+	}
+
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
+}
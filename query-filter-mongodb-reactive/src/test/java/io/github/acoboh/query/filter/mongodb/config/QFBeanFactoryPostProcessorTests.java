@@ -0,0 +1,51 @@
+package io.github.acoboh.query.filter.mongodb.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.acoboh.query.filter.mongodb.domain.BasicDocumentFilterDef;
+import io.github.acoboh.query.filter.mongodb.domain.PostBlogDocumentFilterDef;
+import io.github.acoboh.query.filter.mongodb.index.QFDefinitionIndex;
+import io.github.acoboh.query.filter.mongodb.processor.QFProcessor;
+
+class QFBeanFactoryPostProcessorTests {
+
+	@Test
+	@DisplayName("Test the packages not covered by the index are scanned")
+	void testPartialIndex(@TempDir Path root) throws Exception {
+		Path file = root.resolve(QFDefinitionIndex.LOCATION);
+		Files.createDirectories(file.getParent());
+		Files.writeString(file, BasicDocumentFilterDef.class.getName() + "=\n");
+
+		String domain = BasicDocumentFilterDef.class.getPackageName();
+		String processor = QFProcessor.class.getPackageName();
+
+		try (URLClassLoader classLoader = new URLClassLoader(new URL[] { root.toUri().toURL() }, null)) {
+			QFDefinitionIndex index = QFDefinitionIndex.load(classLoader);
+
+			assertThat(index).isNotNull();
+			assertThat(index.covers(domain)).isTrue();
+			assertThat(index.covers(processor)).isFalse();
+
+			List<String> names = QFBeanFactoryPostProcessor.getClassAnnotated(index, List.of(domain, processor))
+					.stream().map(Class::getName).toList();
+
+			// Only the indexed definition of the covered package
+			assertThat(names).contains(BasicDocumentFilterDef.class.getName())
+					.doesNotContain(PostBlogDocumentFilterDef.class.getName());
+
+			// The definitions of the package without index are scanned
+			assertThat(names).anyMatch(name -> name.startsWith(processor + "."));
+		}
+	}
+
+}
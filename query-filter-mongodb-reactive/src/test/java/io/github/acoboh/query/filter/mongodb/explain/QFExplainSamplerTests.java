@@ -0,0 +1,156 @@
+package io.github.acoboh.query.filter.mongodb.explain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bson.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.github.acoboh.query.filter.mongodb.domain.PostBlogDocumentFilterDef;
+import io.github.acoboh.query.filter.mongodb.properties.QueryFilterProperties;
+
+class QFExplainSamplerTests {
+
+	private final List<Object> events = new ArrayList<>();
+
+	private QFExplainSampler sampler(QueryFilterProperties properties) {
+		return new QFExplainSampler(properties, null, events::add);
+	}
+
+	@Test
+	@DisplayName("Explain output with inner stages")
+	void testExplainSample() {
+
+		var explain = Document.parse("""
+				{ "queryPlanner": { "winningPlan": { "stage": "FETCH", "inputStage": { "stage": "IXSCAN" } } },
+				  "executionStats": { "nReturned": 5, "totalKeysExamined": 7, "totalDocsExamined": 6 } }
+				""");
+
+		assertThat(ExplainSample.of(explain)).isEqualTo(new ExplainSample("FETCH>IXSCAN", 7, 6, 5));
+
+	}
+
+	@Test
+	@DisplayName("Explain output of the slot based engine")
+	void testExplainSampleQueryPlan() {
+
+		var explain = Document.parse("""
+				{ "queryPlanner": { "winningPlan": { "queryPlan": { "stage": "SORT",
+				  "inputStage": { "stage": "COLLSCAN" } } } },
+				  "executionStats": { "nReturned": 1, "totalKeysExamined": 0, "totalDocsExamined": { "$numberLong": "5000" } } }
+				""");
+
+		assertThat(ExplainSample.of(explain)).isEqualTo(new ExplainSample("SORT>COLLSCAN", 0, 5000, 1));
+
+	}
+
+	@Test
+	@DisplayName("Index of the winning plan")
+	void testExplainSampleIndex() {
+
+		var explain = Document.parse("""
+				{ "queryPlanner": { "winningPlan": { "stage": "FETCH",
+				  "inputStage": { "stage": "IXSCAN", "indexName": "title_1" } } } }
+				""");
+
+		assertThat(ExplainSample.of(explain)).isEqualTo(new ExplainSample("FETCH>IXSCAN", 0, 0, 0, "title_1"));
+
+		var or = Document.parse("""
+				{ "queryPlanner": { "winningPlan": { "stage": "SUBPLAN", "inputStage": { "stage": "FETCH",
+				  "inputStage": { "stage": "OR", "inputStages": [ { "stage": "IXSCAN", "indexName": "title_1" },
+				  { "stage": "IXSCAN", "indexName": "likes_1" } ] } } } } }
+				""");
+
+		assertThat(ExplainSample.of(or).indexName()).isNull();
+
+	}
+
+	@Test
+	@DisplayName("Slow shapes are reported once")
+	void testSlowShape() {
+
+		var sampler = sampler(new QueryFilterProperties());
+
+		sampler.record(PostBlogDocumentFilterDef.class, "title:eq", new ExplainSample("COLLSCAN", 0, 5000, 1));
+		sampler.record(PostBlogDocumentFilterDef.class, "title:eq", new ExplainSample("COLLSCAN", 0, 5000, 1));
+		sampler.record(PostBlogDocumentFilterDef.class, "likes:gt", new ExplainSample("FETCH>IXSCAN", 50, 50, 50));
+
+		assertThat(events).hasSize(1).first().isInstanceOfSatisfying(QFSlowFilterEvent.class, event -> {
+			assertThat(event.getStats().shape()).isEqualTo("title:eq");
+			assertThat(event.getStats().isCollectionScan()).isTrue();
+			assertThat(event.getStats().samples()).isEqualTo(1);
+		});
+
+		var stats = sampler.getStats();
+		assertThat(stats).hasSize(2);
+		assertThat(stats.get(0)).isEqualTo(
+				new QFExplainStats(PostBlogDocumentFilterDef.class, "title:eq", 2, "COLLSCAN", 0, 10000, 2, true));
+		assertThat(stats.get(1).slow()).isFalse();
+		assertThat(stats.get(1).docsExaminedRatio()).isEqualTo(1);
+
+	}
+
+	@Test
+	@DisplayName("Small collections and new shapes over the limit are not reported")
+	void testLimits() {
+
+		var properties = new QueryFilterProperties();
+		properties.getExplain().setMaxShapes(1);
+		var sampler = sampler(properties);
+
+		sampler.record(PostBlogDocumentFilterDef.class, "title:eq", new ExplainSample("COLLSCAN", 0, 500, 0));
+		sampler.record(PostBlogDocumentFilterDef.class, "likes:gt", new ExplainSample("COLLSCAN", 0, 5000, 1));
+
+		assertThat(events).isEmpty();
+		assertThat(sampler.getStats()).extracting(QFExplainStats::shape).containsExactly("title:eq");
+		assertThat(sampler.getDiscardedSamples()).isEqualTo(1);
+
+	}
+
+	@Test
+	@DisplayName("Index of the cheapest plan is pinned as hint")
+	void testAdaptiveHints() {
+
+		var properties = new QueryFilterProperties();
+		properties.getExplain().setAdaptiveHints(true);
+		properties.getExplain().setHintMinSamples(3);
+		var sampler = sampler(properties);
+
+		sampler.record(PostBlogDocumentFilterDef.class, "title:eq", new ExplainSample("FETCH>IXSCAN", 900, 900, 10,
+				"date_1"));
+		sampler.record(PostBlogDocumentFilterDef.class, "title:eq", new ExplainSample("FETCH>IXSCAN", 10, 10, 10,
+				"title_1"));
+		assertThat(sampler.getHint(PostBlogDocumentFilterDef.class, "title:eq")).isNull();
+
+		sampler.record(PostBlogDocumentFilterDef.class, "title:eq", new ExplainSample("FETCH>IXSCAN", 900, 900, 10,
+				"date_1"));
+		assertThat(sampler.getHint(PostBlogDocumentFilterDef.class, "title:eq")).isEqualTo("title_1");
+		assertThat(sampler.getHint(PostBlogDocumentFilterDef.class, "likes:gt")).isNull();
+
+		// Collection scans are not pinned
+		for (int i = 0; i < 3; i++) {
+			sampler.record(PostBlogDocumentFilterDef.class, "title:eq", new ExplainSample("COLLSCAN", 0, 1, 10));
+		}
+		assertThat(sampler.getHint(PostBlogDocumentFilterDef.class, "title:eq")).isNull();
+
+	}
+
+	@Test
+	@DisplayName("Hints are not pinned if the adaptive hints are disabled")
+	void testAdaptiveHintsDisabled() {
+
+		var sampler = sampler(new QueryFilterProperties());
+		assertThat(sampler.isAdaptiveHints()).isFalse();
+
+		for (int i = 0; i < 20; i++) {
+			sampler.record(PostBlogDocumentFilterDef.class, "title:eq", new ExplainSample("FETCH>IXSCAN", 10, 10, 10,
+					"title_1"));
+		}
+		assertThat(sampler.getHint(PostBlogDocumentFilterDef.class, "title:eq")).isNull();
+
+	}
+
+}
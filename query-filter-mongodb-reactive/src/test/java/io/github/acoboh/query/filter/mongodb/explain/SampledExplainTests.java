@@ -0,0 +1,123 @@
+package io.github.acoboh.query.filter.mongodb.explain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.context.junit.jupiter.web.SpringJUnitWebConfig;
+import org.springframework.test.context.web.WebAppConfiguration;
+
+import io.github.acoboh.query.filter.mongodb.domain.PostBlogDocumentFilterDef;
+import io.github.acoboh.query.filter.mongodb.model.PostBlogDocument;
+import io.github.acoboh.query.filter.mongodb.processor.QFParamType;
+import io.github.acoboh.query.filter.mongodb.processor.QFProcessor;
+import io.github.acoboh.query.filter.mongodb.properties.QueryFilterProperties;
+import io.github.acoboh.query.filter.mongodb.repositories.PostBlogDocumentRepository;
+import io.github.acoboh.query.filter.mongodb.spring.SpringIntegrationTestBase;
+import reactor.test.StepVerifier;
+
+@SpringJUnitWebConfig({ SpringIntegrationTestBase.Config.class, SampledExplainTests.ExplainConfig.class })
+@ExtendWith(SpringExtension.class)
+@WebAppConfiguration
+@TestPropertySource(properties = "query-filter.explain.enabled=true")
+class SampledExplainTests {
+
+	@Configuration(proxyBeanMethods = false)
+	static class ExplainConfig {
+
+		@Bean
+		static BeanPostProcessor explainProperties() {
+			return new BeanPostProcessor() {
+
+				@Override
+				public Object postProcessBeforeInitialization(Object bean, String beanName) {
+					if (bean instanceof QueryFilterProperties properties) {
+						properties.getExplain().setSampleRate(1);
+						properties.getExplain().setMinDocsExamined(0);
+						properties.getExplain().setDocsExaminedRatio(1);
+					}
+					return bean;
+				}
+
+			};
+		}
+
+		@Bean
+		SlowFilterListener slowFilterListener() {
+			return new SlowFilterListener();
+		}
+
+	}
+
+	static class SlowFilterListener {
+
+		private final List<QFSlowFilterEvent> events = new CopyOnWriteArrayList<>();
+
+		@EventListener
+		void onSlowFilter(QFSlowFilterEvent event) {
+			events.add(event);
+		}
+
+	}
+
+	@Autowired
+	private QFProcessor<PostBlogDocumentFilterDef, PostBlogDocument> queryFilterProcessor;
+
+	@Autowired
+	private PostBlogDocumentRepository repository;
+
+	@Autowired
+	private QFExplainSampler sampler;
+
+	@Autowired
+	private SlowFilterListener listener;
+
+	@AfterEach
+	void clean() {
+		repository.deleteAll().block();
+	}
+
+	@Test
+	@DisplayName("Collection scans of executed queries are reported")
+	void testCollectionScan() throws InterruptedException {
+
+		for (int i = 0; i < 5; i++) {
+			var doc = new PostBlogDocument();
+			doc.setId(String.valueOf(i));
+			doc.setTitle("Title " + i);
+			repository.save(doc).block();
+		}
+
+		var qf = queryFilterProcessor.newQueryFilter("title=eq:Title 1&sort=-title", QFParamType.RHS_COLON);
+		StepVerifier.create(qf.executeFindQuery()).expectNextCount(1).verifyComplete();
+
+		for (int i = 0; i < 100 && listener.events.isEmpty(); i++) {
+			Thread.sleep(100);
+		}
+
+		assertThat(listener.events).hasSize(1);
+
+		var stats = listener.events.get(0).getStats();
+		assertThat(stats.filter()).isEqualTo(PostBlogDocumentFilterDef.class);
+		assertThat(stats.shape()).isEqualTo("title:eq sort:-title");
+		assertThat(stats.isCollectionScan()).isTrue();
+		assertThat(stats.docsExamined()).isEqualTo(5);
+		assertThat(stats.returned()).isEqualTo(1);
+
+		assertThat(sampler.getStats()).containsExactly(stats);
+
+	}
+
+}
@@ -0,0 +1,78 @@
+package io.github.acoboh.query.filter.mongodb.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.context.junit.jupiter.web.SpringJUnitWebConfig;
+import org.springframework.test.context.web.WebAppConfiguration;
+
+import io.github.acoboh.query.filter.mongodb.domain.PostBlogDocumentFilterDef;
+import io.github.acoboh.query.filter.mongodb.index.QFIndexAdvice.Type;
+import io.github.acoboh.query.filter.mongodb.model.PostBlogDocument;
+import io.github.acoboh.query.filter.mongodb.properties.QueryFilterProperties;
+import io.github.acoboh.query.filter.mongodb.spring.SpringIntegrationTestBase;
+
+@SpringJUnitWebConfig({ SpringIntegrationTestBase.Config.class, IndexAdvisorTests.AdvisorConfig.class })
+@ExtendWith(SpringExtension.class)
+@WebAppConfiguration
+@TestPropertySource(properties = "query-filter.index-advisor.enabled=true")
+class IndexAdvisorTests {
+
+	@Configuration(proxyBeanMethods = false)
+	static class AdvisorConfig {
+
+		@Bean
+		static BeanPostProcessor indexAdvisorProperties() {
+			return new BeanPostProcessor() {
+
+				@Override
+				public Object postProcessBeforeInitialization(Object bean, String beanName) {
+					if (bean instanceof QueryFilterProperties properties) {
+						properties.getIndexAdvisor().setCreateIndexes(true);
+					}
+					return bean;
+				}
+
+			};
+		}
+
+	}
+
+	@Autowired
+	private QFIndexAdvisor advisor;
+
+	@Autowired
+	private ReactiveMongoTemplate mongoTemplate;
+
+	@Test
+	@DisplayName("Missing indexes are reported and created on startup")
+	void testStartupAdvices() {
+
+		assertThat(advisor.getAdvices()).filteredOn(e -> e.filterClass() == PostBlogDocumentFilterDef.class)
+				.extracting(QFIndexAdvice::type, QFIndexAdvice::paths)
+				.contains(tuple(Type.FILTER, "title"), tuple(Type.SORT, "title"),
+						tuple(Type.FILTER, "comments.stars"))
+				.doesNotContain(tuple(Type.FILTER, "_id"), tuple(Type.SORT, "_id"));
+
+		assertThat(mongoTemplate.indexOps(PostBlogDocument.class).getIndexInfo().collectList().block())
+				.anyMatch(e -> e.isIndexForFields(List.of("title")))
+				.anyMatch(e -> e.isIndexForFields(List.of("comments.stars")));
+
+		assertThat(advisor.check()).noneMatch(e -> e.filterClass() == PostBlogDocumentFilterDef.class
+				&& e.type() == Type.FILTER && e.paths().equals("title"));
+
+	}
+
+}
@@ -0,0 +1,85 @@
+package io.github.acoboh.query.filter.mongodb.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.SpringProperties;
+
+import io.github.acoboh.query.filter.mongodb.domain.BasicDocumentFilterDef;
+import io.github.acoboh.query.filter.mongodb.domain.PostBlogDocumentFilterDef;
+import io.github.acoboh.query.filter.mongodb.dto.PostBlogSimplifiedDTO;
+
+class QFDefinitionIndexTests {
+
+	@Test
+	@DisplayName("Test the index written by the processor")
+	void testIndex() {
+		QFDefinitionIndex index = QFDefinitionIndex.load(getClass().getClassLoader());
+
+		assertThat(index).isNotNull();
+		assertThat(index.getDefinitions()).contains(BasicDocumentFilterDef.class.getName(),
+				PostBlogDocumentFilterDef.class.getName());
+		assertThat(index.getProjections(PostBlogDocumentFilterDef.class.getName()))
+				.containsExactly(PostBlogSimplifiedDTO.class.getName());
+		assertThat(index.getProjections(BasicDocumentFilterDef.class.getName())).isEmpty();
+	}
+
+	@Test
+	@DisplayName("Test the definitions of some packages")
+	void testPackages() {
+		QFDefinitionIndex index = QFDefinitionIndex.load(getClass().getClassLoader());
+
+		assertThat(index).isNotNull();
+
+		String domain = BasicDocumentFilterDef.class.getPackageName();
+		assertThat(index.getDefinitions(List.of(domain))).isNotEmpty()
+				.allMatch(name -> name.startsWith(domain + "."));
+		assertThat(index.getDefinitions(List.of("io.github.acoboh.query.filter"))).isEqualTo(index.getDefinitions());
+		assertThat(index.getDefinitions(List.of("io.github.acoboh.query.filter.mongodb.dom"))).isEmpty();
+	}
+
+	@Test
+	@DisplayName("Test the classpath roots with index")
+	void testIndexedRoots(@TempDir Path root, @TempDir Path other) throws Exception {
+		Path file = root.resolve(QFDefinitionIndex.LOCATION);
+		Files.createDirectories(file.getParent());
+		Files.writeString(file, BasicDocumentFilterDef.class.getName() + "=\n");
+
+		try (URLClassLoader classLoader = new URLClassLoader(
+				new URL[] { root.toUri().toURL(), other.toUri().toURL() }, null)) {
+			QFDefinitionIndex index = QFDefinitionIndex.load(classLoader);
+
+			assertThat(index).isNotNull();
+			assertThat(index.isIndexed(root.toUri().toURL())).isTrue();
+			assertThat(index.isIndexed(other.toUri().toURL())).isFalse();
+		}
+	}
+
+	@Test
+	@DisplayName("Test the class loaders without index")
+	void testMissingIndex() throws Exception {
+		try (URLClassLoader classLoader = new URLClassLoader(new URL[0], null)) {
+			assertThat(QFDefinitionIndex.load(classLoader)).isNull();
+		}
+	}
+
+	@Test
+	@DisplayName("Test the ignored index")
+	void testIgnoredIndex() {
+		SpringProperties.setFlag(QFDefinitionIndex.IGNORE_PROPERTY);
+		try {
+			assertThat(QFDefinitionIndex.load(getClass().getClassLoader())).isNull();
+		} finally {
+			SpringProperties.setProperty(QFDefinitionIndex.IGNORE_PROPERTY, null);
+		}
+	}
+
+}
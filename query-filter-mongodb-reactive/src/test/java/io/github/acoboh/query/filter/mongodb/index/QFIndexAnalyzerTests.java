@@ -0,0 +1,119 @@
+package io.github.acoboh.query.filter.mongodb.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+
+import io.github.acoboh.query.filter.mongodb.annotations.QFDefinitionClass;
+import io.github.acoboh.query.filter.mongodb.annotations.QFDefinitionClass.QFDefaultSort;
+import io.github.acoboh.query.filter.mongodb.annotations.QFElement;
+import io.github.acoboh.query.filter.mongodb.domain.TextFilterDef;
+import io.github.acoboh.query.filter.mongodb.exceptions.definition.QueryFilterDefinitionException;
+import io.github.acoboh.query.filter.mongodb.index.QFIndexAdvice.Type;
+import io.github.acoboh.query.filter.mongodb.model.PostBlogDocument;
+import io.github.acoboh.query.filter.mongodb.model.TextDocument;
+import io.github.acoboh.query.filter.mongodb.processor.QFProcessor;
+
+class QFIndexAnalyzerTests {
+
+	@QFDefinitionClass(value = PostBlogDocument.class, defaultSort = {
+			@QFDefaultSort(value = "title", direction = Direction.DESC), @QFDefaultSort("likes") })
+	static class AdvisorFilterDef {
+
+		@QFElement("id")
+		private String id;
+
+		@QFElement("title")
+		private String title;
+
+		@QFElement("likes")
+		private int likes;
+
+		@QFElement(value = "comments.stars", sortable = false)
+		private int commentsStars;
+
+	}
+
+	private static List<IndexInfo> indexes(String... indexes) {
+		return Stream.concat(Stream.of("{ key: { _id: 1 }, name: '_id_' }"), Stream.of(indexes))
+				.map(e -> IndexInfo.indexInfoOf(Document.parse(e))).toList();
+	}
+
+	private static List<QFIndexAdvice> analyze(List<IndexInfo> indexes) throws QueryFilterDefinitionException {
+		var processor = new QFProcessor<>(AdvisorFilterDef.class, PostBlogDocument.class, (ApplicationContext) null);
+		return QFIndexAnalyzer.analyze(processor, "postBlogDocument", indexes);
+	}
+
+	@Test
+	@DisplayName("Fields without indexes are reported with the recommended index")
+	void testMissingIndexes() throws QueryFilterDefinitionException {
+
+		var advices = analyze(indexes());
+
+		assertThat(advices).extracting(QFIndexAdvice::type, QFIndexAdvice::field, QFIndexAdvice::paths)
+				.containsExactlyInAnyOrder(tuple(Type.DEFAULT_SORT, "title,likes", "title,likes"),
+						tuple(Type.SORT, "title", "title"), tuple(Type.SORT, "likes", "likes"),
+						tuple(Type.FILTER, "title", "title"), tuple(Type.FILTER, "likes", "likes"),
+						tuple(Type.FILTER, "commentsStars", "comments.stars"));
+
+		assertThat(advices).allMatch(e -> e.filterClass() == AdvisorFilterDef.class)
+				.allMatch(e -> e.collection().equals("postBlogDocument"));
+
+		var defaultSort = advices.stream().filter(e -> e.type() == Type.DEFAULT_SORT).findFirst().orElseThrow();
+		assertThat(defaultSort.recommendedIndex().getIndexKeys())
+				.isEqualTo(new Document("title", -1).append("likes", 1));
+
+	}
+
+	@Test
+	@DisplayName("Prefixes, reverse sorts and wildcard indexes support the fields")
+	void testSupportedFields() throws QueryFilterDefinitionException {
+
+		var advices = analyze(indexes("{ key: { title: 1, likes: -1 }, name: 'title_likes' }",
+				"{ key: { likes: 1, title: 1 }, name: 'likes_title' }",
+				"{ key: { 'comments.$**': 1 }, name: 'comments_wildcard' }"));
+
+		assertThat(advices).isEmpty();
+
+	}
+
+	@Test
+	@DisplayName("Hidden, partial and unordered indexes do not support the fields")
+	void testUnusableIndexes() throws QueryFilterDefinitionException {
+
+		var advices = analyze(indexes("{ key: { title: -1, likes: 1 }, name: 'hidden', hidden: true }",
+				"{ key: { title: -1, likes: 1 }, name: 'partial', partialFilterExpression: { likes: { $gt: 5 } } }",
+				"{ key: { title: 'hashed' }, name: 'hashed' }", "{ key: { likes: 1 }, name: 'likes' }",
+				"{ key: { 'comments.stars': 1 }, name: 'stars' }"));
+
+		assertThat(advices).extracting(QFIndexAdvice::type, QFIndexAdvice::field).containsExactlyInAnyOrder(
+				tuple(Type.DEFAULT_SORT, "title,likes"), tuple(Type.SORT, "title"));
+
+	}
+
+	@Test
+	@DisplayName("Text fields need a text index")
+	void testTextIndex() throws QueryFilterDefinitionException {
+
+		var processor = new QFProcessor<>(TextFilterDef.class, TextDocument.class, (ApplicationContext) null);
+
+		assertThat(QFIndexAnalyzer.analyze(processor, "textDocument", indexes()))
+				.containsExactly(new QFIndexAdvice(TextFilterDef.class, "textDocument", Type.TEXT, "search", "$text",
+						null));
+
+		var textIndex = indexes(
+				"{ key: { _fts: 'text', _ftsx: 1 }, name: 'text', weights: { name: 1, surname: 1 } }");
+		assertThat(QFIndexAnalyzer.analyze(processor, "textDocument", textIndex)).isEmpty();
+
+	}
+
+}
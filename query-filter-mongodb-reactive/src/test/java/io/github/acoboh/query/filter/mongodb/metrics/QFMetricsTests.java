@@ -0,0 +1,125 @@
+package io.github.acoboh.query.filter.mongodb.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.util.MultiValueMap;
+
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+
+import io.github.acoboh.query.filter.mongodb.domain.PostBlogSpelFilterDef;
+import io.github.acoboh.query.filter.mongodb.exceptions.QueryFilterException;
+import io.github.acoboh.query.filter.mongodb.exceptions.definition.QueryFilterDefinitionException;
+import io.github.acoboh.query.filter.mongodb.model.PostBlogDocument;
+import io.github.acoboh.query.filter.mongodb.processor.QFParamType;
+import io.github.acoboh.query.filter.mongodb.processor.QFProcessor;
+import io.github.acoboh.query.filter.mongodb.spel.SpelResolverInterface;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+class QFMetricsTests {
+
+	private final GenericApplicationContext context = new GenericApplicationContext();
+
+	@AfterEach
+	void close() {
+		context.close();
+	}
+
+	private QFProcessor<PostBlogSpelFilterDef, PostBlogDocument> processor(MeterRegistry registry)
+			throws QueryFilterDefinitionException {
+		if (registry != null) {
+			context.registerBean(MeterRegistry.class, () -> registry);
+		}
+		context.registerBean(SpelResolverInterface.class, BasicSpelResolver::new);
+		context.registerBean(MongoClient.class, () -> MongoClients.create());
+		context.registerBean(ReactiveMongoTemplate.class,
+				() -> new ReactiveMongoTemplate(context.getBean(MongoClient.class), "test"));
+		context.refresh();
+
+		return new QFProcessor<>(PostBlogSpelFilterDef.class, PostBlogDocument.class, context);
+	}
+
+	@Test
+	@DisplayName("Phases are timed by filter, entity and operation")
+	void testTimers() throws QueryFilterDefinitionException {
+
+		var registry = new SimpleMeterRegistry();
+		var processor = processor(registry);
+
+		var criteria = processor.newQueryFilter("likes=eq:5", QFParamType.RHS_COLON).toCriteria();
+
+		// Publishers are timed on subscription
+		assertThat(registry.find(QFMetrics.TIMER).tag("operation", QFMetrics.CRITERIA).timer()).isNull();
+
+		criteria.block();
+
+		for (var operation : new String[] { QFMetrics.PARSE, QFMetrics.CRITERIA }) {
+			var timer = registry.get(QFMetrics.TIMER).tag("filter", "PostBlogSpelFilterDef")
+					.tag("entity", "PostBlogDocument").tag("operation", operation).timer();
+			assertThat(timer.count()).as(operation).isEqualTo(1);
+		}
+
+		// Each subscription to the SpEL value of the part is an evaluation
+		assertThat(registry.get(QFMetrics.TIMER).tag("operation", QFMetrics.SPEL).timer().count()).isPositive();
+
+		assertThat(registry.get(QFMetrics.PART_TIMER).tag("operation", "eq").timer().count()).isEqualTo(1);
+		assertThat(registry.get(QFMetrics.PART_TIMER).tag("operation", "gt").timer().count()).isEqualTo(1);
+
+	}
+
+	@Test
+	@DisplayName("Failed phases are counted")
+	void testErrors() throws QueryFilterDefinitionException {
+
+		var registry = new SimpleMeterRegistry();
+		var processor = processor(registry);
+
+		assertThatThrownBy(() -> processor.newQueryFilter("unknown=eq:5", QFParamType.RHS_COLON))
+				.isInstanceOf(QueryFilterException.class);
+
+		assertThat(registry.get(QFMetrics.ERRORS).tag("operation", QFMetrics.PARSE).counter().count()).isEqualTo(1);
+		assertThat(registry.get(QFMetrics.TIMER).tag("operation", QFMetrics.PARSE).timer().count()).isEqualTo(1);
+
+	}
+
+	@Test
+	@DisplayName("Metrics are disabled without meter registry")
+	void testDisabled() throws QueryFilterDefinitionException {
+
+		var processor = processor(null);
+
+		assertThat(processor.getMetrics()).isSameAs(QFMetrics.DISABLED);
+
+		var spelResolver = context.getBean(SpelResolverInterface.class);
+		assertThat(processor.getMetrics().timed(spelResolver)).isSameAs(spelResolver);
+
+		assertThat(QFMetrics.of(null, PostBlogSpelFilterDef.class, PostBlogDocument.class))
+				.isSameAs(QFMetrics.DISABLED);
+
+	}
+
+	static class BasicSpelResolver implements SpelResolverInterface {
+
+		@Override
+		public Mono<Object> evaluate(String securityExpression, MultiValueMap<String, Object> contextValues,
+				boolean nullOnError) {
+			return Mono.fromCallable(() -> {
+				var evaluationContext = new StandardEvaluationContext();
+				contextValues.forEach((k, v) -> evaluationContext.setVariable(k, v.get(0)));
+				return new SpelExpressionParser().parseExpression(securityExpression).getValue(evaluationContext);
+			});
+		}
+
+	}
+
+}
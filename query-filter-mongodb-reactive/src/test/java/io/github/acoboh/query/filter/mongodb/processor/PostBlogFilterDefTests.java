@@ -1,6 +1,7 @@
 package io.github.acoboh.query.filter.mongodb.processor;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -21,6 +22,7 @@ import org.springframework.test.context.junit.jupiter.web.SpringJUnitWebConfig;
 import org.springframework.test.context.web.WebAppConfiguration;
 
 import io.github.acoboh.query.filter.mongodb.domain.PostBlogDocumentFilterDef;
+import io.github.acoboh.query.filter.mongodb.exceptions.QFParseException;
 import io.github.acoboh.query.filter.mongodb.model.CommentModel;
 import io.github.acoboh.query.filter.mongodb.model.PostBlogDocument;
 import io.github.acoboh.query.filter.mongodb.repositories.PostBlogDocumentRepository;
@@ -225,6 +227,58 @@ class PostBlogFilterDefTests {
 
 	}
 
+	@Test
+	@DisplayName("6. Query by stars range")
+	@Order(6)
+	void queryByStarsRange() {
+
+		var qf = qfProcessor.newQueryFilter("commentsStars=between:4,5", QFParamType.RHS_COLON);
+		assertThat(qf).isNotNull();
+
+		StepVerifier.create(qf.toCriteriaQuery()).assertNext(query -> assertThat(query.getQueryObject())
+				.isEqualTo(new Document("comments.stars", new Document("$gte", 4).append("$lte", 5))))
+				.verifyComplete();
+
+		var list = qf.executeFindQuery();
+		StepVerifier.create(list).expectNext(DOC_1).verifyComplete();
+
+		qf = qfProcessor.newQueryFilter("commentsStars[between]=2,3", QFParamType.LHS_BRACKETS);
+		list = qf.executeFindQuery();
+		StepVerifier.create(list).expectNext(DOC_2).verifyComplete();
+
+		// Comparisons on the same field are merged
+		qf = qfProcessor.newQueryFilter("commentsStars=gte:4&commentsStars=lt:5", QFParamType.RHS_COLON);
+		StepVerifier.create(qf.toCriteriaQuery()).assertNext(query -> assertThat(query.getQueryObject())
+				.isEqualTo(new Document("comments.stars", new Document("$gte", 4).append("$lt", 5))))
+				.verifyComplete();
+
+		list = qf.executeFindQuery();
+		StepVerifier.create(list).expectNext(DOC_1).verifyComplete();
+
+		assertThatThrownBy(() -> qfProcessor.newQueryFilter("commentsStars=between:4", QFParamType.RHS_COLON))
+				.isInstanceOf(QFParseException.class);
+		assertThatThrownBy(() -> qfProcessor.newQueryFilter("commentsStars=between:1,2,3", QFParamType.RHS_COLON))
+				.isInstanceOf(QFParseException.class);
+
+	}
+
+	@Test
+	@DisplayName("7. Query by multiple patterns")
+	@Order(7)
+	void queryByMultiplePatterns() {
+
+		var qf = qfProcessor.newQueryFilter("title=like:Doc 1,Other", QFParamType.RHS_COLON);
+		StepVerifier.create(qf.executeFindQuery()).expectNext(DOC_1).expectNext(DOC_2).verifyComplete();
+
+		qf = qfProcessor.newQueryFilter("title[ends]=example 2,nothing", QFParamType.LHS_BRACKETS);
+		StepVerifier.create(qf.executeFindQuery()).expectNext(DOC_2).verifyComplete();
+
+		// Regex characters are matched literally
+		qf = qfProcessor.newQueryFilter("title=like:.*", QFParamType.RHS_COLON);
+		StepVerifier.create(qf.executeFindQuery()).verifyComplete();
+
+	}
+
 	@Test
 	@DisplayName("END. Cleanup")
 	@Order(Ordered.LOWEST_PRECEDENCE)
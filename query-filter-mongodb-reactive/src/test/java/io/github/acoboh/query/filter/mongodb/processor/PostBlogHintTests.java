@@ -0,0 +1,170 @@
+package io.github.acoboh.query.filter.mongodb.processor;
+
+import static io.github.acoboh.query.filter.mongodb.spring.SpringIntegrationTestBase.postBlogDocument;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.context.junit.jupiter.web.SpringJUnitWebConfig;
+import org.springframework.test.context.web.WebAppConfiguration;
+
+import io.github.acoboh.query.filter.mongodb.annotations.QFDefinitionClass;
+import io.github.acoboh.query.filter.mongodb.annotations.QFDefinitionClass.QFHint;
+import io.github.acoboh.query.filter.mongodb.annotations.QFElement;
+import io.github.acoboh.query.filter.mongodb.exceptions.definition.QFElementException;
+import io.github.acoboh.query.filter.mongodb.exceptions.definition.QueryFilterDefinitionException;
+import io.github.acoboh.query.filter.mongodb.model.PostBlogDocument;
+import io.github.acoboh.query.filter.mongodb.repositories.PostBlogDocumentRepository;
+import io.github.acoboh.query.filter.mongodb.spring.SpringIntegrationTestBase;
+import reactor.test.StepVerifier;
+
+@SpringJUnitWebConfig(SpringIntegrationTestBase.Config.class)
+@ExtendWith(SpringExtension.class)
+@WebAppConfiguration
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class PostBlogHintTests {
+
+	@QFDefinitionClass(value = PostBlogDocument.class, hints = {
+			@QFHint(fields = "title", sort = "id", index = "title_idx"),
+			@QFHint(fields = { "title", "type" }, index = "title_type_idx") })
+	static class HintFilterDef {
+
+		@QFElement("id")
+		private String id;
+
+		@QFElement("title")
+		private String title;
+
+		@QFElement("type")
+		private String type;
+
+	}
+
+	@QFDefinitionClass(value = PostBlogDocument.class, hints = @QFHint(fields = "unknown", index = "title_idx"))
+	static class InvalidHintFilterDef {
+
+		@QFElement("title")
+		private String title;
+
+	}
+
+	private static final List<PostBlogDocument> DOCS = List.of(postBlogDocument("1", "A", 0),
+			postBlogDocument("2", "A", 0), postBlogDocument("3", "B", 0));
+
+	@Autowired
+	private ApplicationContext appContext;
+
+	@Autowired
+	private ReactiveMongoTemplate mongoTemplate;
+
+	@Autowired
+	private PostBlogDocumentRepository repository;
+
+	private QFProcessor<HintFilterDef, PostBlogDocument> processor() throws QueryFilterDefinitionException {
+		return new QFProcessor<>(HintFilterDef.class, PostBlogDocument.class, appContext);
+	}
+
+	@Test
+	@DisplayName("0. Setup")
+	@Order(0)
+	void setup() {
+		StepVerifier.create(repository.findAll()).verifyComplete();
+
+		StepVerifier.create(repository.saveAll(DOCS)).expectNextCount(3).verifyComplete();
+		StepVerifier.create(mongoTemplate.indexOps(PostBlogDocument.class)
+				.createIndex(new Index("title", Direction.ASC).on("_id", Direction.ASC).named("title_idx")))
+				.expectNext("title_idx").verifyComplete();
+		StepVerifier.create(mongoTemplate.indexOps(PostBlogDocument.class)
+				.createIndex(new Index("title", Direction.ASC).on("type", Direction.ASC).named("title_type_idx")))
+				.expectNext("title_type_idx").verifyComplete();
+
+		StepVerifier.create(repository.findAll()).expectNextCount(3).verifyComplete();
+	}
+
+	private static String hint(QFProcessor<HintFilterDef, PostBlogDocument> processor, String filter) {
+		return processor.newQueryFilter(filter, QFParamType.RHS_COLON).toCriteriaQuery().block().getHint();
+	}
+
+	@Test
+	@DisplayName("1. Rules match the filtered fields and the sort")
+	@Order(1)
+	void rules() throws QueryFilterDefinitionException {
+
+		var processor = processor();
+
+		assertThat(hint(processor, "title=eq:A&sort=+id")).isEqualTo("title_idx");
+		assertThat(processor.newQueryFilter("title=eq:A&sort=+id", QFParamType.RHS_COLON).toCriteriaQuery(false)
+				.block().getHint()).isEqualTo("title_idx");
+		assertThat(hint(processor, "type=eq:VIDEO&title=eq:A")).isEqualTo("title_type_idx");
+
+		// Other sort or other fields do not match
+		assertThat(hint(processor, "title=eq:A")).isNull();
+		assertThat(hint(processor, "title=eq:A&sort=-title")).isNull();
+		assertThat(hint(processor, "title=eq:A&id=eq:1&sort=+id")).isNull();
+	}
+
+	@Test
+	@DisplayName("2. Hinted find, aggregate and count")
+	@Order(2)
+	void execution() throws QueryFilterDefinitionException {
+
+		var processor = processor();
+
+		var qf = processor.newQueryFilter("title=eq:A&sort=+id", QFParamType.RHS_COLON);
+
+		StepVerifier.create(qf.executeFindQuery()).expectNext(DOCS.get(0), DOCS.get(1)).verifyComplete();
+		StepVerifier.create(qf.executeCount()).expectNext(2L).verifyComplete();
+
+		StepVerifier.create(qf.executeFindQuery(PageRequest.of(0, 1))).assertNext(page -> {
+			assertThat(page.getContent()).containsExactly(DOCS.get(0));
+			assertThat(page.getTotalElements()).isEqualTo(2);
+		}).verifyComplete();
+
+		StepVerifier.create(qf.executeAggregateAndProject(PageRequest.of(0, 1), PostBlogDocument.class))
+				.assertNext(page -> {
+					assertThat(page.getContent()).containsExactly(DOCS.get(0));
+					assertThat(page.getTotalElements()).isEqualTo(2);
+				}).verifyComplete();
+
+		qf.setCountStrategy(QFCountStrategy.FACET);
+		StepVerifier.create(qf.executeAggregateAndProject(PageRequest.of(0, 1), PostBlogDocument.class))
+				.assertNext(page -> {
+					assertThat(page.getContent()).containsExactly(DOCS.get(0));
+					assertThat(page.getTotalElements()).isEqualTo(2);
+				}).verifyComplete();
+	}
+
+	@Test
+	@DisplayName("3. Rules with unknown fields are rejected")
+	@Order(3)
+	void invalidRule() {
+		assertThatThrownBy(() -> new QFProcessor<>(InvalidHintFilterDef.class, PostBlogDocument.class, appContext))
+				.isInstanceOf(QFElementException.class);
+	}
+
+	@Test
+	@DisplayName("4. Clean")
+	@Order(4)
+	void clean() {
+		StepVerifier.create(repository.deleteAll()).verifyComplete();
+		StepVerifier.create(mongoTemplate.indexOps(PostBlogDocument.class).dropIndex("title_idx")).verifyComplete();
+		StepVerifier.create(mongoTemplate.indexOps(PostBlogDocument.class).dropIndex("title_type_idx"))
+				.verifyComplete();
+		StepVerifier.create(repository.findAll()).verifyComplete();
+	}
+
+}
@@ -0,0 +1,150 @@
+package io.github.acoboh.query.filter.mongodb.processor;
+
+import static io.github.acoboh.query.filter.mongodb.spring.SpringIntegrationTestBase.postBlogDocument;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.context.junit.jupiter.web.SpringJUnitWebConfig;
+import org.springframework.test.context.web.WebAppConfiguration;
+
+import io.github.acoboh.query.filter.mongodb.domain.PostBlogDocumentFilterDef;
+import io.github.acoboh.query.filter.mongodb.dto.PostBlogSimplifiedDTO;
+import io.github.acoboh.query.filter.mongodb.exceptions.QFInvalidTokenException;
+import io.github.acoboh.query.filter.mongodb.model.PostBlogDocument;
+import io.github.acoboh.query.filter.mongodb.repositories.PostBlogDocumentRepository;
+import io.github.acoboh.query.filter.mongodb.spring.SpringIntegrationTestBase;
+import reactor.test.StepVerifier;
+
+@SpringJUnitWebConfig(SpringIntegrationTestBase.Config.class)
+@ExtendWith(SpringExtension.class)
+@WebAppConfiguration
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class PostBlogKeysetTests {
+
+	private static final PostBlogDocument DOC_1 = postBlogDocument("1", "A", 3);
+	private static final PostBlogDocument DOC_2 = postBlogDocument("2", "B", 1);
+	private static final PostBlogDocument DOC_3 = postBlogDocument("3", "B", 2);
+	private static final PostBlogDocument DOC_4 = postBlogDocument("4", "B", 3);
+	private static final PostBlogDocument DOC_5 = postBlogDocument("5", null, 4);
+
+	@Autowired
+	private QFProcessor<PostBlogDocumentFilterDef, PostBlogDocument> qfProcessor;
+
+	@Autowired
+	private PostBlogDocumentRepository repository;
+
+	@Test
+	@DisplayName("0. Setup")
+	@Order(0)
+	void setup() {
+		assertThat(qfProcessor).isNotNull();
+		assertThat(repository).isNotNull();
+
+		StepVerifier.create(repository.findAll()).expectNextCount(0).verifyComplete();
+
+		repository.saveAll(List.of(DOC_1, DOC_2, DOC_3, DOC_4, DOC_5)).blockLast();
+
+		StepVerifier.create(repository.findAll()).expectNextCount(5).verifyComplete();
+	}
+
+	@Test
+	@DisplayName("1. Find pages with ties and null values")
+	@Order(1)
+	void findPages() {
+
+		List<PostBlogDocument> all = new ArrayList<>();
+		String token = null;
+		int pages = 0;
+		do {
+			var qf = qfProcessor.newQueryFilter("sort=-title", QFParamType.RHS_COLON);
+			var page = qf.executeFindQuery(2, token).block();
+			assertThat(page.content()).hasSizeLessThanOrEqualTo(2);
+			all.addAll(page.content());
+			token = page.nextToken();
+			pages++;
+		} while (token != null);
+
+		assertThat(pages).isEqualTo(3);
+		assertThat(all).containsExactly(DOC_2, DOC_3, DOC_4, DOC_1, DOC_5);
+
+		var qf = qfProcessor.newQueryFilter("sort=+title", QFParamType.RHS_COLON);
+		var first = qf.executeFindQuery(3, null).block();
+		assertThat(first.content()).containsExactly(DOC_5, DOC_1, DOC_2);
+		assertThat(first.hasNext()).isTrue();
+
+		StepVerifier.create(qf.executeFindQuery(3, first.nextToken())).assertNext(page -> {
+			assertThat(page.content()).containsExactly(DOC_3, DOC_4);
+			assertThat(page.hasNext()).isFalse();
+		}).verifyComplete();
+	}
+
+	@Test
+	@DisplayName("2. Find pages are filtered")
+	@Order(2)
+	void findFilteredPages() {
+
+		var qf = qfProcessor.newQueryFilter("title=eq:B", QFParamType.RHS_COLON);
+		var first = qf.executeFindQuery(2, null).block();
+		assertThat(first.content()).containsExactly(DOC_2, DOC_3);
+
+		StepVerifier.create(qf.executeFindQuery(2, first.nextToken())).assertNext(page -> {
+			assertThat(page.content()).containsExactly(DOC_4);
+			assertThat(page.hasNext()).isFalse();
+		}).verifyComplete();
+	}
+
+	@Test
+	@DisplayName("3. Aggregate pages with projection")
+	@Order(3)
+	void aggregatePages() {
+
+		var qf = qfProcessor.newQueryFilter("sort=-title", QFParamType.RHS_COLON);
+
+		var first = qf.executeAggregateAndProject(PostBlogSimplifiedDTO.class, 4, null).block();
+		assertThat(first.content()).extracting(PostBlogSimplifiedDTO::getId).containsExactly("2", "3", "4", "1");
+
+		StepVerifier.create(qf.executeAggregateAndProject(PostBlogSimplifiedDTO.class, 4, first.nextToken()))
+				.assertNext(page -> {
+					assertThat(page.content()).extracting(PostBlogSimplifiedDTO::getId).containsExactly("5");
+					assertThat(page.hasNext()).isFalse();
+				}).verifyComplete();
+
+		// Tokens of find and aggregate queries are the same
+		StepVerifier.create(qf.executeFindQuery(4, first.nextToken()))
+				.assertNext(page -> assertThat(page.content()).containsExactly(DOC_5)).verifyComplete();
+	}
+
+	@Test
+	@DisplayName("4. Tokens of other sort are rejected")
+	@Order(4)
+	void invalidTokens() {
+
+		var qf = qfProcessor.newQueryFilter("sort=-title", QFParamType.RHS_COLON);
+		var token = qf.executeFindQuery(1, null).block().nextToken();
+
+		var other = qfProcessor.newQueryFilter("sort=+title", QFParamType.RHS_COLON);
+		StepVerifier.create(other.executeFindQuery(1, token)).expectError(QFInvalidTokenException.class).verify();
+		StepVerifier.create(other.executeFindQuery(1, "not a token")).expectError(QFInvalidTokenException.class)
+				.verify();
+	}
+
+	@Test
+	@DisplayName("END. Cleanup")
+	@Order(Ordered.LOWEST_PRECEDENCE)
+	void cleanup() {
+		StepVerifier.create(repository.deleteAll()).verifyComplete();
+		StepVerifier.create(repository.findAll()).expectNextCount(0).verifyComplete();
+	}
+
+}
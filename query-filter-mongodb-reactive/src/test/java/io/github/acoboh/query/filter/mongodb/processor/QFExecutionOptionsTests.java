@@ -0,0 +1,121 @@
+package io.github.acoboh.query.filter.mongodb.processor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.mongodb.core.query.Collation;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.mongodb.ReadPreference;
+
+import io.github.acoboh.query.filter.mongodb.annotations.QFDefinitionClass;
+import io.github.acoboh.query.filter.mongodb.annotations.QFDefinitionClass.QFQueryOptions;
+import io.github.acoboh.query.filter.mongodb.annotations.QFElement;
+import io.github.acoboh.query.filter.mongodb.exceptions.definition.QueryFilterDefinitionException;
+import io.github.acoboh.query.filter.mongodb.model.PostBlogDocument;
+import io.github.acoboh.query.filter.mongodb.properties.QueryOptionsProperties;
+
+class QFExecutionOptionsTests {
+
+	@QFDefinitionClass(value = PostBlogDocument.class, queryOptions = @QFQueryOptions(maxTimeMS = 500, batchSize = 50,
+			allowDiskUse = "true", collation = "{ locale: 'en', strength: 2 }", comment = "posts",
+			readPreference = "secondaryPreferred"))
+	static class OptionsFilterDef {
+
+		@QFElement("title")
+		private String title;
+
+	}
+
+	@QFDefinitionClass(PostBlogDocument.class)
+	static class DefaultOptionsFilterDef {
+
+		@QFElement("title")
+		private String title;
+
+	}
+
+	@QFDefinitionClass(value = PostBlogDocument.class, queryOptions = @QFQueryOptions(readPreference = "unknown"))
+	static class InvalidOptionsFilterDef {
+
+		@QFElement("title")
+		private String title;
+
+	}
+
+	private static QFQueryOptions options(Class<?> filterClass) {
+		return filterClass.getAnnotation(QFDefinitionClass.class).queryOptions();
+	}
+
+	@Test
+	@DisplayName("Options of the definition class are applied to queries and aggregations")
+	void testDefinitionOptions() throws QueryFilterDefinitionException {
+
+		var processor = new QFProcessor<>(OptionsFilterDef.class, PostBlogDocument.class, (ApplicationContext) null);
+		var options = processor.getExecutionOptions();
+
+		var query = options.apply(new Query());
+		assertThat(query.getMeta().getMaxTimeMsec()).isEqualTo(500);
+		assertThat(query.getMeta().getCursorBatchSize()).isEqualTo(50);
+		assertThat(query.getMeta().getAllowDiskUse()).isTrue();
+		assertThat(query.getMeta().getComment()).isEqualTo("posts");
+		assertThat(query.getCollation()).contains(Collation.of("en").strength(2));
+		assertThat(query.getReadPreference()).isEqualTo(ReadPreference.secondaryPreferred());
+
+		var aggregation = options.aggregationOptions().build();
+		assertThat(aggregation.getMaxTime()).isEqualTo(Duration.ofMillis(500));
+		assertThat(aggregation.getCursorBatchSize()).isEqualTo(50);
+		assertThat(aggregation.isAllowDiskUse()).isTrue();
+		assertThat(aggregation.getComment()).contains("posts");
+		assertThat(aggregation.getCollation()).contains(Collation.of("en").strength(2));
+		assertThat(aggregation.getReadPreference()).isEqualTo(ReadPreference.secondaryPreferred());
+
+	}
+
+	@Test
+	@DisplayName("Options not set on the definition class use the defaults")
+	void testDefaults() {
+
+		var empty = QFExecutionOptions.of(new QueryOptionsProperties(), options(DefaultOptionsFilterDef.class),
+				DefaultOptionsFilterDef.class);
+		var query = empty.apply(new Query());
+		assertThat(query.getMeta().hasValues()).isFalse();
+		assertThat(query.getCollation()).isEmpty();
+		assertThat(query.hasReadPreference()).isFalse();
+
+		var defaults = new QueryOptionsProperties();
+		defaults.setMaxTimeMs(1000);
+		defaults.setCollation("es");
+		defaults.setReadPreference("nearest");
+
+		query = QFExecutionOptions.of(defaults, options(DefaultOptionsFilterDef.class), DefaultOptionsFilterDef.class)
+				.apply(new Query());
+		assertThat(query.getMeta().getMaxTimeMsec()).isEqualTo(1000);
+		assertThat(query.getCollation()).contains(Collation.of("es"));
+		assertThat(query.getReadPreference()).isEqualTo(ReadPreference.nearest());
+
+		query = QFExecutionOptions.of(defaults, options(OptionsFilterDef.class), OptionsFilterDef.class)
+				.apply(new Query());
+		assertThat(query.getMeta().getMaxTimeMsec()).isEqualTo(500);
+		assertThat(query.getReadPreference()).isEqualTo(ReadPreference.secondaryPreferred());
+
+	}
+
+	@Test
+	@DisplayName("Invalid options are rejected")
+	void testInvalidOptions() {
+
+		var defaults = new QueryOptionsProperties();
+		var options = options(InvalidOptionsFilterDef.class);
+		assertThatThrownBy(() -> QFExecutionOptions.of(defaults, options, InvalidOptionsFilterDef.class))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining(InvalidOptionsFilterDef.class.getName());
+
+	}
+
+}
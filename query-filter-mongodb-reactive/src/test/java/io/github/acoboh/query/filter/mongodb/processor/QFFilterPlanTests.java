@@ -0,0 +1,71 @@
+package io.github.acoboh.query.filter.mongodb.processor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationContext;
+
+import io.github.acoboh.query.filter.mongodb.domain.BasicDocumentFilterDef;
+import io.github.acoboh.query.filter.mongodb.exceptions.QFFieldNotFoundException;
+import io.github.acoboh.query.filter.mongodb.exceptions.definition.QueryFilterDefinitionException;
+import io.github.acoboh.query.filter.mongodb.model.BasicDocument;
+
+class QFFilterPlanTests {
+
+	private QFProcessor<BasicDocumentFilterDef, BasicDocument> processor;
+
+	@BeforeEach
+	void setup() throws QueryFilterDefinitionException {
+		processor = new QFProcessor<>(BasicDocumentFilterDef.class, BasicDocument.class, (ApplicationContext) null);
+	}
+
+	@Test
+	@DisplayName("Equivalent inputs share the same plan")
+	void testEquivalentInputs() {
+
+		var plan = processor.getFilterPlan("name=eq:test&id=ne:1&sort=+timestamp", QFParamType.RHS_COLON);
+		var other = processor.getFilterPlan("sort=+timestamp&id=ne:1&name=eq:test", QFParamType.RHS_COLON);
+
+		assertThat(other).isSameAs(plan);
+		assertThat(plan.getParts()).hasSize(2);
+		assertThat(plan.getParts().get(0).getDefinition().getFilterName()).isEqualTo("id");
+		assertThat(plan.getSorts()).hasSize(1);
+
+		var stats = processor.getPlanCacheStats();
+		assertThat(stats.hits()).isEqualTo(1);
+		assertThat(stats.misses()).isEqualTo(1);
+		assertThat(stats.size()).isEqualTo(1);
+
+	}
+
+	@Test
+	@DisplayName("Parameter type is part of the key")
+	void testParamTypeKey() {
+
+		var plan = processor.getFilterPlan("name=eq:test", QFParamType.RHS_COLON);
+		var other = processor.getFilterPlan("name[eq]=test", QFParamType.LHS_BRACKETS);
+
+		assertThat(other).isNotSameAs(plan);
+		assertThat(processor.getPlanCacheStats().size()).isEqualTo(2);
+
+	}
+
+	@Test
+	@DisplayName("Failed parses are not cached")
+	void testFailedParse() {
+
+		assertThatThrownBy(() -> processor.getFilterPlan("unknown=eq:test", QFParamType.RHS_COLON))
+				.isInstanceOf(QFFieldNotFoundException.class);
+		assertThatThrownBy(() -> processor.getFilterPlan("unknown=eq:test", QFParamType.RHS_COLON))
+				.isInstanceOf(QFFieldNotFoundException.class);
+
+		var stats = processor.getPlanCacheStats();
+		assertThat(stats.misses()).isEqualTo(2);
+		assertThat(stats.size()).isZero();
+
+	}
+
+}
@@ -0,0 +1,365 @@
+package io.github.acoboh.query.filter.mongodb.processor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.bson.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import io.github.acoboh.query.filter.mongodb.annotations.QFDefinitionClass;
+import io.github.acoboh.query.filter.mongodb.annotations.QFElement;
+import io.github.acoboh.query.filter.mongodb.annotations.QFElements;
+import io.github.acoboh.query.filter.mongodb.domain.TextFilterDef;
+import io.github.acoboh.query.filter.mongodb.exceptions.definition.QueryFilterDefinitionException;
+import io.github.acoboh.query.filter.mongodb.metrics.QFMetrics;
+import io.github.acoboh.query.filter.mongodb.model.PostBlogDocument;
+import io.github.acoboh.query.filter.mongodb.operations.QFOperationEnum;
+import io.github.acoboh.query.filter.mongodb.model.TextDocument;
+import io.github.acoboh.query.filter.mongodb.predicate.PredicateOperation;
+import io.github.acoboh.query.filter.mongodb.processor.match.QFElementMatch;
+import io.github.acoboh.query.filter.mongodb.spel.SpelResolverInterface;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+class QFFilterShapeTests {
+
+	@QFDefinitionClass(PostBlogDocument.class)
+	static class ShapeFilterDef {
+
+		@QFElement("title")
+		private String title;
+
+		@QFElement(value = "content", regexOptions = "im")
+		private String content;
+
+		@QFElement("type")
+		private String type;
+
+		@QFElement("likes")
+		private int likes;
+
+		@QFElement("comments.stars")
+		private int commentsStars;
+
+		@QFElement("tags")
+		private String tags;
+
+		@QFElements(value = { @QFElement("title"), @QFElement("content") }, operation = PredicateOperation.OR)
+		private String any;
+
+		@QFElements({ @QFElement("title"), @QFElement("content") })
+		private String all;
+
+	}
+
+	@QFDefinitionClass(PostBlogDocument.class)
+	static class OrderFilterDef {
+
+		@QFElement(value = "title", isSpPELExpression = true)
+		private String title;
+
+		@QFElement(value = "content", isSpPELExpression = true)
+		private String content;
+
+		@QFElement(value = "tags", isSpPELExpression = true, order = 10)
+		private String tags;
+
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "", "title=eq:hello", "title=ne:hello", "likes=gt:1", "likes=gte:1", "likes=lt:1",
+			"likes=lte:1", "title=like:hel", "content=like:hel", "title=starts:hel", "content=ends:llo",
+			"type=in:VIDEO,IMAGE", "tags=nin:a,b,c", "title=null:true", "title=null:false", "likes=1",
+			"any=like:hello", "all=eq:hello", "any=null:false&all=in:a,b", "title=eq:a&title=ne:b",
+			"title=eq:a&title=ne:b&title=like:c", "title=eq:a&likes=gt:1&commentsStars=lte:4",
+			"title=eq:a&content=ne:b&type=in:VIDEO&likes=gt:1&commentsStars=lte:4&tags=nin:x&any=like:y&all=starts:z",
+			"any=eq:a&any=ne:b&title=null:true&likes=in:1,2,3&likes=nin:4,5" })
+	@DisplayName("Bound shapes generate the same criteria as the parts")
+	void testSameCriteria(String input) throws QueryFilterDefinitionException {
+
+		var processor = new QFProcessor<>(ShapeFilterDef.class, PostBlogDocument.class, (ApplicationContext) null);
+		var parts = processor.getFilterPlan(input, QFParamType.RHS_COLON).getParts();
+
+		assertSameCriteria(processor, parts);
+
+	}
+
+	@Test
+	@DisplayName("Bound text shapes generate the same criteria as the parts")
+	void testTextCriteria() throws QueryFilterDefinitionException {
+
+		var processor = new QFProcessor<>(TextFilterDef.class, TextDocument.class, (ApplicationContext) null);
+		var parts = processor.getFilterPlan("search=eq:hello world", QFParamType.RHS_COLON).getParts();
+
+		assertSameCriteria(processor, parts);
+
+	}
+
+	@Test
+	@DisplayName("Filters with the same fields and operations share the same shape")
+	void testSameShape() throws QueryFilterDefinitionException {
+
+		var processor = new QFProcessor<>(ShapeFilterDef.class, PostBlogDocument.class, (ApplicationContext) null);
+
+		var shape = shapeOf(processor, "title=eq:a&likes=gt:1");
+		var other = shapeOf(processor, "likes=gt:100&title=eq:other");
+		var different = shapeOf(processor, "title=ne:a&likes=gt:1");
+
+		assertThat(other).isSameAs(shape);
+		assertThat(different).isNotSameAs(shape);
+
+		var stats = processor.getShapeCacheStats();
+		assertThat(stats.hits()).isEqualTo(1);
+		assertThat(stats.misses()).isEqualTo(2);
+		assertThat(stats.size()).isEqualTo(2);
+
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 1, 2 })
+	@DisplayName("Parts with the same order are evaluated at the same time and before the next orders")
+	void testConcurrentEvaluation(int concurrency) throws QueryFilterDefinitionException {
+
+		var processor = new QFProcessor<>(OrderFilterDef.class, PostBlogDocument.class, (ApplicationContext) null);
+		var parts = processor.getFilterPlan("tags=eq:last&title=eq:first&content=eq:second", QFParamType.RHS_COLON)
+				.getParts();
+
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger maxRunning = new AtomicInteger();
+		SpelResolverInterface resolver = (expression, context, nullOnError) -> {
+			if (expression.equals("last")) {
+				return Mono.fromCallable(() -> context.getFirst("title") + "-" + context.getFirst("content"));
+			}
+			return Mono.defer(() -> {
+				maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+				return Mono.delay(Duration.ofMillis(50)).doOnNext(tick -> running.decrementAndGet())
+						.thenReturn(expression);
+			});
+		};
+
+		var sorted = new ArrayList<QFSpecificationPart>(parts);
+		sorted.sort(Comparator.comparingInt(part -> ((QFElementMatch) part).getDefinition().getOrder()));
+		var bound = QFFilterShape.evaluate(sorted, resolver, concurrency, QFMetrics.DISABLED).block();
+
+		assertThat(maxRunning.get()).isEqualTo(concurrency);
+		assertThat(bound.parts()).extracting(part -> part.getDefinition().getFilterName())
+				.containsExactlyElementsOf(sorted.stream().map(part -> part.getDefinition().getFilterName()).toList());
+		assertThat(bound.values()).extracting(values -> values[0]).containsExactlyInAnyOrder(
+				new Document("title", "first"), new Document("content", "second"),
+				new Document("tags", "first-second")).last().isEqualTo(new Document("tags", "first-second"));
+		assertThat(bound.context()).containsEntry("tags", List.of("first-second"));
+		assertThatThrownBy(() -> bound.context().add("tags", "other"))
+				.isInstanceOf(UnsupportedOperationException.class);
+
+		// SpEL parts are resolved on copies
+		assertThat(sorted).allMatch(part -> ((QFElementMatch) part).getParsedValues() == null);
+
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 1, 2 })
+	@DisplayName("Parts with the same order only see the values of each other when evaluated one by one")
+	void testSameOrderContext(int concurrency) throws QueryFilterDefinitionException {
+
+		var processor = new QFProcessor<>(OrderFilterDef.class, PostBlogDocument.class, (ApplicationContext) null);
+		String input = "title=eq:first&content=eq:second";
+		var tokens = QFParamTokenizer.tokenize(input, QFParamType.RHS_COLON);
+		var parts = processor.getFilterPlan(tokens, input, QFParamType.RHS_COLON).getParts(tokens);
+
+		SpelResolverInterface resolver = (expression, context, nullOnError) -> Mono
+				.just(expression.equals("second") ? String.valueOf(context.getFirst("title")) : expression);
+
+		var bound = QFFilterShape.evaluate(parts, resolver, concurrency, QFMetrics.DISABLED).block();
+		assertThat(bound.values()).extracting(values -> values[0]).containsExactly(new Document("title", "first"),
+				new Document("content", concurrency == 1 ? "first" : "null"));
+
+	}
+
+	@Test
+	@DisplayName("Evaluations of the same parts at the same time do not share their values")
+	void testConcurrentSubscriptions() throws QueryFilterDefinitionException {
+
+		var processor = new QFProcessor<>(OrderFilterDef.class, PostBlogDocument.class, (ApplicationContext) null);
+		var parts = processor.getFilterPlan("title=eq:first", QFParamType.RHS_COLON).getParts();
+
+		SpelResolverInterface resolver = (expression, context, nullOnError) -> Mono.deferContextual(
+				ctx -> Mono.delay(Duration.ofMillis(20)).thenReturn(ctx.<String>get("prefix") + expression));
+
+		var first = QFFilterShape.evaluate(parts, resolver, 1, QFMetrics.DISABLED)
+				.contextWrite(Context.of("prefix", "a-"));
+		var second = QFFilterShape.evaluate(parts, resolver, 1, QFMetrics.DISABLED)
+				.contextWrite(Context.of("prefix", "b-"));
+
+		var bound = Mono.zip(first, second).block();
+		assertThat(bound.getT1().values().get(0)[0]).isEqualTo(new Document("title", "a-first"));
+		assertThat(bound.getT2().values().get(0)[0]).isEqualTo(new Document("title", "b-first"));
+
+	}
+
+	@Test
+	@DisplayName("Parts are evaluated in input order and bound in canonical order")
+	void testInputOrder() throws QueryFilterDefinitionException {
+
+		var processor = new QFProcessor<>(ShapeFilterDef.class, PostBlogDocument.class, (ApplicationContext) null);
+
+		String input = "title=eq:a&likes=gt:1&content=ne:b";
+		var tokens = QFParamTokenizer.tokenize(input, QFParamType.RHS_COLON);
+		var parts = processor.getFilterPlan(tokens, input, QFParamType.RHS_COLON).getParts(tokens);
+		assertThat(parts).extracting(part -> part.getDefinition().getFilterName()).containsExactly("title", "likes",
+				"content");
+
+		String otherInput = "content=ne:b&title=eq:a&likes=gt:1";
+		var otherTokens = QFParamTokenizer.tokenize(otherInput, QFParamType.RHS_COLON);
+		var otherParts = processor.getFilterPlan(otherTokens, otherInput, QFParamType.RHS_COLON)
+				.getParts(otherTokens);
+		assertThat(otherParts).extracting(part -> part.getDefinition().getFilterName()).containsExactly("content",
+				"title", "likes");
+		assertThat(processor.getPlanCacheStats().hits()).isEqualTo(1);
+
+		var bound = QFFilterShape.evaluate(parts, null, 1, QFMetrics.DISABLED).block();
+		assertThat(bound.parts()).containsExactlyElementsOf(parts);
+		assertThat(bound.canonical().parts()).extracting(part -> part.getDefinition().getFilterName())
+				.containsExactly("content", "likes", "title");
+		assertThat(QFFilterShape.keyOf(parts)).hasToString("content:ne&likes:gt&title:eq");
+
+		assertThat(shapeOf(processor, otherInput)).isSameAs(shapeOf(processor, input));
+		assertSameCriteria(processor, parts);
+
+	}
+
+	@ParameterizedTest
+	@EnumSource(QFOperationEnum.class)
+	@DisplayName("Criteria and documents of every operation are the same")
+	void testOperationCriteria(QFOperationEnum operation) throws QueryFilterDefinitionException {
+
+		var processor = new QFProcessor<>(ShapeFilterDef.class, PostBlogDocument.class, (ApplicationContext) null);
+
+		int flags = Pattern.CASE_INSENSITIVE;
+		var expected = switch (operation) {
+		case EQUAL -> Criteria.where("likes").is(1);
+		case NOT_EQUAL -> Criteria.where("likes").ne(1);
+		case GREATER_THAN -> Criteria.where("likes").gt(1);
+		case GREATER_EQUAL_THAN -> Criteria.where("likes").gte(1);
+		case LESS_THAN -> Criteria.where("likes").lt(1);
+		case LESS_EQUAL_THAN -> Criteria.where("likes").lte(1);
+		case BETWEEN -> Criteria.where("likes").gte(1).lte(5);
+		case IN -> Criteria.where("likes").in(1, 2);
+		case NOT_IN -> Criteria.where("likes").nin(1, 2);
+		case LIKE -> Criteria.where("title").regex(Pattern.compile("hel", flags));
+		case STARTS_WITH -> Criteria.where("title").regex(Pattern.compile("^hel", flags));
+		case ENDS_WITH -> Criteria.where("title").regex(Pattern.compile("hel$", flags));
+		case ISNULL -> Criteria.where("title").is(null);
+		};
+
+		String value = switch (operation) {
+		case BETWEEN -> "1,5";
+		case IN, NOT_IN -> "1,2";
+		case ISNULL -> "true";
+		default -> "1";
+		};
+		String input = expected.getKey().equals("likes") ? "likes=" + operation.getValue() + ":" + value
+				: "title=" + operation.getValue() + ":" + (operation == QFOperationEnum.ISNULL ? value : "hel");
+
+		var parts = processor.getFilterPlan(input, QFParamType.RHS_COLON).getParts();
+		var match = (QFElementMatch) parts.get(0);
+		match.initialize(null, new LinkedMultiValueMap<>());
+
+		MultiValueMap<String, Object> criteriaContext = new LinkedMultiValueMap<>();
+		MultiValueMap<String, Object> documentContext = new LinkedMultiValueMap<>();
+		var criteria = operation.generateCriteria(match, 0, criteriaContext).block();
+		var document = operation.generateDocument(match, 0, documentContext).block();
+
+		assertThat(normalize(criteria.getCriteriaObject())).isEqualTo(normalize(expected.getCriteriaObject()));
+		assertThat(normalize(document)).isEqualTo(normalize(expected.getCriteriaObject()));
+		assertThat(criteriaContext).isEqualTo(documentContext);
+		assertSameCriteria(processor, parts);
+
+	}
+
+	private static QFFilterShape shapeOf(QFProcessor<?, ?> processor, String input) {
+		var parts = processor.getFilterPlan(input, QFParamType.RHS_COLON).getParts();
+		var bound = QFFilterShape.evaluate(parts, null, 1, QFMetrics.DISABLED).block();
+		var canonical = bound.canonical();
+		return processor.getFilterShape(canonical.parts());
+	}
+
+	private static void assertSameCriteria(QFProcessor<?, ?> processor, List<QFSpecificationPart> parts) {
+
+		Map<String, List<Criteria>> criteriaMap = new HashMap<>();
+		MultiValueMap<String, Object> expectedContext = new LinkedMultiValueMap<>();
+		for (var part : parts) {
+			part.processPart(criteriaMap, expectedContext, null).block();
+		}
+		Criteria expected = parseFinalCriteria(criteriaMap);
+
+		var bound = QFFilterShape.evaluate(parts, null, 1, QFMetrics.DISABLED).block();
+		var canonical = bound.canonical();
+		Criteria actual = processor.getFilterShape(canonical.parts()).bind(canonical.values());
+
+		assertThat(actual.getKey()).isEqualTo(expected.getKey());
+		assertThat(normalize(actual.getCriteriaObject())).isEqualTo(normalize(expected.getCriteriaObject()));
+		assertThat(bound.context()).isEqualTo(expectedContext);
+
+	}
+
+	// Same final criteria of the query filter before the prepared shapes
+	private static Criteria parseFinalCriteria(Map<String, List<Criteria>> criteriaMap) {
+
+		if (criteriaMap.isEmpty()) {
+			return new Criteria();
+		}
+
+		Map<String, Criteria> simplifiedCriterias = criteriaMap.entrySet().stream()
+				.collect(Collectors.toMap(Entry::getKey, e -> {
+					if (e.getValue().size() == 1) {
+						return e.getValue().get(0);
+					} else {
+						return new Criteria().andOperator(e.getValue());
+					}
+				}));
+
+		if (simplifiedCriterias.size() == 1) {
+			return simplifiedCriterias.values().iterator().next();
+		}
+
+		return new Criteria().andOperator(simplifiedCriterias.values());
+
+	}
+
+	// Patterns have no equals
+	private static Object normalize(Object value) {
+		if (value instanceof Document document) {
+			Map<String, Object> ret = new LinkedHashMap<>();
+			document.forEach((k, v) -> ret.put(k, normalize(v)));
+			return ret;
+		} else if (value instanceof List<?> list) {
+			List<Object> ret = new ArrayList<>();
+			list.forEach(v -> ret.add(normalize(v)));
+			return ret;
+		} else if (value instanceof Pattern pattern) {
+			return "/" + pattern.pattern() + "/" + pattern.flags();
+		}
+		return value;
+	}
+
+}
@@ -0,0 +1,118 @@
+package io.github.acoboh.query.filter.mongodb.processor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.regex.Pattern;
+
+import org.bson.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.context.ApplicationContext;
+
+import io.github.acoboh.query.filter.mongodb.annotations.QFDefinitionClass;
+import io.github.acoboh.query.filter.mongodb.annotations.QFElement;
+import io.github.acoboh.query.filter.mongodb.exceptions.QFRegexException;
+import io.github.acoboh.query.filter.mongodb.exceptions.definition.QueryFilterDefinitionException;
+import io.github.acoboh.query.filter.mongodb.metrics.QFMetrics;
+import io.github.acoboh.query.filter.mongodb.model.PostBlogDocument;
+import io.github.acoboh.query.filter.mongodb.operations.QFRegex;
+
+class QFRegexFilterTests {
+
+	@QFDefinitionClass(PostBlogDocument.class)
+	static class RegexFilterDef {
+
+		@QFElement("title")
+		private String title;
+
+		@QFElement(value = "content", rawRegex = true, regexMaxLength = 16)
+		private String content;
+
+	}
+
+	private final QFProcessor<RegexFilterDef, PostBlogDocument> processor;
+
+	QFRegexFilterTests() throws QueryFilterDefinitionException {
+		processor = new QFProcessor<>(RegexFilterDef.class, PostBlogDocument.class, (ApplicationContext) null);
+	}
+
+	private Document document(String input) {
+		var parts = processor.getFilterPlan(input, QFParamType.RHS_COLON).getParts();
+		var bound = QFFilterShape.evaluate(parts, null, 1, QFMetrics.DISABLED).block();
+		return processor.getFilterShape(bound.parts()).bind(bound.values()).getCriteriaObject();
+	}
+
+	private static String regex(Object value) {
+		return ((Pattern) value).pattern();
+	}
+
+	@Test
+	@DisplayName("Values are matched literally by default")
+	void testEscaped() {
+
+		assertThat(regex(document("title=like:a.b*").get("title"))).isEqualTo("a\\.b\\*");
+		assertThat(regex(document("title=starts:(x)").get("title"))).isEqualTo("^\\(x\\)");
+		assertThat(regex(document("title=ends:1$").get("title"))).isEqualTo("1\\$$");
+		assertThat(((Pattern) document("title=like:abc").get("title")).flags()).isEqualTo(Pattern.CASE_INSENSITIVE);
+
+		assertThat(QFRegex.escape("plain text")).isEqualTo("plain text");
+		assertThat(QFRegex.escape("\\^$.|?*+()[]{}")).isEqualTo("\\\\\\^\\$\\.\\|\\?\\*\\+\\(\\)\\[\\]\\{\\}");
+
+	}
+
+	@Test
+	@DisplayName("Multiple values match any of them")
+	void testMultipleValues() {
+
+		var in = document("title=like:a,b.c").get("title", Document.class).getList("$in", Pattern.class);
+		assertThat(in).extracting(Pattern::pattern).containsExactly("a", "b\\.c");
+
+		in = document("title=starts:x,y").get("title", Document.class).getList("$in", Pattern.class);
+		assertThat(in).extracting(Pattern::pattern).containsExactly("^x", "^y");
+
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "^a.*b$", "a+b*c?", "(ab)+", "[a-z]+\\d{2}", "(?i)abc", "a*?b", "(a|b)", "[(+]+" })
+	@DisplayName("Safe raw regular expressions are used")
+	void testRawRegex(String regex) {
+		assertThat(regex(document("content=like:" + regex).get("content"))).isEqualTo(regex);
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "(a+)+", "(a|aa)*", "((ab)*)+", "(\\w+\\s?)*", "(a)\\1", "(?:a*){2,}", "(a", "a{" })
+	@DisplayName("Unsafe or invalid raw regular expressions are rejected")
+	void testUnsafeRawRegex(String regex) {
+		assertThatThrownBy(() -> document("content=like:" + regex)).isInstanceOf(QFRegexException.class);
+	}
+
+	@Test
+	@DisplayName("Long values are rejected")
+	void testMaxLength() {
+
+		assertThatThrownBy(() -> document("content=like:" + "a".repeat(17))).isInstanceOf(QFRegexException.class);
+		assertThatThrownBy(() -> document("title=like:" + "a".repeat(257))).isInstanceOf(QFRegexException.class);
+		assertThat(regex(document("title=like:" + "a".repeat(256)).get("title"))).hasSize(256);
+
+	}
+
+	@Test
+	@DisplayName("Compiled patterns are cached")
+	void testCache() {
+
+		document("title=like:cached,other");
+		var before = QFRegex.getCacheStats();
+		var title = document("title=like:cached,other");
+		var content = document("content=like:cached");
+
+		assertThat(QFRegex.getCacheStats().hits()).isGreaterThanOrEqualTo(before.hits() + 3);
+		assertThat(title.get("title", Document.class).getList("$in", Pattern.class).get(0))
+				.isSameAs(content.get("content"));
+		assertThat(QFRegex.getCacheStats().maxSize()).isEqualTo(QFRegex.CACHE_MAX_SIZE);
+
+	}
+
+}
@@ -0,0 +1,106 @@
+package io.github.acoboh.query.filter.mongodb.spel;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.EvaluationException;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+class SpelExpressionCacheTests {
+
+	private final SpelExpressionParser parser = new SpelExpressionParser();
+
+	private static EvaluationContext context(Object value) {
+		var ret = new StandardEvaluationContext();
+		ret.setVariable("value", value);
+		return ret;
+	}
+
+	@Test
+	@DisplayName("Expressions are parsed once")
+	void testParseOnce() {
+
+		var cache = new SpelExpressionCache(16, SpelCompilerMode.OFF);
+		for (int i = 0; i < 10; i++) {
+			assertThat(cache.getValue("#value * 2", () -> parser, context(i))).isEqualTo(i * 2);
+		}
+		cache.getValue("#value + 1", () -> parser, context(1));
+
+		assertThat(cache.getParseCount()).isEqualTo(2);
+		assertThat(cache.getCompileCount()).isZero();
+		assertThat(cache.getCacheStats().hits()).isEqualTo(9);
+		assertThat(cache.getCacheStats().size()).isEqualTo(2);
+
+		// Disabled cache
+		var disabled = new SpelExpressionCache(0, SpelCompilerMode.OFF);
+		for (int i = 0; i < 10; i++) {
+			disabled.getValue("#value * 2", () -> parser, context(i));
+		}
+		assertThat(disabled.getParseCount()).isEqualTo(10);
+
+	}
+
+	@Test
+	@DisplayName("Immediate mode compiles after the first evaluation")
+	void testImmediate() {
+
+		var cache = new SpelExpressionCache(16, SpelCompilerMode.IMMEDIATE);
+		assertThat(cache.getValue("#value.size() > 1", () -> parser, context(new ArrayList<>(List.of(1, 2)))))
+				.isEqualTo(true);
+		assertThat(cache.getCompileCount()).isEqualTo(1);
+
+		assertThat(cache.getValue("#value.size() > 1", () -> parser, context(new ArrayList<>(List.of(1)))))
+				.isEqualTo(false);
+		assertThat(cache.getCompileCount()).isEqualTo(1);
+
+		// Compiled expressions fail with other types
+		assertThatThrownBy(
+				() -> cache.getValue("#value.size() > 1", () -> parser, context(new LinkedList<>(List.of(1, 2)))))
+				.isInstanceOf(EvaluationException.class);
+
+	}
+
+	@Test
+	@DisplayName("Mixed mode compiles hot expressions and falls back to the interpreter")
+	void testMixed() {
+
+		var cache = new SpelExpressionCache(16, SpelCompilerMode.MIXED);
+		var list = new ArrayList<>(List.of(1, 2));
+
+		for (int i = 1; i < SpelExpressionCache.MIXED_THRESHOLD; i++) {
+			cache.getValue("#value.size() > 1", () -> parser, context(list));
+		}
+		assertThat(cache.getCompileCount()).isZero();
+
+		cache.getValue("#value.size() > 1", () -> parser, context(list));
+		assertThat(cache.getCompileCount()).isEqualTo(1);
+
+		assertThat(cache.getValue("#value.size() > 1", () -> parser, context(new LinkedList<>(List.of(1, 2)))))
+				.isEqualTo(true);
+		assertThat(cache.getValue("#value.size() > 1", () -> parser, context(list))).isEqualTo(true);
+		assertThat(cache.getParseCount()).isEqualTo(1);
+
+	}
+
+	@Test
+	@DisplayName("Expressions that can not be compiled are interpreted")
+	void testNotCompilable() {
+
+		var cache = new SpelExpressionCache(16, SpelCompilerMode.IMMEDIATE);
+		for (int i = 0; i < 3; i++) {
+			assertThat(cache.getValue("#other = #value", () -> parser, context(i))).isEqualTo(i);
+		}
+		assertThat(cache.getCompileCount()).isZero();
+
+	}
+
+}
@@ -0,0 +1,38 @@
+package io.github.acoboh.query.filter.mongodb.spel;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import reactor.test.StepVerifier;
+
+class SpelResolverContextBasicTests {
+
+	private final SpelResolverContextBasic resolver = new SpelResolverContextBasic(new StaticApplicationContext());
+
+	@Test
+	@DisplayName("Evaluated values are emitted")
+	void testEvaluate() {
+
+		MultiValueMap<String, Object> contextValues = new LinkedMultiValueMap<>();
+		contextValues.add("likes", 5);
+
+		StepVerifier.create(resolver.evaluate("#likes * 100", contextValues, false)).expectNext(500)
+				.verifyComplete();
+
+	}
+
+	@Test
+	@DisplayName("Null values complete empty")
+	void testEvaluateNull() {
+
+		StepVerifier.create(resolver.evaluate("null", new LinkedMultiValueMap<>(), false)).verifyComplete();
+
+		StepVerifier.create(resolver.evaluate("#missing.value", new LinkedMultiValueMap<>(), true))
+				.verifyComplete();
+
+	}
+
+}
@@ -0,0 +1,216 @@
+package io.github.acoboh.query.filter.mongodb.spel;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.server.ServerWebExchange;
+
+import reactor.core.publisher.Mono;
+
+class SpelResultCacheTests {
+
+	private static class MutableClock extends Clock {
+
+		private Instant instant = Instant.parse("2024-07-03T10:20:30Z");
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Instant instant() {
+			return instant;
+		}
+
+	}
+
+	// Each evaluation returns the next value of the counter, or completes empty if the expression is "#error" and
+	// nullOnError is set. Keys are read from the context
+	private static class CountingSpelResolver implements SpelResolverInterface {
+
+		private final AtomicInteger counter = new AtomicInteger();
+
+		@Override
+		public Mono<Object> evaluate(String securityExpression, MultiValueMap<String, Object> contextValues,
+				boolean nullOnError) {
+			return Mono.fromCallable(() -> {
+				int value = counter.incrementAndGet();
+				return nullOnError && securityExpression.equals("#error") ? null : value;
+			});
+		}
+
+		@Override
+		public SpelCacheKeyExtractor getCacheKeyExtractor() {
+			return context -> Mono.justOrEmpty(context.getOrEmpty("user"));
+		}
+
+	}
+
+	private final MutableClock clock = new MutableClock();
+
+	private final SpelResultCache cache = new SpelResultCache(1000, 16, clock);
+
+	private final Map<String, Object> requestValues = new HashMap<>();
+
+	private final MultiValueMap<String, Object> contextValues = new LinkedMultiValueMap<>();
+
+	private final AtomicInteger evaluations = new AtomicInteger();
+
+	private Object getValue(String key, String expression) {
+		return cache.getValue(key, expression, () -> requestValues, contextValues,
+				() -> Mono.fromCallable(evaluations::incrementAndGet)).block();
+	}
+
+	@Test
+	@DisplayName("Results are cached until they expire")
+	void testExpiration() {
+
+		assertThat(getValue("user", "#value")).isEqualTo(1);
+		assertThat(getValue("user", "#value")).isEqualTo(1);
+
+		clock.instant = clock.instant.plusMillis(999);
+		assertThat(getValue("user", "#value")).isEqualTo(1);
+
+		clock.instant = clock.instant.plusMillis(1);
+		assertThat(getValue("user", "#value")).isEqualTo(2);
+		assertThat(getValue("user", "#value")).isEqualTo(2);
+
+		assertThat(cache.getTtlMillis()).isEqualTo(1000);
+		assertThat(cache.getStats().size()).isEqualTo(1);
+
+		// Expired results are misses
+		assertThat(cache.getStats().hits()).isEqualTo(3);
+		assertThat(cache.getStats().misses()).isEqualTo(2);
+
+	}
+
+	@Test
+	@DisplayName("Results are cached by key, expression and context values")
+	void testKeys() {
+
+		assertThat(getValue("user", "#value")).isEqualTo(1);
+		assertThat(getValue("other", "#value")).isEqualTo(2);
+		assertThat(getValue("user", "#other")).isEqualTo(3);
+
+		contextValues.add("likes", 1);
+		assertThat(getValue("user", "#value")).isEqualTo(4);
+
+		contextValues.clear();
+		assertThat(getValue("user", "#value")).isEqualTo(1);
+
+		// Request values are only part of the key of the expressions that use them
+		requestValues.put("_parameters", Map.of("id", "1", "page", "1"));
+		assertThat(getValue("user", "#value")).isEqualTo(1);
+		assertThat(getValue("user", "#_parameters['id']")).isEqualTo(5);
+		requestValues.put("_parameters", Map.of("id", "2", "page", "1"));
+		assertThat(getValue("user", "#value")).isEqualTo(1);
+		assertThat(getValue("user", "#_parameters['id']")).isEqualTo(6);
+
+		// Multiple values are compared by content
+		requestValues.put("_parameters", Map.of("id", new String[] { "1", "2" }));
+		assertThat(getValue("user", "#_parameters['id']")).isEqualTo(7);
+		requestValues.put("_parameters", Map.of("id", new String[] { "1", "2" }));
+		assertThat(getValue("user", "#_parameters['id']")).isEqualTo(7);
+
+	}
+
+	@Test
+	@DisplayName("Empty results and failed evaluations are not cached")
+	void testEmptyAndErrors() {
+
+		var empty = cache.getValue("user", "#value", () -> requestValues, contextValues, () -> {
+			evaluations.incrementAndGet();
+			return Mono.empty();
+		});
+		assertThat(empty.block()).isNull();
+		assertThat(getValue("user", "#value")).isEqualTo(2);
+
+		var error = cache.getValue("user", "#error", () -> requestValues, contextValues,
+				() -> Mono.error(new IllegalStateException()));
+		assertThatThrownBy(error::block).isInstanceOf(IllegalStateException.class);
+		assertThat(getValue("user", "#error")).isEqualTo(3);
+
+	}
+
+	@Test
+	@DisplayName("Resolvers cache the results by the key of the context")
+	void testResolver() {
+
+		var resolver = new CountingSpelResolver();
+
+		assertThat(resolver.evaluate("#value", contextValues, false, cache).contextWrite(c -> c.put("user", "first"))
+				.block()).isEqualTo(1);
+		assertThat(resolver.evaluate("#value", contextValues, false, cache).contextWrite(c -> c.put("user", "first"))
+				.block()).isEqualTo(1);
+		assertThat(resolver.evaluate("#value", contextValues, false, cache).contextWrite(c -> c.put("user", "second"))
+				.block()).isEqualTo(2);
+
+		// Requests without key are not cached
+		assertThat(resolver.evaluate("#value", contextValues, false, cache).block()).isEqualTo(3);
+		assertThat(resolver.evaluate("#value", contextValues, false, cache).block()).isEqualTo(4);
+
+		// Without cache, always evaluated
+		assertThat(resolver.evaluate("#value", contextValues, false, null).block()).isEqualTo(5);
+
+	}
+
+	@Test
+	@DisplayName("Resolvers cache the results by the query parameters and path variables they use")
+	void testRequestValues() {
+
+		var resolver = new CountingSpelResolver();
+
+		String expression = "#_parameters['id'] + #_pathVariables['collection']";
+		assertThat(evaluate(resolver, expression, "/posts?id=1", "posts")).isEqualTo(1);
+		assertThat(evaluate(resolver, expression, "/posts?id=1", "posts")).isEqualTo(1);
+		assertThat(evaluate(resolver, expression, "/posts?id=2", "posts")).isEqualTo(2);
+		assertThat(evaluate(resolver, expression, "/posts?id=1", "blogs")).isEqualTo(3);
+
+		// Expressions without request values are cached for any request
+		assertThat(evaluate(resolver, "#value", "/posts?id=1", "posts")).isEqualTo(4);
+		assertThat(evaluate(resolver, "#value", "/posts?id=2&page=3", "blogs")).isEqualTo(4);
+
+	}
+
+	@Test
+	@DisplayName("Failed evaluations with null on error are not cached")
+	void testNullOnError() {
+
+		var resolver = new CountingSpelResolver();
+
+		assertThat(evaluate(resolver, "#error", "/posts?id=1", "posts")).isNull();
+		assertThat(evaluate(resolver, "#error", "/posts?id=1", "posts")).isNull();
+		assertThat(resolver.counter).hasValue(2);
+
+	}
+
+	private Object evaluate(CountingSpelResolver resolver, String expression, String uri, String collection) {
+		var exchange = MockServerWebExchange.from(MockServerHttpRequest.get(uri));
+		exchange.getAttributes().put(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE,
+				Map.of("collection", collection));
+		return resolver.evaluate(expression, contextValues, true, cache)
+				.contextWrite(c -> c.put("user", "user").put(ServerWebExchange.class, exchange)).block();
+	}
+
+}
@@ -86,6 +86,39 @@ public @interface QFElement {
 	 */
 	String regexOptions() default "i";
 
+	/**
+	 * Use the values of the regex operations as regular expressions. By default,
+	 * the values are matched literally.
+	 * <p>
+	 * <b>Use with caution!</b> Regular expressions with back-references or with
+	 * quantified groups that have quantifiers or alternations inside, like
+	 * <code>(a+)+</code>, are rejected
+	 *
+	 * @return true if the values are raw regular expressions
+	 */
+	boolean rawRegex() default false;
+
+	/**
+	 * Max length of the values of the regex operations. Longer values are rejected
+	 *
+	 * @return max length of the values
+	 */
+	int regexMaxLength() default 256;
+
+	/**
+	 * Case-insensitive matching of strings. Only this element ignores the case,
+	 * with literal regular expressions on the equality operations.
+	 * <p>
+	 * If the query options of the definition class set a collation that ignores
+	 * the case, like <code>{locale: 'en', strength: 2}</code>, equality
+	 * operations are resolved by the collation and the <b>starts</b> operation is
+	 * converted into a range, so the queries can use indexes with the same
+	 * collation. The collation applies to all the fields of the queries
+	 *
+	 * @return true if the element is case-insensitive
+	 */
+	boolean caseInsensitive() default false;
+
 	/**
 	 * If true, the queries will be created as Postgresql ARRAY[]
 	 *
@@ -150,4 +183,39 @@ public @interface QFElement {
 	 */
 	boolean nullOnError() default false;
 
+
+	/**
+	 * Cache of the results of the SpEL expression. The results are cached by
+	 * expression, key of the request (the principal name by default) and values of
+	 * the previous fields, and by the query parameters and path variables if the
+	 * expression uses them. Anonymous requests, failed evaluations and null
+	 * results are not cached. Disabled by default
+	 *
+	 * @return cache of the results
+	 */
+	QFSpelCache spelCache() default @QFSpelCache;
+
+	/**
+	 * Cache of the results of a SpEL expression. Expressions that depend on other
+	 * values than the key of the request, the previous fields and the request
+	 * variables, like the time, must not be cached
+	 */
+	@interface QFSpelCache {
+
+		/**
+		 * Time to live of the cached results in milliseconds. Zero disables the cache
+		 *
+		 * @return time to live of the results
+		 */
+		long ttlMS() default 0;
+
+		/**
+		 * Max number of cached results of the element
+		 *
+		 * @return max number of results
+		 */
+		int maxSize() default 256;
+
+	}
+
 }
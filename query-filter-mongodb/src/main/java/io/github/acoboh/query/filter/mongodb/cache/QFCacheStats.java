@@ -0,0 +1,38 @@
+package io.github.acoboh.query.filter.mongodb.cache;
+
+/**
+ * Snapshot of the statistics of a {@linkplain QFBoundedCache}
+ *
+ * @param hits      number of lookups that found a value
+ * @param misses    number of lookups that did not found a value
+ * @param evictions number of entries removed by the size limit
+ * @param size      actual number of entries
+ * @param maxSize   max number of entries
+ */
+public record QFCacheStats(long hits, long misses, long evictions, long size, long maxSize) {
+
+	/**
+	 * Statistics of a disabled cache
+	 */
+	public static final QFCacheStats DISABLED = new QFCacheStats(0, 0, 0, 0, 0);
+
+	/**
+	 * Get the number of lookups
+	 *
+	 * @return number of lookups
+	 */
+	public long requests() {
+		return hits + misses;
+	}
+
+	/**
+	 * Get the ratio of lookups that found a value
+	 *
+	 * @return hit ratio between 0 and 1
+	 */
+	public double hitRate() {
+		long requests = requests();
+		return requests == 0 ? 0 : (double) hits / requests;
+	}
+
+}
@@ -8,6 +8,8 @@ import java.util.List;
 import java.util.Set;
 import java.util.stream.Stream;
 
+import javax.annotation.Nullable;
+
 import org.reflections.Reflections;
 import org.reflections.util.ConfigurationBuilder;
 import org.slf4j.Logger;
@@ -30,11 +32,13 @@ import org.springframework.core.Ordered;
 import org.springframework.core.ResolvableType;
 import org.springframework.core.annotation.AnnotatedElementUtils;
 import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
 
 import io.github.acoboh.query.filter.mongodb.annotations.EnableQueryFilter;
 import io.github.acoboh.query.filter.mongodb.annotations.QFDefinitionClass;
 import io.github.acoboh.query.filter.mongodb.exceptions.QueryFilterException;
 import io.github.acoboh.query.filter.mongodb.exceptions.definition.QueryFilterDefinitionException;
+import io.github.acoboh.query.filter.mongodb.index.QFDefinitionIndex;
 import io.github.acoboh.query.filter.mongodb.processor.QFProcessor;
 
 /**
@@ -62,6 +66,11 @@ public class QFBeanFactoryPostProcessor
 	}
 
 	private static Set<Class<?>> getClassAnnotated(List<String> packages) {
+		return getClassAnnotated(QFDefinitionIndex.load(ClassUtils.getDefaultClassLoader()), packages);
+	}
+
+	// The packages covered by the index are not scanned
+	static Set<Class<?>> getClassAnnotated(@Nullable QFDefinitionIndex index, List<String> packages) {
 
 		Assert.notNull(packages, "packages must not be null");
 
@@ -74,27 +83,56 @@ public class QFBeanFactoryPostProcessor
 				continue;
 			}
 
-			final String packRName = prefixPattern(pack);
-			final String packBIName = prefixPattern("BOOT-INF.classes." + pack);
+			if (index != null && index.covers(pack)) {
+				classSet.addAll(getClassIndexed(index, pack));
+			} else {
+				classSet.addAll(getClassScanned(pack));
+			}
+
+		}
+
+		return classSet;
+	}
+
+	private static Set<Class<?>> getClassScanned(String pack) {
+
+		final String packRName = prefixPattern(pack);
+		final String packBIName = prefixPattern("BOOT-INF.classes." + pack);
+
+		LOGGER.trace("Package regex {} and {}", packRName, packBIName);
+
+		Reflections reflect = new Reflections(new ConfigurationBuilder().forPackages(pack).filterInputsBy(p -> {
+			boolean matches = p.matches(packRName) || p.matches(packBIName);
+			LOGGER.trace("Pack {} matches {}", p, matches);
+			return matches;
+		}));
+
+		Set<Class<?>> classFound = reflect.getTypesAnnotatedWith(QFDefinitionClass.class);
 
-			LOGGER.trace("Package regex {} and {}", packRName, packBIName);
+		LOGGER.info("Found {} classes on package {}", classFound.size(), pack);
 
-			Reflections reflect = new Reflections(new ConfigurationBuilder().forPackages(pack).filterInputsBy(p -> {
-				boolean matches = p.matches(packRName) || p.matches(packBIName);
-				LOGGER.trace("Pack {} matches {}", p, matches);
-				return matches;
-			}));
+		if (LOGGER.isDebugEnabled()) {
+			classFound.forEach(e -> LOGGER.debug("Adding class {} with QueryFilterClass Annotation", e));
+		}
 
-			Set<Class<?>> classFound = reflect.getTypesAnnotatedWith(QFDefinitionClass.class);
+		return classFound;
+	}
 
-			LOGGER.info("Found {} classes on package {}", classFound.size(), pack);
+	private static Set<Class<?>> getClassIndexed(QFDefinitionIndex index, String pack) {
 
-			if (LOGGER.isDebugEnabled()) {
-				classFound.forEach(e -> LOGGER.debug("Adding class {} with QueryFilterClass Annotation", e));
+		Set<Class<?>> classSet = new HashSet<>();
+		for (String name : index.getDefinitions(List.of(pack))) {
+			try {
+				classSet.add(ClassUtils.forName(name, ClassUtils.getDefaultClassLoader()));
+			} catch (ClassNotFoundException | LinkageError e) {
+				LOGGER.warn("Ignoring class {} of the query filter index. It can not be loaded", name);
 			}
+		}
 
-			classSet.addAll(classFound);
+		LOGGER.info("Found {} classes on the query filter index for package {}", classSet.size(), pack);
 
+		if (LOGGER.isDebugEnabled()) {
+			classSet.forEach(e -> LOGGER.debug("Adding indexed class {} with QueryFilterClass Annotation", e));
 		}
 
 		return classSet;
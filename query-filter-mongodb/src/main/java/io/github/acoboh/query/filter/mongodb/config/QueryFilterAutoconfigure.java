@@ -4,7 +4,10 @@ import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.context.annotation.Import;
 
 import io.github.acoboh.query.filter.mongodb.advisor.QFExceptionAdvisor;
+import io.github.acoboh.query.filter.mongodb.count.QFCountExecutor;
+import io.github.acoboh.query.filter.mongodb.explain.QFExplainSampler;
 import io.github.acoboh.query.filter.mongodb.hints.HintsRegistrarDef;
+import io.github.acoboh.query.filter.mongodb.index.QFIndexAdvisor;
 import io.github.acoboh.query.filter.mongodb.properties.QueryFilterProperties;
 import io.github.acoboh.query.filter.mongodb.spel.SpelResolverBeanConfig;
 
@@ -14,7 +17,8 @@ import io.github.acoboh.query.filter.mongodb.spel.SpelResolverBeanConfig;
 @AutoConfiguration
 @Import({ QFExceptionAdvisor.class, SpelResolverBeanConfig.class, QFBeanFactoryPostProcessor.class,
 		QFWebMvcConfigurer.class, QueryFilterProperties.class, HintsRegistrarDef.class,
-		ApplicationContextAwareSupport.class })
+		ApplicationContextAwareSupport.class, QFExplainSampler.class, QFIndexAdvisor.class,
+		QFCountExecutor.class })
 public class QueryFilterAutoconfigure {
 
 }
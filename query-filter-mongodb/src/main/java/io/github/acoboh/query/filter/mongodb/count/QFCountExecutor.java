@@ -0,0 +1,161 @@
+package io.github.acoboh.query.filter.mongodb.count;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import io.github.acoboh.query.filter.mongodb.properties.QueryFilterProperties;
+
+/**
+ * Executor of the count queries of the paged queries. The count starts if the
+ * page query has not ended after the configured delay, so fast page queries only
+ * count when the total is not known from the page results. A running count is
+ * not stopped on the server if it is cancelled.
+ * <p>
+ * By default, each count runs on a new virtual thread. Before Java 21, counts
+ * run on a cached pool of daemon threads.
+ */
+@Component
+@ConditionalOnProperty(name = "query-filter.concurrent-count.enabled", havingValue = "true")
+public class QFCountExecutor implements DisposableBean {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(QFCountExecutor.class);
+
+	private final Executor executor;
+
+	private final ExecutorService ownExecutor;
+
+	private final Executor startExecutor;
+
+	/**
+	 * Default constructor
+	 *
+	 * @param properties  query filter properties
+	 * @param beanFactory bean factory to get the configured executor
+	 */
+	public QFCountExecutor(QueryFilterProperties properties, BeanFactory beanFactory) {
+		var executorBean = properties.getConcurrentCount().getExecutor();
+		if (executorBean != null && !executorBean.isBlank()) {
+			this.executor = beanFactory.getBean(executorBean, Executor.class);
+			this.ownExecutor = null;
+		} else {
+			this.ownExecutor = defaultExecutor();
+			this.executor = ownExecutor;
+		}
+
+		long delayMs = properties.getConcurrentCount().getDelayMs();
+		this.startExecutor = delayMs > 0 ? CompletableFuture.delayedExecutor(delayMs, TimeUnit.MILLISECONDS, executor)
+				: executor;
+	}
+
+	private static ExecutorService defaultExecutor() {
+		try {
+			var method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) method.invoke(null);
+		} catch (ReflectiveOperationException e) {
+			LOGGER.debug("Virtual threads not available. Counts will run on a cached thread pool");
+		}
+
+		var threadFactory = new CustomizableThreadFactory("query-filter-count-");
+		threadFactory.setDaemon(true);
+		return Executors.newCachedThreadPool(threadFactory);
+	}
+
+	/**
+	 * Start a count after the configured delay
+	 *
+	 * @param count count query
+	 * @return future of the count
+	 */
+	public PendingCount submit(Supplier<Long> count) {
+		var pending = new PendingCount(count);
+		startExecutor.execute(pending::run);
+		return pending;
+	}
+
+	/**
+	 * Wait for the result of a count. Exceptions of the count are thrown as they
+	 * are
+	 *
+	 * @param future future of the count
+	 * @return count
+	 */
+	public static long await(CompletableFuture<Long> future) {
+		try {
+			return future.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException re) {
+				throw re;
+			}
+			if (e.getCause() instanceof Error error) {
+				throw error;
+			}
+			throw e;
+		}
+	}
+
+	@Override
+	public void destroy() {
+		if (ownExecutor != null) {
+			ownExecutor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Future of a count that is executed only once, on the executor or on the
+	 * caller thread
+	 */
+	public static final class PendingCount extends CompletableFuture<Long> {
+
+		private final AtomicBoolean started = new AtomicBoolean();
+
+		private final Supplier<Long> count;
+
+		private PendingCount(Supplier<Long> count) {
+			this.count = count;
+		}
+
+		/**
+		 * Run the count on the caller thread if it has not started yet
+		 *
+		 * @return this future
+		 */
+		public PendingCount runIfNotStarted() {
+			run();
+			return this;
+		}
+
+		private void run() {
+			if (!started.compareAndSet(false, true)) {
+				return;
+			}
+			try {
+				complete(count.get());
+			} catch (Throwable e) {
+				completeExceptionally(e);
+			}
+		}
+
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			// Counts not started yet are never executed
+			started.set(true);
+			return super.cancel(mayInterruptIfRunning);
+		}
+
+	}
+
+}
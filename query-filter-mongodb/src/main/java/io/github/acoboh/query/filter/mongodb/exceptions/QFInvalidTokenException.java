@@ -0,0 +1,61 @@
+package io.github.acoboh.query.filter.mongodb.exceptions;
+
+import java.io.Serial;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Exception thrown when a keyset pagination token can not be decoded or it was
+ * created with a different sort
+ *
+ * @author Adrián Cobo
+ * 
+ */
+public class QFInvalidTokenException extends QueryFilterException {
+
+	@Serial
+	private static final long serialVersionUID = 1L;
+	private static final String MESSAGE = "Invalid keyset pagination token '{}'";
+
+	private final String token;
+	private final transient Object[] arguments;
+
+	/**
+	 * Default constructor
+	 *
+	 * @param token     invalid token
+	 * @param throwable cause of the error, if any
+	 */
+	public QFInvalidTokenException(String token, Throwable throwable) {
+		super(MESSAGE, throwable, token);
+		this.token = token;
+		this.arguments = new Object[] { token };
+	}
+
+	/**
+	 * Get the invalid token
+	 *
+	 * @return token
+	 */
+	public String getToken() {
+		return token;
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public HttpStatus getHttpStatus() {
+		return HttpStatus.BAD_REQUEST;
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public Object[] getArguments() {
+		return arguments;
+	}
+
+	/** {@inheritDoc} */
+	@Override
+	public String getMessageCode() {
+		return "qf.exceptions.invalidToken";
+	}
+}
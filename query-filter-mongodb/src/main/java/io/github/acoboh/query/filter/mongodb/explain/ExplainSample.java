@@ -0,0 +1,107 @@
+package io.github.acoboh.query.filter.mongodb.explain;
+
+import java.util.List;
+import java.util.StringJoiner;
+
+import javax.annotation.Nullable;
+
+import org.bson.Document;
+
+/**
+ * Values of the output of an explain with <code>executionStats</code>
+ * verbosity
+ *
+ * @param winningPlan  stages of the winning plan, from the root to the leaf
+ * @param keysExamined index keys examined
+ * @param docsExamined documents examined
+ * @param returned     documents returned
+ * @param indexName    index of the winning plan, or null if the plan does not
+ *                     scan a single index
+ */
+record ExplainSample(String winningPlan, long keysExamined, long docsExamined, long returned,
+		@Nullable String indexName) {
+
+	static final String COLLSCAN = "COLLSCAN";
+
+	static final String IXSCAN = "IXSCAN";
+
+	private static final String STAGE_SEPARATOR = ">";
+
+	/**
+	 * Create a sample of a plan that does not scan a single index
+	 *
+	 * @param winningPlan  stages of the winning plan, from the root to the leaf
+	 * @param keysExamined index keys examined
+	 * @param docsExamined documents examined
+	 * @param returned     documents returned
+	 */
+	ExplainSample(String winningPlan, long keysExamined, long docsExamined, long returned) {
+		this(winningPlan, keysExamined, docsExamined, returned, null);
+	}
+
+	/**
+	 * Read the output of an explain command
+	 *
+	 * @param explain output of the explain
+	 * @return sample values
+	 */
+	static ExplainSample of(Document explain) {
+		Document planner = explain.get("queryPlanner", Document.class);
+		Document plan = planner != null ? planner.get("winningPlan", Document.class) : null;
+
+		StringJoiner stages = new StringJoiner(STAGE_SEPARATOR);
+		String indexName = null;
+		boolean singleIndex = true;
+		while (plan != null) {
+			// Plans of the slot based engine and of sharded clusters wrap the real plan
+			if (plan.get("queryPlan") instanceof Document queryPlan) {
+				plan = queryPlan;
+			} else if (plan.get("shards") instanceof List<?> shards && !shards.isEmpty()
+					&& shards.get(0) instanceof Document shard) {
+				plan = shard.get("winningPlan", Document.class);
+				continue;
+			}
+
+			String stage = plan.getString("stage");
+			if (stage != null) {
+				stages.add(stage);
+			}
+			if (IXSCAN.equals(stage) && indexName == null) {
+				indexName = plan.getString("indexName");
+			}
+			// Plans that merge several inputs, like $or, can not be pinned to one index
+			if (plan.get("inputStages") instanceof List<?> inputs && inputs.size() > 1) {
+				singleIndex = false;
+			}
+			plan = next(plan);
+		}
+
+		if (!singleIndex) {
+			indexName = null;
+		}
+
+		Document stats = explain.get("executionStats", Document.class);
+		if (stats == null) {
+			return new ExplainSample(stages.toString(), 0, 0, 0, indexName);
+		}
+
+		return new ExplainSample(stages.toString(), number(stats, "totalKeysExamined"),
+				number(stats, "totalDocsExamined"), number(stats, "nReturned"), indexName);
+	}
+
+	private static Document next(Document plan) {
+		if (plan.get("inputStage") instanceof Document input) {
+			return input;
+		}
+		if (plan.get("inputStages") instanceof List<?> inputs && !inputs.isEmpty()
+				&& inputs.get(0) instanceof Document input) {
+			return input;
+		}
+		return null;
+	}
+
+	private static long number(Document document, String key) {
+		return document.get(key) instanceof Number number ? number.longValue() : 0;
+	}
+
+}
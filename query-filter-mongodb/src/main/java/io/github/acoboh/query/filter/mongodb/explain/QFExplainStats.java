@@ -0,0 +1,38 @@
+package io.github.acoboh.query.filter.mongodb.explain;
+
+/**
+ * Snapshot of the sampled explains of a filter shape. Counters are the sum of
+ * all the samples
+ *
+ * @param filter        filter class
+ * @param shape         fields, operations and sort of the filter
+ * @param samples       number of explained queries
+ * @param winningPlan   stages of the winning plan of the last sample, like
+ *                      <code>FETCH&gt;IXSCAN</code>
+ * @param keysExamined  index keys examined
+ * @param docsExamined  documents examined
+ * @param returned      documents returned
+ * @param slow          true if the shape has been reported as slow
+ */
+public record QFExplainStats(Class<?> filter, String shape, long samples, String winningPlan, long keysExamined,
+		long docsExamined, long returned, boolean slow) {
+
+	/**
+	 * Get the number of documents examined by each returned document
+	 *
+	 * @return documents examined by returned document
+	 */
+	public double docsExaminedRatio() {
+		return (double) docsExamined / Math.max(returned, 1);
+	}
+
+	/**
+	 * Get if the winning plan scans the whole collection
+	 *
+	 * @return true if the winning plan has a <code>COLLSCAN</code> stage
+	 */
+	public boolean isCollectionScan() {
+		return winningPlan != null && winningPlan.contains(ExplainSample.COLLSCAN);
+	}
+
+}
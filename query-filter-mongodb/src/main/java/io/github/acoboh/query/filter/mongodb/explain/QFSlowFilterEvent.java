@@ -0,0 +1,38 @@
+package io.github.acoboh.query.filter.mongodb.explain;
+
+import java.io.Serial;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Event published the first time that the sampled explains of a filter shape
+ * exceed the configured ratio of documents examined by returned document
+ */
+public class QFSlowFilterEvent extends ApplicationEvent {
+
+	@Serial
+	private static final long serialVersionUID = 1L;
+
+	private final transient QFExplainStats stats;
+
+	/**
+	 * Create a new event
+	 *
+	 * @param source sampler that reports the shape
+	 * @param stats  statistics of the slow shape
+	 */
+	public QFSlowFilterEvent(Object source, QFExplainStats stats) {
+		super(source);
+		this.stats = stats;
+	}
+
+	/**
+	 * Get the statistics of the slow shape
+	 *
+	 * @return statistics of the slow shape
+	 */
+	public QFExplainStats getStats() {
+		return stats;
+	}
+
+}
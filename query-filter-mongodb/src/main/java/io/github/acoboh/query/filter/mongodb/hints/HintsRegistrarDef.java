@@ -1,21 +1,28 @@
 package io.github.acoboh.query.filter.mongodb.hints;
 
+import java.net.URL;
+import java.util.Collection;
 import java.util.Set;
 
+import javax.annotation.Nullable;
+
 import org.reflections.Reflections;
 import org.reflections.util.ClasspathHelper;
 import org.reflections.util.ConfigurationBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.ReflectionHints;
 import org.springframework.aot.hint.RuntimeHints;
 import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.ImportRuntimeHints;
 import org.springframework.core.annotation.AnnotatedElementUtils;
 
 import io.github.acoboh.query.filter.mongodb.annotations.QFDefinitionClass;
 import io.github.acoboh.query.filter.mongodb.annotations.QFProjection;
+import io.github.acoboh.query.filter.mongodb.index.QFDefinitionIndex;
 
 /**
  * Class that allows support for Spring Native projects
@@ -43,8 +50,46 @@ public class HintsRegistrarDef {
 
 			var rh = hints.reflection();
 
-			Reflections reflect = new Reflections(
-					new ConfigurationBuilder().setUrls(ClasspathHelper.forJavaClassPath()));
+			QFDefinitionIndex index = QFDefinitionIndex.load(classLoader);
+			if (index != null) {
+				registerIndexedTypes(rh, index);
+			}
+			registerScannedTypes(rh, index);
+
+			// Add for security
+			rh.registerType(jakarta.servlet.http.HttpServletRequest.class, MemberCategory.values());
+			hints.proxies().registerJdkProxy(jakarta.servlet.http.HttpServletRequest.class);
+
+			hints.resources().registerPattern("queryfilter-messages/messages_*.properties");
+			hints.resources().registerPattern(QFDefinitionIndex.LOCATION);
+
+		}
+
+		private static void registerIndexedTypes(ReflectionHints rh, QFDefinitionIndex index) {
+
+			LOGGER.info("Found {} classes on the query filter index", index.getDefinitions().size());
+			for (String definition : index.getDefinitions()) {
+				LOGGER.info("Processing class {}", definition);
+				rh.registerType(TypeReference.of(definition), memberCategories);
+
+				for (String projection : index.getProjections(definition)) {
+					LOGGER.info("Processing projection {}", projection);
+					rh.registerType(TypeReference.of(projection), memberCategories);
+				}
+			}
+
+		}
+
+		// The classpath roots with an index are not scanned
+		private static void registerScannedTypes(ReflectionHints rh, @Nullable QFDefinitionIndex index) {
+
+			Collection<URL> urls = ClasspathHelper.forJavaClassPath().stream()
+					.filter(url -> index == null || !index.isIndexed(url)).toList();
+			if (urls.isEmpty()) {
+				return;
+			}
+
+			Reflections reflect = new Reflections(new ConfigurationBuilder().setUrls(urls));
 
 			Set<Class<?>> annotatedClasses = reflect.getTypesAnnotatedWith(QFDefinitionClass.class);
 
@@ -63,12 +108,6 @@ public class HintsRegistrarDef {
 
 			}
 
-			// Add for security
-			rh.registerType(jakarta.servlet.http.HttpServletRequest.class, MemberCategory.values());
-			hints.proxies().registerJdkProxy(jakarta.servlet.http.HttpServletRequest.class);
-
-			hints.resources().registerPattern("queryfilter-messages/messages_*.properties");
-
 		}
 
 	}
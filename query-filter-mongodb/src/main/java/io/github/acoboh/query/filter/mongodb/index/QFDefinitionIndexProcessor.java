@@ -0,0 +1,148 @@
+package io.github.acoboh.query.filter.mongodb.index;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+import io.github.acoboh.query.filter.mongodb.annotations.QFDefinitionClass;
+import io.github.acoboh.query.filter.mongodb.annotations.QFProjection;
+import io.github.acoboh.query.filter.mongodb.annotations.QFProjections;
+
+/**
+ * Annotation processor that writes the {@link QFDefinitionIndex} of the
+ * compiled {@link QFDefinitionClass} types and their {@link QFProjection}
+ * classes.
+ * <p>
+ * It is registered as a service, so it runs on all the compilations with the
+ * library on the classpath. Entries of previous compilations are kept while
+ * their types are still annotated, to support incremental compilations
+ */
+@SupportedAnnotationTypes("io.github.acoboh.query.filter.mongodb.annotations.QFDefinitionClass")
+public class QFDefinitionIndexProcessor extends AbstractProcessor {
+
+	private final Map<String, List<String>> definitions = new TreeMap<>();
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+
+		for (Element element : roundEnv.getElementsAnnotatedWith(QFDefinitionClass.class)) {
+			if (element instanceof TypeElement type) {
+				definitions.put(binaryName(type), getProjections(type));
+			}
+		}
+
+		if (roundEnv.processingOver() && !definitions.isEmpty()) {
+			writeIndex();
+		}
+
+		return false;
+	}
+
+	private List<String> getProjections(TypeElement type) {
+		List<String> ret = new ArrayList<>();
+		for (AnnotationMirror mirror : type.getAnnotationMirrors()) {
+			String name = ((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().toString();
+			if (name.equals(QFProjection.class.getName())) {
+				addProjection(mirror, ret);
+			} else if (name.equals(QFProjections.class.getName()) && getValue(mirror) instanceof List<?> list) {
+				for (Object value : list) {
+					addProjection((AnnotationMirror) ((AnnotationValue) value).getValue(), ret);
+				}
+			}
+		}
+		return ret;
+	}
+
+	private void addProjection(AnnotationMirror mirror, List<String> projections) {
+		if (getValue(mirror) instanceof DeclaredType declared) {
+			projections.add(binaryName((TypeElement) declared.asElement()));
+		}
+	}
+
+	private static Object getValue(AnnotationMirror mirror) {
+		for (var entry : mirror.getElementValues().entrySet()) {
+			if (entry.getKey().getSimpleName().contentEquals("value")) {
+				return entry.getValue().getValue();
+			}
+		}
+		return null;
+	}
+
+	private String binaryName(TypeElement type) {
+		return processingEnv.getElementUtils().getBinaryName(type).toString();
+	}
+
+	private void writeIndex() {
+		Map<String, List<String>> index = new TreeMap<>(readPreviousIndex());
+		index.putAll(definitions);
+
+		try {
+			FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+					QFDefinitionIndex.LOCATION);
+			try (Writer writer = file.openWriter()) {
+				for (var entry : index.entrySet()) {
+					writer.write(entry.getKey() + "=" + String.join(",", entry.getValue()) + "\n");
+				}
+			}
+		} catch (IOException e) {
+			processingEnv.getMessager().printMessage(Kind.ERROR,
+					"Unable to write the index of query filter definitions: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Read the entries of previous compilations whose types are still annotated
+	 */
+	private Map<String, List<String>> readPreviousIndex() {
+		Map<String, List<String>> ret = new TreeMap<>();
+
+		Properties properties = new Properties();
+		try {
+			FileObject file = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "",
+					QFDefinitionIndex.LOCATION);
+			try (var reader = new BufferedReader(new InputStreamReader(file.openInputStream(),
+					StandardCharsets.UTF_8))) {
+				properties.load(reader);
+			}
+		} catch (IOException e) {
+			// No previous index
+			return ret;
+		}
+
+		for (String name : properties.stringPropertyNames()) {
+			TypeElement type = processingEnv.getElementUtils().getTypeElement(name.replace('$', '.'));
+			if (type != null && type.getAnnotation(QFDefinitionClass.class) != null) {
+				String projections = properties.getProperty(name);
+				ret.put(name, projections.isEmpty() ? List.of() : List.of(projections.split(",")));
+			}
+		}
+		return ret;
+	}
+
+}
@@ -0,0 +1,49 @@
+package io.github.acoboh.query.filter.mongodb.index;
+
+import javax.annotation.Nullable;
+
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+
+/**
+ * Field of a filter definition without a supporting index on the collection of
+ * the entity
+ *
+ * @param filterClass      filter class
+ * @param collection       collection of the entity
+ * @param type             type of the advice
+ * @param field            filter name of the field
+ * @param paths            mapping names of the paths without index, separated
+ *                         by commas
+ * @param recommendedIndex recommended index, or null if it can not be inferred
+ */
+public record QFIndexAdvice(Class<?> filterClass, String collection, Type type, String field, String paths,
+		@Nullable IndexDefinition recommendedIndex) {
+
+	/**
+	 * Types of advices
+	 */
+	public enum Type {
+
+		/**
+		 * Sortable field without an index with the field as prefix
+		 */
+		SORT,
+
+		/**
+		 * Default sort without an index with the sort fields as prefix
+		 */
+		DEFAULT_SORT,
+
+		/**
+		 * Filterable field without an index with the field as prefix
+		 */
+		FILTER,
+
+		/**
+		 * Text search field without a text index on the collection
+		 */
+		TEXT
+
+	}
+
+}
@@ -0,0 +1,146 @@
+package io.github.acoboh.query.filter.mongodb.index;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.env.Profiles;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.stereotype.Component;
+
+import io.github.acoboh.query.filter.mongodb.processor.QFProcessor;
+import io.github.acoboh.query.filter.mongodb.properties.IndexAdvisorProperties;
+import io.github.acoboh.query.filter.mongodb.properties.QueryFilterProperties;
+
+/**
+ * Startup check of the filter definitions against the indexes of the
+ * collections. Sortable fields, default sorts and filterable fields without an
+ * index that starts with them, and text fields without a text index, are
+ * logged as warnings with the recommended index.
+ * <p>
+ * The recommended indexes can be created on startup, except when any
+ * production profile is active.
+ *
+ * @author Adrián Cobo
+ *
+ */
+@Component
+@ConditionalOnProperty(name = "query-filter.index-advisor.enabled", havingValue = "true")
+public class QFIndexAdvisor implements SmartInitializingSingleton {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(QFIndexAdvisor.class);
+
+	private final IndexAdvisorProperties properties;
+
+	private final ApplicationContext appContext;
+
+	private volatile List<QFIndexAdvice> advices = List.of();
+
+	/**
+	 * Default constructor
+	 *
+	 * @param properties query filter properties
+	 * @param appContext application context
+	 */
+	public QFIndexAdvisor(QueryFilterProperties properties, ApplicationContext appContext) {
+		this.properties = properties.getIndexAdvisor();
+		this.appContext = appContext;
+	}
+
+	@Override
+	public void afterSingletonsInstantiated() {
+		check();
+	}
+
+	/**
+	 * Check all the query filter processors against the actual indexes, and create
+	 * the recommended indexes if enabled
+	 *
+	 * @return advices found before creating any index
+	 */
+	public List<QFIndexAdvice> check() {
+		MongoTemplate mongoTemplate = appContext.getBeanProvider(MongoTemplate.class).getIfUnique();
+		if (mongoTemplate == null) {
+			LOGGER.warn("Index advisor skipped. There is no unique MongoTemplate bean");
+			return advices;
+		}
+
+		Map<String, List<IndexInfo>> collectionIndexes = new HashMap<>();
+		List<QFIndexAdvice> ret = new ArrayList<>();
+
+		for (QFProcessor<?, ?> processor : appContext.getBeansOfType(QFProcessor.class).values()) {
+			try {
+				String collection = mongoTemplate.getCollectionName(processor.getEntityClass());
+				var indexes = collectionIndexes.computeIfAbsent(collection,
+						c -> mongoTemplate.indexOps(c).getIndexInfo());
+				ret.addAll(QFIndexAnalyzer.analyze(processor, collection, indexes));
+			} catch (RuntimeException e) {
+				LOGGER.warn("Error checking the indexes of filter {}", processor.getFilterClass(), e);
+			}
+		}
+
+		for (var advice : ret) {
+			LOGGER.warn("Field {} of filter {} has no {} index on collection {} for paths {}. Recommended index: {}",
+					advice.field(), advice.filterClass().getSimpleName(), advice.type(), advice.collection(),
+					advice.paths(), advice.recommendedIndex() != null
+							? advice.recommendedIndex().getIndexKeys().toJson()
+							: "text index on the searched fields");
+		}
+
+		advices = List.copyOf(ret);
+
+		if (properties.isCreateIndexes() && !ret.isEmpty()) {
+			createIndexes(mongoTemplate, ret);
+		}
+
+		return advices;
+	}
+
+	private void createIndexes(MongoTemplate mongoTemplate, List<QFIndexAdvice> advices) {
+		var productionProfiles = properties.getProductionProfiles().toArray(String[]::new);
+		if (productionProfiles.length > 0
+				&& appContext.getEnvironment().acceptsProfiles(Profiles.of(productionProfiles))) {
+			LOGGER.info("Recommended indexes are not created with production profiles {}",
+					properties.getProductionProfiles());
+			return;
+		}
+
+		// The same index can be recommended by several fields or filters
+		Map<Map.Entry<String, Document>, IndexDefinition> indexes = new LinkedHashMap<>();
+		for (var advice : advices) {
+			if (advice.recommendedIndex() != null) {
+				indexes.putIfAbsent(Map.entry(advice.collection(), advice.recommendedIndex().getIndexKeys()),
+						advice.recommendedIndex());
+			}
+		}
+
+		indexes.forEach((key, index) -> {
+			try {
+				String name = mongoTemplate.indexOps(key.getKey()).createIndex(index);
+				LOGGER.info("Created index {} on collection {}: {}", name, key.getKey(), key.getValue().toJson());
+			} catch (RuntimeException e) {
+				LOGGER.warn("Error creating index on collection {}: {}", key.getKey(), key.getValue().toJson(), e);
+			}
+		});
+	}
+
+	/**
+	 * Get the advices of the last check
+	 *
+	 * @return advices found
+	 */
+	public List<QFIndexAdvice> getAdvices() {
+		return advices;
+	}
+
+}
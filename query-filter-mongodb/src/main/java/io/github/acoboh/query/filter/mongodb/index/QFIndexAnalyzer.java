@@ -0,0 +1,149 @@
+package io.github.acoboh.query.filter.mongodb.index;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.util.Pair;
+
+import io.github.acoboh.query.filter.mongodb.index.QFIndexAdvice.Type;
+import io.github.acoboh.query.filter.mongodb.processor.QFProcessor;
+import io.github.acoboh.query.filter.mongodb.processor.definitions.IDefinitionSortable;
+import io.github.acoboh.query.filter.mongodb.processor.definitions.QFDefinitionElement;
+import io.github.acoboh.query.filter.mongodb.processor.definitions.QFDefinitionText;
+
+/**
+ * Check of the definitions of a processor against the indexes of the
+ * collection.
+ * <p>
+ * The check is conservative: a path is supported only by an index that starts
+ * with the path. Hidden and partial indexes are ignored because the planner
+ * can not use them for every query. The <code>_id</code> index is always
+ * present, even if the collection has not been created yet.
+ */
+final class QFIndexAnalyzer {
+
+	private static final String WILDCARD = "$**";
+
+	private static final IndexInfo ID_INDEX = new IndexInfo(List.of(IndexField.create("_id", Direction.ASC)), "_id_",
+			true, false, null);
+
+	private QFIndexAnalyzer() {
+	}
+
+	/**
+	 * Get the advices of the definitions of the processor
+	 *
+	 * @param processor  processor to check
+	 * @param collection collection of the entity
+	 * @param indexes    indexes of the collection
+	 * @return advices found
+	 */
+	static List<QFIndexAdvice> analyze(QFProcessor<?, ?> processor, String collection, List<IndexInfo> indexes) {
+
+		List<IndexInfo> usable = new ArrayList<>(indexes.size() + 1);
+		usable.add(ID_INDEX);
+		indexes.stream().filter(e -> !e.isHidden() && e.getPartialFilterExpression() == null).forEach(usable::add);
+
+		Class<?> filterClass = processor.getFilterClass();
+		List<QFIndexAdvice> advices = new ArrayList<>();
+
+		var defaultSorting = processor.getDefaultSorting();
+		if (!defaultSorting.isEmpty() && !hasSortPrefix(usable, defaultSorting)) {
+			var index = new Index();
+			defaultSorting.forEach(e -> index.on(e.getFirst().getFirstPathMappingName(), e.getSecond()));
+			String paths = String.join(",",
+					defaultSorting.stream().map(e -> e.getFirst().getFirstPathMappingName()).toList());
+			String fields = String.join(",", defaultSorting.stream().map(e -> e.getFirst().getFilterName()).toList());
+			advices.add(new QFIndexAdvice(filterClass, collection, Type.DEFAULT_SORT, fields, paths, index));
+		}
+
+		for (var definition : processor.getDefinitionMap().values()) {
+
+			if (definition instanceof QFDefinitionText) {
+				if (usable.stream().noneMatch(e -> e.getIndexFields().stream().anyMatch(IndexField::isText))) {
+					advices.add(new QFIndexAdvice(filterClass, collection, Type.TEXT, definition.getFilterName(),
+							"$text", null));
+				}
+				continue;
+			}
+
+			if (definition instanceof IDefinitionSortable sortable && sortable.isSortable()) {
+				String path = sortable.getFirstPathMappingName();
+				if (!hasSortPrefix(usable, List.of(Pair.of(sortable, Direction.ASC)))) {
+					advices.add(new QFIndexAdvice(filterClass, collection, Type.SORT, definition.getFilterName(), path,
+							new Index().on(path, Direction.ASC)));
+				}
+			}
+
+			if (definition instanceof QFDefinitionElement element) {
+				for (String path : element.getPathMappingNames()) {
+					if (!hasFilterPrefix(usable, path)) {
+						advices.add(new QFIndexAdvice(filterClass, collection, Type.FILTER,
+								definition.getFilterName(), path, new Index().on(path, Direction.ASC)));
+					}
+				}
+			}
+
+		}
+
+		return advices;
+	}
+
+	private static boolean hasFilterPrefix(List<IndexInfo> indexes, String path) {
+		for (var index : indexes) {
+			var first = index.getIndexFields().isEmpty() ? null : index.getIndexFields().get(0);
+			if (first == null || first.isText() || first.isGeo()) {
+				continue;
+			}
+
+			if (first.isWildcard() || first.getKey().endsWith(WILDCARD)) {
+				String prefix = first.getKey().substring(0, first.getKey().length() - WILDCARD.length());
+				if (path.startsWith(prefix)) {
+					return true;
+				}
+			} else if (first.getKey().equals(path)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * An index supports a sort if it starts with the sort fields, all of them in
+	 * the same direction or all of them in the opposite direction. Indexes can be
+	 * traversed on both directions
+	 */
+	private static boolean hasSortPrefix(List<IndexInfo> indexes, List<Pair<IDefinitionSortable, Direction>> sorts) {
+		for (var index : indexes) {
+			var fields = index.getIndexFields();
+			if (fields.size() < sorts.size()) {
+				continue;
+			}
+
+			boolean same = true;
+			boolean reverse = true;
+			for (int i = 0; i < sorts.size() && (same || reverse); i++) {
+				var field = fields.get(i);
+				var sort = sorts.get(i);
+				if (field.getDirection() == null
+						|| !field.getKey().equals(sort.getFirst().getFirstPathMappingName())) {
+					same = false;
+					reverse = false;
+				} else {
+					same &= field.getDirection() == sort.getSecond();
+					reverse &= field.getDirection() != sort.getSecond();
+				}
+			}
+
+			if (same || reverse) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
@@ -0,0 +1,170 @@
+package io.github.acoboh.query.filter.mongodb.metrics;
+
+import org.springframework.context.ApplicationContext;
+
+import io.github.acoboh.query.filter.mongodb.spel.SpelResolverContext;
+
+/**
+ * Timers and counters of the phases of the query filters of a processor.
+ * <p>
+ * Metrics are enabled when Micrometer is on the classpath and there is a
+ * <code>MeterRegistry</code> bean. Otherwise {@link #DISABLED} is used and every
+ * method does nothing.
+ * <p>
+ * Meters are tagged with the filter class, the entity class and the operation:
+ * <ul>
+ * <li><code>query.filter</code> timer of the {@link #PARSE}, {@link #CRITERIA},
+ * {@link #SPEL}, {@link #FIND}, {@link #AGGREGATE} and {@link #COUNT}
+ * operations</li>
+ * <li><code>query.filter.part</code> timer of the evaluation of each filter
+ * part, with the filter operation (<code>eq</code>, <code>in</code>...)</li>
+ * <li><code>query.filter.errors</code> counter of the failed operations, with
+ * the exception class</li>
+ * </ul>
+ *
+ * @author Adrián Cobo
+ *
+ */
+public interface QFMetrics {
+
+	/**
+	 * Timer of the operations
+	 */
+	String TIMER = "query.filter";
+
+	/**
+	 * Timer of the filter parts
+	 */
+	String PART_TIMER = "query.filter.part";
+
+	/**
+	 * Counter of the failed operations
+	 */
+	String ERRORS = "query.filter.errors";
+
+	/**
+	 * Parse of the input on the constructor of the query filter
+	 */
+	String PARSE = "parse";
+
+	/**
+	 * Generation of the criteria
+	 */
+	String CRITERIA = "criteria";
+
+	/**
+	 * Evaluation of SpEL expressions
+	 */
+	String SPEL = "spel";
+
+	/**
+	 * Find queries on MongoDB
+	 */
+	String FIND = "find";
+
+	/**
+	 * Aggregate queries on MongoDB
+	 */
+	String AGGREGATE = "aggregate";
+
+	/**
+	 * Count queries on MongoDB
+	 */
+	String COUNT = "count";
+
+	/**
+	 * Disabled metrics
+	 */
+	QFMetrics DISABLED = new QFMetrics() {
+
+		@Override
+		public boolean isEnabled() {
+			return false;
+		}
+
+		@Override
+		public long start() {
+			return 0;
+		}
+
+		@Override
+		public void record(String operation, long start) {
+			// Disabled
+		}
+
+		@Override
+		public void recordPart(String operation, long start) {
+			// Disabled
+		}
+
+		@Override
+		public void error(String operation, Throwable error) {
+			// Disabled
+		}
+
+		@Override
+		public SpelResolverContext timed(SpelResolverContext spelResolver) {
+			return spelResolver;
+		}
+
+	};
+
+	/**
+	 * Get if metrics are recorded
+	 *
+	 * @return true if enabled
+	 */
+	boolean isEnabled();
+
+	/**
+	 * Start the timing of an operation
+	 *
+	 * @return start time to record
+	 */
+	long start();
+
+	/**
+	 * Record the time of an operation
+	 *
+	 * @param operation operation
+	 * @param start     start time
+	 */
+	void record(String operation, long start);
+
+	/**
+	 * Record the time of a filter part
+	 *
+	 * @param operation filter operation of the part
+	 * @param start     start time
+	 */
+	void recordPart(String operation, long start);
+
+	/**
+	 * Count a failed operation
+	 *
+	 * @param operation operation
+	 * @param error     error thrown
+	 */
+	void error(String operation, Throwable error);
+
+	/**
+	 * Get a SpEL resolver that times the evaluations
+	 *
+	 * @param spelResolver SpEL resolver
+	 * @return timed SpEL resolver
+	 */
+	SpelResolverContext timed(SpelResolverContext spelResolver);
+
+	/**
+	 * Create the metrics of the filters of a processor
+	 *
+	 * @param appContext  application context
+	 * @param filterClass filter class
+	 * @param entityClass entity class
+	 * @return metrics, or {@link #DISABLED} if there is no meter registry
+	 */
+	static QFMetrics of(ApplicationContext appContext, Class<?> filterClass, Class<?> entityClass) {
+		return QFMetricsFactory.create(appContext, filterClass, entityClass);
+	}
+
+}
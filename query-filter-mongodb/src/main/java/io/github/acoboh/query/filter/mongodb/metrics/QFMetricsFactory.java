@@ -0,0 +1,24 @@
+package io.github.acoboh.query.filter.mongodb.metrics;
+
+import org.springframework.context.ApplicationContext;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Factory of metrics. Micrometer classes are only loaded if they are present
+ */
+final class QFMetricsFactory {
+
+	private static final boolean MICROMETER_PRESENT = ClassUtils
+			.isPresent("io.micrometer.core.instrument.MeterRegistry", QFMetricsFactory.class.getClassLoader());
+
+	private QFMetricsFactory() {
+	}
+
+	static QFMetrics create(ApplicationContext appContext, Class<?> filterClass, Class<?> entityClass) {
+		if (appContext == null || !MICROMETER_PRESENT) {
+			return QFMetrics.DISABLED;
+		}
+		return MicrometerQFMetrics.of(appContext, filterClass, entityClass);
+	}
+
+}
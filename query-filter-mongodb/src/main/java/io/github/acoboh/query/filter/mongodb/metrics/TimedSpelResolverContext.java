@@ -0,0 +1,59 @@
+package io.github.acoboh.query.filter.mongodb.metrics;
+
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.util.MultiValueMap;
+
+import io.github.acoboh.query.filter.mongodb.spel.SpelResolverContext;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * SpEL resolver that records the time of the evaluations of other resolver
+ */
+class TimedSpelResolverContext extends SpelResolverContext {
+
+	private final SpelResolverContext delegate;
+
+	private final QFMetrics metrics;
+
+	TimedSpelResolverContext(SpelResolverContext delegate, QFMetrics metrics) {
+		super(delegate.getExpressionCache(), delegate.getCacheKeyExtractor());
+		this.delegate = delegate;
+		this.metrics = metrics;
+	}
+
+	SpelResolverContext getDelegate() {
+		return delegate;
+	}
+
+	@Override
+	public Object evaluate(String securityExpression, MultiValueMap<String, Object> contextValues,
+			HttpServletRequest request, HttpServletResponse response, boolean nullOnError) {
+		long start = metrics.start();
+		try {
+			return delegate.evaluate(securityExpression, contextValues, request, response, nullOnError);
+		} catch (RuntimeException e) {
+			metrics.error(QFMetrics.SPEL, e);
+			throw e;
+		} finally {
+			metrics.record(QFMetrics.SPEL, start);
+		}
+	}
+
+	@Override
+	public SpelResolverContext forRequest(HttpServletRequest request, HttpServletResponse response) {
+		return new TimedSpelResolverContext(delegate.forRequest(request, response), metrics);
+	}
+
+	@Override
+	public ExpressionParser getExpressionParser() {
+		return delegate.getExpressionParser();
+	}
+
+	@Override
+	public EvaluationContext getEvaluationContext(HttpServletRequest request, HttpServletResponse response) {
+		return delegate.getEvaluationContext(request, response);
+	}
+
+}
@@ -1,5 +1,6 @@
 package io.github.acoboh.query.filter.mongodb.operations.resolutors;
 
+import org.bson.Document;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.util.MultiValueMap;
 
@@ -23,6 +24,20 @@ public interface QFOperationResolutor {
 	 */
 	Criteria generateCriteria(QFElementMatch match, int index, MultiValueMap<String, Object> mlContext);
 
+	/**
+	 * Create the document of the criteria for any query filter element of
+	 * QFElementMatch type. It is used to bind the values of prepared filter shapes
+	 * without building the criteria
+	 * 
+	 * @param match     element
+	 * @param index     index of the element
+	 * @param mlContext context of SpEL
+	 * @return document of the criteria
+	 */
+	default Document generateDocument(QFElementMatch match, int index, MultiValueMap<String, Object> mlContext) {
+		return generateCriteria(match, index, mlContext).getCriteriaObject();
+	}
+
 	/**
 	 * Get the operation string value
 	 *
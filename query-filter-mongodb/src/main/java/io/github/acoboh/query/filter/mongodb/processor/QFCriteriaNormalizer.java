@@ -0,0 +1,233 @@
+package io.github.acoboh.query.filter.mongodb.processor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+/**
+ * Optimization of the final criteria of the filters before sending them to the
+ * database. The normalized criteria matches the same documents with less
+ * operators:
+ * <ul>
+ * <li>Nested <code>$and</code> and <code>$or</code> operators are
+ * flattened</li>
+ * <li>Comparisons with different operators on the same path are merged, like
+ * <code>{d: {$gte: 1, $lt: 5}}</code></li>
+ * <li>Single value <code>$in</code> and <code>$nin</code> are replaced with
+ * equality and <code>$ne</code></li>
+ * <li>Empty conditions and <code>$or</code> operators with empty conditions are
+ * removed, because they match all the documents</li>
+ * </ul>
+ * The documents of the criteria are never modified.
+ */
+final class QFCriteriaNormalizer {
+
+	private static final String AND_OPERATOR = "$and";
+	private static final String OR_OPERATOR = "$or";
+	private static final String IN_OPERATOR = "$in";
+	private static final String NIN_OPERATOR = "$nin";
+	private static final String EQ_OPERATOR = "$eq";
+	private static final String NE_OPERATOR = "$ne";
+
+	private QFCriteriaNormalizer() {
+	}
+
+	/**
+	 * Normalize a criteria
+	 *
+	 * @param criteria criteria
+	 * @return new normalized criteria
+	 */
+	static Criteria normalize(Criteria criteria) {
+		return toCriteria(normalize(criteria.getCriteriaObject()));
+	}
+
+	/**
+	 * Normalize a query document
+	 *
+	 * @param document query document
+	 * @return new normalized query document
+	 */
+	static Document normalize(Document document) {
+		List<Document> conjuncts = new ArrayList<>();
+		addConjuncts(document, conjuncts);
+		return merge(conjuncts);
+	}
+
+	private static Criteria toCriteria(Document document) {
+		Criteria ret = null;
+		for (var entry : document.entrySet()) {
+			ret = ret == null ? Criteria.where(entry.getKey()) : ret.and(entry.getKey());
+			ret = ret.is(entry.getValue());
+		}
+		return ret != null ? ret : new Criteria();
+	}
+
+	/**
+	 * Split a query document in conditions of a single key. Conditions of
+	 * <code>$and</code> operators are added as conditions of the document
+	 */
+	private static void addConjuncts(Document document, List<Document> conjuncts) {
+		for (var entry : document.entrySet()) {
+			String key = entry.getKey();
+			Object value = entry.getValue();
+
+			if (AND_OPERATOR.equals(key) && isDocumentList(value)) {
+				for (var child : (List<?>) value) {
+					addConjuncts((Document) child, conjuncts);
+				}
+			} else if (OR_OPERATOR.equals(key) && isDocumentList(value) && !((List<?>) value).isEmpty()) {
+				addDisjunction((List<?>) value, conjuncts);
+			} else if (key.startsWith("$")) {
+				conjuncts.add(new Document(key, value));
+			} else {
+				conjuncts.add(new Document(key, normalizeValue(value)));
+			}
+		}
+	}
+
+	private static void addDisjunction(List<?> children, List<Document> conjuncts) {
+		List<Document> disjuncts = new ArrayList<>(children.size());
+		for (var child : children) {
+			var normalized = normalize((Document) child);
+			if (normalized.isEmpty()) {
+				// Always true
+				return;
+			}
+
+			if (normalized.size() == 1 && isDocumentList(normalized.get(OR_OPERATOR))) {
+				for (var nested : (List<?>) normalized.get(OR_OPERATOR)) {
+					disjuncts.add((Document) nested);
+				}
+			} else {
+				disjuncts.add(normalized);
+			}
+		}
+
+		if (disjuncts.size() == 1) {
+			addConjuncts(disjuncts.get(0), conjuncts);
+		} else {
+			conjuncts.add(new Document(OR_OPERATOR, disjuncts));
+		}
+	}
+
+	/**
+	 * Merge the conditions on different keys in the same document. Comparisons on
+	 * the same path with different operators are merged too. Other conditions are
+	 * kept on a <code>$and</code> operator
+	 */
+	private static Document merge(List<Document> conjuncts) {
+		Document merged = new Document();
+		List<Document> rest = new ArrayList<>();
+
+		for (var conjunct : conjuncts) {
+			var entry = conjunct.entrySet().iterator().next();
+			String key = entry.getKey();
+			Object value = entry.getValue();
+
+			if (!merged.containsKey(key)) {
+				merged.put(key, value);
+				continue;
+			}
+
+			Object existing = merged.get(key);
+			if (Objects.equals(value, existing)) {
+				continue;
+			}
+
+			if (!key.startsWith("$") && isOperators(existing) && isOperators(value)
+					&& disjoint((Document) existing, (Document) value)) {
+				Document operators = new Document((Document) existing);
+				operators.putAll((Document) value);
+				merged.put(key, operators);
+			} else {
+				rest.add(conjunct);
+			}
+		}
+
+		if (!rest.isEmpty()) {
+			merged.put(AND_OPERATOR, rest);
+		}
+
+		return merged;
+	}
+
+	private static Object normalizeValue(Object value) {
+		if (!isOperators(value)) {
+			return value;
+		}
+
+		Document operators = (Document) value;
+		Document ret = new Document();
+		for (var entry : operators.entrySet()) {
+			String operator = entry.getKey();
+			Object single = singleValue(entry.getValue());
+
+			if (IN_OPERATOR.equals(operator) && single != null && !operators.containsKey(EQ_OPERATOR)) {
+				ret.put(EQ_OPERATOR, single);
+			} else if (NIN_OPERATOR.equals(operator) && single != null && !operators.containsKey(NE_OPERATOR)) {
+				ret.put(NE_OPERATOR, single);
+			} else {
+				ret.put(operator, entry.getValue());
+			}
+		}
+
+		if (ret.size() == 1 && ret.containsKey(EQ_OPERATOR)) {
+			return ret.get(EQ_OPERATOR);
+		}
+		return ret;
+	}
+
+	/**
+	 * Get the only value of a list if it has the same meaning as equality value.
+	 * Regular expressions and documents have a different meaning
+	 */
+	private static Object singleValue(Object value) {
+		if (value instanceof List<?> list && list.size() == 1) {
+			Object ret = list.get(0);
+			if (ret != null && !(ret instanceof Pattern) && !(ret instanceof Map) && !(ret instanceof List)) {
+				return ret;
+			}
+		}
+		return null;
+	}
+
+	private static boolean isOperators(Object value) {
+		if (!(value instanceof Document document) || document.isEmpty()) {
+			return false;
+		}
+		for (var key : document.keySet()) {
+			if (!key.startsWith("$")) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean disjoint(Document first, Document second) {
+		for (var key : second.keySet()) {
+			if (first.containsKey(key)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isDocumentList(Object value) {
+		if (!(value instanceof List<?> list)) {
+			return false;
+		}
+		for (var child : list) {
+			if (!(child instanceof Document)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
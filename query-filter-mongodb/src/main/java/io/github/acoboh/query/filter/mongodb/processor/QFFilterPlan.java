@@ -0,0 +1,206 @@
+package io.github.acoboh.query.filter.mongodb.processor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.util.Pair;
+
+import io.github.acoboh.query.filter.mongodb.exceptions.QFBlockException;
+import io.github.acoboh.query.filter.mongodb.exceptions.QFFieldNotFoundException;
+import io.github.acoboh.query.filter.mongodb.exceptions.QFMultipleSortException;
+import io.github.acoboh.query.filter.mongodb.exceptions.QFNotSortableException;
+import io.github.acoboh.query.filter.mongodb.exceptions.QFNotValuable;
+import io.github.acoboh.query.filter.mongodb.exceptions.QFParseException;
+import io.github.acoboh.query.filter.mongodb.operations.QFOperationEnum;
+import io.github.acoboh.query.filter.mongodb.operations.QFOperationTextEnum;
+import io.github.acoboh.query.filter.mongodb.processor.definitions.IDefinitionSortable;
+import io.github.acoboh.query.filter.mongodb.processor.definitions.QFAbstractDefinition;
+import io.github.acoboh.query.filter.mongodb.processor.definitions.QFDefinitionElement;
+import io.github.acoboh.query.filter.mongodb.processor.definitions.QFDefinitionText;
+import io.github.acoboh.query.filter.mongodb.processor.match.QFElementMatch;
+import io.github.acoboh.query.filter.mongodb.processor.match.QFTextMatch;
+
+/**
+ * Parsed plan of a query filter input. Plans are immutable and are cached by
+ * the processor, so equivalent inputs are only parsed once.
+ * <p>
+ * Plans are built and cached in canonical order. Sort parts keep the input
+ * order and value parts are ordered by field name, keeping the input order of
+ * the parts of the same field. The value parts are returned in the input order
+ * of each filter, so the evaluation order does not depend on the canonical
+ * order.
+ */
+class QFFilterPlan {
+
+	private static final Pattern SORT_PATTERN = Pattern.compile("([+-])([a-zA-Z0-9]+)");
+
+	private static final Comparator<QFParamPart> CANONICAL_ORDER = Comparator
+			.comparing((QFParamPart part) -> !part.sort())
+			.thenComparing(part -> part.sort() ? "" : part.field());
+
+	static final QFFilterPlan EMPTY = new QFFilterPlan(Collections.emptyList(), Collections.emptyList());
+
+	private final List<QFSpecificationPart> parts;
+
+	private final List<Pair<IDefinitionSortable, Direction>> sorts;
+
+	private QFFilterPlan(List<QFSpecificationPart> parts, List<Pair<IDefinitionSortable, Direction>> sorts) {
+		this.parts = parts;
+		this.sorts = sorts;
+	}
+
+	/**
+	 * Sort the parts in canonical order
+	 *
+	 * @param parts parts in input order
+	 * @return unmodifiable list of parts in canonical order
+	 */
+	static List<QFParamPart> canonicalize(List<QFParamPart> parts) {
+		List<QFParamPart> ret = new ArrayList<>(parts);
+		ret.sort(CANONICAL_ORDER);
+		return Collections.unmodifiableList(ret);
+	}
+
+	/**
+	 * Build a new plan
+	 *
+	 * @param parts         parts in canonical order
+	 * @param input         original input
+	 * @param definitionMap definitions of the filter class
+	 * @return new plan
+	 */
+	static QFFilterPlan build(List<QFParamPart> parts, String input, Map<String, QFAbstractDefinition> definitionMap) {
+
+		List<QFSpecificationPart> specParts = new ArrayList<>(parts.size());
+		List<Pair<IDefinitionSortable, Direction>> sorts = new ArrayList<>();
+
+		for (var part : parts) {
+			if (part.sort()) {
+				parseSortPart(part.value(), input, definitionMap, sorts);
+			} else {
+				specParts.add(parseValuePart(part.field(), part.operation(), part.value(), definitionMap));
+			}
+		}
+
+		return new QFFilterPlan(Collections.unmodifiableList(specParts), Collections.unmodifiableList(sorts));
+	}
+
+	private static QFSpecificationPart parseValuePart(String field, String op, String value,
+			Map<String, QFAbstractDefinition> definitionMap) {
+
+		QFAbstractDefinition def = definitionMap.get(field);
+		if (def == null) {
+			throw new QFFieldNotFoundException(field);
+		}
+
+		if (def.isConstructorBlocked()) {
+			throw new QFBlockException(field);
+		}
+
+		if (def instanceof QFDefinitionElement qdef) {
+			var operation = op == null ? QFOperationEnum.EQUAL : QFOperationEnum.fromValue(op);
+			return new QFElementMatch(Arrays.asList(value.split(",")), operation, qdef);
+		} else if (def instanceof QFDefinitionText qdef) {
+			var operation = op == null ? QFOperationTextEnum.EQUAL : QFOperationTextEnum.fromValue(op);
+			return new QFTextMatch(value, operation, qdef);
+		}
+
+		throw new QFNotValuable(field);
+
+	}
+
+	private static void parseSortPart(String values, String input, Map<String, QFAbstractDefinition> definitionMap,
+			List<Pair<IDefinitionSortable, Direction>> sorts) {
+
+		Matcher matcher = SORT_PATTERN.matcher(values);
+		boolean match = false;
+		while (matcher.find()) {
+			match = true;
+
+			String order = matcher.group(1);
+			String fieldName = matcher.group(2);
+
+			QFAbstractDefinition def = definitionMap.get(fieldName);
+			if (def == null) {
+				throw new QFFieldNotFoundException(fieldName);
+			}
+
+			if (!(def instanceof IDefinitionSortable)) {
+				throw new QFNotSortableException(fieldName);
+			}
+
+			if (sorts.stream().anyMatch(e -> e.getFirst().getFilterName().equals(fieldName))) {
+				throw new QFMultipleSortException(fieldName);
+			}
+
+			Sort.Direction dir = order.equals("+") ? Sort.Direction.ASC : Sort.Direction.DESC;
+			sorts.add(Pair.of((IDefinitionSortable) def, dir));
+
+		}
+
+		if (!match) {
+			throw new QFParseException(values, input);
+		}
+
+	}
+
+	/**
+	 * Get the value parts of the plan in canonical order
+	 *
+	 * @return value parts
+	 */
+	List<QFSpecificationPart> getParts() {
+		return parts;
+	}
+
+	/**
+	 * Get the value parts of the plan in the input order of a filter
+	 *
+	 * @param input parts of the filter in input order
+	 * @return value parts
+	 */
+	List<QFSpecificationPart> getParts(List<QFParamPart> input) {
+		List<QFParamPart> values = input.stream().filter(part -> !part.sort()).toList();
+		if (values.size() != parts.size()) {
+			throw new IllegalArgumentException("The input does not match the parts of the plan");
+		}
+
+		// Same stable order of the canonical value parts
+		int[] canonical = IntStream.range(0, values.size()).boxed()
+				.sorted(Comparator.comparing(i -> values.get(i).field())).mapToInt(Integer::intValue).toArray();
+
+		QFSpecificationPart[] ret = new QFSpecificationPart[canonical.length];
+		for (int i = 0; i < canonical.length; i++) {
+			ret[canonical[i]] = parts.get(i);
+		}
+		return Arrays.asList(ret);
+	}
+
+	/**
+	 * Get the sort definitions of the plan
+	 *
+	 * @return sort definitions
+	 */
+	List<Pair<IDefinitionSortable, Direction>> getSorts() {
+		return sorts;
+	}
+
+	/**
+	 * Key of cached plans
+	 *
+	 * @param type  type of parameters
+	 * @param parts parts in canonical order
+	 */
+	record Key(QFParamType type, List<QFParamPart> parts) {
+	}
+
+}
@@ -0,0 +1,340 @@
+package io.github.acoboh.query.filter.mongodb.processor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.util.MultiValueMap;
+
+import io.github.acoboh.query.filter.mongodb.metrics.QFMetrics;
+import io.github.acoboh.query.filter.mongodb.predicate.PredicateOperation;
+import io.github.acoboh.query.filter.mongodb.processor.definitions.QFDefinitionElement;
+import io.github.acoboh.query.filter.mongodb.processor.match.QFElementMatch;
+import io.github.acoboh.query.filter.mongodb.processor.match.QFTextMatch;
+import io.github.acoboh.query.filter.mongodb.spel.SpelResolverContext;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Prepared shape of a query filter. The shape is made of the fields and
+ * operations of the evaluated parts, and it is compiled once into a skeleton of
+ * the final criteria with one value slot for each path of each part.
+ * <p>
+ * Filters with the same shape only have to evaluate the values of the parts and
+ * bind them on the slots. The bound criteria is the same one that the parts
+ * generate with {@link QFSpecificationPart#processPart}.
+ * <p>
+ * Shapes are compiled and bound in canonical order, sorted by field name, so
+ * filters with the same parts in a different order share the same shape. The
+ * parts are still evaluated in their own order.
+ */
+class QFFilterShape {
+
+	private static final String AND_OPERATOR = "$and";
+	private static final String OR_OPERATOR = "$or";
+
+	private static final Comparator<Slot> CANONICAL_ORDER = Comparator.comparing(Slot::field);
+
+	private static final QFFilterShape EMPTY = new QFFilterShape(null);
+
+	private final Node root;
+
+	private QFFilterShape(Node root) {
+		this.root = root;
+	}
+
+	/**
+	 * Evaluate the values of the parts. Parts with SpEL expressions are resolved
+	 * and parts with ignored blank values are discarded
+	 *
+	 * @param parts        parts sorted by order of evaluation
+	 * @param mlmap        context of SpEL
+	 * @param spelResolver SpEL resolver
+	 * @param request      HTTP request
+	 * @param response     HTTP response
+	 * @param metrics      metrics of the parts
+	 * @return evaluated parts and values
+	 */
+	static BoundParts evaluate(List<QFSpecificationPart> parts, MultiValueMap<String, Object> mlmap,
+			SpelResolverContext spelResolver, HttpServletRequest request, HttpServletResponse response,
+			QFMetrics metrics) {
+
+		List<QFSpecificationPart> evaluated = new ArrayList<>(parts.size());
+		List<Object[]> values = new ArrayList<>(parts.size());
+
+		for (var part : parts) {
+			if (part instanceof QFElementMatch match) {
+				long start = metrics.start();
+				match.initialize(spelResolver, mlmap, request, response);
+				if (!match.needToEvaluate()) {
+					continue;
+				}
+
+				Object[] pathValues = new Object[match.getDefinition().getPaths().size()];
+				for (int i = 0; i < pathValues.length; i++) {
+					pathValues[i] = match.getOperation().generateDocument(match, i, mlmap);
+				}
+				values.add(pathValues);
+				metrics.recordPart(match.getOperation().getValue(), start);
+
+			} else if (part instanceof QFTextMatch match) {
+				values.add(new Object[] { match.getOperation().generateCriteriaFilter(match, mlmap) });
+			} else {
+				throw new IllegalStateException("Unsupported specification part " + part.getClass());
+			}
+
+			evaluated.add(part);
+		}
+
+		return new BoundParts(evaluated, values);
+	}
+
+	/**
+	 * Compile the shape of the parts
+	 *
+	 * @param parts evaluated parts in canonical order
+	 * @return new shape
+	 */
+	static QFFilterShape compile(List<QFSpecificationPart> parts) {
+
+		if (parts.isEmpty()) {
+			return EMPTY;
+		}
+
+		Map<String, List<Node>> nodeMap = new HashMap<>();
+
+		for (int i = 0; i < parts.size(); i++) {
+			var part = parts.get(i);
+
+			Node node;
+			if (part instanceof QFElementMatch match) {
+				node = elementNode(i, match.getDefinition());
+			} else {
+				node = new Leaf(i, 0, null);
+			}
+
+			nodeMap.computeIfAbsent(part.getDefinition().getFilterName(), t -> new ArrayList<>()).add(node);
+		}
+
+		// Same grouping of the final criteria of the query filter
+		Map<String, Node> groups = nodeMap.entrySet().stream().collect(Collectors.toMap(Entry::getKey, e -> {
+			if (e.getValue().size() == 1) {
+				return e.getValue().get(0);
+			} else {
+				return new Operator(AND_OPERATOR, List.copyOf(e.getValue()));
+			}
+		}));
+
+		if (groups.size() == 1) {
+			return new QFFilterShape(groups.values().iterator().next());
+		}
+
+		return new QFFilterShape(new Operator(AND_OPERATOR, List.copyOf(groups.values())));
+	}
+
+	private static Node elementNode(int slot, QFDefinitionElement definition) {
+		int size = definition.getPaths().size();
+		if (size == 1) {
+			return new Leaf(slot, 0, definition.getPathMappingName(0));
+		}
+
+		List<Node> leaves = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			leaves.add(new Leaf(slot, i, definition.getPathMappingName(i)));
+		}
+
+		String operator = definition.getPredicateOperation() == PredicateOperation.OR ? OR_OPERATOR : AND_OPERATOR;
+		return new Operator(operator, List.copyOf(leaves));
+	}
+
+	/**
+	 * Bind the values on the slots of the shape
+	 *
+	 * @param values documents of the evaluated parts
+	 * @return final criteria
+	 */
+	Criteria bind(List<Object[]> values) {
+		if (root == null) {
+			return new Criteria();
+		}
+		return root.toCriteria(values);
+	}
+
+	/**
+	 * Shape key of the evaluated parts. The key is always in canonical order
+	 *
+	 * @param parts evaluated parts
+	 * @return shape key
+	 */
+	static Key keyOf(List<QFSpecificationPart> parts) {
+		List<Slot> slots = new ArrayList<>(parts.size());
+		for (var part : parts) {
+			String field = part.getDefinition().getFilterName();
+			if (part instanceof QFElementMatch match) {
+				slots.add(new Slot(field, match.getOperation().getValue()));
+			} else if (part instanceof QFTextMatch match) {
+				slots.add(new Slot(field, match.getOperation().getValue()));
+			} else {
+				throw new IllegalStateException("Unsupported specification part " + part.getClass());
+			}
+		}
+		slots.sort(CANONICAL_ORDER);
+		return new Key(slots);
+	}
+
+	/**
+	 * Get the canonical order of the parts, sorted by field name and keeping the
+	 * order of the parts of the same field
+	 *
+	 * @param parts parts
+	 * @return indexes of the parts in canonical order
+	 */
+	private static int[] canonicalOrder(List<QFSpecificationPart> parts) {
+		return IntStream.range(0, parts.size()).boxed()
+				.sorted(Comparator.comparing(i -> parts.get(i).getDefinition().getFilterName()))
+				.mapToInt(Integer::intValue).toArray();
+	}
+
+	private static <T> List<T> reorder(List<T> list, int[] order) {
+		List<T> ret = new ArrayList<>(order.length);
+		for (int index : order) {
+			ret.add(list.get(index));
+		}
+		return Collections.unmodifiableList(ret);
+	}
+
+	/**
+	 * Key of cached shapes
+	 *
+	 * @param slots field and operation of each part
+	 */
+	record Key(List<Slot> slots) {
+
+		/**
+		 * Get the description of the shape, like <code>title:eq&amp;likes:gt</code>
+		 *
+		 * @return description of the shape
+		 */
+		@Override
+		public String toString() {
+			if (slots.isEmpty()) {
+				return "*";
+			}
+			return slots.stream().map(Slot::toString).collect(Collectors.joining("&"));
+		}
+
+	}
+
+	/**
+	 * Field and operation of a part
+	 *
+	 * @param field     filter name
+	 * @param operation value of the operation of the part
+	 */
+	record Slot(String field, String operation) {
+
+		@Override
+		public String toString() {
+			return field + ":" + operation;
+		}
+
+	}
+
+	/**
+	 * Evaluated parts and their values
+	 *
+	 * @param parts  evaluated parts
+	 * @param values documents of each path of the parts
+	 */
+	record BoundParts(List<QFSpecificationPart> parts, List<Object[]> values) {
+
+		/**
+		 * Get the parts and values in the canonical order of the shapes
+		 *
+		 * @return parts and values in canonical order
+		 */
+		BoundParts canonical() {
+			int[] order = canonicalOrder(parts);
+			return new BoundParts(reorder(parts, order), reorder(values, order));
+		}
+
+	}
+
+	private sealed interface Node permits Leaf, Operator {
+
+		Criteria toCriteria(List<Object[]> values);
+
+		Document toDocument(List<Object[]> values);
+
+	}
+
+	/**
+	 * Slot of a path. The slot holds the document of the path criteria. Text parts
+	 * have no key and their slot holds the criteria
+	 */
+	private record Leaf(int slot, int index, String key) implements Node {
+
+		@Override
+		public Criteria toCriteria(List<Object[]> values) {
+			Object value = values.get(slot)[index];
+			if (key == null) {
+				return (Criteria) value;
+			}
+			return Criteria.where(key).is(((Document) value).get(key));
+		}
+
+		@Override
+		public Document toDocument(List<Object[]> values) {
+			Object value = values.get(slot)[index];
+			if (key == null) {
+				return ((Criteria) value).getCriteriaObject();
+			}
+			return (Document) value;
+		}
+
+	}
+
+	private record Operator(String operator, List<Node> children) implements Node {
+
+		@Override
+		public Criteria toCriteria(List<Object[]> values) {
+			Criteria[] criteria = new Criteria[children.size()];
+			for (int i = 0; i < criteria.length; i++) {
+				var child = children.get(i);
+				if (child instanceof Operator op) {
+					criteria[i] = Criteria.where(op.operator).is(op.toDocuments(values));
+				} else {
+					criteria[i] = child.toCriteria(values);
+				}
+			}
+
+			if (OR_OPERATOR.equals(operator)) {
+				return new Criteria().orOperator(criteria);
+			}
+			return new Criteria().andOperator(criteria);
+		}
+
+		@Override
+		public Document toDocument(List<Object[]> values) {
+			return new Document(operator, toDocuments(values));
+		}
+
+		private List<Document> toDocuments(List<Object[]> values) {
+			List<Document> documents = new ArrayList<>(children.size());
+			for (var child : children) {
+				documents.add(child.toDocument(values));
+			}
+			return documents;
+		}
+
+	}
+
+}
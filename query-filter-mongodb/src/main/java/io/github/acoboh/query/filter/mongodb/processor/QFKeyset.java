@@ -0,0 +1,252 @@
+package io.github.acoboh.query.filter.mongodb.processor;
+
+import javax.annotation.Nullable;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.bson.BsonBinaryReader;
+import org.bson.BsonSerializationException;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.bson.types.Binary;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.domain.Sort.Order;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import io.github.acoboh.query.filter.mongodb.exceptions.QFInvalidTokenException;
+
+/**
+ * Keyset pagination of a query filter.
+ * <p>
+ * The sort of the filter is completed with <code>_id</code> to get a unique
+ * order. The token of the next page holds the sort values of the last result of
+ * the page, and it is translated into a range predicate that only matches the
+ * documents after it on the sort order. The token also holds the sort, so
+ * tokens of a different sort are rejected.
+ * <p>
+ * Missing values are sorted like <code>null</code> values, before any other
+ * value. Sort fields must hold single scalar values, not arrays, documents or
+ * other BSON types like regular expressions. Tokens with any other value are
+ * rejected, because the values are used on equality predicates.
+ */
+final class QFKeyset {
+
+	private static final String ID = "_id";
+
+	private static final String SORT_KEY = "s";
+	private static final String VALUES_KEY = "v";
+
+	private static final DocumentCodec CODEC = new DocumentCodec();
+
+	private final List<Order> orders;
+
+	private final String sortSignature;
+
+	private QFKeyset(List<Order> orders) {
+		this.orders = orders;
+		this.sortSignature = orders.stream()
+				.map(e -> e.getProperty() + ":" + (e.getDirection() == Direction.ASC ? 1 : -1))
+				.collect(Collectors.joining(","));
+	}
+
+	/**
+	 * Create the keyset of the sort of a query filter
+	 *
+	 * @param orders sort of the query filter
+	 * @return new keyset
+	 */
+	static QFKeyset of(List<Order> orders) {
+		List<Order> ret = new ArrayList<>(orders.size() + 1);
+		for (var order : orders) {
+			ret.add(order);
+			if (ID.equals(order.getProperty())) {
+				// Following orders are never used
+				return new QFKeyset(ret);
+			}
+		}
+		ret.add(Order.asc(ID));
+		return new QFKeyset(ret);
+	}
+
+	/**
+	 * Get the sort of the keyset, with the <code>_id</code> tie-breaker
+	 *
+	 * @return sort
+	 */
+	Sort getSort() {
+		return Sort.by(orders);
+	}
+
+	/**
+	 * Get the paths of the sort
+	 *
+	 * @return paths of the sort
+	 */
+	List<String> getPaths() {
+		return orders.stream().map(Order::getProperty).toList();
+	}
+
+	/**
+	 * Translate a token into the range predicate of the documents after it
+	 *
+	 * @param token token of the previous page, or null for the first page
+	 * @return range predicate, or null if there is no token
+	 * @throws QFInvalidTokenException if the token is not valid for this keyset
+	 */
+	@Nullable
+	Criteria toCriteria(@Nullable String token) {
+		if (token == null || token.isEmpty()) {
+			return null;
+		}
+
+		List<?> values = decode(token);
+
+		List<Criteria> branches = new ArrayList<>(orders.size());
+		for (int i = 0; i < orders.size(); i++) {
+			var order = orders.get(i);
+			var after = after(order, values.get(i));
+			if (after == null) {
+				continue;
+			}
+
+			if (i == 0) {
+				branches.add(after);
+				continue;
+			}
+
+			Criteria[] parts = new Criteria[i + 1];
+			for (int j = 0; j < i; j++) {
+				parts[j] = Criteria.where(orders.get(j).getProperty()).is(values.get(j));
+			}
+			parts[i] = after;
+			branches.add(new Criteria().andOperator(parts));
+		}
+
+		if (branches.size() == 1) {
+			return branches.get(0);
+		}
+		return new Criteria().orOperator(branches);
+	}
+
+	@Nullable
+	private static Criteria after(Order order, @Nullable Object value) {
+		var criteria = Criteria.where(order.getProperty());
+		if (order.isAscending()) {
+			return value == null ? criteria.ne(null) : criteria.gt(value);
+		}
+
+		if (value == null) {
+			// Nothing is sorted after null values on descending order
+			return null;
+		}
+		return new Criteria().orOperator(criteria.lt(value), Criteria.where(order.getProperty()).is(null));
+	}
+
+	/**
+	 * Create the page of the results. The results must be queried with one more
+	 * element than the page size to know if there is a next page
+	 *
+	 * @param <R>     type of the query results
+	 * @param <T>     type of the page content
+	 * @param results results of the query
+	 * @param size    size of the page
+	 * @param keys    function to get the sort values of a result
+	 * @param mapper  function to map a result to the page content
+	 * @return page of results
+	 */
+	<R, T> QFKeysetPage<T> page(List<R> results, int size, Function<R, List<?>> keys, Function<R, T> mapper) {
+		if (results.size() <= size) {
+			return new QFKeysetPage<>(results.stream().map(mapper).toList(), null);
+		}
+
+		var content = results.subList(0, size);
+		var token = tokenOf(keys.apply(content.get(size - 1)));
+		return new QFKeysetPage<>(content.stream().map(mapper).toList(), token);
+	}
+
+	/**
+	 * Get the sort values of a stored document
+	 *
+	 * @param stored stored document
+	 * @return sort values
+	 */
+	List<Object> valuesOf(Document stored) {
+		List<Object> values = new ArrayList<>(orders.size());
+		for (var order : orders) {
+			values.add(valueOf(stored, order.getProperty()));
+		}
+		return values;
+	}
+
+	/**
+	 * Create the token of the next page
+	 *
+	 * @param values sort values of the last result of the page
+	 * @return token
+	 */
+	String tokenOf(List<?> values) {
+		for (int i = 0; i < values.size(); i++) {
+			if (!isScalar(values.get(i))) {
+				throw new IllegalStateException("Keyset pagination requires single scalar value sort fields. Field "
+						+ orders.get(i).getProperty());
+			}
+		}
+
+		var document = new Document(SORT_KEY, sortSignature).append(VALUES_KEY, values);
+		var buffer = new RawBsonDocument(document, CODEC).getByteBuffer();
+		byte[] bytes = new byte[buffer.remaining()];
+		buffer.get(bytes);
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+	}
+
+	private List<?> decode(String token) {
+		Document document;
+		try {
+			var bytes = Base64.getUrlDecoder().decode(token);
+			try (var reader = new BsonBinaryReader(ByteBuffer.wrap(bytes))) {
+				document = CODEC.decode(reader, DecoderContext.builder().build());
+			}
+		} catch (IllegalArgumentException | BsonSerializationException e) {
+			throw new QFInvalidTokenException(token, e);
+		}
+
+		if (!sortSignature.equals(document.get(SORT_KEY)) || !(document.get(VALUES_KEY) instanceof List<?> values)
+				|| values.size() != orders.size() || !values.stream().allMatch(QFKeyset::isScalar)) {
+			throw new QFInvalidTokenException(token, null);
+		}
+
+		return values;
+	}
+
+	// Values of the BSON types string, number, date, object id, boolean, null and binary or UUID
+	private static boolean isScalar(@Nullable Object value) {
+		return value == null || value instanceof String || value instanceof Number || value instanceof Boolean
+				|| value instanceof Date || value instanceof ObjectId || value instanceof UUID
+				|| value instanceof Binary;
+	}
+
+	private static Object valueOf(Document document, String path) {
+		Object value = document;
+		for (String key : path.split("\\.")) {
+			if (!(value instanceof Document current)) {
+				// Arrays on the path are rejected when the token is created
+				return value instanceof Collection<?> ? value : null;
+			}
+			value = current.get(key);
+		}
+		return value;
+	}
+
+}
@@ -0,0 +1,112 @@
+package io.github.acoboh.query.filter.mongodb.processor;
+
+import javax.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.bson.Document;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+/**
+ * Utilities to build the pages of the paged queries
+ */
+final class QFPages {
+
+	private QFPages() {
+	}
+
+	/**
+	 * Get if the query of a page must fetch one more result than the page size
+	 *
+	 * @param strategy count strategy
+	 * @param pageable page request
+	 * @return true if the query fetches one more result
+	 */
+	static boolean isSlice(QFCountStrategy strategy, Pageable pageable) {
+		return strategy == QFCountStrategy.SLICE && pageable.isPaged();
+	}
+
+	/**
+	 * Build the page of a query that fetched one more result than the page size.
+	 * The total elements only includes the next result, so the page only reports
+	 * if there is a next page
+	 *
+	 * @param <T>      type of the results
+	 * @param results  results of the query
+	 * @param pageable page request
+	 * @return page of results
+	 */
+	static <T> Page<T> slice(List<T> results, Pageable pageable) {
+		int size = pageable.getPageSize();
+		if (results.size() <= size) {
+			return new PageImpl<>(results, pageable, pageable.getOffset() + results.size());
+		}
+		return new PageImpl<>(results.subList(0, size), pageable, pageable.getOffset() + size + 1);
+	}
+
+	/**
+	 * Build the stages of a <code>$facet</code> aggregation with the results and
+	 * the count of a page.
+	 * <p>
+	 * The <code>$sort</code> stage is always before the <code>$facet</code> stage,
+	 * so an index of the sort can return the documents in order. The skip and
+	 * limit of the page are inside the facet, because the count needs all the
+	 * documents, so the server can not merge them with the sort into a top-k
+	 * sort. Without an index of the sort, all the matched documents are sorted in
+	 * memory
+	 *
+	 * @param criteria   criteria of the filter
+	 * @param sort       sort of the results
+	 * @param pageable   page request
+	 * @param projection projection of the results
+	 * @param data       facet field of the results
+	 * @param total      facet field of the count
+	 * @return stages of the aggregation
+	 */
+	static List<AggregationOperation> facetPipeline(Criteria criteria, Sort sort, Pageable pageable,
+			AggregationOperation projection, String data, String total) {
+		List<AggregationOperation> ret = new ArrayList<>(3);
+		ret.add(Aggregation.match(criteria));
+		if (sort.isSorted()) {
+			ret.add(Aggregation.sort(sort));
+		}
+		ret.add(Aggregation
+				.facet(Aggregation.skip(pageable.getOffset()), Aggregation.limit(pageable.getPageSize()), projection)
+				.as(data).and(Aggregation.count().as(total)).as(total));
+		return ret;
+	}
+
+	/**
+	 * Build the page of a <code>$facet</code> aggregation with the results and the
+	 * count of the page
+	 *
+	 * @param <T>      type of the results
+	 * @param result   result of the aggregation, or null if there is no result
+	 * @param pageable page request
+	 * @param data     facet field of the results
+	 * @param total    facet field of the count, with a count field of the same
+	 *                 name
+	 * @param mapper   function to read the results
+	 * @return page of results
+	 */
+	static <T> Page<T> facet(@Nullable Document result, Pageable pageable, String data, String total,
+			Function<Document, T> mapper) {
+		if (result == null) {
+			return new PageImpl<>(List.of(), pageable, 0);
+		}
+
+		var content = result.getList(data, Document.class, List.of()).stream().map(mapper).toList();
+		var counts = result.getList(total, Document.class, List.of());
+		long count = counts.isEmpty() ? 0 : counts.get(0).get(total, Number.class).longValue();
+		return new PageImpl<>(content, pageable, count);
+	}
+
+}
@@ -0,0 +1,35 @@
+package io.github.acoboh.query.filter.mongodb.processor;
+
+/**
+ * Raw part of a query filter input. It can be a sort part or a value part.
+ *
+ * @param sort      true if the part is a sort part
+ * @param field     filter name of the value part. Null on sort parts
+ * @param operation operation of the value part. Null if missing
+ * @param value     value of the part
+ */
+record QFParamPart(boolean sort, String field, String operation, String value) {
+
+	/**
+	 * Create a new sort part
+	 *
+	 * @param value sort value
+	 * @return new sort part
+	 */
+	static QFParamPart ofSort(String value) {
+		return new QFParamPart(true, null, null, value);
+	}
+
+	/**
+	 * Create a new value part
+	 *
+	 * @param field     filter name
+	 * @param operation operation. Can be null
+	 * @param value     value
+	 * @return new value part
+	 */
+	static QFParamPart ofValue(String field, String operation, String value) {
+		return new QFParamPart(false, field, operation, value);
+	}
+
+}
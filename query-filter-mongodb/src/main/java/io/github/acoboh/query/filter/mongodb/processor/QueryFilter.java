@@ -5,15 +5,16 @@ import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.bson.Document;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
@@ -24,6 +25,7 @@ import org.springframework.data.domain.Sort.Order;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.aggregation.Aggregation;
 import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
 import org.springframework.data.mongodb.core.aggregation.ProjectionOperation;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
@@ -35,15 +37,13 @@ import org.springframework.util.MultiValueMap;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
-import io.github.acoboh.query.filter.mongodb.exceptions.QFBlockException;
-import io.github.acoboh.query.filter.mongodb.exceptions.QFDiscriminatorNotFoundException;
+import io.github.acoboh.query.filter.mongodb.count.QFCountExecutor;
 import io.github.acoboh.query.filter.mongodb.exceptions.QFFieldNotFoundException;
-import io.github.acoboh.query.filter.mongodb.exceptions.QFJsonParseException;
+import io.github.acoboh.query.filter.mongodb.exceptions.QFInvalidTokenException;
 import io.github.acoboh.query.filter.mongodb.exceptions.QFMultipleSortException;
 import io.github.acoboh.query.filter.mongodb.exceptions.QFNotSortableException;
 import io.github.acoboh.query.filter.mongodb.exceptions.QFNotValuable;
-import io.github.acoboh.query.filter.mongodb.exceptions.QFOperationNotFoundException;
-import io.github.acoboh.query.filter.mongodb.exceptions.QFParseException;
+import io.github.acoboh.query.filter.mongodb.metrics.QFMetrics;
 import io.github.acoboh.query.filter.mongodb.operations.QFOperationEnum;
 import io.github.acoboh.query.filter.mongodb.operations.QFOperationTextEnum;
 import io.github.acoboh.query.filter.mongodb.processor.definitions.IDefinitionSortable;
@@ -73,9 +73,13 @@ public class QueryFilter<E> {
 	private static final String OPERATION_NOT_NULL_MESSAGE = "operation cannot be null";
 	private static final String VALUES_NOT_NULL_MESSAGE = "values cannot be null";
 
-	private static final Pattern REGEX_PATTERN = Pattern.compile("([+-])([a-zA-Z0-9]+)");
 	public static final String LOG_FINAL_PIPELINE = "Final generated aggregate pipeline: '{}'";
 
+	private static final String KEYSET_FIELD = "_qfKeyset";
+
+	private static final String FACET_DATA = "data";
+	private static final String FACET_TOTAL = "total";
+
 	private final String initialInput;
 
 	private final QFSpecificationsWrap specificationsWarp;
@@ -86,14 +90,20 @@ public class QueryFilter<E> {
 
 	private boolean defaultSortEnabled = true;
 
+	private QFCountStrategy countStrategy;
+	private int countLimit;
+
 	private final Class<E> entityClass;
 	private final Class<?> predicateClass;
 	private final SpelResolverContext spelResolver;
 	private final List<Pair<IDefinitionSortable, Direction>> sortDefinitionList = new ArrayList<>();
-	private boolean isConstructor = true;
 
 	private final MongoTemplate mongoTemplate;
 
+	private final QFProcessor<?, E> processor;
+
+	private final QFMetrics metrics;
+
 	private final Map<Class<?>, ProjectionDefinition> mapProjections;
 
 	private HttpServletRequest request;
@@ -109,119 +119,56 @@ public class QueryFilter<E> {
 	protected QueryFilter(String input, QFParamType type, QFProcessor<?, E> processor) {
 		Assert.notNull(type, "type cannot be null");
 
-		this.definitionMap = processor.getDefinitionMap();
-		this.mapProjections = processor.getMapProjections();
-
-		this.specificationsWarp = new QFSpecificationsWrap(processor.getDefaultMatches());
-
-		this.defaultSorting = processor.getDefaultSorting();
-		this.entityClass = processor.getEntityClass();
-		this.predicateClass = processor.getFilterClass();
-		this.spelResolver = processor.getApplicationContext().getBean(SpelResolverContext.class);
-
-		this.mongoTemplate = processor.getApplicationContext().getBean(MongoTemplate.class);
+		this.processor = processor;
+		this.metrics = processor.getMetrics();
 
+		long start = metrics.start();
 		try {
-			ServletRequestAttributes sra = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
-			if (sra != null) {
-				this.request = sra.getRequest();
-				this.response = sra.getResponse();
-			}
-		} catch (Exception e) {
-			LOGGER.warn("Error getting request and response from RequestContextHolder");
-		}
-
-		this.initialInput = input != null ? input : "";
-
-		if (input != null && !input.isEmpty()) {
-
-			var matcher = type.getPattern().matcher(input);
-			while (matcher.find()) {
-				if (LOGGER.isTraceEnabled()) {
-					LOGGER.trace("Found match: {}", matcher.group());
+			this.definitionMap = processor.getDefinitionMap();
+			this.mapProjections = processor.getMapProjections();
+
+			this.specificationsWarp = new QFSpecificationsWrap(
+					processor.getDefaultMatches().stream().map(QFElementMatch::copyForRequest).toList());
+
+			this.defaultSorting = processor.getDefaultSorting();
+			this.countStrategy = processor.getDefinitionClassAnnotation().countStrategy();
+			this.countLimit = processor.getDefinitionClassAnnotation().countLimit();
+			this.entityClass = processor.getEntityClass();
+			this.predicateClass = processor.getFilterClass();
+			this.spelResolver = metrics.timed(processor.getApplicationContext().getBean(SpelResolverContext.class));
+
+			this.mongoTemplate = processor.getApplicationContext().getBean(MongoTemplate.class);
+
+			try {
+				ServletRequestAttributes sra = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
+				if (sra != null) {
+					this.request = sra.getRequest();
+					this.response = sra.getResponse();
 				}
-
-				if (matcher.group(1) != null) {
-					parseSortPart(matcher.group(2));
-				} else if (matcher.group(3) != null) {
-					parseValuePart(matcher.group(4), matcher.group(5), matcher.group(6));
-				} else {
-					throw new QFParseException(matcher.group(), input);
-				}
-
-			}
-		}
-
-		isConstructor = false;
-
-	}
-
-	private void parseValuePart(String field, String op, String value)
-			throws QFParseException, QFFieldNotFoundException, QFOperationNotFoundException,
-			QFDiscriminatorNotFoundException, QFBlockException, QFJsonParseException, QFNotValuable {
-
-		QFAbstractDefinition def = definitionMap.get(field);
-		if (def == null) {
-			throw new QFFieldNotFoundException(field);
-		}
-
-		if (def.isConstructorBlocked() && isConstructor) {
-			throw new QFBlockException(field);
-		}
-
-		QFSpecificationPart qfSpecificationPart;
-		if (def instanceof QFDefinitionElement qdef) {
-			var operation = op == null ? QFOperationEnum.EQUAL : QFOperationEnum.fromValue(op);
-			qfSpecificationPart = new QFElementMatch(Arrays.asList(value.split(",")), operation, qdef);
-		} else if (def instanceof QFDefinitionText qdef) {
-			var operation = op == null ? QFOperationTextEnum.EQUAL : QFOperationTextEnum.fromValue(op);
-			qfSpecificationPart = new QFTextMatch(value, operation, qdef);
-		} else {
-			throw new QFNotValuable(field);
-		}
-
-		specificationsWarp.addSpecification(qfSpecificationPart);
-
-	}
-
-	private void parseSortPart(String values)
-			throws QFParseException, QFNotSortableException, QFMultipleSortException, QFFieldNotFoundException {
-
-		Matcher matcher = REGEX_PATTERN.matcher(values);
-		boolean match = false;
-		while (matcher.find()) {
-			match = true;
-
-			String order = matcher.group(1);
-			String fieldName = matcher.group(2);
-
-			QFAbstractDefinition def = definitionMap.get(fieldName);
-			if (def == null) {
-				throw new QFFieldNotFoundException(fieldName);
+			} catch (Exception e) {
+				LOGGER.warn("Error getting request and response from RequestContextHolder");
 			}
 
-			if (!(def instanceof IDefinitionSortable)) {
-				throw new QFNotSortableException(fieldName);
-			}
+			this.initialInput = input != null ? input : "";
 
-			if (this.sortDefinitionList.stream().anyMatch(e -> e.getFirst().getFilterName().equals(fieldName))) {
-				throw new QFMultipleSortException(fieldName);
+			// Parts are evaluated in input order, not in the canonical order of the plan
+			var tokens = initialInput.isEmpty() ? List.<QFParamPart>of()
+					: QFParamTokenizer.tokenize(initialInput, type);
+			var plan = processor.getFilterPlan(tokens, initialInput, type);
+			for (var part : plan.getParts(tokens)) {
+				specificationsWarp.addSpecification(
+						part instanceof QFElementMatch elementMatch ? elementMatch.copyForRequest() : part);
 			}
 
-			Sort.Direction dir;
-			if (order.equals("+")) {
-				dir = Sort.Direction.ASC;
-			} else {
-				dir = Sort.Direction.DESC;
+			if (!plan.getSorts().isEmpty()) {
+				this.sortDefinitionList.addAll(plan.getSorts());
+				this.defaultSortEnabled = false;
 			}
-
-			Pair<IDefinitionSortable, Sort.Direction> pair = Pair.of((IDefinitionSortable) def, dir);
-			this.sortDefinitionList.add(pair);
-			this.defaultSortEnabled = false;
-
-		}
-		if (!match) {
-			throw new QFParseException(values, initialInput);
+		} catch (RuntimeException e) {
+			metrics.error(QFMetrics.PARSE, e);
+			throw e;
+		} finally {
+			metrics.record(QFMetrics.PARSE, start);
 		}
 
 	}
@@ -388,6 +335,48 @@ public class QueryFilter<E> {
 		return specificationsWarp.getAllParts().stream().anyMatch(e -> e.getDefinition().getFilterName().equals(field));
 	}
 
+	/**
+	 * Get the strategy to get the total elements of the paged queries
+	 *
+	 * @return count strategy
+	 */
+	public QFCountStrategy getCountStrategy() {
+		return countStrategy;
+	}
+
+	/**
+	 * Set the strategy to get the total elements of the paged queries. By default,
+	 * the strategy of the definition class is used
+	 *
+	 * @param countStrategy count strategy
+	 */
+	public void setCountStrategy(QFCountStrategy countStrategy) {
+		Assert.notNull(countStrategy, "countStrategy cannot be null");
+		this.countStrategy = countStrategy;
+	}
+
+	/**
+	 * Get the max number of documents counted with the
+	 * {@link QFCountStrategy#CAPPED} strategy
+	 *
+	 * @return count limit
+	 */
+	public int getCountLimit() {
+		return countLimit;
+	}
+
+	/**
+	 * Set the max number of documents counted with the
+	 * {@link QFCountStrategy#CAPPED} strategy. By default, the limit of the
+	 * definition class is used
+	 *
+	 * @param countLimit count limit
+	 */
+	public void setCountLimit(int countLimit) {
+		Assert.isTrue(countLimit > 0, "countLimit must be greater than zero");
+		this.countLimit = countLimit;
+	}
+
 	/**
 	 * Check if any of the fields is are currently used for filtering
 	 *
@@ -509,18 +498,26 @@ public class QueryFilter<E> {
 	 * @return a criteria query
 	 */
 	public Criteria toCriteria() {
-		Map<String, List<Criteria>> criteriaMap = new HashMap<>();
-
 		var sortedParts = specificationsWarp.getAllPartsSorted();
 
 		MultiValueMap<String, Object> mlmap = new LinkedMultiValueMap<>(sortedParts.size());
 
-		for (var part : sortedParts) {
-			part.processPart(criteriaMap, mlmap, spelResolver, request, response);
+		long start = metrics.start();
+		Criteria finalCriteria;
+		try {
+			// SpEL context is shared by all the parts
+			var requestResolver = spelResolver.forRequest(request, response);
+			var bound = QFFilterShape.evaluate(sortedParts, mlmap, requestResolver, request, response, metrics)
+					.canonical();
+			finalCriteria = QFCriteriaNormalizer
+					.normalize(processor.getFilterShape(bound.parts()).bind(bound.values()));
+		} catch (RuntimeException e) {
+			metrics.error(QFMetrics.CRITERIA, e);
+			throw e;
+		} finally {
+			metrics.record(QFMetrics.CRITERIA, start);
 		}
 
-		Criteria finalCriteria = parseFinalCriteria(criteriaMap);
-
 		if (LOGGER.isTraceEnabled()) {
 			LOGGER.trace("Final criteria {}", finalCriteria.getCriteriaObject().toBsonDocument());
 		}
@@ -551,7 +548,7 @@ public class QueryFilter<E> {
 			LOGGER.trace("Final criteria {}", finalCriteria.getCriteriaObject().toBsonDocument());
 		}
 
-		Query query = new Query().addCriteria(finalCriteria);
+		Query query = newQuery(finalCriteria);
 
 		if (withSorts) {
 			query = processSort(query);
@@ -601,8 +598,9 @@ public class QueryFilter<E> {
 	 */
 	public List<E> executeFindQuery() {
 		var query = toCriteriaQuery(true);
+		sampleExplain(query);
 
-		return mongoTemplate.find(query, entityClass);
+		return execute(QFMetrics.FIND, () -> mongoTemplate.find(query, entityClass));
 	}
 
 	/**
@@ -614,7 +612,106 @@ public class QueryFilter<E> {
 	public List<E> executeFindQuery(int limit) {
 		var query = toCriteriaQuery(true);
 		query.limit(limit);
-		return mongoTemplate.find(query, entityClass);
+		sampleExplain(query);
+		return execute(QFMetrics.FIND, () -> mongoTemplate.find(query, entityClass));
+	}
+
+	/**
+	 * Execute a find query based on the parsed filter parameters reading the
+	 * results from the cursor as they are consumed.
+	 * <p>
+	 * The stream holds an open cursor and must be closed, for example with a
+	 * try-with-resources block. The query metrics are recorded when the stream is
+	 * closed, so they include the consumption of the results
+	 * 
+	 * @return a stream of entities
+	 */
+	public Stream<E> executeStream() {
+		return executeStream(0);
+	}
+
+	/**
+	 * Execute a find query based on the parsed filter parameters reading the
+	 * results from the cursor as they are consumed.
+	 * <p>
+	 * The stream holds an open cursor and must be closed, for example with a
+	 * try-with-resources block. The query metrics are recorded when the stream is
+	 * closed, so they include the consumption of the results
+	 * 
+	 * @param batchSize number of documents of each cursor batch. The server default
+	 *                  is used if zero
+	 * @return a stream of entities
+	 */
+	public Stream<E> executeStream(int batchSize) {
+		Assert.isTrue(batchSize >= 0, "batchSize cannot be negative");
+
+		var query = toCriteriaQuery(true);
+		if (batchSize > 0) {
+			query.cursorBatchSize(batchSize);
+		}
+		sampleExplain(query);
+
+		return executeStream(QFMetrics.FIND, () -> mongoTemplate.stream(query, entityClass));
+	}
+
+	/**
+	 * Execute a aggregate query based on the parsed filter parameters reading the
+	 * results from the cursor as they are consumed.
+	 * <p>
+	 * The stream holds an open cursor and must be closed, for example with a
+	 * try-with-resources block. The query metrics are recorded when the stream is
+	 * closed, so they include the consumption of the results
+	 * 
+	 * @param returnType the return type of the projection
+	 * @return a stream of projections
+	 */
+	public <T> Stream<T> executeAggregateAndStream(Class<T> returnType) {
+		return executeAggregateAndStream(returnType, 0);
+	}
+
+	/**
+	 * Execute a aggregate query based on the parsed filter parameters reading the
+	 * results from the cursor as they are consumed.
+	 * <p>
+	 * The stream holds an open cursor and must be closed, for example with a
+	 * try-with-resources block. The query metrics are recorded when the stream is
+	 * closed, so they include the consumption of the results
+	 * 
+	 * @param returnType the return type of the projection
+	 * @param batchSize  number of documents of each cursor batch. The server
+	 *                   default is used if zero
+	 * @return a stream of projections
+	 */
+	public <T> Stream<T> executeAggregateAndStream(Class<T> returnType, int batchSize) {
+		Assert.isTrue(batchSize >= 0, "batchSize cannot be negative");
+
+		var query = toCriteria();
+
+		List<AggregationOperation> aggs = new ArrayList<>(3);
+
+		aggs.add(Aggregation.match(query));
+
+		var orders = getOrders();
+		if (!orders.isEmpty()) {
+			aggs.add(Aggregation.sort(Sort.by(orders)));
+		}
+
+		aggs.add(getProjectionOfClass(returnType));
+
+		sampleExplain(new Query(query).with(Sort.by(orders)));
+
+		var options = aggregationOptions();
+		if (batchSize > 0) {
+			options.cursorBatchSize(batchSize);
+		}
+
+		var pipeline = Aggregation.newAggregation(aggs).withOptions(options.build());
+		if (LOGGER.isDebugEnabled()) {
+			LOGGER.debug(LOG_FINAL_PIPELINE, pipeline);
+		}
+
+		return executeStream(QFMetrics.AGGREGATE,
+				() -> mongoTemplate.aggregateStream(pipeline, entityClass, returnType));
 	}
 
 	/**
@@ -638,12 +735,15 @@ public class QueryFilter<E> {
 
 		aggs.add(getProjectionOfClass(returnType));
 
-		var pipeline = Aggregation.newAggregation(aggs);
+		sampleExplain(new Query(query).with(Sort.by(orders)));
+
+		var pipeline = newAggregation(aggs);
 		if (LOGGER.isDebugEnabled()) {
 			LOGGER.debug(LOG_FINAL_PIPELINE, pipeline);
 		}
 
-		return mongoTemplate.aggregate(pipeline, entityClass, returnType).getMappedResults();
+		return execute(QFMetrics.AGGREGATE,
+				() -> mongoTemplate.aggregate(pipeline, entityClass, returnType).getMappedResults());
 	}
 
 	public <T> List<T> executeAggregateAndProject(Class<T> returnType, int limit) {
@@ -661,12 +761,15 @@ public class QueryFilter<E> {
 		aggs.add(getProjectionOfClass(returnType));
 		aggs.add(Aggregation.limit(limit));
 
-		var pipeline = Aggregation.newAggregation(aggs);
+		sampleExplain(new Query(query).with(Sort.by(orders)).limit(limit));
+
+		var pipeline = newAggregation(aggs);
 		if (LOGGER.isDebugEnabled()) {
 			LOGGER.debug(LOG_FINAL_PIPELINE, pipeline);
 		}
 
-		return mongoTemplate.aggregate(pipeline, entityClass, returnType).getMappedResults();
+		return execute(QFMetrics.AGGREGATE,
+				() -> mongoTemplate.aggregate(pipeline, entityClass, returnType).getMappedResults());
 	}
 
 	/**
@@ -678,6 +781,10 @@ public class QueryFilter<E> {
 	 * @return a page of entities
 	 */
 	public <T> Page<T> executeAggregateAndProject(Pageable pageable, Class<T> returnType) {
+		if (countStrategy == QFCountStrategy.FACET && pageable.isPaged()) {
+			return executeFacetAggregate(pageable, returnType);
+		}
+
 		var query = toCriteria();
 
 		List<AggregationOperation> aggs = new ArrayList<>(5);
@@ -689,18 +796,49 @@ public class QueryFilter<E> {
 			aggs.add(Aggregation.sort(Sort.by(orders)));
 		}
 
+		int limit = QFPages.isSlice(countStrategy, pageable) ? pageable.getPageSize() + 1 : pageable.getPageSize();
+
 		aggs.add(getProjectionOfClass(returnType));
 		aggs.add(Aggregation.skip(pageable.getOffset()));
-		aggs.add(Aggregation.limit(pageable.getPageSize()));
+		aggs.add(Aggregation.limit(limit));
+
+		sampleExplain(new Query(query).with(Sort.by(orders)).skip(pageable.getOffset()).limit(limit));
+
+		var pipeline = newAggregation(aggs);
+		if (LOGGER.isDebugEnabled()) {
+			LOGGER.debug(LOG_FINAL_PIPELINE, pipeline);
+		}
+
+		return getPage(() -> execute(QFMetrics.AGGREGATE,
+				() -> mongoTemplate.aggregate(pipeline, entityClass, returnType).getMappedResults()), pageable,
+				newQuery(query));
+	}
+
+	/**
+	 * Execute the page and the count on a single aggregation. The sort is before
+	 * the facet stage to use the indexes, but it is not a top-k sort
+	 *
+	 * @see QFPages#facetPipeline
+	 */
+	private <T> Page<T> executeFacetAggregate(Pageable pageable, Class<T> returnType) {
+		var query = toCriteria();
+
+		var orders = getOrders();
+		var aggs = QFPages.facetPipeline(query, Sort.by(orders), pageable, getProjectionOfClass(returnType),
+				FACET_DATA, FACET_TOTAL);
 
-		var pipeline = Aggregation.newAggregation(aggs);
+		sampleExplain(new Query(query).with(Sort.by(orders)).skip(pageable.getOffset()).limit(pageable.getPageSize()));
+
+		var pipeline = newAggregation(aggs);
 		if (LOGGER.isDebugEnabled()) {
 			LOGGER.debug(LOG_FINAL_PIPELINE, pipeline);
 		}
 
-		var results = mongoTemplate.aggregate(pipeline, entityClass, returnType).getMappedResults();
+		var result = execute(QFMetrics.AGGREGATE,
+				() -> mongoTemplate.aggregate(pipeline, entityClass, Document.class).getUniqueMappedResult());
 
-		return PageableExecutionUtils.getPage(results, pageable, () -> executeQueryCount(query));
+		return QFPages.facet(result, pageable, FACET_DATA, FACET_TOTAL,
+				e -> mongoTemplate.getConverter().read(returnType, e));
 	}
 
 	private ProjectionOperation getProjectionOfClass(Class<?> returnType) {
@@ -719,10 +857,98 @@ public class QueryFilter<E> {
 	 */
 	public Page<E> executeFindQuery(Pageable pageable) {
 		var query = toCriteriaQuery(true).with(pageable);
+		if (QFPages.isSlice(countStrategy, pageable)) {
+			query.limit(pageable.getPageSize() + 1);
+		}
+		sampleExplain(query);
+
+		return getPage(() -> execute(QFMetrics.FIND, () -> mongoTemplate.find(query, entityClass)), pageable, query);
+	}
+
+	/**
+	 * Execute a find query with keyset pagination. The sort of the filter is
+	 * completed with the <code>_id</code> field, and the page starts after the
+	 * last result of the page of the token
+	 *
+	 * @param size  size of the page
+	 * @param token token of the previous page, or null to get the first page
+	 * @return page of entities with the token of the next page
+	 * @throws QFInvalidTokenException if the token is not valid for the sort of
+	 *                                 the filter
+	 */
+	public QFKeysetPage<E> executeFindQuery(int size, @Nullable String token) {
+		Assert.isTrue(size > 0, "size must be greater than zero");
+
+		var keyset = QFKeyset.of(getOrders());
+		var query = newQuery(keysetCriteria(keyset, token)).with(keyset.getSort()).limit(size + 1);
+		sampleExplain(query);
+
+		if (LOGGER.isDebugEnabled()) {
+			LOGGER.debug("Final generated: query '{}' sort '{}' limit '{}'", query.getQueryObject().toBsonDocument(),
+					query.getSortObject().toBsonDocument(), query.getLimit());
+		}
+
+		var list = execute(QFMetrics.FIND, () -> mongoTemplate.find(query, entityClass));
+
+		var converter = mongoTemplate.getConverter();
+		return keyset.page(list, size, e -> {
+			var stored = new Document();
+			converter.write(e, stored);
+			return keyset.valuesOf(stored);
+		}, Function.identity());
+	}
+
+	/**
+	 * Execute a aggregate query with keyset pagination. The sort of the filter is
+	 * completed with the <code>_id</code> field, and the page starts after the
+	 * last result of the page of the token
+	 *
+	 * @param returnType the return type of the projection
+	 * @param size       size of the page
+	 * @param token      token of the previous page, or null to get the first page
+	 * @return page of projections with the token of the next page
+	 * @throws QFInvalidTokenException if the token is not valid for the sort of
+	 *                                 the filter
+	 */
+	public <T> QFKeysetPage<T> executeAggregateAndProject(Class<T> returnType, int size, @Nullable String token) {
+		Assert.isTrue(size > 0, "size must be greater than zero");
+
+		var keyset = QFKeyset.of(getOrders());
+		var criteria = keysetCriteria(keyset, token);
+
+		List<AggregationOperation> aggs = new ArrayList<>(5);
+		aggs.add(Aggregation.match(criteria));
+		aggs.add(Aggregation.sort(keyset.getSort()));
+		aggs.add(Aggregation.limit(size + 1L));
+		// The sort values are kept before the projection, that can drop them
+		aggs.add(context -> new Document("$addFields", new Document(KEYSET_FIELD,
+				keyset.getPaths().stream().map(e -> "$" + e).toList())));
+		aggs.add(getProjectionOfClass(returnType).andInclude(KEYSET_FIELD));
 
-		var list = mongoTemplate.find(query, entityClass);
+		sampleExplain(new Query(criteria).with(keyset.getSort()).limit(size + 1));
 
-		return PageableExecutionUtils.getPage(list, pageable, () -> executeQueryCount(query));
+		var pipeline = newAggregation(aggs);
+		if (LOGGER.isDebugEnabled()) {
+			LOGGER.debug(LOG_FINAL_PIPELINE, pipeline);
+		}
+
+		var results = execute(QFMetrics.AGGREGATE,
+				() -> mongoTemplate.aggregate(pipeline, entityClass, Document.class).getMappedResults());
+
+		var converter = mongoTemplate.getConverter();
+		return keyset.page(results, size, e -> e.getList(KEYSET_FIELD, Object.class), e -> {
+			e.remove(KEYSET_FIELD);
+			return converter.read(returnType, e);
+		});
+	}
+
+	private Criteria keysetCriteria(QFKeyset keyset, @Nullable String token) {
+		var criteria = toCriteria();
+		var range = keyset.toCriteria(token);
+		if (range == null) {
+			return criteria;
+		}
+		return new Criteria().andOperator(criteria, range);
 	}
 
 	/**
@@ -736,39 +962,144 @@ public class QueryFilter<E> {
 	}
 
 	private long executeQueryCount(Query query) {
-		return mongoTemplate.count(Query.of(query).skip(-1).limit(-1), entityClass);
+		return execute(QFMetrics.COUNT, () -> mongoTemplate.count(countQuery(query).limit(-1), entityClass));
+	}
+
+	/**
+	 * Build the page of the results. The count query is only executed if the total
+	 * is not known from the results
+	 */
+	private <T> Page<T> getPage(Supplier<List<T>> results, Pageable pageable, Query query) {
+		if (QFPages.isSlice(countStrategy, pageable)) {
+			return QFPages.slice(results.get(), pageable);
+		}
+
+		var countExecutor = processor.getCountExecutor();
+		if (countExecutor == null || pageable.isUnpaged()) {
+			return PageableExecutionUtils.getPage(results.get(), pageable, () -> executeStrategyCount(query));
+		}
+
+		var count = countExecutor.submit(() -> executeStrategyCount(query));
+		try {
+			return PageableExecutionUtils.getPage(results.get(), pageable,
+					() -> QFCountExecutor.await(count.runIfNotStarted()));
+		} finally {
+			// Not started if the total is known from the results of a fast page query
+			count.cancel(false);
+		}
 	}
 
-	private long executeQueryCount(Criteria criteria) {
-		return mongoTemplate.count(new Query().addCriteria(criteria).skip(-1).limit(-1), entityClass);
+	private long executeStrategyCount(Query query) {
+		return switch (countStrategy) {
+		case CAPPED -> execute(QFMetrics.COUNT,
+				() -> mongoTemplate.count(countQuery(query).limit(countLimit), entityClass));
+		case ESTIMATED -> query.getQueryObject().isEmpty()
+				? execute(QFMetrics.COUNT, () -> mongoTemplate.estimatedCount(entityClass))
+				: executeQueryCount(query);
+		default -> executeQueryCount(query);
+		};
 	}
 
-	private Sort.Order parseSort(Pair<IDefinitionSortable, Direction> sortDefinition) {
-		return new Order(sortDefinition.getSecond(), sortDefinition.getFirst().getFirstPathMappingName());
+	/**
+	 * Explain the query on background if the sampled explain is enabled. Aggregate
+	 * pipelines are explained as the equivalent find of their match and sort
+	 * stages, which are the stages that can use indexes
+	 */
+	private void sampleExplain(Query query) {
+		var sampler = processor.getExplainSampler();
+		if (sampler != null && sampler.isSampled()) {
+			sampler.sample(predicateClass, getShape(), entityClass, query);
+		}
+	}
+
+	private String getShape() {
+		var shape = QFFilterShape.keyOf(specificationsWarp.getAllPartsSorted()).toString();
+		var orders = getOrders();
+		if (orders.isEmpty()) {
+			return shape;
+		}
+		return shape + " sort:" + orders.stream().map(o -> (o.isAscending() ? "+" : "-") + o.getProperty())
+				.collect(Collectors.joining(","));
 	}
 
-	private Criteria parseFinalCriteria(Map<String, List<Criteria>> criteriaMap) {
+	/**
+	 * Get the index hint of the filter. The rules of the definition class are used
+	 * before the indexes pinned by the sampled explains
+	 */
+	@Nullable
+	private String getHint() {
+		var hints = processor.getHints();
+		if (!hints.isEmpty()) {
+			Set<String> fields = new HashSet<>();
+			for (var part : specificationsWarp.getAllPartsSorted()) {
+				fields.add(part.getDefinition().getFilterName());
+			}
+			var sortList = defaultSortEnabled ? defaultSorting : sortDefinitionList;
+			var hint = hints.find(fields, sortList.stream().map(e -> e.getFirst().getFilterName()).toList());
+			if (hint != null) {
+				return hint;
+			}
+		}
 
-		if (criteriaMap.isEmpty()) {
-			return new Criteria();
+		var sampler = processor.getExplainSampler();
+		if (sampler != null && sampler.isAdaptiveHints()) {
+			return sampler.getHint(predicateClass, getShape());
 		}
+		return null;
+	}
+
+	private Query newQuery(Criteria criteria) {
+		var query = processor.getExecutionOptions().apply(new Query(criteria));
+		var hint = getHint();
+		return hint != null ? query.withHint(hint) : query;
+	}
+
+	/**
+	 * Copy a query to count the documents. The copy does not keep the read
+	 * preference, so the options are applied again
+	 */
+	private Query countQuery(Query query) {
+		return processor.getExecutionOptions().apply(Query.of(query).skip(-1));
+	}
 
-		// Size check to reduce and nested operations
-		Map<String, Criteria> simplifiedCriterias = criteriaMap.entrySet().stream()
-				.collect(Collectors.toMap(Entry::getKey, e -> {
-					if (e.getValue().size() == 1) {
-						return e.getValue().get(0);
-					} else {
-						return new Criteria().andOperator(e.getValue());
-					}
-				}));
+	private Aggregation newAggregation(List<AggregationOperation> aggs) {
+		return Aggregation.newAggregation(aggs).withOptions(aggregationOptions().build());
+	}
 
-		if (simplifiedCriterias.size() == 1) {
-			return simplifiedCriterias.values().iterator().next();
+	private AggregationOptions.Builder aggregationOptions() {
+		var options = processor.getExecutionOptions().aggregationOptions();
+		var hint = getHint();
+		return hint != null ? options.hint(hint) : options;
+	}
+
+	private <T> T execute(String operation, Supplier<T> query) {
+		long start = metrics.start();
+		try {
+			return query.get();
+		} catch (RuntimeException e) {
+			metrics.error(operation, e);
+			throw e;
+		} finally {
+			metrics.record(operation, start);
 		}
+	}
 
-		return new Criteria().andOperator(simplifiedCriterias.values());
+	// Streams are timed until they are closed, because the results are read while they are consumed
+	private <T> Stream<T> executeStream(String operation, Supplier<Stream<T>> query) {
+		long start = metrics.start();
+		Stream<T> stream;
+		try {
+			stream = query.get();
+		} catch (RuntimeException e) {
+			metrics.error(operation, e);
+			metrics.record(operation, start);
+			throw e;
+		}
+		return stream.onClose(() -> metrics.record(operation, start));
+	}
 
+	private Sort.Order parseSort(Pair<IDefinitionSortable, Direction> sortDefinition) {
+		return new Order(sortDefinition.getSecond(), sortDefinition.getFirst().getFirstPathMappingName());
 	}
 
 	/** {@inheritDoc} */
@@ -1,28 +1,37 @@
 package io.github.acoboh.query.filter.mongodb.processor.definitions;
 
 import java.lang.reflect.Field;
-import java.time.LocalDateTime;
+import java.time.Clock;
+import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import javax.annotation.Nullable;
+
+import org.bson.Document;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import io.github.acoboh.query.filter.mongodb.annotations.QFBlockParsing;
 import io.github.acoboh.query.filter.mongodb.annotations.QFDate;
+import io.github.acoboh.query.filter.mongodb.annotations.QFDefinitionClass;
 import io.github.acoboh.query.filter.mongodb.annotations.QFElement;
 import io.github.acoboh.query.filter.mongodb.annotations.QFElements;
 import io.github.acoboh.query.filter.mongodb.exceptions.definition.QFDateClassNotSupported;
 import io.github.acoboh.query.filter.mongodb.exceptions.definition.QFDateParseError;
 import io.github.acoboh.query.filter.mongodb.exceptions.definition.QFElementMultipleClassesException;
 import io.github.acoboh.query.filter.mongodb.exceptions.definition.QueryFilterDefinitionException;
+import io.github.acoboh.query.filter.mongodb.operations.QFOperationEnum;
 import io.github.acoboh.query.filter.mongodb.predicate.PredicateOperation;
 import io.github.acoboh.query.filter.mongodb.processor.QFPath;
+import io.github.acoboh.query.filter.mongodb.spel.SpelResultCache;
+import io.github.acoboh.query.filter.mongodb.utils.DateParser;
 import io.github.acoboh.query.filter.mongodb.utils.DateUtils;
 
 /**
@@ -32,27 +41,37 @@ public class QFDefinitionElement extends QFAbstractDefinition implements IDefini
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(QFDefinitionElement.class);
 
+	private static final String SIMPLE_LOCALE = "simple";
+
 	private final QFElement[] elementAnnotations;
 	private final PredicateOperation defaultOperation;
 
 	private final QFDate dateAnnotation;
 
 	private final DateTimeFormatter dateTimeFormatter;
+	private final DateParser dateParser;
 
 	private final List<List<QFPath>> paths;
 	private final List<Class<?>> finalClasses;
 	private final List<String> pathMappingNames;
 
+	private final List<QFValueConverter> valueConverters;
+	private final List<Set<QFOperationEnum>> allowedOperations;
+
 	// Extra properties
 	private final boolean sortable;
 	private final boolean spelExpression;
 	private final boolean blankIgnore;
 	private final boolean nullOnError;
+	private final boolean collationMatching;
+	private final boolean collationRanges;
 
 	private final int order;
 
+	private final SpelResultCache spelResultCache;
+
 	QFDefinitionElement(Field filterField, Class<?> filterClass, Class<?> entityClass, QFBlockParsing blockedParsing,
-			QFElements elementsAnnotation, QFElement[] elementAnnotations, QFDate dateAnnotation)
+			QFElements elementsAnnotation, QFElement[] elementAnnotations, QFDate dateAnnotation, Clock clock)
 			throws QueryFilterDefinitionException {
 		super(filterField, filterClass, entityClass, blockedParsing);
 		this.elementAnnotations = elementAnnotations;
@@ -84,6 +103,11 @@ public class QFDefinitionElement extends QFAbstractDefinition implements IDefini
 		blankIgnore = Stream.of(elementAnnotations).allMatch(QFElement::blankIgnore);
 		order = Stream.of(elementAnnotations).mapToInt(QFElement::order).max().getAsInt();
 		nullOnError = Stream.of(elementAnnotations).allMatch(QFElement::nullOnError);
+		spelResultCache = spelExpression ? buildSpelResultCache(clock) : null;
+
+		var collation = caseInsensitiveCollation(filterClass);
+		collationMatching = collation != null;
+		collationRanges = collation != null && hasPrefixRanges(collation);
 
 		var pair = getBuildPaths(elementAnnotations, entityClass);
 
@@ -92,33 +116,54 @@ public class QFDefinitionElement extends QFAbstractDefinition implements IDefini
 		this.pathMappingNames = pair.mappingNames();
 
 		if (dateAnnotation != null || (finalClasses.stream().allMatch(DateUtils::classIsDate))) {
-			dateTimeFormatter = checkDateTimeFormatter();
+			dateParser = checkDateParser(clock);
+			dateTimeFormatter = dateParser.getFormatter();
 		} else {
+			dateParser = null;
 			dateTimeFormatter = null;
 		}
 
+		// Converters and allowed operations are resolved once for all the requests
+		List<QFValueConverter> converters = new ArrayList<>(paths.size());
+		List<Set<QFOperationEnum>> operations = new ArrayList<>(paths.size());
+		for (int i = 0; i < paths.size(); i++) {
+			var path = paths.get(i);
+			var lastPath = path.get(path.size() - 1);
+			converters.add(QFValueConverters.of(getFilterName(), lastPath, dateParser, isCaseInsensitive(i)));
+			operations.add(QFValueConverters.allowedOperations(lastPath.getFieldClass()));
+		}
+		this.valueConverters = Collections.unmodifiableList(converters);
+		this.allowedOperations = Collections.unmodifiableList(operations);
+
 	}
 
-	private DateTimeFormatter checkDateTimeFormatter() throws QFDateClassNotSupported, QFDateParseError {
-		LocalDateTime now = LocalDateTime.now();
+	private SpelResultCache buildSpelResultCache(Clock clock) {
+		long ttl = Stream.of(elementAnnotations).mapToLong(e -> e.spelCache().ttlMS()).min().getAsLong();
+		int maxSize = Stream.of(elementAnnotations).mapToInt(e -> e.spelCache().maxSize()).min().getAsInt();
+		if (ttl <= 0 || maxSize <= 0) {
+			return null;
+		}
 
-		DateTimeFormatter formatter = DateUtils.getFormatter(dateAnnotation);
-		String value = formatter.format(now);
+		LOGGER.debug("SpEL results of field {} cached for {} ms", field, ttl);
+		return new SpelResultCache(ttl, maxSize, clock);
+	}
 
-		for (Class<?> finalClass : finalClasses) {
-			try {
-				Object parsed = DateUtils.parseDate(formatter, value, finalClass, dateAnnotation);
-				if (parsed == null) {
-					throw new QFDateClassNotSupported(finalClass, filterName);
-				}
+	private DateParser checkDateParser(Clock clock) throws QFDateClassNotSupported, QFDateParseError {
 
-			} catch (DateTimeParseException e) {
-				throw new QFDateParseError(dateAnnotation.timeFormat(), finalClass, e);
-			}
+		// All the final classes are the same
+		Class<?> finalClass = finalClasses.get(0);
+		DateParser parser = DateParser.of(dateAnnotation, finalClass, clock);
+		if (parser == null) {
+			throw new QFDateClassNotSupported(finalClass, filterName);
 		}
 
-		return formatter;
+		try {
+			parser.parse(parser.getFormatter().format(ZonedDateTime.now()));
+		} catch (DateTimeParseException e) {
+			throw new QFDateParseError(parser.getFormat(), finalClass, e);
+		}
 
+		return parser;
 	}
 
 	private static DefinitionInfo getBuildPaths(QFElement[] elementAnnotations, Class<?> entityClass)
@@ -178,6 +223,27 @@ public class QFDefinitionElement extends QFAbstractDefinition implements IDefini
 		return pathMappingNames.get(0);
 	}
 
+	/**
+	 * Get the converter of the values of an specific element
+	 *
+	 * @param index index of the element
+	 * @return value converter
+	 */
+	public QFValueConverter getValueConverter(int index) {
+		return valueConverters.get(index);
+	}
+
+	/**
+	 * Get if an operation is allowed on an specific element
+	 *
+	 * @param index     index of the element
+	 * @param operation operation
+	 * @return true if the operation is allowed
+	 */
+	public boolean isOperationAllowed(int index, QFOperationEnum operation) {
+		return allowedOperations.get(index).contains(operation);
+	}
+
 	/**
 	 * Get if the field is sortable
 	 *
@@ -205,6 +271,25 @@ public class QFDefinitionElement extends QFAbstractDefinition implements IDefini
 		return dateTimeFormatter;
 	}
 
+	/**
+	 * Get if any value is a relative date, like <code>now-7d/d</code>, that must
+	 * be resolved on each request
+	 *
+	 * @param values values of the element
+	 * @return true if the element is a date and any value is relative
+	 */
+	public boolean hasRelativeDates(List<String> values) {
+		if (dateParser == null) {
+			return false;
+		}
+		for (var value : values) {
+			if (DateParser.isRelative(value)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	/**
 	 * Get if the field has spel expressions
 	 *
@@ -214,6 +299,16 @@ public class QFDefinitionElement extends QFAbstractDefinition implements IDefini
 		return spelExpression;
 	}
 
+	/**
+	 * Get the cache of the results of the SpEL expressions
+	 *
+	 * @return cache of the results, or null if they are not cached
+	 */
+	@Nullable
+	public SpelResultCache getSpelResultCache() {
+		return spelResultCache;
+	}
+
 	/**
 	 * Get if null on error is active for SpEL expressions
 	 *
@@ -243,12 +338,113 @@ public class QFDefinitionElement extends QFAbstractDefinition implements IDefini
 
 	/**
 	 * Get regex options of an specific element
+	 * <p>
+	 * Case-insensitive elements always have the <code>i</code> option
 	 * 
 	 * @param index index of the element
 	 * @return regex options
 	 */
 	public String regexOptions(int index) {
-		return elementAnnotations[index].regexOptions();
+		var options = elementAnnotations[index].regexOptions();
+		if (isCaseInsensitive(index) && options.indexOf('i') < 0) {
+			return options + "i";
+		}
+		return options;
+	}
+
+	/**
+	 * Get if the values of the regex operations of an specific element are raw
+	 * regular expressions
+	 *
+	 * @param index index of the element
+	 * @return true if the values are raw regular expressions
+	 */
+	public boolean isRawRegex(int index) {
+		return elementAnnotations[index].rawRegex();
+	}
+
+	/**
+	 * Get the max length of the values of the regex operations of an specific
+	 * element
+	 *
+	 * @param index index of the element
+	 * @return max length of the values
+	 */
+	public int regexMaxLength(int index) {
+		return elementAnnotations[index].regexMaxLength();
+	}
+
+	/**
+	 * Get if an specific element is case-insensitive
+	 *
+	 * @param index index of the element
+	 * @return true if the element is case-insensitive
+	 */
+	public boolean isCaseInsensitive(int index) {
+		return elementAnnotations[index].caseInsensitive();
+	}
+
+	/**
+	 * Get if an specific element is matched ignoring the case by the collation of
+	 * the definition class. Otherwise, the case-insensitive elements are matched
+	 * with regular expressions
+	 *
+	 * @param index index of the element
+	 * @return true if the collation ignores the case of the element
+	 */
+	public boolean isCollationMatching(int index) {
+		return collationMatching && isCaseInsensitive(index);
+	}
+
+	/**
+	 * Get if the prefixes of an specific element can be converted into ranges of
+	 * the collation of the definition class
+	 *
+	 * @param index index of the element
+	 * @return true if the prefixes can be converted into ranges
+	 */
+	public boolean isPrefixRange(int index) {
+		return collationRanges && isCaseInsensitive(index);
+	}
+
+	/**
+	 * Get the collation of the query options of the definition class, if it
+	 * ignores the case
+	 */
+	@Nullable
+	private static Document caseInsensitiveCollation(Class<?> filterClass) {
+		var definitionClass = filterClass.getAnnotation(QFDefinitionClass.class);
+		if (definitionClass == null || definitionClass.queryOptions().collation().isBlank()) {
+			return null;
+		}
+
+		Document collation;
+		var value = definitionClass.queryOptions().collation().trim();
+		try {
+			collation = value.startsWith("{") ? Document.parse(value) : new Document("locale", value);
+		} catch (RuntimeException e) {
+			// Rejected with the rest of the query options
+			return null;
+		}
+
+		var strength = collation.get("strength");
+		if (SIMPLE_LOCALE.equals(collation.get("locale")) || !(strength instanceof Number number)
+				|| number.intValue() > 2 || Boolean.TRUE.equals(collation.get("caseLevel"))) {
+			return null;
+		}
+		return collation;
+	}
+
+	/**
+	 * Prefixes ending with a latin letter or a digit keep the order of the
+	 * English collation, without contractions. Numeric ordering and backward
+	 * secondary weights change the order of the prefixes
+	 */
+	private static boolean hasPrefixRanges(Document collation) {
+		var locale = String.valueOf(collation.get("locale"));
+		return (locale.equals("en") || locale.startsWith("en_"))
+				&& !Boolean.TRUE.equals(collation.get("numericOrdering"))
+				&& !Boolean.TRUE.equals(collation.get("backwards"));
 	}
 
 	/**
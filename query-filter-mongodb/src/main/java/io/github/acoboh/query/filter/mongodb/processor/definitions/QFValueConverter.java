@@ -0,0 +1,20 @@
+package io.github.acoboh.query.filter.mongodb.processor.definitions;
+
+/**
+ * Converter of the string values of a filter to the final class of a path.
+ * Converters are created once with the definition of the element
+ */
+@FunctionalInterface
+public interface QFValueConverter {
+
+	/**
+	 * Convert a string value
+	 *
+	 * @param value string value
+	 * @return converted value
+	 * @throws io.github.acoboh.query.filter.mongodb.exceptions.QueryFilterException
+	 *         if the value can not be converted
+	 */
+	Object convert(String value);
+
+}
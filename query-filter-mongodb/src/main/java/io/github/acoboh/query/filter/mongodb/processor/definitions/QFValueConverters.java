@@ -0,0 +1,170 @@
+package io.github.acoboh.query.filter.mongodb.processor.definitions;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.format.DateTimeParseException;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+
+import io.github.acoboh.query.filter.mongodb.exceptions.QFDateParsingException;
+import io.github.acoboh.query.filter.mongodb.exceptions.QFEnumException;
+import io.github.acoboh.query.filter.mongodb.exceptions.QFParseException;
+import io.github.acoboh.query.filter.mongodb.operations.QFOperationEnum;
+import io.github.acoboh.query.filter.mongodb.processor.QFPath;
+import io.github.acoboh.query.filter.mongodb.processor.QFPath.QFElementDefType;
+import io.github.acoboh.query.filter.mongodb.utils.DateParser;
+
+/**
+ * Factory of the value converters and the allowed operations of the final
+ * classes of the paths
+ */
+final class QFValueConverters {
+
+	private static final Set<QFOperationEnum> COMPARISON_OPERATIONS = EnumSet.of(QFOperationEnum.GREATER_THAN,
+			QFOperationEnum.GREATER_EQUAL_THAN, QFOperationEnum.LESS_THAN, QFOperationEnum.LESS_EQUAL_THAN,
+			QFOperationEnum.BETWEEN);
+
+	private static final Set<QFOperationEnum> REGEX_OPERATIONS = EnumSet.of(QFOperationEnum.LIKE,
+			QFOperationEnum.STARTS_WITH, QFOperationEnum.ENDS_WITH);
+
+	private QFValueConverters() {
+	}
+
+	/**
+	 * Create the converter of the values of a path
+	 *
+	 * @param filterName      filter name of the element
+	 * @param lastPath        last path of the element
+	 * @param dateParser      date parser of the element, null if the element is
+	 *                        not a date
+	 * @param caseInsensitive true if the enumeration values are matched ignoring
+	 *                        the case
+	 * @return value converter
+	 */
+	static QFValueConverter of(String filterName, QFPath lastPath, DateParser dateParser, boolean caseInsensitive) {
+
+		Class<?> finalClass = lastPath.getFieldClass();
+
+		if (dateParser != null) {
+			return value -> {
+				try {
+					return dateParser.parse(value);
+				} catch (DateTimeParseException e) {
+					throw new QFDateParsingException(filterName, value, dateParser.getFormat(), e);
+				}
+			};
+		} else if (lastPath.getType() == QFElementDefType.ENUM) {
+			return enumConverter(filterName, finalClass, caseInsensitive);
+		}
+
+		var parser = parser(finalClass);
+		if (parser == null) {
+			return value -> value;
+		}
+
+		return value -> {
+			try {
+				return parser.apply(value);
+			} catch (IllegalArgumentException e) {
+				throw new QFParseException(filterName, value);
+			}
+		};
+	}
+
+	/**
+	 * Get the parser of the basic classes. Numbers parsers throw
+	 * {@linkplain NumberFormatException} on invalid values
+	 */
+	private static Function<String, Object> parser(Class<?> finalClass) {
+		if (finalClass.equals(Double.class) || finalClass.equals(double.class)) {
+			return Double::valueOf;
+		} else if (finalClass.equals(Float.class) || finalClass.equals(float.class)) {
+			return Float::valueOf;
+		} else if (finalClass.equals(Integer.class) || finalClass.equals(int.class)) {
+			return Integer::valueOf;
+		} else if (finalClass.equals(Long.class) || finalClass.equals(long.class)) {
+			return Long::valueOf;
+		} else if (finalClass.equals(Short.class) || finalClass.equals(short.class)) {
+			return Short::valueOf;
+		} else if (finalClass.equals(Boolean.class) || finalClass.equals(boolean.class)) {
+			return Boolean::valueOf;
+		} else if (finalClass.equals(BigDecimal.class)) {
+			return BigDecimal::new;
+		} else if (finalClass.equals(BigInteger.class)) {
+			return BigInteger::new;
+		} else if (finalClass.equals(Decimal128.class)) {
+			return Decimal128::parse;
+		} else if (finalClass.equals(ObjectId.class)) {
+			return ObjectId::new;
+		} else if (finalClass.equals(UUID.class)) {
+			return UUID::fromString;
+		}
+		return null;
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static QFValueConverter enumConverter(String filterName, Class<?> finalClass, boolean caseInsensitive) {
+
+		Class<? extends Enum> enumClass = (Class<? extends Enum>) finalClass;
+		Enum[] constants = enumClass.getEnumConstants();
+
+		String[] allowed = new String[constants.length];
+		Map<String, Enum> byName = new HashMap<>(constants.length * 2);
+		for (int i = 0; i < constants.length; i++) {
+			allowed[i] = constants[i].name();
+			byName.put(constants[i].name(), constants[i]);
+		}
+
+		Map<String, Enum> byUpperName = new HashMap<>(constants.length * 2);
+		if (caseInsensitive) {
+			// Names that only differ in case are ambiguous and must match exactly
+			Set<String> ambiguous = new HashSet<>();
+			for (var constant : constants) {
+				String key = constant.name().toUpperCase(Locale.ROOT);
+				if (byUpperName.putIfAbsent(key, constant) != null) {
+					ambiguous.add(key);
+				}
+			}
+			byUpperName.keySet().removeAll(ambiguous);
+		}
+
+		return value -> {
+			Enum ret = byName.get(value);
+			if (ret == null && caseInsensitive) {
+				ret = byUpperName.get(value.toUpperCase(Locale.ROOT));
+			}
+			if (ret == null) {
+				throw new QFEnumException(filterName, value, enumClass, allowed.clone());
+			}
+			return ret;
+		};
+	}
+
+	/**
+	 * Get the operations allowed on a final class. Comparisons need comparable
+	 * classes and regular expressions need strings
+	 *
+	 * @param finalClass final class of a path
+	 * @return allowed operations
+	 */
+	static Set<QFOperationEnum> allowedOperations(Class<?> finalClass) {
+		Set<QFOperationEnum> ret = EnumSet.allOf(QFOperationEnum.class);
+		if (!Comparable.class.isAssignableFrom(finalClass) && !finalClass.isPrimitive()) {
+			ret.removeAll(COMPARISON_OPERATIONS);
+		}
+		if (!String.class.isAssignableFrom(finalClass)) {
+			ret.removeAll(REGEX_OPERATIONS);
+		}
+		return ret;
+	}
+
+}
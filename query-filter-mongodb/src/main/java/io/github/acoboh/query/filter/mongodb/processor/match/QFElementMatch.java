@@ -1,30 +1,23 @@
 package io.github.acoboh.query.filter.mongodb.processor.match;
 
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.util.MultiValueMap;
 
-import io.github.acoboh.query.filter.mongodb.exceptions.QFDateParsingException;
-import io.github.acoboh.query.filter.mongodb.exceptions.QFEnumException;
 import io.github.acoboh.query.filter.mongodb.exceptions.QFFieldOperationException;
+import io.github.acoboh.query.filter.mongodb.exceptions.QFParseException;
 import io.github.acoboh.query.filter.mongodb.operations.QFOperationEnum;
 import io.github.acoboh.query.filter.mongodb.processor.QFPath;
-import io.github.acoboh.query.filter.mongodb.processor.QFPath.QFElementDefType;
 import io.github.acoboh.query.filter.mongodb.processor.QFSpecificationPart;
 import io.github.acoboh.query.filter.mongodb.processor.definitions.QFDefinitionElement;
+import io.github.acoboh.query.filter.mongodb.processor.definitions.QFValueConverter;
 import io.github.acoboh.query.filter.mongodb.spel.SpelResolverContext;
-import io.github.acoboh.query.filter.mongodb.utils.DateUtils;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
@@ -33,8 +26,6 @@ import jakarta.servlet.http.HttpServletResponse;
  */
 public class QFElementMatch implements QFSpecificationPart {
 
-	private static final Logger LOGGER = LoggerFactory.getLogger(QFElementMatch.class);
-
 	private final QFDefinitionElement definition;
 
 	private final List<String> originalValues;
@@ -43,11 +34,11 @@ public class QFElementMatch implements QFSpecificationPart {
 
 	private final QFOperationEnum operation;
 
+	private final boolean relativeDates;
+
 	private List<String> processedValues;
 	private List<List<Object>> parsedValues;
 
-	private final DateTimeFormatter formatter;
-
 	private boolean initialized = false;
 
 	/**
@@ -63,9 +54,8 @@ public class QFElementMatch implements QFSpecificationPart {
 		this.originalValues = values;
 		this.operation = operation;
 
-		formatter = definition.getDateTimeFormatter();
-
 		paths = definition.getPaths();
+		relativeDates = definition.hasRelativeDates(values);
 
 		if (!definition.isSpelExpression()) {
 			initialize(null, null, null, null);
@@ -73,6 +63,21 @@ public class QFElementMatch implements QFSpecificationPart {
 
 	}
 
+	/**
+	 * Get an instance that can be used by a new request. Matches without SpEL
+	 * expressions are immutable once parsed, so they are shared between requests.
+	 * Matches with SpEL expressions or relative dates are resolved on each request
+	 * and must be copied
+	 *
+	 * @return instance to be used by a new request
+	 */
+	public QFElementMatch copyForRequest() {
+		if (!definition.isSpelExpression() && !relativeDates) {
+			return this;
+		}
+		return new QFElementMatch(originalValues, operation, definition);
+	}
+
 	/**
 	 * Initialize method to resolve matching elements of resolve SpEL expressions
 	 * 
@@ -81,7 +86,6 @@ public class QFElementMatch implements QFSpecificationPart {
 	 * @param request      request
 	 * @param response     response
      */
-	@SuppressWarnings({ "unchecked", "rawtypes" })
 	public void initialize(SpelResolverContext spelResolver, MultiValueMap<String, Object> context,
 			HttpServletRequest request, HttpServletResponse response) {
 		if (definition.isSpelExpression() && !originalValues.isEmpty()) {
@@ -91,7 +95,8 @@ public class QFElementMatch implements QFSpecificationPart {
 			}
 
 			String firstValue = originalValues.get(0);
-			Object result = spelResolver.evaluate(firstValue, context, request, response, definition.isNullOnError());
+			Object result = spelResolver.evaluate(firstValue, context, request, response, definition.isNullOnError(),
+					definition.getSpelResultCache());
 			processedValues = parseResults(result);
 			initialized = false;
 		}
@@ -104,55 +109,27 @@ public class QFElementMatch implements QFSpecificationPart {
 			processedValues = new ArrayList<>(originalValues);
 		}
 
-		parsedValues = new ArrayList<>(paths.size());
+		checkValues();
 
-		for (var path : paths) {
+		parsedValues = new ArrayList<>(paths.size());
 
-			QFPath lastPath = path.get(path.size() - 1);
-			Class<?> finalClass = lastPath.getFieldClass();
+		for (int index = 0; index < paths.size(); index++) {
 
-			// Check operation
-			checkOperation(finalClass);
+			checkOperation(index);
 
-			// Check if an enum
-			boolean isEnum = lastPath.getType() == QFElementDefType.ENUM;
+			// Null checks always have boolean values
+			QFValueConverter converter = operation == QFOperationEnum.ISNULL ? Boolean::valueOf
+					: definition.getValueConverter(index);
 
 			List<Object> parsedPathValue = new ArrayList<>(processedValues.size());
 			for (String val : processedValues) {
-
-				if (formatter != null && operation != QFOperationEnum.ISNULL) {
-					parsedPathValue.add(parseTimestamp(val, finalClass));
-				} else if (finalClass.equals(Double.class) || finalClass.equals(double.class)) {
-					parsedPathValue.add(Double.valueOf(val));
-				} else if (finalClass.equals(Integer.class) || finalClass.equals(int.class)) {
-					parsedPathValue.add(Integer.valueOf(val));
-				} else if (finalClass.equals(Boolean.class) || finalClass.equals(boolean.class)
-						|| operation == QFOperationEnum.ISNULL) {
-					parsedPathValue.add(Boolean.valueOf(val));
-				} else if (isEnum) { // Parse enum
-					Class<? extends Enum> enumClass = (Class<? extends Enum>) finalClass;
-					try {
-						parsedPathValue.add(Enum.valueOf(enumClass, val));
-					} catch (IllegalArgumentException e) {
-						Enum[] constants = enumClass.getEnumConstants();
-						String[] allowed = new String[constants.length];
-
-						for (int i = 0; i < constants.length; i++) { // Get allowed values
-							allowed[i] = constants[i].name();
-						}
-
-						throw new QFEnumException(definition.getFilterName(), val, enumClass, allowed);
-					}
-
-				} else if (finalClass.equals(UUID.class)) {
-					parsedPathValue.add(UUID.fromString(val));
-				} else { // Use as string
-					parsedPathValue.add(val);
-				}
-
+				parsedPathValue.add(converter.convert(val));
 			}
 
-			parsedValues.add(parsedPathValue);
+			// Invalid regular expressions are rejected on parsing
+			operation.getPatterns(definition, index, parsedPathValue);
+
+			parsedValues.add(Collections.unmodifiableList(parsedPathValue));
 
 		}
 
@@ -160,39 +137,17 @@ public class QFElementMatch implements QFSpecificationPart {
 
 	}
 
-	private Object parseTimestamp(String value, Class<?> finalClass) {
-
-		try {
-			Object parsedValue = DateUtils.parseDate(formatter, value, finalClass, definition.getDateAnnotation());
-			if (parsedValue == null) {
-				throw new IllegalStateException("Unsupported date class " + finalClass);
-			}
-
-			return parsedValue;
-
-		} catch (DateTimeParseException e) {
-			throw new QFDateParsingException(definition.getFilterName(), value,
-					definition.getDateAnnotation().timeFormat(), e);
+	private void checkValues() throws QFParseException {
+		boolean ignored = processedValues.isEmpty() && definition.isBlankIgnore();
+		if (operation == QFOperationEnum.BETWEEN && processedValues.size() != 2 && !ignored) {
+			throw new QFParseException(definition.getFilterName(),
+					operation.getValue() + ":" + String.join(",", processedValues));
 		}
-
 	}
 
-	private void checkOperation(Class<?> clazz) throws QFFieldOperationException {
-
-		switch (operation) {
-		case GREATER_THAN, GREATER_EQUAL_THAN, LESS_THAN, LESS_EQUAL_THAN:
-			if (!Comparable.class.isAssignableFrom(clazz) && !clazz.isPrimitive()) {
-				throw new QFFieldOperationException(operation, definition.getFilterName());
-			}
-			break;
-
-		case ENDS_WITH, STARTS_WITH, LIKE:
-			if (!String.class.isAssignableFrom(clazz)) {
-				throw new QFFieldOperationException(operation, definition.getFilterName());
-			}
-			break;
-		default:
-			LOGGER.trace("Operation {} allowed on field {} by default", operation, definition.getFilterName());
+	private void checkOperation(int index) throws QFFieldOperationException {
+		if (!definition.isOperationAllowed(index, operation)) {
+			throw new QFFieldOperationException(operation, definition.getFilterName());
 		}
 	}
 
@@ -305,6 +260,15 @@ public class QFElementMatch implements QFSpecificationPart {
 		return definition;
 	}
 
+	/**
+	 * Get operation
+	 *
+	 * @return operation
+	 */
+	public QFOperationEnum getOperation() {
+		return operation;
+	}
+
 	/**
 	 * Get if the matching element must be evaluated
 	 *
@@ -41,6 +41,15 @@ public class QFTextMatch implements QFSpecificationPart {
 		return definition;
 	}
 
+	/**
+	 * Get the operation to perform
+	 * 
+	 * @return The operation to perform
+	 */
+	public QFOperationTextEnum getOperation() {
+		return operation;
+	}
+
 	/**
 	 * Get the value to match
 	 * 
@@ -0,0 +1,80 @@
+package io.github.acoboh.query.filter.mongodb.properties;
+
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+
+/**
+ * Cache configuration properties
+ */
+@Validated
+public class CacheProperties {
+
+	@PositiveOrZero
+	private int planMaxSize = 1024;
+
+	@Positive
+	private int planMaxInputLength = 4096;
+
+	@PositiveOrZero
+	private int shapeMaxSize = 256;
+
+	/**
+	 * Get the max number of parsed filter plans cached by each processor. Zero
+	 * disables the cache
+	 *
+	 * @return max number of parsed filter plans
+	 */
+	public int getPlanMaxSize() {
+		return planMaxSize;
+	}
+
+	/**
+	 * Set the max number of parsed filter plans cached by each processor
+	 *
+	 * @param planMaxSize max number of parsed filter plans
+	 */
+	public void setPlanMaxSize(int planMaxSize) {
+		this.planMaxSize = planMaxSize;
+	}
+
+	/**
+	 * Get the max length of the inputs that can be cached. Longer inputs are
+	 * always parsed
+	 *
+	 * @return max length of the cached inputs
+	 */
+	public int getPlanMaxInputLength() {
+		return planMaxInputLength;
+	}
+
+	/**
+	 * Set the max length of the inputs that can be cached
+	 *
+	 * @param planMaxInputLength max length of the cached inputs
+	 */
+	public void setPlanMaxInputLength(int planMaxInputLength) {
+		this.planMaxInputLength = planMaxInputLength;
+	}
+
+	/**
+	 * Get the max number of prepared filter shapes cached by each processor. Zero
+	 * disables the cache
+	 *
+	 * @return max number of prepared filter shapes
+	 */
+	public int getShapeMaxSize() {
+		return shapeMaxSize;
+	}
+
+	/**
+	 * Set the max number of prepared filter shapes cached by each processor
+	 *
+	 * @param shapeMaxSize max number of prepared filter shapes
+	 */
+	public void setShapeMaxSize(int shapeMaxSize) {
+		this.shapeMaxSize = shapeMaxSize;
+	}
+
+}
@@ -0,0 +1,78 @@
+package io.github.acoboh.query.filter.mongodb.properties;
+
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.constraints.PositiveOrZero;
+
+/**
+ * Concurrent count configuration properties
+ */
+@Validated
+public class ConcurrentCountProperties {
+
+	private boolean enabled = false;
+
+	private String executor = "";
+
+	@PositiveOrZero
+	private long delayMs = 50;
+
+	/**
+	 * Get if the count of the paged queries runs concurrently with the page query
+	 *
+	 * @return true if enabled, false otherwise
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Enable or disable the concurrent count of the paged queries
+	 *
+	 * @param enabled new status
+	 */
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	/**
+	 * Get the name of the executor bean that runs the counts. If empty, a virtual
+	 * thread per count is used, or a cached thread pool before Java 21
+	 *
+	 * @return executor bean name
+	 */
+	public String getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * Set the name of the executor bean that runs the counts
+	 *
+	 * @param executor executor bean name
+	 */
+	public void setExecutor(String executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * Get the milliseconds the page query runs alone before the count starts. If
+	 * the page query ends before, the count only runs if the total is not known
+	 * from the results
+	 *
+	 * @return delay in milliseconds
+	 */
+	public long getDelayMs() {
+		return delayMs;
+	}
+
+	/**
+	 * Set the milliseconds the page query runs alone before the count starts. Zero
+	 * starts the count with the page query
+	 *
+	 * @param delayMs delay in milliseconds
+	 */
+	public void setDelayMs(long delayMs) {
+		this.delayMs = delayMs;
+	}
+
+}
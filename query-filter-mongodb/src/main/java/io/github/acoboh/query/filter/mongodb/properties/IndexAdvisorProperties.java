@@ -0,0 +1,78 @@
+package io.github.acoboh.query.filter.mongodb.properties;
+
+import java.util.List;
+
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Index advisor configuration properties
+ */
+@Validated
+public class IndexAdvisorProperties {
+
+	private boolean enabled = false;
+
+	private boolean createIndexes = false;
+
+	@NotNull
+	private List<String> productionProfiles = List.of("prod", "production");
+
+	/**
+	 * Get if the filter definitions are checked against the collection indexes on
+	 * startup
+	 *
+	 * @return true if enabled, false otherwise
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Enable or disable the check of the collection indexes on startup
+	 *
+	 * @param enabled new status
+	 */
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	/**
+	 * Get if the recommended indexes are created. Indexes are never created if any
+	 * production profile is active
+	 *
+	 * @return true if the recommended indexes are created
+	 */
+	public boolean isCreateIndexes() {
+		return createIndexes;
+	}
+
+	/**
+	 * Set if the recommended indexes are created
+	 *
+	 * @param createIndexes true to create the recommended indexes
+	 */
+	public void setCreateIndexes(boolean createIndexes) {
+		this.createIndexes = createIndexes;
+	}
+
+	/**
+	 * Get the profiles where the recommended indexes are never created
+	 *
+	 * @return production profiles
+	 */
+	public List<String> getProductionProfiles() {
+		return productionProfiles;
+	}
+
+	/**
+	 * Set the profiles where the recommended indexes are never created
+	 *
+	 * @param productionProfiles production profiles
+	 */
+	public void setProductionProfiles(List<String> productionProfiles) {
+		this.productionProfiles = productionProfiles;
+	}
+
+}
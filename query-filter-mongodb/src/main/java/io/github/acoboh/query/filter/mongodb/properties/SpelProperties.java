@@ -0,0 +1,63 @@
+package io.github.acoboh.query.filter.mongodb.properties;
+
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+
+/**
+ * SpEL expressions configuration properties
+ */
+@Validated
+public class SpelProperties {
+
+	/**
+	 * Default max number of parsed expressions
+	 */
+	public static final int DEFAULT_CACHE_MAX_SIZE = 256;
+
+	@PositiveOrZero
+	private int cacheMaxSize = DEFAULT_CACHE_MAX_SIZE;
+
+	@NotNull
+	private SpelCompilerMode compilerMode = SpelCompilerMode.OFF;
+
+	/**
+	 * Get the max number of parsed expressions cached by the resolver. Zero
+	 * disables the cache
+	 *
+	 * @return max number of parsed expressions
+	 */
+	public int getCacheMaxSize() {
+		return cacheMaxSize;
+	}
+
+	/**
+	 * Set the max number of parsed expressions cached by the resolver
+	 *
+	 * @param cacheMaxSize max number of parsed expressions
+	 */
+	public void setCacheMaxSize(int cacheMaxSize) {
+		this.cacheMaxSize = cacheMaxSize;
+	}
+
+	/**
+	 * Get the compiler mode of the cached expressions. <code>OFF</code> by default
+	 *
+	 * @return compiler mode
+	 */
+	public SpelCompilerMode getCompilerMode() {
+		return compilerMode;
+	}
+
+	/**
+	 * Set the compiler mode of the cached expressions
+	 *
+	 * @param compilerMode compiler mode
+	 */
+	public void setCompilerMode(SpelCompilerMode compilerMode) {
+		this.compilerMode = compilerMode;
+	}
+
+}
@@ -0,0 +1,90 @@
+package io.github.acoboh.query.filter.mongodb.spel;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.util.MultiValueMap;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * SpEL resolver of a single evaluation of the filters. The evaluation context
+ * of the other resolver is created on the first expression and shared by the
+ * next expressions. Context values are only added when they change.
+ * <p>
+ * It is not thread-safe
+ */
+final class RequestSpelResolverContext extends SpelResolverContext {
+
+	private final SpelResolverContext delegate;
+
+	private final HttpServletRequest request;
+	private final HttpServletResponse response;
+
+	private EvaluationContext context;
+
+	// Number of values of each context variable on the evaluation context
+	private final Map<String, Integer> variableSizes = new HashMap<>();
+
+	RequestSpelResolverContext(SpelResolverContext delegate, HttpServletRequest request,
+			HttpServletResponse response) {
+		super(delegate.getExpressionCache(), delegate.getCacheKeyExtractor());
+		this.delegate = delegate;
+		this.request = request;
+		this.response = response;
+	}
+
+	@Override
+	public Object evaluate(String securityExpression, MultiValueMap<String, Object> contextValues,
+			HttpServletRequest request, HttpServletResponse response, boolean nullOnError) {
+
+		if (request != this.request || response != this.response) {
+			return delegate.evaluate(securityExpression, contextValues, request, response, nullOnError);
+		}
+
+		if (context == null) {
+			context = delegate.getEvaluationContext(request, response);
+			if (request != null) {
+				fillContextWithRequestValues(context, request);
+			}
+		}
+
+		// Context values are only added on the evaluation
+		for (Map.Entry<String, List<Object>> entry : contextValues.entrySet()) {
+			List<Object> values = entry.getValue();
+			Integer size = variableSizes.put(entry.getKey(), values.size());
+			if (size == null || size != values.size()) {
+				if (values.size() > 1) {
+					context.setVariable(entry.getKey(), values);
+				} else if (values.size() == 1) {
+					context.setVariable(entry.getKey(), values.get(0));
+				}
+			}
+		}
+
+		return delegate.getValue(securityExpression, context, nullOnError);
+	}
+
+	@Override
+	public SpelResolverContext forRequest(HttpServletRequest request, HttpServletResponse response) {
+		if (request == this.request && response == this.response) {
+			return this;
+		}
+		return delegate.forRequest(request, response);
+	}
+
+	@Override
+	public ExpressionParser getExpressionParser() {
+		return delegate.getExpressionParser();
+	}
+
+	@Override
+	public EvaluationContext getEvaluationContext(HttpServletRequest request, HttpServletResponse response) {
+		return delegate.getEvaluationContext(request, response);
+	}
+
+}
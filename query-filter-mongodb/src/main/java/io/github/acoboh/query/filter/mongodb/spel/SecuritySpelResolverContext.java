@@ -5,6 +5,7 @@ import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.context.ApplicationContext;
 import org.springframework.core.GenericTypeResolver;
 import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.ExpressionParser;
@@ -17,6 +18,7 @@ import org.springframework.security.web.FilterInvocation;
 import org.springframework.stereotype.Component;
 import org.springframework.util.CollectionUtils;
 
+import io.github.acoboh.query.filter.mongodb.properties.QueryFilterProperties;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
@@ -32,14 +34,25 @@ class SecuritySpelResolverContext extends SpelResolverContext {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(SecuritySpelResolverContext.class);
 
+	// Name of the current authentication, or the principal of the request
+	private static final SpelCacheKeyExtractor AUTHENTICATION = request -> {
+		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+		return authentication != null ? authentication.getName() : SpelCacheKeyExtractor.PRINCIPAL.getKey(request);
+	};
+
 	private final SecurityExpressionHandler<FilterInvocation> securityExpressionHandler;
 
 	/**
 	 * Default constructor
 	 *
 	 * @param securityExpressionHandlers security expression handlers
+	 * @param appContext                 application context
 	 */
-	public SecuritySpelResolverContext(List<SecurityExpressionHandler<?>> securityExpressionHandlers) {
+	public SecuritySpelResolverContext(List<SecurityExpressionHandler<?>> securityExpressionHandlers,
+			ApplicationContext appContext) {
+		super(SpelExpressionCache.of(appContext.getBeanProvider(QueryFilterProperties.class)
+				.getIfAvailable(QueryFilterProperties::new).getSpel()),
+				appContext.getBeanProvider(SpelCacheKeyExtractor.class).getIfAvailable(() -> AUTHENTICATION));
 		securityExpressionHandler = getFilterSecurityHandler(securityExpressionHandlers);
 	}
 
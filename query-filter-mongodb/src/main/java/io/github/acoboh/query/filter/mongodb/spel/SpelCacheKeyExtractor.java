@@ -0,0 +1,37 @@
+package io.github.acoboh.query.filter.mongodb.spel;
+
+import java.security.Principal;
+
+import javax.annotation.Nullable;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Extractor of the key of the requests for the cached SpEL results. Requests
+ * with the same key share the cached results of the expressions.
+ * <p>
+ * Define a bean of this type to replace the default key, the name of the
+ * principal of the request
+ */
+@FunctionalInterface
+public interface SpelCacheKeyExtractor {
+
+	/**
+	 * Name of the principal of the request. Results of anonymous requests are not
+	 * cached
+	 */
+	SpelCacheKeyExtractor PRINCIPAL = request -> {
+		Principal principal = request != null ? request.getUserPrincipal() : null;
+		return principal != null ? principal.getName() : null;
+	};
+
+	/**
+	 * Get the key of a request
+	 *
+	 * @param request request, or null out of a request
+	 * @return key of the request, or null to not cache the results of the request
+	 */
+	@Nullable
+	String getKey(@Nullable HttpServletRequest request);
+
+}
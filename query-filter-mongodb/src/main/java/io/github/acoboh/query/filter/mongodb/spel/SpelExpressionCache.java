@@ -0,0 +1,171 @@
+package io.github.acoboh.query.filter.mongodb.spel;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.EvaluationException;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.standard.SpelExpression;
+
+import io.github.acoboh.query.filter.mongodb.cache.QFBoundedCache;
+import io.github.acoboh.query.filter.mongodb.cache.QFCacheStats;
+import io.github.acoboh.query.filter.mongodb.properties.SpelProperties;
+
+/**
+ * Bounded cache of parsed SpEL expressions, by expression string.
+ * <p>
+ * With the <code>IMMEDIATE</code> compiler mode, the expressions are compiled
+ * to bytecode after the first evaluation. With the <code>MIXED</code> mode,
+ * they are compiled after {@value #MIXED_THRESHOLD} evaluations, and they are
+ * interpreted again if the compiled expression fails. Expressions that can not
+ * be compiled are always interpreted.
+ */
+public final class SpelExpressionCache {
+
+	/**
+	 * Evaluations of an expression before compiling it on <code>MIXED</code> mode
+	 */
+	public static final int MIXED_THRESHOLD = 100;
+
+	private final QFBoundedCache<String, Entry> cache;
+	private final SpelCompilerMode compilerMode;
+
+	private final LongAdder parses = new LongAdder();
+	private final LongAdder compiles = new LongAdder();
+
+	/**
+	 * Create a new cache
+	 *
+	 * @param maxSize      max number of parsed expressions. Zero disables the
+	 *                     cache
+	 * @param compilerMode compiler mode of the expressions
+	 */
+	public SpelExpressionCache(int maxSize, SpelCompilerMode compilerMode) {
+		this.cache = maxSize > 0 ? new QFBoundedCache<>(maxSize) : null;
+		this.compilerMode = compilerMode;
+	}
+
+	/**
+	 * Create a new cache from the properties
+	 *
+	 * @param properties SpEL properties
+	 * @return new cache
+	 */
+	public static SpelExpressionCache of(SpelProperties properties) {
+		return new SpelExpressionCache(properties.getCacheMaxSize(), properties.getCompilerMode());
+	}
+
+	/**
+	 * Evaluate an expression, parsing it only if it is not cached
+	 *
+	 * @param expressionString expression
+	 * @param parser           parser of the missing expressions
+	 * @param context          evaluation context
+	 * @return value of the expression
+	 * @throws EvaluationException if the evaluation fails
+	 */
+	public Object getValue(String expressionString, Supplier<? extends ExpressionParser> parser,
+			EvaluationContext context) {
+
+		Entry entry = cache != null ? cache.computeIfAbsent(expressionString, key -> parse(key, parser))
+				: parse(expressionString, parser);
+
+		if (!entry.compiled.get()) {
+			Object ret = entry.expression.getValue(context);
+			checkCompile(entry);
+			return ret;
+		}
+
+		try {
+			return entry.expression.getValue(context);
+		} catch (EvaluationException e) {
+			if (compilerMode != SpelCompilerMode.MIXED) {
+				throw e;
+			}
+			// Interpreted from now on
+			((SpelExpression) entry.expression).revertToInterpreted();
+			entry.interpreted = true;
+			entry.compiled.set(false);
+			return entry.expression.getValue(context);
+		}
+
+	}
+
+	private Entry parse(String expressionString, Supplier<? extends ExpressionParser> parser) {
+		parses.increment();
+		return new Entry(parser.get().parseExpression(expressionString));
+	}
+
+	private void checkCompile(Entry entry) {
+		if (compilerMode == SpelCompilerMode.OFF || entry.interpreted
+				|| !(entry.expression instanceof SpelExpression spelExpression)) {
+			return;
+		}
+
+		int threshold = compilerMode == SpelCompilerMode.IMMEDIATE ? 1 : MIXED_THRESHOLD;
+		if (entry.evaluations.incrementAndGet() < threshold) {
+			return;
+		}
+
+		if (!spelExpression.compileExpression()) {
+			entry.interpreted = true;
+		} else if (entry.compiled.compareAndSet(false, true)) {
+			compiles.increment();
+		}
+	}
+
+	/**
+	 * Get the compiler mode of the expressions
+	 *
+	 * @return compiler mode
+	 */
+	public SpelCompilerMode getCompilerMode() {
+		return compilerMode;
+	}
+
+	/**
+	 * Get the number of parsed expressions
+	 *
+	 * @return number of parsed expressions
+	 */
+	public long getParseCount() {
+		return parses.sum();
+	}
+
+	/**
+	 * Get the number of expressions compiled to bytecode
+	 *
+	 * @return number of compiled expressions
+	 */
+	public long getCompileCount() {
+		return compiles.sum();
+	}
+
+	/**
+	 * Get a snapshot of the statistics of the cache
+	 *
+	 * @return cache statistics
+	 */
+	public QFCacheStats getCacheStats() {
+		return cache != null ? cache.getStats() : QFCacheStats.DISABLED;
+	}
+
+	private static final class Entry {
+
+		private final Expression expression;
+		private final AtomicInteger evaluations = new AtomicInteger();
+		private final AtomicBoolean compiled = new AtomicBoolean();
+		private volatile boolean interpreted;
+
+		private Entry(Expression expression) {
+			this.expression = expression;
+		}
+
+	}
+
+}
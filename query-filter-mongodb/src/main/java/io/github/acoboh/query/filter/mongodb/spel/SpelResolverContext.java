@@ -1,19 +1,19 @@
 package io.github.acoboh.query.filter.mongodb.spel;
 
+import java.util.HashMap;
 import java.util.Map;
-import java.util.stream.Collectors;
+
+import javax.annotation.Nullable;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.PropertyValue;
 import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.EvaluationException;
-import org.springframework.expression.Expression;
 import org.springframework.expression.ExpressionParser;
 import org.springframework.util.MultiValueMap;
-import org.springframework.web.bind.ServletRequestParameterPropertyValues;
 import org.springframework.web.servlet.View;
 
+import io.github.acoboh.query.filter.mongodb.properties.SpelProperties;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
@@ -27,6 +27,48 @@ public abstract class SpelResolverContext {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(SpelResolverContext.class);
 
+	private final SpelExpressionCache expressionCache;
+
+	private final SpelCacheKeyExtractor cacheKeyExtractor;
+
+	/**
+	 * Default constructor, with the default SpEL properties
+	 */
+	protected SpelResolverContext() {
+		this(new SpelProperties());
+	}
+
+	/**
+	 * Constructor with the SpEL properties of the parsed expression cache
+	 *
+	 * @param properties SpEL properties
+	 */
+	protected SpelResolverContext(SpelProperties properties) {
+		this(SpelExpressionCache.of(properties));
+	}
+
+	/**
+	 * Constructor with the parsed expression cache of other resolver, used by the
+	 * resolvers that wrap other resolver
+	 *
+	 * @param expressionCache parsed expression cache
+	 */
+	protected SpelResolverContext(SpelExpressionCache expressionCache) {
+		this(expressionCache, SpelCacheKeyExtractor.PRINCIPAL);
+	}
+
+	/**
+	 * Constructor with the parsed expression cache and the key extractor of the
+	 * cached results
+	 *
+	 * @param expressionCache   parsed expression cache
+	 * @param cacheKeyExtractor key extractor of the cached results
+	 */
+	protected SpelResolverContext(SpelExpressionCache expressionCache, SpelCacheKeyExtractor cacheKeyExtractor) {
+		this.expressionCache = expressionCache;
+		this.cacheKeyExtractor = cacheKeyExtractor;
+	}
+
 	/**
 	 * Evaluate any expression
 	 *
@@ -39,10 +81,6 @@ public abstract class SpelResolverContext {
 	public Object evaluate(String securityExpression, MultiValueMap<String, Object> contextValues,
 			HttpServletRequest request, HttpServletResponse response, boolean nullOnError) {
 
-		ExpressionParser expressionParser = getExpressionParser();
-
-		Expression expression = expressionParser.parseExpression(securityExpression);
-
 		EvaluationContext context = getEvaluationContext(request, response);
 
 		if (request != null) {
@@ -51,8 +89,61 @@ public abstract class SpelResolverContext {
 
 		fillContextWithMap(context, contextValues);
 
+		return getValue(securityExpression, context, nullOnError);
+
+	}
+
+	/**
+	 * Evaluate any expression, with the cache of the results of the element
+	 *
+	 * @param securityExpression expression to evaluate
+	 * @param contextValues      actual context values
+	 * @param request            request
+	 * @param response           response
+	 * @param nullOnError        true to return null if the evaluation fails
+	 * @param resultCache        cache of the results, or null to evaluate always
+	 * @return object evaluated
+	 */
+	public Object evaluate(String securityExpression, MultiValueMap<String, Object> contextValues,
+			HttpServletRequest request, HttpServletResponse response, boolean nullOnError,
+			@Nullable SpelResultCache resultCache) {
+
+		if (resultCache == null) {
+			return evaluate(securityExpression, contextValues, request, response, nullOnError);
+		}
+
+		// Requests without key are not cached
+		String key = cacheKeyExtractor.getKey(request);
+		if (key == null) {
+			return evaluate(securityExpression, contextValues, request, response, nullOnError);
+		}
+
+		return resultCache.getValue(key, securityExpression,
+				() -> request != null ? getRequestVariables(request) : Map.of(), contextValues,
+				() -> evaluate(securityExpression, contextValues, request, response, nullOnError));
+	}
+
+	/**
+	 * Get a resolver for a single evaluation of the filters. The evaluation
+	 * context, the request values and the authentication are resolved on the
+	 * first expression and shared by all the expressions of the evaluation. Only
+	 * the new context values are added to the evaluation context.
+	 * <p>
+	 * Resolvers that override
+	 * {@linkplain #evaluate(String, MultiValueMap, HttpServletRequest, HttpServletResponse, boolean)}
+	 * must override this method too
+	 *
+	 * @param request  request
+	 * @param response response
+	 * @return resolver of the evaluation
+	 */
+	public SpelResolverContext forRequest(HttpServletRequest request, HttpServletResponse response) {
+		return new RequestSpelResolverContext(this, request, response);
+	}
+
+	Object getValue(String securityExpression, EvaluationContext context, boolean nullOnError) {
 		try {
-			return expression.getValue(context);
+			return expressionCache.getValue(securityExpression, this::getExpressionParser, context);
 		} catch (EvaluationException e) {
 			if (nullOnError) {
 				return null;
@@ -61,11 +152,29 @@ public abstract class SpelResolverContext {
 				throw e;
 			}
 		}
+	}
+
+	/**
+	 * Get the cache of the parsed expressions
+	 *
+	 * @return cache of the parsed expressions
+	 */
+	public SpelExpressionCache getExpressionCache() {
+		return expressionCache;
+	}
 
+	/**
+	 * Get the key extractor of the cached results
+	 *
+	 * @return key extractor of the cached results
+	 */
+	public SpelCacheKeyExtractor getCacheKeyExtractor() {
+		return cacheKeyExtractor;
 	}
 
 	/**
-	 * Get expression parser to resolve de SpEL expression
+	 * Get expression parser to resolve de SpEL expression. It is only used to
+	 * parse the expressions missing on the cache
 	 * 
 	 * @return the expression parser to use
 	 */
@@ -82,21 +191,40 @@ public abstract class SpelResolverContext {
 	 */
 	public abstract EvaluationContext getEvaluationContext(HttpServletRequest request, HttpServletResponse response);
 
-	private void fillContextWithRequestValues(EvaluationContext context, HttpServletRequest request) {
+	static void fillContextWithRequestValues(EvaluationContext context, HttpServletRequest request) {
+		getRequestVariables(request).forEach(context::setVariable);
+	}
+
+	/**
+	 * Get the path variables and query parameters of a request as SpEL variables.
+	 * Single values of the parameters are strings and multiple values are arrays
+	 *
+	 * @param request request
+	 * @return variables <code>_pathVariables</code> and <code>_parameters</code>
+	 */
+	static Map<String, Object> getRequestVariables(HttpServletRequest request) {
+		Map<String, Object> ret = new HashMap<>(4);
 
 		Object pathObject = request.getAttribute(View.PATH_VARIABLES);
 		if (pathObject instanceof Map<?, ?> map) {
-			context.setVariable("_pathVariables", map);
+			ret.put("_pathVariables", map);
 		}
 
-		var properties = new ServletRequestParameterPropertyValues(request);
-		Map<String, Object> requestParams = properties.getPropertyValueList().stream()
-				.collect(Collectors.toMap(PropertyValue::getName, PropertyValue::getValue));
+		Map<String, String[]> parameters = request.getParameterMap();
+		Map<String, Object> requestParams = new HashMap<>(parameters.size() * 2);
+		parameters.forEach((name, values) -> {
+			if (values != null && values.length > 1) {
+				requestParams.put(name, values);
+			} else if (values != null && values.length == 1) {
+				requestParams.put(name, values[0]);
+			}
+		});
 
-		context.setVariable("_parameters", requestParams);
+		ret.put("_parameters", requestParams);
+		return ret;
 	}
 
-	private void fillContextWithMap(EvaluationContext context, MultiValueMap<String, Object> contextValues) {
+	private static void fillContextWithMap(EvaluationContext context, MultiValueMap<String, Object> contextValues) {
 		contextValues.forEach((k, v) -> {
 			if (v.size() > 1) {
 				context.setVariable(k, v);
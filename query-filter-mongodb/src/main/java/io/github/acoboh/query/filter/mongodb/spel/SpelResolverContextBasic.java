@@ -9,6 +9,7 @@ import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.stereotype.Component;
 
+import io.github.acoboh.query.filter.mongodb.properties.QueryFilterProperties;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
@@ -25,6 +26,10 @@ class SpelResolverContextBasic extends SpelResolverContext {
 	private final ApplicationContext applicationContext;
 
 	public SpelResolverContextBasic(ApplicationContext appContext) {
+		super(SpelExpressionCache.of(appContext.getBeanProvider(QueryFilterProperties.class)
+				.getIfAvailable(QueryFilterProperties::new).getSpel()),
+				appContext.getBeanProvider(SpelCacheKeyExtractor.class)
+						.getIfAvailable(() -> SpelCacheKeyExtractor.PRINCIPAL));
 		applicationContext = appContext;
 	}
 
@@ -0,0 +1,153 @@
+package io.github.acoboh.query.filter.mongodb.spel;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.springframework.util.Assert;
+import org.springframework.util.MultiValueMap;
+
+import io.github.acoboh.query.filter.mongodb.cache.QFBoundedCache;
+import io.github.acoboh.query.filter.mongodb.cache.QFCacheStats;
+
+/**
+ * Cache of the results of the SpEL expressions of an element, with a time to
+ * live.
+ * <p>
+ * Results are cached by key of the request, expression and values of the
+ * previous fields. The path variables and query parameters of the request are
+ * only part of the key of the expressions that use the
+ * <code>#_pathVariables</code> or <code>#_parameters</code> variables. Expired
+ * results are evaluated again on the next request, and two requests may
+ * evaluate the same expired result at the same time. Failed evaluations and
+ * null results are not cached, because null is also the result of the failed
+ * evaluations of the elements with null on error
+ */
+public final class SpelResultCache {
+
+	// Variables of the request that are part of the key of the expressions that use them
+	private static final List<String> REQUEST_VARIABLES = List.of("_pathVariables", "_parameters");
+
+	private final long ttlMillis;
+
+	private final Clock clock;
+
+	private final QFBoundedCache<Key, Result> cache;
+
+	/**
+	 * Create a new cache
+	 *
+	 * @param ttlMillis time to live of the results in milliseconds
+	 * @param maxSize   max number of results
+	 * @param clock     clock of the expiration of the results
+	 */
+	public SpelResultCache(long ttlMillis, int maxSize, Clock clock) {
+		Assert.isTrue(ttlMillis > 0, "ttlMillis must be greater than zero");
+		this.ttlMillis = ttlMillis;
+		this.clock = clock;
+		this.cache = new QFBoundedCache<>(maxSize);
+	}
+
+	/**
+	 * Get the cached result of an expression or evaluate it if it is missing or
+	 * expired
+	 *
+	 * @param key           key of the request
+	 * @param expression    expression
+	 * @param requestValues supplier of the path variables and query parameters of
+	 *                      the request, only called if the expression uses them
+	 * @param contextValues values of the previous fields
+	 * @param evaluator     evaluator of the expression
+	 * @return result of the expression
+	 */
+	Object getValue(String key, String expression, Supplier<Map<String, ?>> requestValues,
+			MultiValueMap<String, Object> contextValues, Supplier<Object> evaluator) {
+
+		var cacheKey = new Key(key, expression, snapshot(expression, requestValues), snapshot(contextValues));
+
+		var result = cache.get(cacheKey, this::isValid);
+		if (result != null) {
+			return result.value();
+		}
+
+		Object value = evaluator.get();
+		if (value != null) {
+			cache.put(cacheKey, new Result(value, clock.millis() + ttlMillis));
+		}
+		return value;
+	}
+
+	/**
+	 * Get the time to live of the results
+	 *
+	 * @return time to live in milliseconds
+	 */
+	public long getTtlMillis() {
+		return ttlMillis;
+	}
+
+	/**
+	 * Get a snapshot of the statistics of the cache. Expired results are counted
+	 * as misses
+	 *
+	 * @return cache statistics
+	 */
+	public QFCacheStats getStats() {
+		return cache.getStats();
+	}
+
+	// Copy of the context values, because the context of the filter changes later
+	private static Map<String, List<Object>> snapshot(MultiValueMap<String, Object> contextValues) {
+		if (contextValues.isEmpty()) {
+			return Map.of();
+		}
+
+		Map<String, List<Object>> ret = new HashMap<>(contextValues.size() * 2);
+		contextValues.forEach((name, values) -> ret.put(name, Collections.unmodifiableList(new ArrayList<>(values))));
+		return ret;
+	}
+
+	private boolean isValid(Result result) {
+		return result.expiresAt() > clock.millis();
+	}
+
+	// Copy of the request values used by the expression, with the arrays of the multiple parameters as lists
+	private static Map<String, Object> snapshot(String expression, Supplier<Map<String, ?>> requestValues) {
+		Map<String, ?> values = null;
+		Map<String, Object> ret = null;
+		for (String name : REQUEST_VARIABLES) {
+			if (expression.contains("#" + name)) {
+				if (values == null) {
+					values = requestValues.get();
+					ret = new HashMap<>(4);
+				}
+				ret.put(name, snapshotValue(values.get(name)));
+			}
+		}
+		return ret != null ? ret : Map.of();
+	}
+
+	private static Object snapshotValue(Object value) {
+		if (value instanceof Map<?, ?> map) {
+			Map<Object, Object> ret = new HashMap<>(map.size() * 2);
+			map.forEach((name, nested) -> ret.put(name, snapshotValue(nested)));
+			return ret;
+		} else if (value instanceof Object[] array) {
+			return Arrays.stream(array).map(SpelResultCache::snapshotValue).toList();
+		}
+		return value;
+	}
+
+	private record Key(String key, String expression, Map<String, Object> requestValues,
+			Map<String, List<Object>> contextValues) {
+	}
+
+	private record Result(Object value, long expiresAt) {
+	}
+
+}
@@ -3,13 +3,16 @@ package io.github.acoboh.query.filter.mongodb.utils;
 import java.lang.reflect.Field;
 import java.lang.reflect.ParameterizedType;
 import java.sql.Timestamp;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 
+import org.bson.types.ObjectId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -83,7 +86,10 @@ public class ClassUtils {
 			UUID.class, // UUID
 			LocalDateTime.class, // LocalDateTime
 			Timestamp.class, // Timestamp
-			Date.class // Date
+			Date.class, // Date
+			Instant.class, // Instant
+			OffsetDateTime.class, // OffsetDateTime
+			ObjectId.class // ObjectId
 	);
 
 	/**
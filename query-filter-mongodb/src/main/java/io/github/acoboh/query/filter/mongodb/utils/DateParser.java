@@ -0,0 +1,569 @@
+package io.github.acoboh.query.filter.mongodb.utils;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.Year;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.TemporalQuery;
+import java.util.Date;
+
+import javax.annotation.Nullable;
+
+import io.github.acoboh.query.filter.mongodb.annotations.QFDate;
+import io.github.acoboh.query.filter.mongodb.cache.QFBoundedCache;
+
+/**
+ * Parser of the date values of a field, created once with its definition.
+ * <p>
+ * Values are parsed with fast paths that avoid the {@linkplain DateTimeFormatter}
+ * machinery:
+ * <ul>
+ * <li>Fixed width patterns, like the default
+ * <code>yyyy-MM-dd'T'HH:mm:ss'Z'</code>, are read digit by digit</li>
+ * <li>{@linkplain Instant} and {@linkplain OffsetDateTime} fields without
+ * {@linkplain QFDate} annotation accept ISO-8601 values with offset, like
+ * <code>2024-01-01T10:00:00.250+02:00</code></li>
+ * <li>Epoch milliseconds are accepted if the pattern can not parse values with
+ * digits only</li>
+ * </ul>
+ * Other values are parsed with the formatter, with the zone of the annotation
+ * applied. Both paths return the same value.
+ * <p>
+ * Values starting with <code>now</code> are relative dates, like
+ * <code>now-7d/d</code>, resolved with the clock of the parser. The expressions
+ * are compiled once and cached.
+ */
+public final class DateParser {
+
+	/**
+	 * Format of the fields parsed as ISO-8601
+	 */
+	public static final String ISO_FORMAT = "ISO-8601";
+
+	/**
+	 * Max number of compiled relative date expressions of each parser
+	 */
+	public static final int RELATIVE_CACHE_SIZE = 256;
+
+	private final Kind kind;
+	private final DateTimeFormatter formatter;
+	private final ZoneId zone;
+	private final String format;
+	private final boolean iso;
+	private final boolean epochMillis;
+
+	@Nullable
+	private final Layout layout;
+
+	private final TemporalQuery<Object> query;
+
+	private final Clock clock;
+	private final QFBoundedCache<String, RelativeDate> relativeDates = new QFBoundedCache<>(RELATIVE_CACHE_SIZE);
+
+	private DateParser(Kind kind, Clock clock, DateTimeFormatter formatter, ZoneId zone, String format, boolean iso,
+			boolean epochMillis, @Nullable Layout layout) {
+		this.kind = kind;
+		this.clock = clock;
+		this.formatter = formatter;
+		this.zone = zone;
+		this.format = format;
+		this.iso = iso;
+		this.epochMillis = epochMillis;
+		this.layout = layout;
+		this.query = iso ? kind.isoQuery : kind.query;
+	}
+
+	/**
+	 * Create the parser of a date class, with the system clock
+	 *
+	 * @param dateAnnotation date annotation of the field, or null to use the
+	 *                       default format
+	 * @param finalClass     class of the parsed values
+	 * @return new parser or null if the class is not a supported date class
+	 */
+	@Nullable
+	public static DateParser of(@Nullable QFDate dateAnnotation, Class<?> finalClass) {
+		return of(dateAnnotation, finalClass, Clock.systemUTC());
+	}
+
+	/**
+	 * Create the parser of a date class
+	 *
+	 * @param dateAnnotation date annotation of the field, or null to use the
+	 *                       default format
+	 * @param finalClass     class of the parsed values
+	 * @param clock          clock of the relative dates
+	 * @return new parser or null if the class is not a supported date class
+	 */
+	@Nullable
+	public static DateParser of(@Nullable QFDate dateAnnotation, Class<?> finalClass, Clock clock) {
+
+		Kind kind = Kind.of(finalClass);
+		if (kind == null) {
+			return null;
+		}
+
+		ZoneId zone = ZoneId.of(dateAnnotation != null ? dateAnnotation.zoneOffset() : QFDate.DEFAULT_ZONEOFFSET);
+
+		if (dateAnnotation == null && kind.isoQuery != null) {
+			return new DateParser(kind, clock, DateTimeFormatter.ISO_OFFSET_DATE_TIME, zone, ISO_FORMAT, true, true,
+					null);
+		}
+
+		String pattern = dateAnnotation != null ? dateAnnotation.timeFormat() : QFDate.DEFAULT_DATE_FORMAT;
+		boolean defaulting = dateAnnotation != null && dateAnnotation.parseDefaulting().length > 0;
+
+		Layout layout = defaulting ? null : Layout.compile(pattern);
+		if (layout != null && !layout.hasTime() && kind.requiresTime) {
+			layout = null;
+		}
+
+		return new DateParser(kind, clock, DateUtils.getFormatter(dateAnnotation), zone, pattern, false,
+				rejectsDigits(pattern), layout);
+	}
+
+	/**
+	 * Parse a value
+	 *
+	 * @param value value
+	 * @return parsed value of the class of the parser
+	 * @throws DateTimeParseException if the value can not be parsed
+	 */
+	public Object parse(String value) {
+
+		if (RelativeDate.isRelative(value)) {
+			return fromInstant(relativeDates.computeIfAbsent(value, RelativeDate::compile).resolve(clock, zone));
+		}
+
+		if (iso) {
+			Object ret = parseIso(value);
+			if (ret != null) {
+				return ret;
+			}
+		} else if (layout != null) {
+			LocalDateTime parsed = layout.parse(value);
+			if (parsed != null) {
+				return fromLocal(parsed);
+			}
+		}
+
+		if (epochMillis && isEpochMillis(value)) {
+			return fromInstant(Instant.ofEpochMilli(Long.parseLong(value)));
+		}
+
+		return formatter.parse(value, query);
+	}
+
+	/**
+	 * Get if a value is a relative date expression, resolved on each parse
+	 *
+	 * @param value value
+	 * @return true if the value is a relative date
+	 */
+	public static boolean isRelative(String value) {
+		return RelativeDate.isRelative(value);
+	}
+
+	/**
+	 * Get the formatter of the slow path, with the zone applied
+	 *
+	 * @return formatter
+	 */
+	public DateTimeFormatter getFormatter() {
+		return formatter;
+	}
+
+	/**
+	 * Get the format of the values, used on error messages
+	 *
+	 * @return format
+	 */
+	public String getFormat() {
+		return format;
+	}
+
+	private Object fromLocal(LocalDateTime dt) {
+		return switch (kind) {
+		case TIMESTAMP -> Timestamp.valueOf(dt);
+		case LOCAL_DATE_TIME -> dt;
+		case LOCAL_DATE -> dt.toLocalDate();
+		case SQL_DATE -> java.sql.Date.valueOf(dt.toLocalDate());
+		case ZONED_DATE_TIME -> dt.atZone(zone);
+		case OFFSET_DATE_TIME -> dt.atZone(zone).toOffsetDateTime();
+		case INSTANT -> dt.atZone(zone).toInstant();
+		case DATE -> Date.from(dt.atZone(zone).toInstant());
+		};
+	}
+
+	private Object fromInstant(Instant instant) {
+		return switch (kind) {
+		case TIMESTAMP -> Timestamp.valueOf(LocalDateTime.ofInstant(instant, zone));
+		case LOCAL_DATE_TIME -> LocalDateTime.ofInstant(instant, zone);
+		case LOCAL_DATE -> LocalDate.ofInstant(instant, zone);
+		case SQL_DATE -> java.sql.Date.valueOf(LocalDate.ofInstant(instant, zone));
+		case ZONED_DATE_TIME -> instant.atZone(zone);
+		case OFFSET_DATE_TIME -> OffsetDateTime.ofInstant(instant, zone);
+		case INSTANT -> instant;
+		case DATE -> Date.from(instant);
+		};
+	}
+
+	/**
+	 * Parse <code>yyyy-MM-ddTHH:mm:ss[.fraction](Z|+HH:MM)</code>. Other ISO-8601
+	 * values are left to the formatter
+	 */
+	@Nullable
+	private Object parseIso(String value) {
+		int length = value.length();
+		if (length < 20 || value.charAt(4) != '-' || value.charAt(7) != '-' || value.charAt(10) != 'T'
+				|| value.charAt(13) != ':' || value.charAt(16) != ':') {
+			return null;
+		}
+
+		LocalDate date = Layout.date(digits(value, 0, 4), digits(value, 5, 2), digits(value, 8, 2));
+		int hour = digits(value, 11, 2);
+		int minute = digits(value, 14, 2);
+		int second = digits(value, 17, 2);
+		if (date == null || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+			return null;
+		}
+
+		int i = 19;
+		int nanos = 0;
+		if (value.charAt(i) == '.') {
+			int start = ++i;
+			while (i < length && i - start < 9 && isDigit(value.charAt(i))) {
+				nanos = nanos * 10 + value.charAt(i++) - '0';
+			}
+			if (i == start) {
+				return null;
+			}
+			for (int scale = i - start; scale < 9; scale++) {
+				nanos *= 10;
+			}
+		}
+
+		ZoneOffset offset = offset(value, i);
+		if (offset == null) {
+			return null;
+		}
+
+		LocalDateTime dt = date.atTime(hour, minute, second, nanos);
+		return kind == Kind.INSTANT ? dt.toInstant(offset) : OffsetDateTime.of(dt, offset);
+	}
+
+	@Nullable
+	private static ZoneOffset offset(String value, int start) {
+		int remaining = value.length() - start;
+		if (remaining == 1 && value.charAt(start) == 'Z') {
+			return ZoneOffset.UTC;
+		}
+
+		char sign = remaining == 6 ? value.charAt(start) : 0;
+		if ((sign != '+' && sign != '-') || value.charAt(start + 3) != ':') {
+			return null;
+		}
+
+		int hours = digits(value, start + 1, 2);
+		int minutes = digits(value, start + 4, 2);
+		if (hours < 0 || minutes < 0) {
+			return null;
+		}
+
+		try {
+			return sign == '+' ? ZoneOffset.ofHoursMinutes(hours, minutes)
+					: ZoneOffset.ofHoursMinutes(-hours, -minutes);
+		} catch (DateTimeException e) {
+			return null;
+		}
+	}
+
+	private static boolean isEpochMillis(String value) {
+		int length = value.length();
+		int start = length > 1 && value.charAt(0) == '-' ? 1 : 0;
+		if (length == start || length - start > 18) {
+			return false;
+		}
+		for (int i = start; i < length; i++) {
+			if (!isDigit(value.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Get if a pattern can not parse values with digits only, so these values can
+	 * be read as epoch milliseconds. Patterns with optional sections are never
+	 * considered
+	 */
+	private static boolean rejectsDigits(String pattern) {
+		boolean ret = false;
+		boolean quoted = false;
+		for (int i = 0; i < pattern.length(); i++) {
+			char c = pattern.charAt(i);
+			if (c == '\'') {
+				quoted = !quoted;
+			} else if (!quoted && (c == '[' || c == ']')) {
+				return false;
+			} else if ((quoted || !Character.isLetter(c)) && !isDigit(c)) {
+				ret = true;
+			}
+		}
+		return ret;
+	}
+
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
+	/**
+	 * Read a positive number of fixed width
+	 *
+	 * @return number or -1 if any character is not a digit
+	 */
+	private static int digits(String value, int start, int width) {
+		int ret = 0;
+		for (int i = start; i < start + width; i++) {
+			char c = value.charAt(i);
+			if (!isDigit(c)) {
+				return -1;
+			}
+			ret = ret * 10 + c - '0';
+		}
+		return ret;
+	}
+
+	private enum Kind {
+
+		TIMESTAMP(true, t -> Timestamp.valueOf(LocalDateTime.from(t)), null),
+
+		LOCAL_DATE_TIME(true, LocalDateTime::from, null),
+
+		LOCAL_DATE(false, LocalDate::from, null),
+
+		SQL_DATE(false, t -> java.sql.Date.valueOf(LocalDate.from(t)), null),
+
+		ZONED_DATE_TIME(true, ZonedDateTime::from, null),
+
+		OFFSET_DATE_TIME(true, t -> ZonedDateTime.from(t).toOffsetDateTime(), OffsetDateTime::from),
+
+		INSTANT(true, t -> ZonedDateTime.from(t).toInstant(), Instant::from),
+
+		DATE(true, t -> Date.from(ZonedDateTime.from(t).toInstant()), null);
+
+		private final boolean requiresTime;
+		private final TemporalQuery<Object> query;
+
+		@Nullable
+		private final TemporalQuery<Object> isoQuery;
+
+		Kind(boolean requiresTime, TemporalQuery<Object> query, @Nullable TemporalQuery<Object> isoQuery) {
+			this.requiresTime = requiresTime;
+			this.query = query;
+			this.isoQuery = isoQuery;
+		}
+
+		@Nullable
+		private static Kind of(Class<?> clazz) {
+			if (Timestamp.class.isAssignableFrom(clazz)) {
+				return TIMESTAMP;
+			} else if (LocalDateTime.class.isAssignableFrom(clazz)) {
+				return LOCAL_DATE_TIME;
+			} else if (LocalDate.class.isAssignableFrom(clazz)) {
+				return LOCAL_DATE;
+			} else if (ZonedDateTime.class.isAssignableFrom(clazz)) {
+				return ZONED_DATE_TIME;
+			} else if (OffsetDateTime.class.isAssignableFrom(clazz)) {
+				return OFFSET_DATE_TIME;
+			} else if (Instant.class.isAssignableFrom(clazz)) {
+				return INSTANT;
+			} else if (java.sql.Date.class.isAssignableFrom(clazz)) {
+				return SQL_DATE;
+			} else if (Date.class.isAssignableFrom(clazz)) {
+				return DATE;
+			}
+			return null;
+		}
+
+	}
+
+	/**
+	 * Fixed width pattern with the fields <code>yyyy</code>, <code>uuuu</code>,
+	 * <code>MM</code>, <code>dd</code>, <code>HH</code>, <code>mm</code>,
+	 * <code>ss</code> and <code>SSS</code> and literals
+	 */
+	private static final class Layout {
+
+		private static final int YEAR = 0;
+		private static final int MONTH = 1;
+		private static final int DAY = 2;
+		private static final int HOUR = 3;
+		private static final int MINUTE = 4;
+		private static final int SECOND = 5;
+		private static final int MILLI = 6;
+
+		private static final int[] WIDTHS = { 4, 2, 2, 2, 2, 2, 3 };
+
+		/**
+		 * Literal characters of the values, with zero on the positions of the fields
+		 */
+		private final char[] literals;
+
+		/**
+		 * Position of each field, or -1 if absent
+		 */
+		private final int[] positions;
+
+		private Layout(char[] literals, int[] positions) {
+			this.literals = literals;
+			this.positions = positions;
+		}
+
+		@Nullable
+		private static Layout compile(String pattern) {
+
+			StringBuilder literals = new StringBuilder(pattern.length());
+			int[] positions = { -1, -1, -1, -1, -1, -1, -1 };
+
+			int i = 0;
+			while (i < pattern.length()) {
+				char c = pattern.charAt(i);
+				if (c == '\'') {
+					int end = pattern.indexOf('\'', i + 1);
+					if (end < 0 || end == i + 1) {
+						// Unclosed or escaped quote
+						return null;
+					}
+					literals.append(pattern, i + 1, end);
+					i = end + 1;
+				} else if (Character.isLetter(c)) {
+					int end = i;
+					while (end < pattern.length() && pattern.charAt(end) == c) {
+						end++;
+					}
+					int field = field(c, end - i);
+					if (field < 0 || positions[field] >= 0) {
+						return null;
+					}
+					positions[field] = literals.length();
+					for (int j = 0; j < WIDTHS[field]; j++) {
+						literals.append('\0');
+					}
+					i = end;
+				} else if ("[]{}#".indexOf(c) >= 0) {
+					return null;
+				} else {
+					literals.append(c);
+					i++;
+				}
+			}
+
+			if (positions[YEAR] < 0 || positions[MONTH] < 0 || positions[DAY] < 0) {
+				return null;
+			}
+
+			// Time fields must be complete from the hours
+			boolean hour = positions[HOUR] >= 0;
+			boolean minute = positions[MINUTE] >= 0;
+			boolean second = positions[SECOND] >= 0;
+			if (hour != minute || (second && !minute) || (positions[MILLI] >= 0 && !second)) {
+				return null;
+			}
+
+			return new Layout(literals.toString().toCharArray(), positions);
+		}
+
+		private static int field(char letter, int width) {
+			int ret = switch (letter) {
+			case 'y', 'u' -> YEAR;
+			case 'M' -> MONTH;
+			case 'd' -> DAY;
+			case 'H' -> HOUR;
+			case 'm' -> MINUTE;
+			case 's' -> SECOND;
+			case 'S' -> MILLI;
+			default -> -1;
+			};
+			return ret >= 0 && WIDTHS[ret] == width ? ret : -1;
+		}
+
+		private boolean hasTime() {
+			return positions[HOUR] >= 0;
+		}
+
+		/**
+		 * Parse a value
+		 *
+		 * @return date time or null if the value does not match exactly
+		 */
+		@Nullable
+		private LocalDateTime parse(String value) {
+			if (value.length() != literals.length) {
+				return null;
+			}
+			for (int i = 0; i < literals.length; i++) {
+				if (literals[i] != 0 && literals[i] != value.charAt(i)) {
+					return null;
+				}
+			}
+
+			LocalDate date = date(read(value, YEAR), read(value, MONTH), read(value, DAY));
+			int hour = read(value, HOUR);
+			int minute = read(value, MINUTE);
+			int second = read(value, SECOND);
+			int milli = read(value, MILLI);
+			if (date == null || hour > 23 || minute > 59 || second > 59 || hour < -1 || minute < -1 || second < -1
+					|| milli < -1) {
+				return null;
+			}
+
+			return date.atTime(Math.max(hour, 0), Math.max(minute, 0), Math.max(second, 0),
+					Math.max(milli, 0) * 1_000_000);
+		}
+
+		/**
+		 * Read a field
+		 *
+		 * @return value, -1 if the field is absent or -2 if it is not a number
+		 */
+		private int read(String value, int field) {
+			int position = positions[field];
+			if (position < 0) {
+				return -1;
+			}
+			int ret = digits(value, position, WIDTHS[field]);
+			return ret < 0 ? -2 : ret;
+		}
+
+		/**
+		 * Get a date if the fields are valid without any resolution
+		 */
+		@Nullable
+		private static LocalDate date(int year, int month, int day) {
+			if (year < 1 || month < 1 || month > 12 || day < 1 || day > 28 && day > lengthOfMonth(year, month)) {
+				return null;
+			}
+			return LocalDate.of(year, month, day);
+		}
+
+		private static int lengthOfMonth(int year, int month) {
+			return switch (month) {
+			case 2 -> Year.isLeap(year) ? 29 : 28;
+			case 4, 6, 9, 11 -> 30;
+			default -> 31;
+			};
+		}
+
+	}
+
+}
@@ -0,0 +1,150 @@
+package io.github.acoboh.query.filter.mongodb.count;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.context.junit.jupiter.web.SpringJUnitWebConfig;
+import org.springframework.test.context.web.WebAppConfiguration;
+
+import io.github.acoboh.query.filter.mongodb.domain.PostBlogDocumentFilterDef;
+import io.github.acoboh.query.filter.mongodb.dto.PostBlogSimplifiedDTO;
+import io.github.acoboh.query.filter.mongodb.model.PostBlogDocument;
+import io.github.acoboh.query.filter.mongodb.processor.QFParamType;
+import io.github.acoboh.query.filter.mongodb.processor.QFProcessor;
+import io.github.acoboh.query.filter.mongodb.properties.QueryFilterProperties;
+import io.github.acoboh.query.filter.mongodb.repositories.PostBlogDocumentRepository;
+import io.github.acoboh.query.filter.mongodb.spring.SpringIntegrationTestBase;
+
+@SpringJUnitWebConfig({ SpringIntegrationTestBase.Config.class, ConcurrentCountTests.CountConfig.class })
+@ExtendWith(SpringExtension.class)
+@WebAppConfiguration
+@TestPropertySource(properties = "query-filter.concurrent-count.enabled=true")
+class ConcurrentCountTests {
+
+	private static final AtomicInteger COUNTS = new AtomicInteger();
+
+	@Configuration(proxyBeanMethods = false)
+	static class CountConfig {
+
+		// Counts start without delay, unless the test sets other delay
+		@Bean
+		static BeanPostProcessor concurrentCountProperties(Environment environment) {
+			return new BeanPostProcessor() {
+
+				@Override
+				public Object postProcessBeforeInitialization(Object bean, String beanName) {
+					if (bean instanceof QueryFilterProperties properties) {
+						properties.getConcurrentCount().setExecutor("testCountExecutor");
+						properties.getConcurrentCount()
+								.setDelayMs(environment.getProperty("test.count.delay-ms", Long.class, 0L));
+					}
+					return bean;
+				}
+
+			};
+		}
+
+		@Bean
+		Executor testCountExecutor() {
+			return command -> {
+				COUNTS.incrementAndGet();
+				new Thread(command).start();
+			};
+		}
+
+	}
+
+	@Autowired
+	private QFProcessor<PostBlogDocumentFilterDef, PostBlogDocument> qfProcessor;
+
+	@Autowired
+	private PostBlogDocumentRepository repository;
+
+	@BeforeEach
+	void setup() {
+		for (int i = 1; i <= 5; i++) {
+			var document = new PostBlogDocument();
+			document.setId(String.valueOf(i));
+			document.setTitle(i % 2 == 0 ? "A" : "B");
+			repository.save(document);
+		}
+		COUNTS.set(0);
+	}
+
+	@AfterEach
+	void cleanup() {
+		repository.deleteAll();
+	}
+
+	@Test
+	@DisplayName("Counts run concurrently on the configured executor")
+	void testConcurrentCount() {
+
+		var qf = qfProcessor.newQueryFilter("sort=+id", QFParamType.RHS_COLON);
+
+		var page = qf.executeFindQuery(PageRequest.of(1, 2));
+		assertThat(page.getContent()).extracting(PostBlogDocument::getId).containsExactly("3", "4");
+		assertThat(page.getTotalElements()).isEqualTo(5);
+
+		var projected = qf.executeAggregateAndProject(PageRequest.of(0, 2), PostBlogSimplifiedDTO.class);
+		assertThat(projected.getContent()).extracting(PostBlogSimplifiedDTO::getId).containsExactly("1", "2");
+		assertThat(projected.getTotalElements()).isEqualTo(5);
+
+		var filtered = qfProcessor.newQueryFilter("title=eq:A", QFParamType.RHS_COLON);
+		assertThat(filtered.executeFindQuery(PageRequest.of(0, 1)).getTotalElements()).isEqualTo(2);
+
+		assertThat(COUNTS).hasValue(3);
+
+		// Short pages get the same total
+		page = qf.executeFindQuery(PageRequest.of(0, 10));
+		assertThat(page.getContent()).hasSize(5);
+		assertThat(page.getTotalElements()).isEqualTo(5);
+
+		assertThat(page.getTotalPages()).isEqualTo(1);
+
+	}
+
+	@Nested
+	@TestPropertySource(properties = "test.count.delay-ms=3600000")
+	class DelayedCountTests {
+
+		@Autowired
+		private QFProcessor<PostBlogDocumentFilterDef, PostBlogDocument> qfProcessor;
+
+		@Test
+		@DisplayName("Counts of fast page queries run only if needed, without the executor")
+		void testDelayedCount() {
+
+			var qf = qfProcessor.newQueryFilter("sort=+id", QFParamType.RHS_COLON);
+
+			var page = qf.executeFindQuery(PageRequest.of(1, 2));
+			assertThat(page.getContent()).extracting(PostBlogDocument::getId).containsExactly("3", "4");
+			assertThat(page.getTotalElements()).isEqualTo(5);
+
+			page = qf.executeFindQuery(PageRequest.of(0, 10));
+			assertThat(page.getContent()).hasSize(5);
+			assertThat(page.getTotalElements()).isEqualTo(5);
+
+			assertThat(COUNTS).hasValue(0);
+
+		}
+
+	}
+
+}
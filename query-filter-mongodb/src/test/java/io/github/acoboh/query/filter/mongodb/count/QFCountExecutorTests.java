@@ -0,0 +1,108 @@
+package io.github.acoboh.query.filter.mongodb.count;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import io.github.acoboh.query.filter.mongodb.properties.QueryFilterProperties;
+
+class QFCountExecutorTests {
+
+	@Test
+	@DisplayName("Counts run on the default executor")
+	void testDefaultExecutor() {
+
+		var executor = new QFCountExecutor(new QueryFilterProperties(), new DefaultListableBeanFactory());
+		try {
+			var caller = Thread.currentThread();
+			var count = executor.submit(() -> Thread.currentThread() == caller ? -1L : 5L);
+			assertThat(QFCountExecutor.await(count)).isEqualTo(5);
+		} finally {
+			executor.destroy();
+		}
+
+	}
+
+	@Test
+	@DisplayName("Exceptions of the counts are thrown as they are")
+	void testExceptions() {
+
+		var executor = new QFCountExecutor(new QueryFilterProperties(), new DefaultListableBeanFactory());
+		try {
+			var count = executor.submit(() -> {
+				throw new IllegalStateException("count failed");
+			});
+			assertThatThrownBy(() -> QFCountExecutor.await(count)).isInstanceOf(IllegalStateException.class)
+					.hasMessage("count failed");
+		} finally {
+			executor.destroy();
+		}
+
+	}
+
+	@Test
+	@DisplayName("Counts run on the configured executor bean")
+	void testConfiguredExecutor() {
+
+		var calls = new AtomicInteger();
+		Executor direct = command -> {
+			calls.incrementAndGet();
+			command.run();
+		};
+
+		var beanFactory = new DefaultListableBeanFactory();
+		beanFactory.registerSingleton("countExecutor", direct);
+
+		var properties = new QueryFilterProperties();
+		properties.getConcurrentCount().setExecutor("countExecutor");
+
+		var executor = new QFCountExecutor(properties, beanFactory);
+		assertThat(QFCountExecutor.await(executor.submit(() -> 3L))).isEqualTo(3);
+		assertThat(calls).hasValue(1);
+
+		// Configured executors are not shut down
+		executor.destroy();
+		assertThat(QFCountExecutor.await(executor.submit(() -> 4L))).isEqualTo(4);
+
+	}
+
+	@Test
+	@DisplayName("Delayed counts run on the caller thread if they are needed before they start")
+	void testDelayedCount() {
+
+		var calls = new AtomicInteger();
+		var properties = new QueryFilterProperties();
+		properties.getConcurrentCount().setDelayMs(TimeUnit.HOURS.toMillis(1));
+
+		var executor = new QFCountExecutor(properties, new DefaultListableBeanFactory());
+		try {
+			var caller = Thread.currentThread();
+			var count = executor.submit(() -> {
+				calls.incrementAndGet();
+				return Thread.currentThread() == caller ? 5L : -1L;
+			});
+			assertThat(QFCountExecutor.await(count.runIfNotStarted())).isEqualTo(5);
+
+			// Cancelled counts are never started
+			var cancelled = executor.submit(() -> {
+				calls.incrementAndGet();
+				return 1L;
+			});
+			cancelled.cancel(false);
+			cancelled.runIfNotStarted();
+			assertThat(cancelled).isCancelled();
+			assertThat(calls).hasValue(1);
+		} finally {
+			executor.destroy();
+		}
+
+	}
+
+}
@@ -0,0 +1,146 @@
+package io.github.acoboh.query.filter.mongodb.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+
+import io.github.acoboh.query.filter.mongodb.domain.PostBlogSpelFilterDef;
+import io.github.acoboh.query.filter.mongodb.exceptions.QueryFilterException;
+import io.github.acoboh.query.filter.mongodb.exceptions.definition.QueryFilterDefinitionException;
+import io.github.acoboh.query.filter.mongodb.model.PostBlogDocument;
+import io.github.acoboh.query.filter.mongodb.processor.QFParamType;
+import io.github.acoboh.query.filter.mongodb.processor.QFProcessor;
+import io.github.acoboh.query.filter.mongodb.spel.SpelResolverContext;
+import io.github.acoboh.query.filter.mongodb.spring.SpringIntegrationTestBase;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+class QFMetricsTests {
+
+	private final GenericApplicationContext context = new GenericApplicationContext();
+
+	@AfterEach
+	void close() {
+		context.close();
+	}
+
+	private QFProcessor<PostBlogSpelFilterDef, PostBlogDocument> processor(MeterRegistry registry)
+			throws QueryFilterDefinitionException {
+		return processor(registry, "mongodb://localhost");
+	}
+
+	private QFProcessor<PostBlogSpelFilterDef, PostBlogDocument> processor(MeterRegistry registry,
+			String connectionString) throws QueryFilterDefinitionException {
+		if (registry != null) {
+			context.registerBean(MeterRegistry.class, () -> registry);
+		}
+		context.registerBean(SpelResolverContext.class, BasicSpelResolver::new);
+		context.registerBean(MongoClient.class, () -> MongoClients.create(connectionString));
+		context.registerBean(MongoTemplate.class, () -> new MongoTemplate(context.getBean(MongoClient.class), "test"));
+		context.refresh();
+
+		return new QFProcessor<>(PostBlogSpelFilterDef.class, PostBlogDocument.class, context);
+	}
+
+	@Test
+	@DisplayName("Phases are timed by filter, entity and operation")
+	void testTimers() throws QueryFilterDefinitionException {
+
+		var registry = new SimpleMeterRegistry();
+		var processor = processor(registry);
+
+		processor.newQueryFilter("likes=eq:5", QFParamType.RHS_COLON).toCriteria();
+
+		for (var operation : new String[] { QFMetrics.PARSE, QFMetrics.CRITERIA, QFMetrics.SPEL }) {
+			var timer = registry.get(QFMetrics.TIMER).tag("filter", "PostBlogSpelFilterDef")
+					.tag("entity", "PostBlogDocument").tag("operation", operation).timer();
+			assertThat(timer.count()).as(operation).isEqualTo(1);
+		}
+
+		assertThat(registry.get(QFMetrics.PART_TIMER).tag("operation", "eq").timer().count()).isEqualTo(1);
+		assertThat(registry.get(QFMetrics.PART_TIMER).tag("operation", "gt").timer().count()).isEqualTo(1);
+
+	}
+
+	@Test
+	@DisplayName("Failed phases are counted")
+	void testErrors() throws QueryFilterDefinitionException {
+
+		var registry = new SimpleMeterRegistry();
+		var processor = processor(registry);
+
+		assertThatThrownBy(() -> processor.newQueryFilter("unknown=eq:5", QFParamType.RHS_COLON))
+				.isInstanceOf(QueryFilterException.class);
+
+		assertThat(registry.get(QFMetrics.ERRORS).tag("operation", QFMetrics.PARSE).counter().count()).isEqualTo(1);
+		assertThat(registry.get(QFMetrics.TIMER).tag("operation", QFMetrics.PARSE).timer().count()).isEqualTo(1);
+
+	}
+
+	@Test
+	@DisplayName("Streams are timed until they are closed")
+	void testStreams() throws QueryFilterDefinitionException {
+
+		var registry = new SimpleMeterRegistry();
+		var processor = processor(registry, SpringIntegrationTestBase.Config.mongoContainer.getReplicaSetUrl());
+		var qf = processor.newQueryFilter("likes=eq:5", QFParamType.RHS_COLON);
+
+		try (var stream = qf.executeStream()) {
+			assertThat(registry.find(QFMetrics.TIMER).tag("operation", QFMetrics.FIND).timer()).isNull();
+			assertThat(stream).isEmpty();
+		}
+		assertThat(registry.get(QFMetrics.TIMER).tag("operation", QFMetrics.FIND).timer().count()).isEqualTo(1);
+
+		try (var stream = qf.executeAggregateAndStream(PostBlogDocument.class)) {
+			assertThat(stream).isEmpty();
+		}
+		assertThat(registry.get(QFMetrics.TIMER).tag("operation", QFMetrics.AGGREGATE).timer().count())
+				.isEqualTo(1);
+
+	}
+
+	@Test
+	@DisplayName("Metrics are disabled without meter registry")
+	void testDisabled() throws QueryFilterDefinitionException {
+
+		var processor = processor(null);
+
+		assertThat(processor.getMetrics()).isSameAs(QFMetrics.DISABLED);
+
+		var spelResolver = context.getBean(SpelResolverContext.class);
+		assertThat(processor.getMetrics().timed(spelResolver)).isSameAs(spelResolver);
+
+		assertThat(QFMetrics.of(null, PostBlogSpelFilterDef.class, PostBlogDocument.class))
+				.isSameAs(QFMetrics.DISABLED);
+
+	}
+
+	static class BasicSpelResolver extends SpelResolverContext {
+
+		@Override
+		public ExpressionParser getExpressionParser() {
+			return new SpelExpressionParser();
+		}
+
+		@Override
+		public EvaluationContext getEvaluationContext(HttpServletRequest request, HttpServletResponse response) {
+			return new StandardEvaluationContext();
+		}
+
+	}
+
+}
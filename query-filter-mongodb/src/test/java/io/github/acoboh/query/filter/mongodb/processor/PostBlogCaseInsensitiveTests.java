@@ -0,0 +1,200 @@
+package io.github.acoboh.query.filter.mongodb.processor;
+
+import static io.github.acoboh.query.filter.mongodb.spring.SpringIntegrationTestBase.postBlogDocument;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.bson.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.query.Collation;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.context.junit.jupiter.web.SpringJUnitWebConfig;
+import org.springframework.test.context.web.WebAppConfiguration;
+
+import io.github.acoboh.query.filter.mongodb.annotations.QFDefinitionClass;
+import io.github.acoboh.query.filter.mongodb.annotations.QFDefinitionClass.QFQueryOptions;
+import io.github.acoboh.query.filter.mongodb.annotations.QFElement;
+import io.github.acoboh.query.filter.mongodb.exceptions.definition.QueryFilterDefinitionException;
+import io.github.acoboh.query.filter.mongodb.model.PostBlogDocument;
+import io.github.acoboh.query.filter.mongodb.repositories.PostBlogDocumentRepository;
+import io.github.acoboh.query.filter.mongodb.spring.SpringIntegrationTestBase;
+
+@SpringJUnitWebConfig(SpringIntegrationTestBase.Config.class)
+@ExtendWith(SpringExtension.class)
+@WebAppConfiguration
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class PostBlogCaseInsensitiveTests {
+
+	@QFDefinitionClass(PostBlogDocument.class)
+	static class CaseInsensitiveFilterDef {
+
+		@QFElement(value = "title", caseInsensitive = true)
+		private String title;
+
+		@QFElement("content")
+		private String content;
+
+	}
+
+	@QFDefinitionClass(value = PostBlogDocument.class,
+			queryOptions = @QFQueryOptions(collation = "{locale: 'en', strength: 2}"))
+	static class CollationFilterDef {
+
+		@QFElement(value = "title", caseInsensitive = true)
+		private String title;
+
+		@QFElement("content")
+		private String content;
+
+	}
+
+	@QFDefinitionClass(value = PostBlogDocument.class,
+			queryOptions = @QFQueryOptions(collation = "{locale: 'sk', strength: 2}"))
+	static class ContractionsFilterDef {
+
+		@QFElement(value = "title", caseInsensitive = true)
+		private String title;
+
+	}
+
+	private static final List<PostBlogDocument> DOCS = List.of(postBlogDocument("1", "Alpha post", 0),
+			postBlogDocument("2", "Beta post", 0));
+
+	@Autowired
+	private ApplicationContext appContext;
+
+	@Autowired
+	private PostBlogDocumentRepository repository;
+
+	private <F> QFProcessor<F, PostBlogDocument> processor(Class<F> filterClass)
+			throws QueryFilterDefinitionException {
+		return new QFProcessor<>(filterClass, PostBlogDocument.class, appContext);
+	}
+
+	private static Query query(QFProcessor<?, PostBlogDocument> processor, String filter) {
+		return processor.newQueryFilter(filter, QFParamType.RHS_COLON).toCriteriaQuery();
+	}
+
+	@Test
+	@DisplayName("0. Setup")
+	@Order(0)
+	void setup() {
+		assertThat(repository.findAll()).isEmpty();
+		repository.saveAll(DOCS);
+		assertThat(repository.findAll()).hasSize(2);
+	}
+
+	@Test
+	@DisplayName("1. Only case-insensitive elements ignore the case")
+	@Order(1)
+	void caseInsensitiveElements() throws QueryFilterDefinitionException {
+
+		var processor = processor(CaseInsensitiveFilterDef.class);
+
+		var query = query(processor, "title=eq:alpha.post&content=eq:Content 1");
+		assertThat(query.getCollation()).isEmpty();
+		assertThat(query.getQueryObject().get("title")).isInstanceOfSatisfying(Pattern.class, pattern -> {
+			assertThat(pattern.pattern()).isEqualTo("^alpha\\.post$");
+			assertThat(pattern.flags()).isEqualTo(Pattern.CASE_INSENSITIVE);
+		});
+		assertThat(query.getQueryObject().get("content")).isEqualTo("Content 1");
+
+		query = query(processor, "title=ne:alpha post");
+		assertThat(query.getQueryObject().get("title", Document.class).get("$not")).isInstanceOf(Pattern.class);
+
+		query = query(processor, "title=in:alpha post,beta post");
+		assertThat(query.getQueryObject().get("title", Document.class).getList("$in", Object.class))
+				.hasSize(2).allMatch(Pattern.class::isInstance);
+
+		// Prefixes are not converted into ranges without a collation
+		query = query(processor, "title=starts:Al");
+		assertThat(query.getQueryObject().get("title")).isInstanceOf(Pattern.class);
+	}
+
+	@Test
+	@DisplayName("2. Prefixes are converted into ranges of the collation")
+	@Order(2)
+	void prefixRanges() throws QueryFilterDefinitionException {
+
+		var processor = processor(CollationFilterDef.class);
+
+		var query = query(processor, "title=starts:Al");
+		var range = query.getQueryObject().get("title", Document.class);
+		assertThat(range).containsEntry("$gte", "Al").containsEntry("$lt", "Am");
+		assertThat(range).containsEntry("$regex", "^Al").containsEntry("$options", "i");
+		assertThat(query.getCollation()).contains(Collation.of("en").strength(2));
+
+		// Prefixes without a safe bound keep the regular expression
+		for (var prefix : new String[] { "Az", "A.", "A b " }) {
+			query = query(processor, "title=starts:" + prefix);
+			assertThat(query.getQueryObject().get("title")).isInstanceOf(Pattern.class);
+		}
+
+		// Equality is resolved by the collation
+		query = query(processor, "title=eq:alpha post");
+		assertThat(query.getQueryObject()).isEqualTo(new Document("title", "alpha post"));
+
+		// Other elements are not converted
+		query = query(processor, "content=starts:Co");
+		assertThat(query.getQueryObject().get("content")).isInstanceOf(Pattern.class);
+
+		// Locales with contractions keep the regular expression
+		var contractions = processor(ContractionsFilterDef.class);
+		query = query(contractions, "title=starts:Ch");
+		assertThat(query.getQueryObject().get("title")).isInstanceOf(Pattern.class);
+		query = query(contractions, "title=eq:alpha post");
+		assertThat(query.getQueryObject()).isEqualTo(new Document("title", "alpha post"));
+	}
+
+	@Test
+	@DisplayName("3. Find and count")
+	@Order(3)
+	void execution() throws QueryFilterDefinitionException {
+
+		var processor = processor(CaseInsensitiveFilterDef.class);
+
+		assertThat(processor.newQueryFilter("title=eq:ALPHA POST", QFParamType.RHS_COLON).executeFindQuery())
+				.containsExactly(DOCS.get(0));
+		assertThat(processor.newQueryFilter("title=ne:alpha post", QFParamType.RHS_COLON).executeFindQuery())
+				.containsExactly(DOCS.get(1));
+		assertThat(processor.newQueryFilter("title=in:alpha post,BETA POST&sort=+title", QFParamType.RHS_COLON)
+				.executeFindQuery()).containsExactly(DOCS.get(0), DOCS.get(1));
+
+		// Other fields keep the case
+		assertThat(processor.newQueryFilter("content=eq:content 1", QFParamType.RHS_COLON).executeFindQuery())
+				.isEmpty();
+
+		var collation = processor(CollationFilterDef.class);
+
+		var qf = collation.newQueryFilter("title=starts:Al&sort=+title", QFParamType.RHS_COLON);
+		assertThat(qf.executeFindQuery()).containsExactly(DOCS.get(0));
+		assertThat(qf.executeCount()).isEqualTo(1);
+
+		var page = qf.executeFindQuery(PageRequest.of(0, 1));
+		assertThat(page.getContent()).containsExactly(DOCS.get(0));
+		assertThat(page.getTotalElements()).isEqualTo(1);
+
+		qf = collation.newQueryFilter("title=starts:Be", QFParamType.RHS_COLON);
+		assertThat(qf.executeFindQuery()).containsExactly(DOCS.get(1));
+	}
+
+	@Test
+	@DisplayName("4. Clean")
+	@Order(4)
+	void clean() {
+		repository.deleteAll();
+		assertThat(repository.findAll()).isEmpty();
+	}
+
+}
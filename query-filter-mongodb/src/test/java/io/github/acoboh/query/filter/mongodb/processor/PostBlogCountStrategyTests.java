@@ -0,0 +1,160 @@
+package io.github.acoboh.query.filter.mongodb.processor;
+
+import static io.github.acoboh.query.filter.mongodb.spring.SpringIntegrationTestBase.postBlogDocument;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.context.junit.jupiter.web.SpringJUnitWebConfig;
+import org.springframework.test.context.web.WebAppConfiguration;
+
+import io.github.acoboh.query.filter.mongodb.domain.PostBlogDocumentFilterDef;
+import io.github.acoboh.query.filter.mongodb.dto.PostBlogSimplifiedDTO;
+import io.github.acoboh.query.filter.mongodb.model.PostBlogDocument;
+import io.github.acoboh.query.filter.mongodb.repositories.PostBlogDocumentRepository;
+import io.github.acoboh.query.filter.mongodb.spring.SpringIntegrationTestBase;
+
+@SpringJUnitWebConfig(SpringIntegrationTestBase.Config.class)
+@ExtendWith(SpringExtension.class)
+@WebAppConfiguration
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class PostBlogCountStrategyTests {
+
+	private static final List<PostBlogDocument> DOCS = List.of(postBlogDocument("1", "A", 0),
+			postBlogDocument("2", "A", 0), postBlogDocument("3", "A", 0), postBlogDocument("4", "B", 0),
+			postBlogDocument("5", "B", 0));
+
+	@Autowired
+	private QFProcessor<PostBlogDocumentFilterDef, PostBlogDocument> qfProcessor;
+
+	@Autowired
+	private PostBlogDocumentRepository repository;
+
+	@Test
+	@DisplayName("0. Setup")
+	@Order(0)
+	void setup() {
+		assertThat(qfProcessor).isNotNull();
+		assertThat(repository).isNotNull();
+
+		assertThat(repository.findAll()).isEmpty();
+
+		repository.saveAll(DOCS);
+
+		assertThat(repository.findAll()).hasSize(5);
+	}
+
+	@Test
+	@DisplayName("1. Exact count by default")
+	@Order(1)
+	void exactCount() {
+
+		var qf = qfProcessor.newQueryFilter("sort=+id", QFParamType.RHS_COLON);
+		assertThat(qf.getCountStrategy()).isEqualTo(QFCountStrategy.EXACT);
+
+		var page = qf.executeFindQuery(PageRequest.of(0, 2));
+		assertThat(page.getContent()).containsExactly(DOCS.get(0), DOCS.get(1));
+		assertThat(page.getTotalElements()).isEqualTo(5);
+
+		// Short first pages are not counted
+		page = qf.executeFindQuery(PageRequest.of(0, 10));
+		assertThat(page.getTotalElements()).isEqualTo(5);
+	}
+
+	@Test
+	@DisplayName("2. Capped count")
+	@Order(2)
+	void cappedCount() {
+
+		var qf = qfProcessor.newQueryFilter("sort=+id", QFParamType.RHS_COLON);
+		qf.setCountStrategy(QFCountStrategy.CAPPED);
+		qf.setCountLimit(3);
+
+		var page = qf.executeFindQuery(PageRequest.of(0, 2));
+		assertThat(page.getContent()).hasSize(2);
+		assertThat(page.getTotalElements()).isEqualTo(3);
+
+		var projected = qf.executeAggregateAndProject(PageRequest.of(0, 2), PostBlogSimplifiedDTO.class);
+		assertThat(projected.getContent()).hasSize(2);
+		assertThat(projected.getTotalElements()).isEqualTo(3);
+	}
+
+	@Test
+	@DisplayName("3. Estimated count")
+	@Order(3)
+	void estimatedCount() {
+
+		var qf = qfProcessor.newQueryFilter("sort=+id", QFParamType.RHS_COLON);
+		qf.setCountStrategy(QFCountStrategy.ESTIMATED);
+		assertThat(qf.executeFindQuery(PageRequest.of(0, 2)).getTotalElements()).isEqualTo(5);
+
+		qf = qfProcessor.newQueryFilter("title=eq:A&sort=+id", QFParamType.RHS_COLON);
+		qf.setCountStrategy(QFCountStrategy.ESTIMATED);
+		assertThat(qf.executeFindQuery(PageRequest.of(0, 2)).getTotalElements()).isEqualTo(3);
+	}
+
+	@Test
+	@DisplayName("4. Slices without count")
+	@Order(4)
+	void slice() {
+
+		var qf = qfProcessor.newQueryFilter("sort=+id", QFParamType.RHS_COLON);
+		qf.setCountStrategy(QFCountStrategy.SLICE);
+
+		var page = qf.executeFindQuery(PageRequest.of(1, 2));
+		assertThat(page.getContent()).containsExactly(DOCS.get(2), DOCS.get(3));
+		assertThat(page.hasNext()).isTrue();
+
+		page = qf.executeFindQuery(PageRequest.of(2, 2));
+		assertThat(page.getContent()).containsExactly(DOCS.get(4));
+		assertThat(page.hasNext()).isFalse();
+
+		var projected = qf.executeAggregateAndProject(PageRequest.of(0, 4), PostBlogSimplifiedDTO.class);
+		assertThat(projected.getContent()).extracting(PostBlogSimplifiedDTO::getId).containsExactly("1", "2", "3",
+				"4");
+		assertThat(projected.hasNext()).isTrue();
+	}
+
+	@Test
+	@DisplayName("5. Facet page and count")
+	@Order(5)
+	void facet() {
+
+		var qf = qfProcessor.newQueryFilter("title=eq:A&sort=-id", QFParamType.RHS_COLON);
+		qf.setCountStrategy(QFCountStrategy.FACET);
+
+		var page = qf.executeAggregateAndProject(PageRequest.of(1, 2), PostBlogSimplifiedDTO.class);
+		assertThat(page.getContent()).extracting(PostBlogSimplifiedDTO::getId).containsExactly("1");
+		assertThat(page.getTotalElements()).isEqualTo(3);
+
+		page = qf.executeAggregateAndProject(PageRequest.of(0, 2), PostBlogSimplifiedDTO.class);
+		assertThat(page.getContent()).extracting(PostBlogSimplifiedDTO::getId).containsExactly("3", "2");
+		assertThat(page.getTotalElements()).isEqualTo(3);
+
+		qf = qfProcessor.newQueryFilter("title=eq:C", QFParamType.RHS_COLON);
+		qf.setCountStrategy(QFCountStrategy.FACET);
+
+		page = qf.executeAggregateAndProject(PageRequest.of(0, 2), PostBlogSimplifiedDTO.class);
+		assertThat(page.getContent()).isEmpty();
+		assertThat(page.getTotalElements()).isZero();
+	}
+
+	@Test
+	@DisplayName("END. Cleanup")
+	@Order(Ordered.LOWEST_PRECEDENCE)
+	void cleanup() {
+		repository.deleteAll();
+		assertThat(repository.findAll()).isEmpty();
+	}
+
+}
@@ -1,6 +1,7 @@
 package io.github.acoboh.query.filter.mongodb.processor;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -21,6 +22,7 @@ import org.springframework.test.context.junit.jupiter.web.SpringJUnitWebConfig;
 import org.springframework.test.context.web.WebAppConfiguration;
 
 import io.github.acoboh.query.filter.mongodb.domain.PostBlogDocumentFilterDef;
+import io.github.acoboh.query.filter.mongodb.exceptions.QFParseException;
 import io.github.acoboh.query.filter.mongodb.model.CommentModel;
 import io.github.acoboh.query.filter.mongodb.model.PostBlogDocument;
 import io.github.acoboh.query.filter.mongodb.repositories.PostBlogDocumentRepository;
@@ -227,6 +229,55 @@ class PostBlogFilterDefTests {
 
 	}
 
+	@Test
+	@DisplayName("6. Query by stars range")
+	@Order(6)
+	void queryByStarsRange() {
+
+		var qf = qfProcessor.newQueryFilter("commentsStars=between:4,5", QFParamType.RHS_COLON);
+		assertThat(qf).isNotNull();
+		assertThat(qf.toCriteriaQuery().getQueryObject())
+				.isEqualTo(new Document("comments.stars", new Document("$gte", 4).append("$lte", 5)));
+
+		var list = qf.executeFindQuery();
+		assertThat(list).hasSize(1).containsExactly(DOC_1);
+
+		qf = qfProcessor.newQueryFilter("commentsStars[between]=2,3", QFParamType.LHS_BRACKETS);
+		list = qf.executeFindQuery();
+		assertThat(list).hasSize(1).containsExactly(DOC_2);
+
+		// Comparisons on the same field are merged
+		qf = qfProcessor.newQueryFilter("commentsStars=gte:4&commentsStars=lt:5", QFParamType.RHS_COLON);
+		assertThat(qf.toCriteriaQuery().getQueryObject())
+				.isEqualTo(new Document("comments.stars", new Document("$gte", 4).append("$lt", 5)));
+
+		list = qf.executeFindQuery();
+		assertThat(list).hasSize(1).containsExactly(DOC_1);
+
+		assertThatThrownBy(() -> qfProcessor.newQueryFilter("commentsStars=between:4", QFParamType.RHS_COLON))
+				.isInstanceOf(QFParseException.class);
+		assertThatThrownBy(() -> qfProcessor.newQueryFilter("commentsStars=between:1,2,3", QFParamType.RHS_COLON))
+				.isInstanceOf(QFParseException.class);
+
+	}
+
+	@Test
+	@DisplayName("7. Query by multiple patterns")
+	@Order(7)
+	void queryByMultiplePatterns() {
+
+		var qf = qfProcessor.newQueryFilter("title=like:Doc 1,Other", QFParamType.RHS_COLON);
+		assertThat(qf.executeFindQuery()).hasSize(2).containsExactlyInAnyOrder(DOC_1, DOC_2);
+
+		qf = qfProcessor.newQueryFilter("title[ends]=example 2,nothing", QFParamType.LHS_BRACKETS);
+		assertThat(qf.executeFindQuery()).hasSize(1).containsExactly(DOC_2);
+
+		// Regex characters are matched literally
+		qf = qfProcessor.newQueryFilter("title=like:.*", QFParamType.RHS_COLON);
+		assertThat(qf.executeFindQuery()).isEmpty();
+
+	}
+
 	@Test
 	@DisplayName("END. Cleanup")
 	@Order(Ordered.LOWEST_PRECEDENCE)
@@ -0,0 +1,106 @@
+package io.github.acoboh.query.filter.mongodb.processor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.context.junit.jupiter.web.SpringJUnitWebConfig;
+import org.springframework.test.context.web.WebAppConfiguration;
+
+import io.github.acoboh.query.filter.mongodb.domain.PostBlogDocumentFilterDef;
+import io.github.acoboh.query.filter.mongodb.dto.PostBlogSimplifiedDTO;
+import io.github.acoboh.query.filter.mongodb.model.PostBlogDocument;
+import io.github.acoboh.query.filter.mongodb.repositories.PostBlogDocumentRepository;
+import io.github.acoboh.query.filter.mongodb.spring.SpringIntegrationTestBase;
+
+@SpringJUnitWebConfig(SpringIntegrationTestBase.Config.class)
+@ExtendWith(SpringExtension.class)
+@WebAppConfiguration
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class PostBlogStreamTests {
+
+	private static final int DOCUMENTS = 25;
+
+	@Autowired
+	private QFProcessor<PostBlogDocumentFilterDef, PostBlogDocument> qfProcessor;
+
+	@Autowired
+	private PostBlogDocumentRepository repository;
+
+	@Test
+	@DisplayName("0. Setup")
+	@Order(0)
+	void setup() {
+		assertThat(qfProcessor).isNotNull();
+		assertThat(repository).isNotNull();
+
+		assertThat(repository.findAll()).isEmpty();
+
+		List<PostBlogDocument> documents = new ArrayList<>(DOCUMENTS);
+		for (int i = 0; i < DOCUMENTS; i++) {
+			var document = new PostBlogDocument();
+			document.setId("%02d".formatted(i));
+			document.setTitle(i % 2 == 0 ? "Even" : "Odd");
+			document.setContent("Content " + i);
+			documents.add(document);
+		}
+		repository.saveAll(documents);
+
+		assertThat(repository.findAll()).hasSize(DOCUMENTS);
+	}
+
+	@Test
+	@DisplayName("1. Stream find results in batches")
+	@Order(1)
+	void streamFind() {
+
+		var qf = qfProcessor.newQueryFilter("title=eq:Even&sort=-id", QFParamType.RHS_COLON);
+
+		try (var stream = qf.executeStream(4)) {
+			assertThat(stream.map(PostBlogDocument::getId)).hasSize(13).startsWith("24", "22").endsWith("00");
+		}
+
+		try (var stream = qf.executeStream()) {
+			assertThat(stream.count()).isEqualTo(13);
+		}
+
+		assertThatThrownBy(() -> qf.executeStream(-1)).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	@DisplayName("2. Stream aggregate results in batches")
+	@Order(2)
+	void streamAggregate() {
+
+		var qf = qfProcessor.newQueryFilter("title=eq:Odd&sort=+id", QFParamType.RHS_COLON);
+
+		try (var stream = qf.executeAggregateAndStream(PostBlogSimplifiedDTO.class, 5)) {
+			assertThat(stream.map(PostBlogSimplifiedDTO::getId)).hasSize(12).startsWith("01", "03").endsWith("23");
+		}
+
+		try (var stream = qf.executeAggregateAndStream(PostBlogSimplifiedDTO.class)) {
+			assertThat(stream.limit(3).map(PostBlogSimplifiedDTO::getContent)).containsExactly("Content 1",
+					"Content 3", "Content 5");
+		}
+	}
+
+	@Test
+	@DisplayName("END. Cleanup")
+	@Order(Ordered.LOWEST_PRECEDENCE)
+	void cleanup() {
+		repository.deleteAll();
+		assertThat(repository.findAll()).isEmpty();
+	}
+
+}
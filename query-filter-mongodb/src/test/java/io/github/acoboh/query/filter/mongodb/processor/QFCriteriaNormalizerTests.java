@@ -0,0 +1,98 @@
+package io.github.acoboh.query.filter.mongodb.processor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.bson.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+class QFCriteriaNormalizerTests {
+
+	@Test
+	@DisplayName("Comparisons on the same path are merged")
+	void testMergeComparisons() {
+
+		var criteria = new Criteria().andOperator(Criteria.where("likes").gte(1), Criteria.where("likes").lt(5),
+				Criteria.where("title").is("a"));
+
+		assertThat(QFCriteriaNormalizer.normalize(criteria).getCriteriaObject())
+				.isEqualTo(new Document("likes", new Document("$gte", 1).append("$lt", 5)).append("title", "a"));
+
+	}
+
+	@Test
+	@DisplayName("Conflicting comparisons are kept")
+	void testConflicts() {
+
+		var document = new Document("$and",
+				List.of(new Document("likes", new Document("$gte", 1)), new Document("likes", new Document("$gte", 2)),
+						new Document("title", "a"), new Document("title", "b")));
+
+		assertThat(QFCriteriaNormalizer.normalize(document)).isEqualTo(new Document("likes", new Document("$gte", 1))
+				.append("title", "a").append("$and", List.of(new Document("likes", new Document("$gte", 2)),
+						new Document("title", "b"))));
+
+		// Repeated conditions are removed
+		document = new Document("$and", List.of(new Document("title", "a"), new Document("title", "a")));
+		assertThat(QFCriteriaNormalizer.normalize(document)).isEqualTo(new Document("title", "a"));
+
+	}
+
+	@Test
+	@DisplayName("Nested and and or operators are flattened")
+	void testFlatten() {
+
+		var document = new Document("$and", List.of(new Document("$and", List.of(new Document("title", "a"))),
+				new Document("$or", List.of(new Document("type", "VIDEO"),
+						new Document("$or", List.of(new Document("type", "IMAGE"), new Document("likes", 1)))))));
+
+		assertThat(QFCriteriaNormalizer.normalize(document)).isEqualTo(new Document("title", "a").append("$or",
+				List.of(new Document("type", "VIDEO"), new Document("type", "IMAGE"), new Document("likes", 1))));
+
+		// Single conditions of or operators are inlined
+		document = new Document("$or", List.of(new Document("title", "a")));
+		assertThat(QFCriteriaNormalizer.normalize(document)).isEqualTo(new Document("title", "a"));
+
+	}
+
+	@Test
+	@DisplayName("Single values of in and nin are replaced with equality")
+	void testSingleValues() {
+
+		var document = new Document("type", new Document("$in", List.of("VIDEO")));
+		assertThat(QFCriteriaNormalizer.normalize(document)).isEqualTo(new Document("type", "VIDEO"));
+
+		document = new Document("type", new Document("$nin", List.of("VIDEO")));
+		assertThat(QFCriteriaNormalizer.normalize(document))
+				.isEqualTo(new Document("type", new Document("$ne", "VIDEO")));
+
+		document = new Document("type", new Document("$in", List.of("VIDEO", "IMAGE")));
+		assertThat(QFCriteriaNormalizer.normalize(document)).isEqualTo(document);
+
+		// Patterns of in have a different meaning than equality
+		var pattern = Pattern.compile("^a");
+		document = new Document("title", new Document("$in", List.of(pattern)));
+		var normalized = QFCriteriaNormalizer.normalize(document);
+		assertThat(normalized.get("title", Document.class).get("$in", List.class)).containsExactly(pattern);
+
+	}
+
+	@Test
+	@DisplayName("Conditions that match all the documents are removed")
+	void testTautologies() {
+
+		var document = new Document("$and", List.of(new Document(), new Document("title", "a")));
+		assertThat(QFCriteriaNormalizer.normalize(document)).isEqualTo(new Document("title", "a"));
+
+		document = new Document("title", "a").append("$or", List.of(new Document("type", "VIDEO"), new Document()));
+		assertThat(QFCriteriaNormalizer.normalize(document)).isEqualTo(new Document("title", "a"));
+
+		assertThat(QFCriteriaNormalizer.normalize(new Criteria()).getCriteriaObject()).isEmpty();
+
+	}
+
+}
@@ -0,0 +1,151 @@
+package io.github.acoboh.query.filter.mongodb.processor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+
+import org.bson.BsonRegularExpression;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.bson.types.Code;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort.Order;
+
+import io.github.acoboh.query.filter.mongodb.exceptions.QFInvalidTokenException;
+
+class QFKeysetTests {
+
+	@Test
+	@DisplayName("The sort is completed with the id")
+	void testSort() {
+
+		assertThat(QFKeyset.of(List.of()).getPaths()).containsExactly("_id");
+		assertThat(QFKeyset.of(List.of(Order.desc("title"))).getPaths()).containsExactly("title", "_id");
+		assertThat(QFKeyset.of(List.of(Order.desc("_id"), Order.asc("title"))).getPaths()).containsExactly("_id");
+
+	}
+
+	@Test
+	@DisplayName("Tokens are translated into range predicates")
+	void testRange() {
+
+		var keyset = QFKeyset.of(List.of(Order.desc("title"), Order.asc("likes")));
+		var id = new ObjectId();
+
+		assertThat(keyset.toCriteria(null)).isNull();
+
+		var token = keyset.tokenOf(keyset.valuesOf(new Document("_id", id).append("title", "B").append("likes", 3)));
+		var range = keyset.toCriteria(token).getCriteriaObject();
+
+		var expected = Document.parse("""
+				{"$or": [
+					{"$or": [{"title": {"$lt": "B"}}, {"title": null}]},
+					{"$and": [{"title": "B"}, {"likes": {"$gt": 3}}]},
+					{"$and": [{"title": "B"}, {"likes": 3}, {"_id": {"$gt": {"$oid": "%s"}}}]}
+				]}""".formatted(id.toHexString()));
+		assertThat(range).isEqualTo(expected);
+
+	}
+
+	@Test
+	@DisplayName("Null values are sorted first")
+	void testNullValues() {
+
+		var keyset = QFKeyset.of(List.of(Order.desc("title"), Order.asc("likes")));
+
+		var token = keyset.tokenOf(Arrays.asList(null, null, "1"));
+		var range = keyset.toCriteria(token).getCriteriaObject();
+
+		var expected = Document.parse("""
+				{"$or": [
+					{"$and": [{"title": null}, {"likes": {"$ne": null}}]},
+					{"$and": [{"title": null}, {"likes": null}, {"_id": {"$gt": "1"}}]}
+				]}""");
+		assertThat(range).isEqualTo(expected);
+
+	}
+
+	@Test
+	@DisplayName("Tokens of other sort or tampered are rejected")
+	void testInvalidTokens() {
+
+		var keyset = QFKeyset.of(List.of(Order.desc("title")));
+		var token = keyset.tokenOf(List.of("B", "1"));
+
+		assertThat(keyset.toCriteria(token)).isNotNull();
+
+		var other = QFKeyset.of(List.of(Order.asc("title")));
+		assertThatThrownBy(() -> other.toCriteria(token)).isInstanceOf(QFInvalidTokenException.class)
+				.extracting(e -> ((QFInvalidTokenException) e).getToken()).isEqualTo(token);
+
+		assertThatThrownBy(() -> keyset.toCriteria("%%%")).isInstanceOf(QFInvalidTokenException.class);
+
+		var bytes = Base64.getUrlDecoder().decode(token);
+		bytes[bytes.length / 2] ^= 0x7f;
+		var tampered = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+		assertThatThrownBy(() -> keyset.toCriteria(tampered)).isInstanceOf(QFInvalidTokenException.class);
+
+	}
+
+	@Test
+	@DisplayName("Tokens with values that are not scalars are rejected")
+	void testNotScalarTokens() {
+
+		var keyset = QFKeyset.of(List.of(Order.desc("title")));
+
+		for (Object value : List.of(new BsonRegularExpression(".*"), new Code("true"), List.of("B"),
+				new Document("$gt", ""))) {
+			var document = new Document("s", "title:-1,_id:1").append("v", Arrays.asList(value, "1"));
+			var buffer = new RawBsonDocument(document, new DocumentCodec()).getByteBuffer();
+			byte[] bytes = new byte[buffer.remaining()];
+			buffer.get(bytes);
+			var token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+			assertThatThrownBy(() -> keyset.toCriteria(token)).isInstanceOf(QFInvalidTokenException.class);
+		}
+
+		var date = new Date();
+		var token = keyset.tokenOf(List.of(date, new ObjectId()));
+		assertThat(keyset.toCriteria(token)).isNotNull();
+
+		assertThatThrownBy(() -> keyset.tokenOf(List.of(new BsonRegularExpression(".*"), "1")))
+				.isInstanceOf(IllegalStateException.class);
+
+	}
+
+	@Test
+	@DisplayName("Sort fields with arrays are rejected")
+	void testArrayValues() {
+
+		var keyset = QFKeyset.of(List.of(Order.asc("comments.stars")));
+		var stored = new Document("_id", "1").append("comments", List.of(new Document("stars", 5)));
+
+		assertThatThrownBy(() -> keyset.tokenOf(keyset.valuesOf(stored))).isInstanceOf(IllegalStateException.class);
+
+	}
+
+	@Test
+	@DisplayName("Pages are trimmed and keep the token of the last result")
+	void testPage() {
+
+		var keyset = QFKeyset.of(List.of());
+		var results = List.of(new Document("_id", "1"), new Document("_id", "2"), new Document("_id", "3"));
+
+		var page = keyset.page(results, 2, keyset::valuesOf, e -> e.getString("_id"));
+		assertThat(page.content()).containsExactly("1", "2");
+		assertThat(page.nextToken()).isEqualTo(keyset.tokenOf(List.of("2")));
+
+		page = keyset.page(results, 3, keyset::valuesOf, e -> e.getString("_id"));
+		assertThat(page.content()).containsExactly("1", "2", "3");
+		assertThat(page.hasNext()).isFalse();
+
+	}
+
+}
@@ -0,0 +1,88 @@
+package io.github.acoboh.query.filter.mongodb.processor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.bson.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+class QFPagesTests {
+
+	@Test
+	@DisplayName("Slices fetch one more result only on paged requests")
+	void testIsSlice() {
+
+		assertThat(QFPages.isSlice(QFCountStrategy.SLICE, PageRequest.of(0, 2))).isTrue();
+		assertThat(QFPages.isSlice(QFCountStrategy.SLICE, Pageable.unpaged())).isFalse();
+		assertThat(QFPages.isSlice(QFCountStrategy.EXACT, PageRequest.of(0, 2))).isFalse();
+
+	}
+
+	@Test
+	@DisplayName("Slices report the next page with the extra result")
+	void testSlice() {
+
+		var page = QFPages.slice(List.of(1, 2, 3), PageRequest.of(1, 2));
+		assertThat(page.getContent()).containsExactly(1, 2);
+		assertThat(page.hasNext()).isTrue();
+		assertThat(page.getTotalElements()).isEqualTo(5);
+
+		page = QFPages.slice(List.of(1, 2), PageRequest.of(1, 2));
+		assertThat(page.getContent()).containsExactly(1, 2);
+		assertThat(page.hasNext()).isFalse();
+		assertThat(page.getTotalElements()).isEqualTo(4);
+
+		page = QFPages.slice(List.of(), PageRequest.of(0, 2));
+		assertThat(page.getContent()).isEmpty();
+		assertThat(page.hasNext()).isFalse();
+
+	}
+
+	@Test
+	@DisplayName("Facet results are read with their count")
+	void testFacet() {
+
+		var result = new Document("data", List.of(new Document("_id", "3"), new Document("_id", "4")))
+				.append("total", List.of(new Document("total", 7)));
+
+		var page = QFPages.facet(result, PageRequest.of(1, 2), "data", "total", e -> e.getString("_id"));
+		assertThat(page.getContent()).containsExactly("3", "4");
+		assertThat(page.getTotalElements()).isEqualTo(7);
+
+		result = new Document("data", List.of()).append("total", List.of());
+		page = QFPages.facet(result, PageRequest.of(0, 2), "data", "total", e -> e.getString("_id"));
+		assertThat(page.getContent()).isEmpty();
+		assertThat(page.getTotalElements()).isZero();
+
+	}
+
+	@Test
+	@DisplayName("Facet pipelines sort before the facet stage")
+	void testFacetPipeline() {
+
+		var stages = QFPages.facetPipeline(Criteria.where("title").is("a"), Sort.by("likes"), PageRequest.of(2, 5),
+				Aggregation.project("title"), "data", "total");
+		var pipeline = Aggregation.newAggregation(stages).toPipeline(Aggregation.DEFAULT_CONTEXT);
+
+		assertThat(pipeline).extracting(stage -> stage.keySet().iterator().next()).containsExactly("$match", "$sort",
+				"$facet");
+		var facet = pipeline.get(2).get("$facet", Document.class);
+		assertThat(facet.getList("data", Document.class)).extracting(stage -> stage.keySet().iterator().next())
+				.containsExactly("$skip", "$limit", "$project");
+		assertThat(facet.getList("data", Document.class).get(0)).isEqualTo(new Document("$skip", 10L));
+		assertThat(facet.getList("total", Document.class)).containsExactly(new Document("$count", "total"));
+
+		stages = QFPages.facetPipeline(new Criteria(), Sort.unsorted(), PageRequest.of(0, 5),
+				Aggregation.project("title"), "data", "total");
+		assertThat(stages).hasSize(2);
+
+	}
+
+}
@@ -0,0 +1,85 @@
+package io.github.acoboh.query.filter.mongodb.processor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+class QFParamTokenizerTests {
+
+	private static final List<String> CORPUS = List.of("", "&", "&&", "=", "==", "a", "a=", "a=1", "a=eq:1",
+			"a=eq:", "a=eq", "a=:1", "a=e1:2", "a=eq:1,2,3", "a=eq:1&b=ne:2", "a=eq:1&&b=ne:2", "a=eq:1& b=2",
+			"a=eq:1&", "a=eq:1&&", "a=eq:1&&&", "&a=eq:1", "a=eq:1&-b=2", "a=eq:1&=b", "a==1", "a=eq:=1", "=a=1",
+			"abc&x=1", "a&b&c=1", "sort=+a", "sort=", "sort=&a=1", "sort=+a,-b&a=eq:1", "sort=+a&sort=-b",
+			"xsort=+a", "sort==a", "sort=+a&&b", "a=eq:sort=+b", "a[eq]=1", "a[eq]=", "a[eq]=1&b[ne]=2",
+			"a[eq]=1&&b[ne]=2", "a[]=1", "[eq]=1", "a[e1]=1", "a[eq]]=1", "a[[eq]=1", "a[eq]x=1", "a[eq=1",
+			"asort=+b", "a[eq]sort=+b", "a[x]y]=1", "a b[eq]=c d", "a[eq]=x&sort=+a", "title=like:a&b=c",
+			"title=like:100%&type=in:A,B", "title=eq:café&é=1", "a=eq:1&éb=2",
+			"comments.stars=gte:3&tags=in:a,b", "date=gte:2023-01-01T00:00:00Z&date=lt:2024-01-01T00:00:00Z");
+
+	private static final char[] ALPHABET = { 'a', 'b', 's', 'o', 'r', 't', 'e', 'q', '=', '=', '&', '&', '&', '[',
+			']', ':', ',', '+', '-', '1', ' ', '%', 'é' };
+
+	@ParameterizedTest
+	@EnumSource(QFParamType.class)
+	@DisplayName("Tokenizer finds the same parts as the regular expression on the corpus")
+	void testCorpus(QFParamType type) {
+		for (String input : CORPUS) {
+			assertThat(QFParamTokenizer.tokenize(input, type)).as("Input '%s'", input)
+					.isEqualTo(regexTokenize(input, type));
+		}
+	}
+
+	@ParameterizedTest
+	@EnumSource(QFParamType.class)
+	@DisplayName("Tokenizer finds the same parts as the regular expression on random inputs")
+	void testRandomInputs(QFParamType type) {
+		Random random = new Random(42);
+		for (int i = 0; i < 20_000; i++) {
+			char[] chars = new char[random.nextInt(24)];
+			for (int j = 0; j < chars.length; j++) {
+				chars[j] = ALPHABET[random.nextInt(ALPHABET.length)];
+			}
+
+			String input = new String(chars);
+			assertThat(QFParamTokenizer.tokenize(input, type)).as("Input '%s'", input)
+					.isEqualTo(regexTokenize(input, type));
+		}
+	}
+
+	@ParameterizedTest
+	@EnumSource(QFParamType.class)
+	@DisplayName("Tokenizer splits long lists of values")
+	void testLongInput(QFParamType type) {
+		String values = IntStream.range(0, 10_000).mapToObj(i -> "value" + i).collect(Collectors.joining(","));
+		String input = type == QFParamType.RHS_COLON ? "title=in:" + values + "&sort=+title"
+				: "title[in]=" + values + "&sort=+title";
+
+		var parts = QFParamTokenizer.tokenize(input, type);
+
+		assertThat(parts).containsExactly(QFParamPart.ofValue("title", "in", values), QFParamPart.ofSort("+title"));
+	}
+
+	private static List<QFParamPart> regexTokenize(String input, QFParamType type) {
+		List<QFParamPart> ret = new ArrayList<>();
+
+		var matcher = type.getPattern().matcher(input);
+		while (matcher.find()) {
+			if (matcher.group(1) != null) {
+				ret.add(QFParamPart.ofSort(matcher.group(2)));
+			} else {
+				ret.add(QFParamPart.ofValue(matcher.group(4), matcher.group(5), matcher.group(6)));
+			}
+		}
+
+		return ret;
+	}
+
+}
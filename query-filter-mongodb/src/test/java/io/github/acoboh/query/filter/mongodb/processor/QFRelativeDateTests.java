@@ -0,0 +1,134 @@
+package io.github.acoboh.query.filter.mongodb.processor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import org.bson.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.util.LinkedMultiValueMap;
+
+import io.github.acoboh.query.filter.mongodb.annotations.QFDefinitionClass;
+import io.github.acoboh.query.filter.mongodb.annotations.QFElement;
+import io.github.acoboh.query.filter.mongodb.exceptions.QFDateParsingException;
+import io.github.acoboh.query.filter.mongodb.exceptions.definition.QueryFilterDefinitionException;
+import io.github.acoboh.query.filter.mongodb.metrics.QFMetrics;
+import io.github.acoboh.query.filter.mongodb.operations.QFOperationEnum;
+import io.github.acoboh.query.filter.mongodb.processor.match.QFElementMatch;
+
+class QFRelativeDateTests {
+
+	static class EventDocument {
+
+		private Instant date;
+
+		private Instant created;
+
+	}
+
+	@QFDefinitionClass(EventDocument.class)
+	static class EventFilterDef {
+
+		@QFElement(value = "date", defaultValues = "now-7d/d", defaultOperation = QFOperationEnum.GREATER_EQUAL_THAN)
+		private Instant date;
+
+		@QFElement(value = "created", defaultValues = "2024-01-01T00:00:00Z",
+				defaultOperation = QFOperationEnum.GREATER_EQUAL_THAN)
+		private Instant created;
+
+	}
+
+	private static class MutableClock extends Clock {
+
+		private Instant instant = Instant.parse("2024-07-03T10:20:30Z");
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Instant instant() {
+			return instant;
+		}
+
+	}
+
+	private final MutableClock clock = new MutableClock();
+
+	private final QFProcessor<EventFilterDef, EventDocument> processor;
+
+	QFRelativeDateTests() throws QueryFilterDefinitionException {
+		var appContext = new GenericApplicationContext();
+		appContext.registerBean(Clock.class, () -> clock);
+		appContext.refresh();
+		processor = new QFProcessor<>(EventFilterDef.class, EventDocument.class, appContext);
+	}
+
+	private Document document(List<QFSpecificationPart> parts) {
+		List<QFSpecificationPart> copies = parts.stream()
+				.map(part -> part instanceof QFElementMatch match ? match.copyForRequest() : part).toList();
+		var bound = QFFilterShape.evaluate(copies, new LinkedMultiValueMap<>(), null, null, null, QFMetrics.DISABLED);
+		return processor.getFilterShape(bound.parts()).bind(bound.values()).getCriteriaObject();
+	}
+
+	private Object gte(String input) {
+		var document = document(processor.getFilterPlan(input, QFParamType.RHS_COLON).getParts());
+		return document.get("date", Document.class).get("$gte");
+	}
+
+	@Test
+	@DisplayName("Relative dates of the filters are resolved on each request")
+	void testFilters() {
+
+		assertThat(gte("date=gte:now-7d/d")).isEqualTo(Instant.parse("2024-06-26T00:00:00Z"));
+		assertThat(gte("date=gte:now-1h")).isEqualTo(Instant.parse("2024-07-03T09:20:30Z"));
+
+		// Same window until the next day
+		clock.instant = clock.instant.plus(Duration.ofHours(13));
+		assertThat(gte("date=gte:now-7d/d")).isEqualTo(Instant.parse("2024-06-26T00:00:00Z"));
+		assertThat(gte("date=gte:now-1h")).isEqualTo(Instant.parse("2024-07-03T22:20:30Z"));
+
+		clock.instant = clock.instant.plus(Duration.ofHours(1));
+		assertThat(gte("date=gte:now-7d/d")).isEqualTo(Instant.parse("2024-06-27T00:00:00Z"));
+
+		assertThatThrownBy(() -> gte("date=gte:now-7x")).isInstanceOf(QFDateParsingException.class);
+
+	}
+
+	@Test
+	@DisplayName("Relative default values are resolved on each request")
+	void testDefaultValues() {
+
+		var defaults = processor.getDefaultMatches();
+		var relative = defaults.stream().filter(match -> match.getDefinition().getFilterName().equals("date"))
+				.findFirst().orElseThrow();
+		var absolute = defaults.stream().filter(match -> match.getDefinition().getFilterName().equals("created"))
+				.findFirst().orElseThrow();
+
+		assertThat(relative.copyForRequest()).isNotSameAs(relative);
+		assertThat(absolute.copyForRequest()).isSameAs(absolute);
+
+		assertThat(document(List.of(relative)).get("date", Document.class).get("$gte"))
+				.isEqualTo(Instant.parse("2024-06-26T00:00:00Z"));
+
+		clock.instant = Instant.parse("2024-08-01T00:00:00Z");
+		assertThat(document(List.of(relative)).get("date", Document.class).get("$gte"))
+				.isEqualTo(Instant.parse("2024-07-25T00:00:00Z"));
+
+	}
+
+}
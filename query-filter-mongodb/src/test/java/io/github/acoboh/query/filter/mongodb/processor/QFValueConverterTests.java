@@ -0,0 +1,144 @@
+package io.github.acoboh.query.filter.mongodb.processor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.context.ApplicationContext;
+import org.springframework.util.LinkedMultiValueMap;
+
+import io.github.acoboh.query.filter.mongodb.annotations.QFDate;
+import io.github.acoboh.query.filter.mongodb.annotations.QFDefinitionClass;
+import io.github.acoboh.query.filter.mongodb.annotations.QFElement;
+import io.github.acoboh.query.filter.mongodb.exceptions.QFDateParsingException;
+import io.github.acoboh.query.filter.mongodb.exceptions.QFEnumException;
+import io.github.acoboh.query.filter.mongodb.exceptions.QFFieldOperationException;
+import io.github.acoboh.query.filter.mongodb.exceptions.QFParseException;
+import io.github.acoboh.query.filter.mongodb.exceptions.definition.QueryFilterDefinitionException;
+import io.github.acoboh.query.filter.mongodb.metrics.QFMetrics;
+import io.github.acoboh.query.filter.mongodb.model.PostBlogType;
+
+class QFValueConverterTests {
+
+	static class TypedDocument {
+
+		private Long count;
+
+		private BigDecimal amount;
+
+		private Decimal128 decimal;
+
+		private Instant instant;
+
+		private ObjectId reference;
+
+		private PostBlogType type;
+
+	}
+
+	@QFDefinitionClass(TypedDocument.class)
+	static class TypedFilterDef {
+
+		@QFElement("count")
+		private Long count;
+
+		@QFElement("amount")
+		private BigDecimal amount;
+
+		@QFElement("decimal")
+		private Decimal128 decimal;
+
+		@QFElement("instant")
+		private Instant instant;
+
+		@QFElement(value = "instant", name = "instantDate")
+		@QFDate(timeFormat = "yyyy-MM-dd HH:mm", zoneOffset = "Europe/Madrid")
+		private Instant instantDate;
+
+		@QFElement("reference")
+		private ObjectId reference;
+
+		@QFElement("type")
+		private PostBlogType type;
+
+		@QFElement(value = "type", name = "typeIgnoreCase", caseInsensitive = true)
+		private PostBlogType typeIgnoreCase;
+
+	}
+
+	private final QFProcessor<TypedFilterDef, TypedDocument> processor;
+
+	QFValueConverterTests() throws QueryFilterDefinitionException {
+		processor = new QFProcessor<>(TypedFilterDef.class, TypedDocument.class, (ApplicationContext) null);
+	}
+
+	private Document document(String input) {
+		var parts = processor.getFilterPlan(input, QFParamType.RHS_COLON).getParts();
+		var bound = QFFilterShape.evaluate(parts, new LinkedMultiValueMap<>(), null, null, null, QFMetrics.DISABLED);
+		return processor.getFilterShape(bound.parts()).bind(bound.values()).getCriteriaObject();
+	}
+
+	@Test
+	@DisplayName("Values are converted to the class of the field")
+	void testTypedValues() {
+
+		assertThat(document("count=eq:5").get("count")).isEqualTo(5L);
+		assertThat(document("amount=gt:1.50").get("amount", Document.class).get("$gt"))
+				.isEqualTo(new BigDecimal("1.50"));
+		assertThat(document("decimal=lte:2.5").get("decimal", Document.class).get("$lte"))
+				.isEqualTo(Decimal128.parse("2.5"));
+		assertThat(document("instant=gte:2024-01-01T10:00:00Z").get("instant", Document.class).get("$gte"))
+				.isEqualTo(Instant.parse("2024-01-01T10:00:00Z"));
+		assertThat(document("instantDate=eq:2024-07-01 12:00").get("instant"))
+				.isEqualTo(Instant.parse("2024-07-01T10:00:00Z"));
+
+		var id = new ObjectId();
+		assertThat(document("reference=eq:" + id.toHexString()).get("reference")).isEqualTo(id);
+
+	}
+
+	@Test
+	@DisplayName("Enumerations are matched ignoring the case only on case-insensitive elements")
+	void testEnums() {
+
+		assertThat(document("type=eq:VIDEO").get("type")).isEqualTo(PostBlogType.VIDEO);
+		assertThat(document("typeIgnoreCase=eq:video").get("type")).isEqualTo(PostBlogType.VIDEO);
+		assertThat(document("typeIgnoreCase=eq:Article").get("type")).isEqualTo(PostBlogType.ARTICLE);
+
+		assertThatThrownBy(() -> document("type=eq:video")).isInstanceOf(QFEnumException.class);
+		assertThatThrownBy(() -> document("typeIgnoreCase=eq:other")).isInstanceOf(QFEnumException.class);
+
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "count=eq:abc", "count=eq:1.5", "amount=eq:1,x", "decimal=eq:two", "reference=eq:123" })
+	@DisplayName("Invalid values are rejected")
+	void testInvalidValues(String input) {
+		assertThatThrownBy(() -> document(input)).isInstanceOf(QFParseException.class);
+	}
+
+	@Test
+	@DisplayName("Invalid dates are rejected")
+	void testInvalidDates() {
+		assertThatThrownBy(() -> document("instant=eq:2024-01-01")).isInstanceOf(QFDateParsingException.class);
+		assertThatThrownBy(() -> document("instantDate=eq:2024-01-01T10:00:00Z"))
+				.isInstanceOf(QFDateParsingException.class);
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "count=like:1", "reference=starts:a", "instant=ends:Z" })
+	@DisplayName("Regex operations are only allowed on strings")
+	void testOperations(String input) {
+		assertThatThrownBy(() -> document(input)).isInstanceOf(QFFieldOperationException.class);
+	}
+
+}
@@ -0,0 +1,117 @@
+package io.github.acoboh.query.filter.mongodb.spel;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.servlet.View;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+class RequestSpelResolverContextTests {
+
+	static class CountingSpelResolver extends SpelResolverContext {
+
+		private int contexts;
+
+		@Override
+		public ExpressionParser getExpressionParser() {
+			return new SpelExpressionParser();
+		}
+
+		@Override
+		public EvaluationContext getEvaluationContext(HttpServletRequest request, HttpServletResponse response) {
+			contexts++;
+			return new StandardEvaluationContext();
+		}
+
+	}
+
+	private final CountingSpelResolver resolver = new CountingSpelResolver();
+
+	private final MockHttpServletRequest request = new MockHttpServletRequest();
+
+	private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+	RequestSpelResolverContextTests() {
+		request.addParameter("single", "a");
+		request.addParameter("multiple", "b", "c");
+		request.setAttribute(View.PATH_VARIABLES, Map.of("id", "1"));
+	}
+
+	@Test
+	@DisplayName("Evaluation context is created once for all the expressions")
+	void testSharedContext() {
+
+		var requestResolver = resolver.forRequest(request, response);
+		MultiValueMap<String, Object> contextValues = new LinkedMultiValueMap<>();
+
+		assertThat(requestResolver.evaluate("#_parameters['single']", contextValues, request, response, false))
+				.isEqualTo("a");
+		assertThat(requestResolver.evaluate("#_parameters['multiple']", contextValues, request, response, false))
+				.isEqualTo(new String[] { "b", "c" });
+		assertThat(requestResolver.evaluate("#_pathVariables['id']", contextValues, request, response, false))
+				.isEqualTo("1");
+		assertThat(resolver.contexts).isEqualTo(1);
+
+		// Same results without the shared context
+		assertThat(resolver.evaluate("#_parameters['single']", contextValues, request, response, false))
+				.isEqualTo("a");
+		assertThat(resolver.evaluate("#_parameters['multiple']", contextValues, request, response, false))
+				.isEqualTo(new String[] { "b", "c" });
+		assertThat(resolver.contexts).isEqualTo(3);
+
+		assertThat(requestResolver.forRequest(request, response)).isSameAs(requestResolver);
+		assertThat(requestResolver.getExpressionCache()).isSameAs(resolver.getExpressionCache());
+
+	}
+
+	@Test
+	@DisplayName("New context values are added to the shared context")
+	void testContextValues() {
+
+		var requestResolver = resolver.forRequest(request, response);
+		MultiValueMap<String, Object> contextValues = new LinkedMultiValueMap<>();
+
+		contextValues.add("likes", 5);
+		assertThat(requestResolver.evaluate("#likes", contextValues, request, response, false)).isEqualTo(5);
+
+		contextValues.add("likes", 6);
+		contextValues.add("title", "text");
+		assertThat(requestResolver.evaluate("#likes", contextValues, request, response, false))
+				.isEqualTo(List.of(5, 6));
+		assertThat(requestResolver.evaluate("#title", contextValues, request, response, false)).isEqualTo("text");
+
+		assertThat(resolver.contexts).isEqualTo(1);
+
+	}
+
+	@Test
+	@DisplayName("Other requests are evaluated by the original resolver")
+	void testOtherRequest() {
+
+		var requestResolver = resolver.forRequest(request, response);
+		var other = new MockHttpServletRequest();
+		other.addParameter("single", "other");
+
+		assertThat(requestResolver.evaluate("#_parameters['single']", new LinkedMultiValueMap<>(), other, response,
+				false)).isEqualTo("other");
+		assertThat(requestResolver.evaluate("#_parameters['single']", new LinkedMultiValueMap<>(), request, response,
+				false)).isEqualTo("a");
+		assertThat(resolver.contexts).isEqualTo(2);
+
+	}
+
+}
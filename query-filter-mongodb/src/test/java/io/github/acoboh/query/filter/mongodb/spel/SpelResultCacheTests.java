@@ -0,0 +1,232 @@
+package io.github.acoboh.query.filter.mongodb.spel;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.servlet.View;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+class SpelResultCacheTests {
+
+	private static class MutableClock extends Clock {
+
+		private Instant instant = Instant.parse("2024-07-03T10:20:30Z");
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Instant instant() {
+			return instant;
+		}
+
+	}
+
+	// Each evaluation increments the counter
+	private static class CountingSpelResolver extends SpelResolverContext {
+
+		private final AtomicInteger counter = new AtomicInteger();
+
+		@Override
+		public ExpressionParser getExpressionParser() {
+			return new SpelExpressionParser();
+		}
+
+		@Override
+		public EvaluationContext getEvaluationContext(HttpServletRequest request, HttpServletResponse response) {
+			var ret = new StandardEvaluationContext();
+			ret.setVariable("counter", counter);
+			return ret;
+		}
+
+	}
+
+	private final MutableClock clock = new MutableClock();
+
+	private final SpelResultCache cache = new SpelResultCache(1000, 16, clock);
+
+	private final Map<String, Object> requestValues = new HashMap<>();
+
+	private final MultiValueMap<String, Object> contextValues = new LinkedMultiValueMap<>();
+
+	private final AtomicInteger evaluations = new AtomicInteger();
+
+	private Object getValue(String key, String expression) {
+		return cache.getValue(key, expression, () -> requestValues, contextValues, evaluations::incrementAndGet);
+	}
+
+	@Test
+	@DisplayName("Results are cached until they expire")
+	void testExpiration() {
+
+		assertThat(getValue("user", "#value")).isEqualTo(1);
+		assertThat(getValue("user", "#value")).isEqualTo(1);
+
+		clock.instant = clock.instant.plusMillis(999);
+		assertThat(getValue("user", "#value")).isEqualTo(1);
+
+		clock.instant = clock.instant.plusMillis(1);
+		assertThat(getValue("user", "#value")).isEqualTo(2);
+		assertThat(getValue("user", "#value")).isEqualTo(2);
+
+		assertThat(cache.getTtlMillis()).isEqualTo(1000);
+		assertThat(cache.getStats().size()).isEqualTo(1);
+
+		// Expired results are misses
+		assertThat(cache.getStats().hits()).isEqualTo(3);
+		assertThat(cache.getStats().misses()).isEqualTo(2);
+
+	}
+
+	@Test
+	@DisplayName("Results are cached by key, expression and context values")
+	void testKeys() {
+
+		assertThat(getValue("user", "#value")).isEqualTo(1);
+		assertThat(getValue("other", "#value")).isEqualTo(2);
+		assertThat(getValue("user", "#other")).isEqualTo(3);
+
+		contextValues.add("likes", 1);
+		assertThat(getValue("user", "#value")).isEqualTo(4);
+		contextValues.add("likes", 2);
+		assertThat(getValue("user", "#value")).isEqualTo(5);
+
+		// Changes of the context do not change the cached keys
+		contextValues.clear();
+		assertThat(getValue("user", "#value")).isEqualTo(1);
+
+		// Request values are only part of the key of the expressions that use them
+		requestValues.put("_parameters", Map.of("id", "1", "page", "1"));
+		assertThat(getValue("user", "#value")).isEqualTo(1);
+		assertThat(getValue("user", "#_parameters['id']")).isEqualTo(6);
+		requestValues.put("_parameters", Map.of("id", "2", "page", "1"));
+		assertThat(getValue("user", "#value")).isEqualTo(1);
+		assertThat(getValue("user", "#_parameters['id']")).isEqualTo(7);
+
+		// Multiple values are compared by content
+		requestValues.put("_parameters", Map.of("id", new String[] { "1", "2" }));
+		assertThat(getValue("user", "#_parameters['id']")).isEqualTo(8);
+		requestValues.put("_parameters", Map.of("id", new String[] { "1", "2" }));
+		assertThat(getValue("user", "#_parameters['id']")).isEqualTo(8);
+
+	}
+
+	@Test
+	@DisplayName("Null results and failed evaluations are not cached")
+	void testNullAndErrors() {
+
+		assertThat(cache.getValue("user", "#value", () -> requestValues, contextValues, () -> {
+			evaluations.incrementAndGet();
+			return null;
+		})).isNull();
+		assertThat(getValue("user", "#value")).isEqualTo(2);
+
+		assertThatThrownBy(() -> cache.getValue("user", "#error", () -> requestValues, contextValues, () -> {
+			throw new IllegalStateException();
+		})).isInstanceOf(IllegalStateException.class);
+		assertThat(getValue("user", "#error")).isEqualTo(3);
+
+	}
+
+	@Test
+	@DisplayName("Resolvers cache the results by principal name")
+	void testResolver() {
+
+		var resolver = new CountingSpelResolver();
+
+		var first = new MockHttpServletRequest();
+		first.setUserPrincipal(() -> "first");
+		var second = new MockHttpServletRequest();
+		second.setUserPrincipal(() -> "second");
+
+		String expression = "#counter.incrementAndGet()";
+		assertThat(resolver.evaluate(expression, contextValues, first, null, false, cache)).isEqualTo(1);
+		assertThat(resolver.evaluate(expression, contextValues, first, null, false, cache)).isEqualTo(1);
+		assertThat(resolver.evaluate(expression, contextValues, second, null, false, cache)).isEqualTo(2);
+
+		// Anonymous requests are not cached
+		var anonymous = new MockHttpServletRequest();
+		assertThat(resolver.evaluate(expression, contextValues, anonymous, null, false, cache)).isEqualTo(3);
+		assertThat(resolver.evaluate(expression, contextValues, anonymous, null, false, cache)).isEqualTo(4);
+		assertThat(resolver.evaluate(expression, contextValues, null, null, false, cache)).isEqualTo(5);
+
+		// Without cache, always evaluated
+		assertThat(resolver.evaluate(expression, contextValues, first, null, false, null)).isEqualTo(6);
+
+	}
+
+	@Test
+	@DisplayName("Resolvers cache the results by the query parameters and path variables they use")
+	void testRequestValues() {
+
+		var resolver = new CountingSpelResolver();
+
+		String expression = "#_parameters['id'] + #_pathVariables['collection'] + #counter.incrementAndGet()";
+		assertThat(resolver.evaluate(expression, contextValues, request("1", "posts"), null, false, cache))
+				.isEqualTo("1posts1");
+		assertThat(resolver.evaluate(expression, contextValues, request("1", "posts"), null, false, cache))
+				.isEqualTo("1posts1");
+		assertThat(resolver.evaluate(expression, contextValues, request("22", "posts"), null, false, cache))
+				.isEqualTo("22posts2");
+		assertThat(resolver.evaluate(expression, contextValues, request("1", "blogs"), null, false, cache))
+				.isEqualTo("1blogs3");
+
+		// Expressions without request values are cached for any request
+		expression = "#counter.incrementAndGet()";
+		assertThat(resolver.evaluate(expression, contextValues, request("1", "posts"), null, false, cache))
+				.isEqualTo(4);
+		assertThat(resolver.evaluate(expression, contextValues, request("22", "blogs"), null, false, cache))
+				.isEqualTo(4);
+
+	}
+
+	@Test
+	@DisplayName("Failed evaluations with null on error are not cached")
+	void testNullOnError() {
+
+		var resolver = new CountingSpelResolver();
+
+		String failing = "#counter.incrementAndGet() > 0 ? #missing.value : null";
+		assertThat(resolver.evaluate(failing, contextValues, request("1", "posts"), null, true, cache)).isNull();
+		assertThat(resolver.evaluate(failing, contextValues, request("1", "posts"), null, true, cache)).isNull();
+
+		assertThat(resolver.evaluate("#counter.get()", contextValues, request("1", "posts"), null, false, cache))
+				.isEqualTo(2);
+
+	}
+
+	private static MockHttpServletRequest request(String id, String collection) {
+		var ret = new MockHttpServletRequest();
+		ret.setUserPrincipal(() -> "user");
+		ret.setParameter("id", id);
+		ret.setAttribute(View.PATH_VARIABLES, Map.of("collection", collection));
+		return ret;
+	}
+
+}
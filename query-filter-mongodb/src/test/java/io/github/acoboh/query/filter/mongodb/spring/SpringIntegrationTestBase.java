@@ -19,6 +19,7 @@ import com.mongodb.client.MongoClients;
 import io.github.acoboh.query.filter.mongodb.annotations.EnableQueryFilter;
 import io.github.acoboh.query.filter.mongodb.config.QueryFilterAutoconfigure;
 import io.github.acoboh.query.filter.mongodb.domain.BasicDocumentFilterDef;
+import io.github.acoboh.query.filter.mongodb.model.PostBlogDocument;
 import io.github.acoboh.query.filter.mongodb.model.TextDocument;
 import io.github.acoboh.query.filter.mongodb.repositories.PostBlogDocumentRepository;
 
@@ -61,4 +62,21 @@ public class SpringIntegrationTestBase {
 
 	}
 
+	/**
+	 * Create a post blog document of the tests, with the content of its id
+	 *
+	 * @param id    id of the document
+	 * @param title title of the document
+	 * @param likes likes of the document
+	 * @return new document
+	 */
+	public static PostBlogDocument postBlogDocument(String id, String title, int likes) {
+		var ret = new PostBlogDocument();
+		ret.setId(id);
+		ret.setTitle(title);
+		ret.setContent("Content " + id);
+		ret.setLikes(likes);
+		return ret;
+	}
+
 }
@@ -0,0 +1,215 @@
+package io.github.acoboh.query.filter.mongodb.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import io.github.acoboh.query.filter.mongodb.annotations.QFDate;
+
+class DateParserTests {
+
+	@SuppressWarnings("unused")
+	private static class Dates {
+
+		@QFDate(timeFormat = "dd/MM/yyyy HH:mm", zoneOffset = "Europe/Madrid")
+		private Object madrid;
+
+		@QFDate(timeFormat = "yyyy-MM-dd")
+		private Object date;
+
+		@QFDate(timeFormat = "yyyyMMddHHmmss")
+		private Object digits;
+
+		@QFDate(timeFormat = "yyyy-MM-dd'T'HH:mm:ss.SSSXXX")
+		private Object offset;
+
+	}
+
+	private static QFDate annotation(String field) throws NoSuchFieldException {
+		return Dates.class.getDeclaredField(field).getAnnotation(QFDate.class);
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "2024-01-01T10:20:30Z", "1999-12-31T23:59:59Z", "2024-02-29T00:00:00Z",
+			"2023-02-29T00:00:00Z", "2024-04-31T00:00:00Z", "2024-01-01T24:00:00Z", "2024-01-01T10:20:60Z",
+			"2024-13-01T00:00:00Z", "2024-01-01T10:20:30", "2024-01-01 10:20:30Z", "0000-01-01T00:00:00Z",
+			"2024-01-0aT00:00:00Z", "12024-01-01T00:00:00Z" })
+	@DisplayName("Fast path returns the same values as the formatter")
+	void testSameAsFormatter(String value) {
+
+		var parser = DateParser.of(null, LocalDateTime.class);
+		var formatter = DateTimeFormatter.ofPattern(QFDate.DEFAULT_DATE_FORMAT);
+
+		Object expected;
+		try {
+			expected = LocalDateTime.parse(value, formatter);
+		} catch (DateTimeParseException e) {
+			assertThatThrownBy(() -> parser.parse(value)).isInstanceOf(DateTimeParseException.class);
+			return;
+		}
+
+		assertThat(parser.parse(value)).isEqualTo(expected);
+	}
+
+	@Test
+	@DisplayName("Default format on all the date classes")
+	void testClasses() {
+
+		String value = "2024-07-01T10:20:30Z";
+		var dt = LocalDateTime.of(2024, 7, 1, 10, 20, 30);
+		var instant = dt.toInstant(ZoneOffset.UTC);
+
+		assertThat(DateParser.of(null, LocalDateTime.class).parse(value)).isEqualTo(dt);
+		assertThat(DateParser.of(null, LocalDate.class).parse(value)).isEqualTo(dt.toLocalDate());
+		assertThat(DateParser.of(null, Timestamp.class).parse(value)).isEqualTo(Timestamp.valueOf(dt));
+		assertThat(DateParser.of(null, java.sql.Date.class).parse(value))
+				.isEqualTo(java.sql.Date.valueOf(dt.toLocalDate()));
+		assertThat(DateParser.of(null, Date.class).parse(value)).isEqualTo(Date.from(instant));
+		assertThat(DateParser.of(null, ZonedDateTime.class).parse(value)).isEqualTo(dt.atZone(ZoneId.of("UTC")));
+		assertThat(DateParser.of(null, String.class)).isNull();
+
+	}
+
+	@Test
+	@DisplayName("Zone of the annotation is applied")
+	void testZone() throws NoSuchFieldException {
+
+		var madrid = annotation("madrid");
+		var instant = Instant.parse("2024-07-01T08:30:00Z");
+
+		assertThat(DateUtils.getFormatter(madrid).getZone()).isEqualTo(ZoneId.of("Europe/Madrid"));
+		assertThat(DateUtils.getFormatter(null).getZone()).isEqualTo(ZoneId.of(QFDate.DEFAULT_ZONEOFFSET));
+
+		assertThat(DateParser.of(madrid, Instant.class).parse("01/07/2024 10:30")).isEqualTo(instant);
+		assertThat(DateParser.of(madrid, Date.class).parse("01/07/2024 10:30")).isEqualTo(Date.from(instant));
+		assertThat(DateParser.of(madrid, OffsetDateTime.class).parse("01/07/2024 10:30"))
+				.isEqualTo(OffsetDateTime.of(2024, 7, 1, 10, 30, 0, 0, ZoneOffset.ofHours(2)));
+		assertThat(DateParser.of(madrid, LocalDateTime.class).parse("01/07/2024 10:30"))
+				.isEqualTo(LocalDateTime.of(2024, 7, 1, 10, 30));
+
+		// Offsets of the values are used by instants, local date times keep the fields
+		var offset = annotation("offset");
+		assertThat(DateParser.of(offset, Instant.class).parse("2024-07-01T10:30:00.000+02:00")).isEqualTo(instant);
+		assertThat(DateParser.of(offset, LocalDateTime.class).parse("2024-07-01T10:30:00.000+02:00"))
+				.isEqualTo(LocalDateTime.of(2024, 7, 1, 10, 30));
+
+	}
+
+	@Test
+	@DisplayName("Instants and offset date times are ISO-8601 by default")
+	void testIso() {
+
+		var instant = DateParser.of(null, Instant.class);
+		assertThat(instant.getFormat()).isEqualTo(DateParser.ISO_FORMAT);
+		assertThat(instant.parse("2024-01-01T10:00:00Z")).isEqualTo(Instant.parse("2024-01-01T10:00:00Z"));
+		assertThat(instant.parse("2024-01-01T10:00:00.25+02:00")).isEqualTo(Instant.parse("2024-01-01T08:00:00.250Z"));
+		assertThat(instant.parse("2024-01-01T10:00:00.123456789-01:30"))
+				.isEqualTo(Instant.parse("2024-01-01T11:30:00.123456789Z"));
+
+		// Formatter path
+		assertThat(instant.parse("2024-01-01T10:00Z")).isEqualTo(Instant.parse("2024-01-01T10:00:00Z"));
+		assertThat(instant.parse("2024-01-01t10:00:00z")).isEqualTo(Instant.parse("2024-01-01T10:00:00Z"));
+
+		var offset = DateParser.of(null, OffsetDateTime.class);
+		assertThat(offset.parse("2024-01-01T10:00:00+02:00"))
+				.isEqualTo(OffsetDateTime.of(2024, 1, 1, 10, 0, 0, 0, ZoneOffset.ofHours(2)));
+
+		assertThatThrownBy(() -> instant.parse("2024-01-01T10:00:00")).isInstanceOf(DateTimeParseException.class);
+		assertThatThrownBy(() -> instant.parse("2024-01-01T10:00:00+19:00"))
+				.isInstanceOf(DateTimeParseException.class);
+
+	}
+
+	@Test
+	@DisplayName("Epoch milliseconds are accepted if the format has separators")
+	void testEpochMillis() throws NoSuchFieldException {
+
+		var instant = Instant.parse("2024-01-01T10:00:00Z");
+		String millis = String.valueOf(instant.toEpochMilli());
+
+		assertThat(DateParser.of(null, Instant.class).parse(millis)).isEqualTo(instant);
+		assertThat(DateParser.of(null, Date.class).parse(millis)).isEqualTo(Date.from(instant));
+		assertThat(DateParser.of(null, LocalDateTime.class).parse(millis))
+				.isEqualTo(LocalDateTime.of(2024, 1, 1, 10, 0));
+		assertThat(DateParser.of(annotation("madrid"), LocalDateTime.class).parse(millis))
+				.isEqualTo(LocalDateTime.of(2024, 1, 1, 11, 0));
+
+		// Digits are parsed with the pattern
+		var digits = DateParser.of(annotation("digits"), LocalDateTime.class);
+		assertThat(digits.parse("20240101100000")).isEqualTo(LocalDateTime.of(2024, 1, 1, 10, 0));
+		assertThatThrownBy(() -> digits.parse(millis)).isInstanceOf(DateTimeParseException.class);
+
+	}
+
+	@Test
+	@DisplayName("Date only patterns")
+	void testDateOnly() throws NoSuchFieldException {
+
+		var date = annotation("date");
+		assertThat(DateParser.of(date, LocalDate.class).parse("2024-02-29")).isEqualTo(LocalDate.of(2024, 2, 29));
+		assertThat(DateParser.of(date, java.sql.Date.class).parse("2024-02-29"))
+				.isEqualTo(java.sql.Date.valueOf(LocalDate.of(2024, 2, 29)));
+		assertThatThrownBy(() -> DateParser.of(date, LocalDateTime.class).parse("2024-02-29"))
+				.isInstanceOf(DateTimeParseException.class);
+
+	}
+
+	@Test
+	@DisplayName("Relative dates are resolved with the clock")
+	void testRelative() throws NoSuchFieldException {
+
+		// Wednesday
+		var clock = Clock.fixed(Instant.parse("2024-07-03T10:20:30Z"), ZoneOffset.UTC);
+		var parser = DateParser.of(null, Instant.class, clock);
+
+		assertThat(parser.parse("now")).isEqualTo(clock.instant());
+		assertThat(parser.parse("now-7d/d")).isEqualTo(Instant.parse("2024-06-26T00:00:00Z"));
+		assertThat(parser.parse("now+1h")).isEqualTo(Instant.parse("2024-07-03T11:20:30Z"));
+		assertThat(parser.parse("now 1h")).isEqualTo(Instant.parse("2024-07-03T11:20:30Z"));
+		assertThat(parser.parse("now/h-30m")).isEqualTo(Instant.parse("2024-07-03T09:30:00Z"));
+		assertThat(parser.parse("now/w")).isEqualTo(Instant.parse("2024-07-01T00:00:00Z"));
+		assertThat(parser.parse("now/M")).isEqualTo(Instant.parse("2024-07-01T00:00:00Z"));
+		assertThat(parser.parse("now-1y/y")).isEqualTo(Instant.parse("2023-01-01T00:00:00Z"));
+
+		// Rounded values are the same during all the bucket
+		var endOfDay = Clock.fixed(Instant.parse("2024-07-03T23:59:59Z"), ZoneOffset.UTC);
+		var later = DateParser.of(null, Instant.class, endOfDay);
+		assertThat(later.parse("now-7d/d")).isEqualTo(parser.parse("now-7d/d"));
+
+		// Days start on the zone of the annotation
+		var madrid = annotation("madrid");
+		assertThat(DateParser.of(madrid, Instant.class, clock).parse("now/d"))
+				.isEqualTo(Instant.parse("2024-07-02T22:00:00Z"));
+		assertThat(DateParser.of(madrid, LocalDateTime.class, clock).parse("now/d"))
+				.isEqualTo(LocalDateTime.of(2024, 7, 3, 0, 0));
+		assertThat(DateParser.of(annotation("date"), LocalDate.class, clock).parse("now-1M"))
+				.isEqualTo(LocalDate.of(2024, 6, 3));
+
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "now-", "now-7", "now-7x", "now*1d", "nowd", "now/", "now-1234567d", "now+d" })
+	@DisplayName("Invalid relative dates are rejected")
+	void testInvalidRelative(String value) {
+		var parser = DateParser.of(null, Instant.class);
+		assertThatThrownBy(() -> parser.parse(value)).isInstanceOf(DateTimeParseException.class);
+	}
+
+}